@@ -0,0 +1,482 @@
+package net.ripe.db.whois.api.autocomplete;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.api.freetext.FreeTextIndex;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectOperations;
+import net.ripe.db.whois.common.dao.jdbc.JdbcStreamingHelper;
+import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
+import net.ripe.db.whois.common.domain.Identifiable;
+import net.ripe.db.whois.common.domain.serials.SerialEntry;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectTemplate;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.apache.commons.lang.StringUtils;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.CheckForNull;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory index of the key lookup attribute (e.g. nic-hdl for person and role) of the configured object types,
+ * answering autocomplete prefix lookups without going through the free text index.
+ *
+ * Attribute values are split into the same terms as in the free text index. The terms of every object type are kept
+ * in a sorted array, together with a tree holding the smallest lookup key of every range of terms, so the first
+ * results in lookup key order are found without visiting every term with the prefix.
+ *
+ * The index is built from the database on the first scheduled update, and follows the serials from then on. It is
+ * disabled unless autocomplete.index.types is set to the (comma separated) object types to index.
+ */
+@Component
+public class AutocompleteIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    private static final Splitter COMMA_SPLITTER = Splitter.on(',').omitEmptyStrings().trimResults();
+
+    private static final Comparator<Entry> LOOKUP_KEY_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry entry1, final Entry entry2) {
+            final int result = entry1.lookupKey.compareTo(entry2.lookupKey);
+            return result != 0 ? result : Integer.compare(entry1.objectId, entry2.objectId);
+        }
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<ObjectType, AttributeType> indexedAttributes = Maps.newEnumMap(ObjectType.class);
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public AutocompleteIndex(
+            @Qualifier("whoisSlaveDataSource") final DataSource dataSource,
+            @Value("${autocomplete.index.types:}") final String objectTypes) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+
+        for (final String objectType : COMMA_SPLITTER.split(objectTypes)) {
+            final ObjectType type = ObjectType.getByName(objectType);
+            indexedAttributes.put(type, ObjectTemplate.getTemplate(type).getKeyLookupAttribute());
+        }
+    }
+
+    public boolean isEnabled() {
+        return !indexedAttributes.isEmpty();
+    }
+
+    /**
+     * Find the objects with a term starting with the query string in any of the query attributes, in lookup key order.
+     *
+     * @param objectTypes the object types to search, or all if empty
+     * @return the matching objects, or null if the query can not be answered from this index
+     */
+    @CheckForNull
+    public List<Entry> search(final String queryString, final Set<AttributeType> queryAttributes, final Set<ObjectType> objectTypes, final int maxResults) {
+        final Snapshot snapshot = this.snapshot;
+        if (snapshot == null || queryString.isEmpty() || CharMatcher.WHITESPACE.matchesAnyOf(queryString)) {
+            return null;
+        }
+
+        final List<Terms> searchedTerms = Lists.newArrayList();
+        for (final ObjectType objectType : objectTypes.isEmpty() ? ObjectType.values() : objectTypes.toArray(new ObjectType[objectTypes.size()])) {
+            for (final AttributeType queryAttribute : queryAttributes) {
+                if (!ObjectTemplate.getTemplate(objectType).hasAttribute(queryAttribute)) {
+                    continue;
+                }
+
+                if (indexedAttributes.get(objectType) != queryAttribute) {
+                    return null;
+                }
+
+                searchedTerms.add(snapshot.terms.get(objectType));
+            }
+        }
+
+        return search(searchedTerms, queryString.toLowerCase(), maxResults);
+    }
+
+    private static List<Entry> search(final List<Terms> searchedTerms, final String prefix, final int maxResults) {
+        final PriorityQueue<Range> ranges = new PriorityQueue<>();
+        for (final Terms terms : searchedTerms) {
+            final int from = terms.firstWithPrefix(prefix);
+            terms.addRange(ranges, from, terms.endOfPrefix(prefix, from));
+        }
+
+        final List<Entry> results = Lists.newArrayListWithCapacity(maxResults);
+        final Set<Integer> objectIds = Sets.newHashSet();
+        while (results.size() < maxResults && !ranges.isEmpty()) {
+            final Range range = ranges.poll();
+            final Entry entry = range.getSmallest();
+            if (objectIds.add(entry.objectId)) {
+                results.add(entry);
+            }
+
+            range.terms.addRange(ranges, range.from, range.smallest);
+            range.terms.addRange(ranges, range.smallest + 1, range.to);
+        }
+
+        return results;
+    }
+
+    @Scheduled(fixedDelayString = "${autocomplete.index.update.interval.msecs:60000}")
+    public void scheduledUpdate() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            if (snapshot == null) {
+                rebuild();
+            } else {
+                update();
+            }
+        } catch (DataAccessException e) {
+            LOGGER.warn("Unable to update autocomplete index due to {}: {}", e.getClass(), e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final int serial = JdbcRpslObjectOperations.getSerials(jdbcTemplate).getEnd();
+
+        final Map<ObjectType, List<Term>> terms = Maps.newEnumMap(ObjectType.class);
+        for (final ObjectType objectType : indexedAttributes.keySet()) {
+            terms.put(objectType, Lists.<Term>newArrayList());
+        }
+
+        final List<Integer> objectTypeIds = Lists.newArrayList();
+        for (final ObjectType objectType : indexedAttributes.keySet()) {
+            objectTypeIds.add(ObjectTypeIds.getId(objectType));
+        }
+
+        JdbcStreamingHelper.executeStreaming(jdbcTemplate, "" +
+                        "SELECT object_id, object " +
+                        "FROM last " +
+                        "WHERE sequence_id != 0 " +
+                        "AND object_type IN (" + StringUtils.join(objectTypeIds, ',') + ")",
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(final ResultSet rs) throws SQLException {
+                        final RpslObject rpslObject;
+                        try {
+                            rpslObject = RpslObject.parse(rs.getInt(1), rs.getBytes(2));
+                        } catch (RuntimeException e) {
+                            LOGGER.warn("Unable to parse object with id: {}", rs.getInt(1), e);
+                            return;
+                        }
+
+                        addTerms(terms.get(rpslObject.getType()), rpslObject);
+                    }
+                });
+
+        final Map<ObjectType, Terms> snapshotTerms = Maps.newEnumMap(ObjectType.class);
+        int size = 0;
+        for (final Map.Entry<ObjectType, List<Term>> entry : terms.entrySet()) {
+            Collections.sort(entry.getValue());
+            snapshotTerms.put(entry.getKey(), new Terms(entry.getValue()));
+            size += entry.getValue().size();
+        }
+
+        snapshot = new Snapshot(serial, snapshotTerms);
+        LOGGER.info("Rebuilt autocomplete index with {} terms up to serial {} in {}", size, serial, stopwatch.stop());
+    }
+
+    public synchronized void update() {
+        if (snapshot == null) {
+            rebuild();
+            return;
+        }
+
+        final int end = JdbcRpslObjectOperations.getSerials(jdbcTemplate).getEnd();
+        final int last = snapshot.serial;
+
+        if (last > end) {
+            LOGGER.warn("Autocomplete index serial ({}) higher than database serial ({}), rebuilding", last, end);
+            rebuild();
+            return;
+        }
+
+        if (last == end) {
+            return;
+        }
+
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+
+        // the latest version of every changed object, or null if it was deleted
+        final Map<Integer, RpslObject> changedObjects = Maps.newHashMap();
+        final Set<ObjectType> changedTypes = Sets.newEnumSet(Collections.<ObjectType>emptySet(), ObjectType.class);
+
+        for (int serial = last + 1; serial <= end; serial++) {
+            final SerialEntry serialEntry = JdbcRpslObjectOperations.getSerialEntry(jdbcTemplate, serial);
+            if (serialEntry == null || !indexedAttributes.containsKey(serialEntry.getRpslObject().getType())) {
+                continue;
+            }
+
+            final RpslObject rpslObject = serialEntry.getRpslObject();
+            switch (serialEntry.getOperation()) {
+                case UPDATE:
+                    changedObjects.put(rpslObject.getObjectId(), rpslObject);
+                    break;
+                case DELETE:
+                    changedObjects.put(rpslObject.getObjectId(), null);
+                    break;
+            }
+            changedTypes.add(rpslObject.getType());
+        }
+
+        final Map<ObjectType, Terms> snapshotTerms = new EnumMap<>(snapshot.terms);
+        for (final ObjectType objectType : changedTypes) {
+            final List<Term> addedTerms = Lists.newArrayList();
+            for (final RpslObject rpslObject : changedObjects.values()) {
+                if (rpslObject != null && rpslObject.getType() == objectType) {
+                    addTerms(addedTerms, rpslObject);
+                }
+            }
+
+            Collections.sort(addedTerms);
+            snapshotTerms.put(objectType, snapshot.terms.get(objectType).merge(changedObjects.keySet(), addedTerms));
+        }
+
+        snapshot = new Snapshot(end, snapshotTerms);
+        LOGGER.debug("Updated autocomplete index from {} to {} in {}", last, end, stopwatch.stop());
+    }
+
+    private void addTerms(final List<Term> terms, final RpslObject rpslObject) {
+        final AttributeType attributeType = indexedAttributes.get(rpslObject.getType());
+        final Entry entry = new Entry(rpslObject.getObjectId(), rpslObject.getType(), rpslObject.getKey().toString());
+
+        for (final RpslAttribute attribute : rpslObject.findAttributes(attributeType)) {
+            final String value = FreeTextIndex.getStoredValue(attribute);
+            if (value == null) {
+                continue;
+            }
+
+            try (final TokenStream tokenStream = FreeTextIndex.INDEX_ANALYZER.tokenStream(attribute.getKey(), value)) {
+                final CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+                tokenStream.reset();
+                while (tokenStream.incrementToken()) {
+                    terms.add(new Term(charTermAttribute.toString(), entry));
+                }
+                tokenStream.end();
+            } catch (IOException e) {
+                throw new IllegalStateException("Tokenizing " + value, e);
+            }
+        }
+    }
+
+    public static final class Entry implements Identifiable {
+        private final int objectId;
+        private final ObjectType objectType;
+        private final String lookupKey;
+
+        private Entry(final int objectId, final ObjectType objectType, final String lookupKey) {
+            this.objectId = objectId;
+            this.objectType = objectType;
+            this.lookupKey = lookupKey;
+        }
+
+        @Override
+        public int getObjectId() {
+            return objectId;
+        }
+
+        public ObjectType getObjectType() {
+            return objectType;
+        }
+
+        public String getLookupKey() {
+            return lookupKey;
+        }
+    }
+
+    private static final class Term implements Comparable<Term> {
+        private final String term;
+        private final Entry entry;
+
+        private Term(final String term, final Entry entry) {
+            this.term = term;
+            this.entry = entry;
+        }
+
+        @Override
+        public int compareTo(final Term other) {
+            return term.compareTo(other.term);
+        }
+    }
+
+    private static final class Snapshot {
+        private final int serial;
+        private final Map<ObjectType, Terms> terms;
+
+        private Snapshot(final int serial, final Map<ObjectType, Terms> terms) {
+            this.serial = serial;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * The sorted terms of one object type, with a segment tree holding the position of the entry with the smallest
+     * lookup key in every range of terms.
+     */
+    private static final class Terms {
+        private final String[] terms;
+        private final Entry[] entries;
+        private final int[] smallest;
+
+        private Terms(final List<Term> sortedTerms) {
+            final int size = sortedTerms.size();
+            terms = new String[size];
+            entries = new Entry[size];
+            for (int i = 0; i < size; i++) {
+                terms[i] = sortedTerms.get(i).term;
+                entries[i] = sortedTerms.get(i).entry;
+            }
+
+            smallest = new int[2 * size];
+            for (int i = 0; i < size; i++) {
+                smallest[size + i] = i;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                smallest[node] = smaller(smallest[2 * node], smallest[2 * node + 1]);
+            }
+        }
+
+        private int smaller(final int position1, final int position2) {
+            if (position1 < 0) {
+                return position2;
+            }
+            if (position2 < 0) {
+                return position1;
+            }
+            return LOOKUP_KEY_ORDER.compare(entries[position1], entries[position2]) <= 0 ? position1 : position2;
+        }
+
+        // position of the entry with the smallest lookup key in [from, to)
+        private int findSmallest(final int from, final int to) {
+            int result = -1;
+            for (int left = from + terms.length, right = to + terms.length; left < right; left >>= 1, right >>= 1) {
+                if ((left & 1) == 1) {
+                    result = smaller(result, smallest[left++]);
+                }
+                if ((right & 1) == 1) {
+                    result = smaller(result, smallest[--right]);
+                }
+            }
+            return result;
+        }
+
+        private void addRange(final PriorityQueue<Range> ranges, final int from, final int to) {
+            if (from < to) {
+                ranges.add(new Range(this, from, to, findSmallest(from, to)));
+            }
+        }
+
+        private int firstWithPrefix(final String prefix) {
+            int low = 0;
+            int high = terms.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (terms[middle].compareTo(prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // terms from the first with the prefix onwards start with the prefix, up to the returned position
+        private int endOfPrefix(final String prefix, final int from) {
+            int low = from;
+            int high = terms.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (terms[middle].startsWith(prefix)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return these terms without the terms of the removed objects, merged with the added (sorted) terms
+         */
+        private Terms merge(final Set<Integer> removedObjectIds, final List<Term> addedTerms) {
+            final List<Term> result = Lists.newArrayListWithCapacity(terms.length + addedTerms.size());
+
+            int added = 0;
+            for (int i = 0; i < terms.length; i++) {
+                if (removedObjectIds.contains(entries[i].objectId)) {
+                    continue;
+                }
+
+                while (added < addedTerms.size() && addedTerms.get(added).term.compareTo(terms[i]) < 0) {
+                    result.add(addedTerms.get(added++));
+                }
+
+                result.add(new Term(terms[i], entries[i]));
+            }
+
+            while (added < addedTerms.size()) {
+                result.add(addedTerms.get(added++));
+            }
+
+            return new Terms(result);
+        }
+    }
+
+    private static final class Range implements Comparable<Range> {
+        private final Terms terms;
+        private final int from;
+        private final int to;
+        private final int smallest;
+
+        private Range(final Terms terms, final int from, final int to, final int smallest) {
+            this.terms = terms;
+            this.from = from;
+            this.to = to;
+            this.smallest = smallest;
+        }
+
+        private Entry getSmallest() {
+            return terms.entries[smallest];
+        }
+
+        @Override
+        public int compareTo(final Range other) {
+            return LOOKUP_KEY_ORDER.compare(getSmallest(), other.getSmallest());
+        }
+    }
+}
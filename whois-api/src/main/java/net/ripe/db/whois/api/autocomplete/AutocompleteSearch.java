@@ -4,9 +4,13 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import net.ripe.db.whois.api.freetext.FreeTextAnalyzer;
 import net.ripe.db.whois.api.freetext.FreeTextIndex;
+import net.ripe.db.whois.common.dao.RpslObjectDao;
+import net.ripe.db.whois.common.domain.Identifiable;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectTemplate;
 import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.facet.taxonomy.TaxonomyReader;
 import org.apache.lucene.index.IndexReader;
@@ -46,10 +50,14 @@ public class AutocompleteSearch {
     private static final int MAX_SEARCH_RESULTS = 10;
 
     private final FreeTextIndex freeTextIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final RpslObjectDao rpslObjectDao;
 
     @Autowired
-    public AutocompleteSearch(final FreeTextIndex freeTextIndex) {
+    public AutocompleteSearch(final FreeTextIndex freeTextIndex, final AutocompleteIndex autocompleteIndex, final RpslObjectDao rpslObjectDao) {
         this.freeTextIndex = freeTextIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.rpslObjectDao = rpslObjectDao;
     }
 
     public List<Map<String, Object>> search(
@@ -58,6 +66,12 @@ public class AutocompleteSearch {
         final Set<AttributeType> responseAttributes,    // attribute(s) to return
         final Set<ObjectType> objectTypes)              // filter by object type(s)
             throws IOException {                        // TODO: wrap IOException, return something sensible
+        final List<AutocompleteIndex.Entry> entries = autocompleteIndex.search(
+                queryString, queryAttributes, objectTypes != null ? objectTypes : Collections.<ObjectType>emptySet(), MAX_SEARCH_RESULTS);
+        if (entries != null) {
+            return toResults(entries, responseAttributes);
+        }
+
         return freeTextIndex.search(
             (final IndexReader indexReader, final TaxonomyReader taxonomyReader, final IndexSearcher indexSearcher) -> {
                 final List<Map<String, Object>> results = Lists.newArrayList();
@@ -101,6 +115,55 @@ public class AutocompleteSearch {
         });
     }
 
+    private List<Map<String, Object>> toResults(final List<AutocompleteIndex.Entry> entries, final Set<AttributeType> responseAttributes) {
+        final List<Map<String, Object>> results = Lists.newArrayList();
+
+        // the objects of all entries at once, for their response attributes
+        final Map<Integer, RpslObject> rpslObjects = Maps.newHashMap();
+        if (!responseAttributes.isEmpty() && !entries.isEmpty()) {
+            final List<RpslObject> loadedObjects = Lists.newArrayList();
+            rpslObjectDao.load(Lists.<Identifiable>newArrayList(entries), loadedObjects);
+            for (final RpslObject rpslObject : loadedObjects) {
+                rpslObjects.put(rpslObject.getObjectId(), rpslObject);
+            }
+        }
+
+        for (final AutocompleteIndex.Entry entry : entries) {
+            final Map<String, Object> result = Maps.newLinkedHashMap();
+            result.put("key", entry.getLookupKey());
+            result.put("type", entry.getObjectType().getName());
+
+            if (!responseAttributes.isEmpty()) {
+                final RpslObject rpslObject = rpslObjects.get(entry.getObjectId());
+                if (rpslObject == null) {
+                    // deleted since the index was last updated
+                    continue;
+                }
+
+                final ObjectTemplate template = ObjectTemplate.getTemplate(entry.getObjectType());
+                for (final AttributeType attribute : responseAttributes) {
+                    final List<String> values = Lists.newArrayList();
+                    for (final RpslAttribute rpslAttribute : rpslObject.findAttributes(attribute)) {
+                        final String value = FreeTextIndex.getStoredValue(rpslAttribute);
+                        if (value != null) {
+                            values.add(value);
+                        }
+                    }
+
+                    if (template.getMultipleAttributes().contains(attribute)) {
+                        result.put(attribute.getName(), values);
+                    } else {
+                        result.put(attribute.getName(), values.isEmpty() ? null : values.get(0));
+                    }
+                }
+            }
+
+            results.add(result);
+        }
+
+        return results;
+    }
+
     // query by attribute(s)
     private Query constructQuery(final Set<AttributeType> queryAttributes, final String queryString) throws ParseException {
         final Set<String> queryAttributeNames = queryAttributes.stream().map(attributeType -> attributeType.getName()).collect(Collectors.toSet());
@@ -0,0 +1,176 @@
+package net.ripe.db.whois.api.freetext;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.QueryTermExtractor;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.TokenSources;
+import org.apache.lucene.search.highlight.WeightedSpanTerm;
+import org.apache.lucene.search.highlight.WeightedTerm;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static net.ripe.db.whois.api.freetext.FreeTextIndex.INDEX_ANALYZER;
+
+/**
+ * Highlights the terms of a free text query in the stored fields of the documents found.
+ *
+ * The tokens of a field are read from its term vector, instead of analyzing the stored value again. Fields without a
+ * term vector (e.g. in an index built before term vectors were stored) are still analyzed.
+ *
+ * If the query consists of plain terms only, the terms are extracted once, and fields without any of them are skipped.
+ */
+class FreeTextHighlighter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FreeTextHighlighter.class);
+
+    private final Highlighter highlighter;
+    private final List<BytesRef> queryTerms;
+
+    FreeTextHighlighter(final Query query, final String highlightPre, final String highlightPost) {
+        final QueryScorer queryScorer;
+        if (isTermsOnly(query)) {
+            final WeightedTerm[] weightedTerms = QueryTermExtractor.getTerms(query);
+            final WeightedSpanTerm[] weightedSpanTerms = new WeightedSpanTerm[weightedTerms.length];
+
+            queryTerms = Lists.newArrayListWithExpectedSize(weightedTerms.length);
+            for (int i = 0; i < weightedTerms.length; i++) {
+                weightedSpanTerms[i] = new WeightedSpanTerm(weightedTerms[i].getWeight(), weightedTerms[i].getTerm());
+                queryTerms.add(new BytesRef(weightedTerms[i].getTerm()));
+            }
+
+            queryScorer = new QueryScorer(weightedSpanTerms);
+        } else {
+            queryTerms = null;
+            queryScorer = new QueryScorer(query);
+        }
+
+        highlighter = new Highlighter(new SimpleHTMLFormatter(highlightPre, highlightPost), queryScorer);
+        highlighter.setTextFragmenter(new SimpleFragmenter(Integer.MAX_VALUE));
+    }
+
+    // position sensitive (e.g. phrase) and multi term (e.g. prefix) queries need the query scorer to inspect every field
+    private static boolean isTermsOnly(final Query query) {
+        if (query instanceof TermQuery) {
+            return true;
+        }
+
+        if (query instanceof BooleanQuery) {
+            for (final BooleanClause clause : ((BooleanQuery) query).getClauses()) {
+                if (!clause.isProhibited() && !isTermsOnly(clause.getQuery())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the highlighted value of every field of the document containing any of the query terms
+     */
+    List<SearchResponse.Arr> highlight(final IndexReader indexReader, final int docId, final Document document) throws IOException {
+        final List<SearchResponse.Arr> highlights = Lists.newArrayList();
+
+        final Fields termVectors = indexReader.getTermVectors(docId);
+        final Map<String, Integer> offsets = Maps.newHashMap();
+
+        for (final IndexableField field : document.getFields()) {
+            final String value = field.stringValue();
+            final Terms terms = termVectors != null ? termVectors.terms(field.name()) : null;
+
+            // the term vector holds the tokens of all values of the field, with the offsets of the values concatenated
+            final Integer previousOffset = offsets.get(field.name());
+            final int offset = previousOffset != null ? previousOffset : 0;
+            offsets.put(field.name(), offset + value.length() + INDEX_ANALYZER.getOffsetGap(field.name()));
+
+            try {
+                final String highlightedValue = highlight(terms, offset, field.name(), value);
+                if (highlightedValue != null) {
+                    final SearchResponse.Arr arr = new SearchResponse.Arr(field.name());
+                    arr.setStr(new SearchResponse.Str(null, highlightedValue));
+                    highlights.add(arr);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Field name: " + field.name() + " value:" + value, e);
+            }
+        }
+
+        return highlights;
+    }
+
+    @CheckForNull
+    private String highlight(@CheckForNull final Terms terms, final int offset, final String fieldName, final String value) throws Exception {
+        if (terms == null) {
+            return highlighter.getBestFragment(INDEX_ANALYZER, fieldName, value);
+        }
+
+        if (queryTerms != null && !containsAny(terms, queryTerms)) {
+            return null;
+        }
+
+        return highlighter.getBestFragment(new OffsetRangeFilter(TokenSources.getTokenStream(terms), offset, value.length()), value);
+    }
+
+    private static boolean containsAny(final Terms terms, final List<BytesRef> queryTerms) throws IOException {
+        final TermsEnum termsEnum = terms.iterator(null);
+        for (final BytesRef queryTerm : queryTerms) {
+            if (termsEnum.seekExact(queryTerm)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Only pass the tokens of the field value starting at the given offset, with offsets relative to that value.
+     */
+    private static final class OffsetRangeFilter extends TokenFilter {
+        private final OffsetAttribute offsetAttribute = addAttribute(OffsetAttribute.class);
+        private final int offset;
+        private final int length;
+
+        private OffsetRangeFilter(final TokenStream input, final int offset, final int length) {
+            super(input);
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public boolean incrementToken() throws IOException {
+            while (input.incrementToken()) {
+                final int startOffset = offsetAttribute.startOffset() - offset;
+                final int endOffset = offsetAttribute.endOffset() - offset;
+
+                if (startOffset >= 0 && endOffset <= length) {
+                    offsetAttribute.setOffset(startOffset, endOffset);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
@@ -83,10 +84,14 @@ public class FreeTextIndex extends RebuildableIndex {
         FIELD_NAMES = names.toArray(new String[names.size()]);
 
         // field can be used for searching (including partial matches) but NOT sorting
+        // the term vector allows highlighting without analyzing the stored value again
         INDEXED_AND_TOKENIZED = new FieldType();
         INDEXED_AND_TOKENIZED.setIndexed(true);
         INDEXED_AND_TOKENIZED.setStored(true);
         INDEXED_AND_TOKENIZED.setTokenized(true);
+        INDEXED_AND_TOKENIZED.setStoreTermVectors(true);
+        INDEXED_AND_TOKENIZED.setStoreTermVectorPositions(true);
+        INDEXED_AND_TOKENIZED.setStoreTermVectorOffsets(true);
         INDEXED_AND_TOKENIZED.freeze();
 
         // field can be used for sorting, and searching (but no partial matches)
@@ -109,7 +114,7 @@ public class FreeTextIndex extends RebuildableIndex {
     private final FacetsConfig facetsConfig;
 
     @Autowired
-    FreeTextIndex(
+    public FreeTextIndex(
             @Qualifier("whoisSlaveDataSource") final DataSource dataSource,
             @Value("${whois.source}") final String source,
             @Value("${dir.freetext.index:}") final String indexDir) {
@@ -262,6 +267,13 @@ public class FreeTextIndex extends RebuildableIndex {
     }
 
     private void addEntry(final IndexWriter indexWriter, final TaxonomyWriter taxonomyWriter, final RpslObject rpslObject) throws IOException {
+        final Document document = createDocument(rpslObject);
+        document.add(new FacetField(OBJECT_TYPE_FIELD_NAME, rpslObject.getType().getName()));
+
+        indexWriter.addDocument(facetsConfig.build(taxonomyWriter, document));
+    }
+
+    static Document createDocument(final RpslObject rpslObject) {
         final Document document = new Document();
         document.add(new Field(PRIMARY_KEY_FIELD_NAME, Integer.toString(rpslObject.getObjectId()), INDEXED_NOT_TOKENIZED));
         document.add(new Field(OBJECT_TYPE_FIELD_NAME, rpslObject.getType().getName(), INDEXED_AND_TOKENIZED));
@@ -269,15 +281,29 @@ public class FreeTextIndex extends RebuildableIndex {
 
         for (final RpslAttribute attribute : rpslObject.getAttributes()) {
             if (FILTERED_ATTRIBUTES.contains(attribute.getType())){
-              document.add(new Field(attribute.getKey(), sanitise(filterAttribute(attribute.getValue().trim())), NOT_INDEXED_NOT_TOKENIZED));
+              document.add(new Field(attribute.getKey(), getStoredValue(attribute), NOT_INDEXED_NOT_TOKENIZED));
             } else if (!SKIPPED_ATTRIBUTES.contains(attribute.getType())) {
-                document.add(new Field(attribute.getKey(), sanitise(attribute.getValue().trim()), INDEXED_AND_TOKENIZED));
+                document.add(new Field(attribute.getKey(), getStoredValue(attribute), INDEXED_AND_TOKENIZED));
             }
         }
 
-        document.add(new FacetField(OBJECT_TYPE_FIELD_NAME, rpslObject.getType().getName()));
+        return document;
+    }
 
-        indexWriter.addDocument(facetsConfig.build(taxonomyWriter, document));
+    /**
+     * @return the value of the attribute as stored in the index, or null if the attribute is not stored
+     */
+    @CheckForNull
+    public static String getStoredValue(final RpslAttribute attribute) {
+        if (SKIPPED_ATTRIBUTES.contains(attribute.getType())) {
+            return null;
+        }
+
+        if (FILTERED_ATTRIBUTES.contains(attribute.getType())) {
+            return sanitise(filterAttribute(attribute.getValue().trim()));
+        }
+
+        return sanitise(attribute.getValue().trim());
     }
 
     private static String sanitise(final String value) {
@@ -288,7 +314,7 @@ public class FreeTextIndex extends RebuildableIndex {
         indexWriter.deleteDocuments(new Term(PRIMARY_KEY_FIELD_NAME, Integer.toString(rpslObject.getObjectId())));
     }
 
-    private String filterAttribute(final String value) {
+    private static String filterAttribute(final String value) {
         if (value.toLowerCase().startsWith("md5-pw")) {
             return "MD5-PW";
         }
@@ -3,6 +3,7 @@ package net.ripe.db.whois.api.freetext;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import net.ripe.db.whois.api.search.IndexTemplate;
+import net.ripe.db.whois.common.aspects.Timed;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.facet.FacetResult;
 import org.apache.lucene.facet.Facets;
@@ -24,24 +25,21 @@ import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopFieldCollector;
-import org.apache.lucene.search.highlight.Highlighter;
-import org.apache.lucene.search.highlight.QueryScorer;
-import org.apache.lucene.search.highlight.SimpleFragmenter;
-import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.oxm.Marshaller;
 import org.springframework.stereotype.Component;
 
 import javax.xml.transform.stream.StreamResult;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-import static net.ripe.db.whois.api.freetext.FreeTextIndex.INDEX_ANALYZER;
 import static net.ripe.db.whois.api.freetext.FreeTextIndex.PRIMARY_KEY_FIELD_NAME;
 
 @Component
@@ -52,13 +50,19 @@ public class FreeTextSearch {
 
     private final FreeTextIndex freeTextIndex;
     private final Marshaller marshaller;
+    private final long highlightBudget;
 
     @Autowired
-    public FreeTextSearch(final FreeTextIndex freeTextIndex, final Marshaller marshaller) {
+    public FreeTextSearch(
+            final FreeTextIndex freeTextIndex,
+            final Marshaller marshaller,
+            @Value("${freetext.highlight.budget.msecs:1000}") final long highlightBudget) {
         this.freeTextIndex = freeTextIndex;
         this.marshaller = marshaller;
+        this.highlightBudget = highlightBudget;
     }
 
+    @Timed("freetext")
     public void freeTextSearch(final String query, final Writer writer) throws IOException {
         try {
             final SearchRequest searchRequest = SearchRequest.parse(query);
@@ -97,6 +101,7 @@ public class FreeTextSearch {
 
                 indexSearcher.search(query, MultiCollector.wrap(topFieldCollector, facetsCollector));
 
+                final List<Integer> docIds = Lists.newArrayList();
                 final List<Document> documents = Lists.newArrayList();
 
                 final TopDocs topDocs = topFieldCollector.topDocs();
@@ -104,6 +109,7 @@ public class FreeTextSearch {
                 final int end = Math.min(start + searchRequest.getRows(), topDocs.totalHits);
                 for (int index = start; index < end; index++) {
                     final ScoreDoc scoreDoc = topDocs.scoreDocs[index];
+                    docIds.add(scoreDoc.doc);
                     documents.add(indexSearcher.doc(scoreDoc.doc));
                 }
 
@@ -111,7 +117,7 @@ public class FreeTextSearch {
                 responseLstList.add(getResponseHeader(searchRequest, stopwatch.elapsed(TimeUnit.MILLISECONDS)));
 
                 if (searchRequest.isHighlight()) {
-                    responseLstList.add(createHighlights(searchRequest, query, documents));
+                    responseLstList.add(createHighlights(searchRequest, query, indexReader, docIds, documents, stopwatch));
                 }
 
                 if (searchRequest.isFacet()) {
@@ -167,36 +173,32 @@ public class FreeTextSearch {
         return result;
     }
 
-    private SearchResponse.Lst createHighlights(final SearchRequest searchRequest, final Query query, final List<Document> documents) {
+    private SearchResponse.Lst createHighlights(final SearchRequest searchRequest, final Query query, final IndexReader indexReader, final List<Integer> docIds, final List<Document> documents, final Stopwatch stopwatch) throws IOException {
         final SearchResponse.Lst highlight = new SearchResponse.Lst("highlighting");
         final List<SearchResponse.Lst> highlightDocs = Lists.newArrayList();
 
-        final SimpleHTMLFormatter formatter = new SimpleHTMLFormatter(searchRequest.getHighlightPre(), searchRequest.getHighlightPost());
+        final FreeTextHighlighter highlighter = new FreeTextHighlighter(query, searchRequest.getHighlightPre(), searchRequest.getHighlightPost());
+        int skipped = 0;
 
-        final Highlighter highlighter = new Highlighter(formatter, new QueryScorer(query));
-        highlighter.setTextFragmenter(new SimpleFragmenter(Integer.MAX_VALUE));
-
-        for (final Document document : documents) {
+        for (int index = 0; index < documents.size(); index++) {
+            final Document document = documents.get(index);
             final SearchResponse.Lst documentLst = new SearchResponse.Lst(document.get(PRIMARY_KEY_FIELD_NAME));
-            final List<SearchResponse.Arr> documentArrs = Lists.newArrayList();
 
-            for (final IndexableField field : document.getFields()) {
-                try {
-                    final String highlightedValue = highlighter.getBestFragment(INDEX_ANALYZER, field.stringValue(), field.stringValue());
-                    if (highlightedValue != null) {
-                        final SearchResponse.Arr arr = new SearchResponse.Arr(field.name());
-                        arr.setStr(new SearchResponse.Str(null, highlightedValue));
-                        documentArrs.add(arr);
-                    }
-                } catch (Exception e) {
-                    LOGGER.warn("Field name: " + field.name() + " value:" + field.stringValue(), e);
-                }
+            // once the budget is used up by the request so far, the remaining documents are returned without highlights
+            if (stopwatch.elapsed(TimeUnit.MILLISECONDS) < highlightBudget) {
+                documentLst.setArrs(highlighter.highlight(indexReader, docIds.get(index), document));
+            } else {
+                documentLst.setArrs(Collections.<SearchResponse.Arr>emptyList());
+                skipped++;
             }
 
-            documentLst.setArrs(documentArrs);
             highlightDocs.add(documentLst);
         }
 
+        if (skipped > 0) {
+            LOGGER.info("Highlighting budget of {}ms used up, skipped {} of {} documents for query {}", highlightBudget, skipped, documents.size(), searchRequest.getQuery());
+        }
+
         highlight.setLsts(highlightDocs);
         return highlight;
     }
@@ -136,6 +136,14 @@ public class SearchResponse {
             this.name = name;
         }
 
+        public String getName() {
+            return name;
+        }
+
+        public Str getStr() {
+            return str;
+        }
+
         public void setStr(final Str str) {
             this.str = str;
         }
@@ -0,0 +1,73 @@
+package net.ripe.db.whois.api.rest;
+
+import net.ripe.db.whois.api.rest.domain.Language;
+import net.ripe.db.whois.api.rest.domain.Location;
+import net.ripe.db.whois.common.iptree.IpEntry;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.iptree.SerialInvalidatedCache;
+import net.ripe.db.whois.common.source.SourceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static net.ripe.db.whois.common.rpsl.ObjectType.INET6NUM;
+import static net.ripe.db.whois.common.rpsl.ObjectType.INETNUM;
+import static net.ripe.db.whois.common.rpsl.ObjectType.ORGANISATION;
+
+/**
+ * Caches the effective geolocation and languages of inetnums and inet6nums of the main source by object id, i.e. the
+ * ones found on the resource, its organisation, or inherited from its less specifics.
+ *
+ * A change to a resource invalidates the geolocations of all resources within it, and a change to an organisation
+ * invalidates the geolocations that were resolved through its key.
+ *
+ * The cache is disabled unless whois.geolocation.cache.size is set to the maximum number of cached geolocations.
+ */
+@Component
+public class GeolocationCache extends SerialInvalidatedCache<GeolocationCache.Geolocation> {
+
+    @Autowired
+    public GeolocationCache(final IpTreeCacheManager ipTreeCacheManager,
+                            final SourceContext sourceContext,
+                            @Value("${whois.geolocation.cache.size:0}") final int maximumSize) {
+        super(ipTreeCacheManager, sourceContext, maximumSize, EnumSet.of(INETNUM, INET6NUM), EnumSet.of(ORGANISATION));
+    }
+
+    @CheckForNull
+    public Entry<Geolocation> get(final IpEntry<?> ipEntry) {
+        return get(ipEntry.getObjectId());
+    }
+
+    /**
+     * Start recording the resolution of the geolocation of a resource, to be cached once it is complete.
+     */
+    public Recorder<Geolocation> record(final IpEntry<?> ipEntry) {
+        return record(ipEntry.getObjectId(), ipEntry.getKey(), true);
+    }
+
+    public static final class Geolocation {
+        private final Location location;
+        private final List<Language> languages;
+
+        public Geolocation(@Nullable final Location location, @Nullable final List<Language> languages) {
+            this.location = location;
+            this.languages = languages == null ? null : Collections.unmodifiableList(languages);
+        }
+
+        @CheckForNull
+        public Location getLocation() {
+            return location;
+        }
+
+        @CheckForNull
+        public List<Language> getLanguages() {
+            return languages;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package net.ripe.db.whois.api.rest;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import net.ripe.db.whois.api.rest.GeolocationCache.Geolocation;
 import net.ripe.db.whois.api.rest.domain.GeolocationAttributes;
 import net.ripe.db.whois.api.rest.domain.Language;
 import net.ripe.db.whois.api.rest.domain.Link;
@@ -61,12 +62,14 @@ public class GeolocationService {
     private final Ipv4Tree ipv4Tree;
     private final Ipv6Tree ipv6Tree;
     private final RpslObjectDao rpslObjectDao;
+    private final GeolocationCache geolocationCache;
 
     @Autowired
-    public GeolocationService(final Ipv4Tree ipv4Tree, final Ipv6Tree ipv6Tree, final RpslObjectDao rpslObjectDao) {
+    public GeolocationService(final Ipv4Tree ipv4Tree, final Ipv6Tree ipv6Tree, final RpslObjectDao rpslObjectDao, final GeolocationCache geolocationCache) {
         this.ipv4Tree = ipv4Tree;
         this.ipv6Tree = ipv6Tree;
         this.rpslObjectDao = rpslObjectDao;
+        this.geolocationCache = geolocationCache;
     }
 
     /**
@@ -88,35 +91,11 @@ public class GeolocationService {
 
         try {
             final IpInterval interval = IpInterval.parse(ipkey);
-            try {
-                for (IpEntry ipEntry : Lists.reverse(lookupEntries(interval))) {
-                    final RpslObject rpslObject = lookup(ipEntry);
-                    final RpslObject orgObject = lookupOrg(rpslObject);
-
-                    if (location == null) {
-                        location = getLocation(rpslObject);
-                        if (location == null) {
-                            location = getLocation(orgObject);
-                        }
-                    }
-
-                    if (languages == null) {
-                        languages = getLanguages(rpslObject);
-                        if (languages == null) {
-                            languages = getLanguages(orgObject);
-                        }
-                    }
-
-                    if (location != null && languages != null) {
-                        break;
-                    }
-
-                    if (isStopStatus(rpslObject)) {
-                        break;
-                    }
-                }
-            } catch (EmptyResultDataAccessException ignored) {
-                // stop looking
+            final List<? extends IpEntry> ipEntries = Lists.reverse(lookupEntries(interval));
+            if (!ipEntries.isEmpty()) {
+                final Geolocation geolocation = resolve(ipEntries, 0).getValue();
+                location = geolocation.getLocation();
+                languages = geolocation.getLanguages();
             }
         }
         catch (IllegalArgumentException e) {
@@ -141,6 +120,59 @@ public class GeolocationService {
         return whoisResources;
     }
 
+    /**
+     * Resolve the geolocation of the entry at the given index (most specific first) from the resource or its
+     * organisation, falling back to the less specific entries until a resource with a stop status is reached.
+     */
+    private GeolocationCache.Entry<Geolocation> resolve(final List<? extends IpEntry> ipEntries, final int index) {
+        final IpEntry ipEntry = ipEntries.get(index);
+
+        final GeolocationCache.Entry<Geolocation> cachedGeolocation = geolocationCache.get(ipEntry);
+        if (cachedGeolocation != null) {
+            return cachedGeolocation;
+        }
+
+        final GeolocationCache.Recorder<Geolocation> recorder = geolocationCache.record(ipEntry);
+
+        final RpslObject rpslObject;
+        final RpslObject orgObject;
+        try {
+            rpslObject = lookup(ipEntry);
+            if (rpslObject.containsAttribute(AttributeType.ORG)) {
+                recorder.addKey(rpslObject.getValueForAttribute(AttributeType.ORG));
+            }
+            orgObject = lookupOrg(rpslObject);
+        } catch (EmptyResultDataAccessException ignored) {
+            // stop looking
+            return recorder.complete(new Geolocation(null, null));
+        }
+
+        Location location = getLocation(rpslObject);
+        if (location == null) {
+            location = getLocation(orgObject);
+        }
+
+        List<Language> languages = getLanguages(rpslObject);
+        if (languages == null) {
+            languages = getLanguages(orgObject);
+        }
+
+        if ((location == null || languages == null) && !isStopStatus(rpslObject) && index + 1 < ipEntries.size()) {
+            final GeolocationCache.Entry<Geolocation> parent = resolve(ipEntries, index + 1);
+            recorder.addParent(parent);
+
+            if (location == null) {
+                location = parent.getValue().getLocation();
+            }
+
+            if (languages == null) {
+                languages = parent.getValue().getLanguages();
+            }
+        }
+
+        return recorder.complete(new Geolocation(location, languages));
+    }
+
     private List<? extends IpEntry> lookupEntries(final IpInterval interval) {
         if (interval instanceof Ipv4Resource) {
             return ipv4Tree.findExactAndAllLessSpecific((Ipv4Resource)interval);
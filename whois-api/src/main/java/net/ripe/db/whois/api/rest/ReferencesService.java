@@ -21,6 +21,7 @@ import net.ripe.db.whois.common.Message;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.dao.RpslObjectUpdateDao;
+import net.ripe.db.whois.common.domain.Identifiable;
 import net.ripe.db.whois.common.rpsl.AttributeTemplate;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectTemplate;
@@ -102,6 +103,7 @@ public class ReferencesService {
     private final WhoisObjectMapper whoisObjectMapper;
     private final Map dummyMap;
     private final String dummyRole;
+    private final int maxReferences;
 
     @Autowired
     public ReferencesService(
@@ -113,7 +115,8 @@ public class ReferencesService {
             final WhoisService whoisService,
             final LoggerContext loggerContext,
             final WhoisObjectMapper whoisObjectMapper,
-            final @Value("#{${whois.dummy}}") Map<String, String> dummyMap) {
+            final @Value("#{${whois.dummy}}") Map<String, String> dummyMap,
+            final @Value("${whois.references.max:1000}") int maxReferences) {
 
         this.rpslObjectDao = rpslObjectDao;
         this.rpslObjectUpdateDao = rpslObjectUpdateDao;
@@ -125,6 +128,7 @@ public class ReferencesService {
         this.whoisObjectMapper = whoisObjectMapper;
         this.dummyMap = dummyMap;
         this.dummyRole = dummyMap.get(AttributeType.ADMIN_C.toString());
+        this.maxReferences = maxReferences;
     }
 
     /**
@@ -142,23 +146,23 @@ public class ReferencesService {
             @PathParam("key") final String keyParam) {
 
         final Reference result = new Reference(keyParam, objectTypeParam);
-        populateIncomingReferences(result);
 
-        for (Reference reference : result.getIncoming()) {
-            populateIncomingReferences(reference);
-        }
+        final RpslObject primaryObject = lookupObjectByKey(keyParam, objectTypeParam);
+        final Map<RpslObjectInfo, RpslObject> references = findReferences(primaryObject);
 
-        return result;
-    }
+        // incoming references of all incoming references at once
+        for (Map.Entry<RpslObject, Set<RpslObjectInfo>> entry : findReferences(primaryObject, references).entrySet()) {
+            final RpslObject referenceObject = entry.getKey();
+            final Reference reference = new Reference(referenceObject.getKey().toString(), referenceObject.getType().getName());
 
-    private void populateIncomingReferences(final Reference reference) {
-        final RpslObject primaryObject = lookupObjectByKey(reference.getPrimaryKey(), reference.getObjectType());
+            for (RpslObjectInfo referenceToReference : entry.getValue()) {
+                reference.getIncoming().add(new Reference(referenceToReference.getKey(), referenceToReference.getObjectType().getName()));
+            }
 
-        for (Map.Entry<RpslObjectInfo, RpslObject> entry : findReferences(primaryObject).entrySet()) {
-            final RpslObject referenceObject = entry.getValue();
-            final Reference referenceToReference = new Reference(referenceObject.getKey().toString(), referenceObject.getType().getName());
-            reference.getIncoming().add(referenceToReference);
+            result.getIncoming().add(reference);
         }
+
+        return result;
     }
 
     @POST
@@ -581,11 +585,13 @@ public class ReferencesService {
 
         // validate references - ensure a closed group
 
+        final Map<RpslObject, Set<RpslObjectInfo>> referencesToReferences = findReferences(primaryObject, references);
+
         for (Map.Entry<RpslObjectInfo, RpslObject> entry : references.entrySet()) {
 
             final RpslObject reference = entry.getValue();
 
-            for (RpslObjectInfo referenceToReference : rpslObjectUpdateDao.getReferences(reference)) {
+            for (RpslObjectInfo referenceToReference : referencesToReferences.get(reference)) {
 
                 if (!referenceMatches(referenceToReference, primaryObject) && !references.keySet().contains(referenceToReference)) {
 
@@ -725,8 +731,30 @@ public class ReferencesService {
         final Map<RpslObjectInfo, RpslObject> references = Maps.newHashMap();
 
         try {
-            for (RpslObjectInfo rpslObjectInfo : rpslObjectUpdateDao.getReferences(rpslObject)) {
-                references.put(rpslObjectInfo, rpslObjectDao.getById(rpslObjectInfo.getObjectId()));
+            final Set<RpslObjectInfo> referenceInfos = rpslObjectUpdateDao.getReferences(rpslObject);
+            if (referenceInfos.size() > maxReferences) {
+                throw new IllegalArgumentException("Object " + rpslObject.getKey() + " has more than " + maxReferences + " references");
+            }
+
+            if (referenceInfos.isEmpty()) {
+                return references;
+            }
+
+            final List<RpslObject> referenceObjects = Lists.newArrayList();
+            rpslObjectDao.load(Lists.<Identifiable>newArrayList(referenceInfos), referenceObjects);
+
+            final Map<Integer, RpslObject> referenceObjectsById = Maps.newHashMap();
+            for (RpslObject referenceObject : referenceObjects) {
+                referenceObjectsById.put(referenceObject.getObjectId(), referenceObject);
+            }
+
+            for (RpslObjectInfo rpslObjectInfo : referenceInfos) {
+                final RpslObject referenceObject = referenceObjectsById.get(rpslObjectInfo.getObjectId());
+                if (referenceObject == null) {
+                    throw new EmptyResultDataAccessException(1);
+                }
+
+                references.put(rpslObjectInfo, referenceObject);
             }
         } catch (EmptyResultDataAccessException e) {
             throw e;
@@ -738,6 +766,29 @@ public class ReferencesService {
         return references;
     }
 
+    // the references to the references of an object, bounded together with its own references
+    private Map<RpslObject, Set<RpslObjectInfo>> findReferences(final RpslObject rpslObject, final Map<RpslObjectInfo, RpslObject> references) {
+        final Map<RpslObject, Set<RpslObjectInfo>> referencesToReferences;
+        try {
+            referencesToReferences = rpslObjectUpdateDao.getReferences(references.values());
+        } catch (EmptyResultDataAccessException e) {
+            throw e;
+        } catch (DataAccessException e) {
+            LOGGER.error("Unexpected", e);
+            throw new EmptyResultDataAccessException(1);
+        }
+
+        final Set<RpslObjectInfo> allReferences = Sets.newHashSet(references.keySet());
+        for (Set<RpslObjectInfo> referenceInfos : referencesToReferences.values()) {
+            allReferences.addAll(referenceInfos);
+        }
+        if (allReferences.size() > maxReferences) {
+            throw new IllegalArgumentException("Object " + rpslObject.getKey() + " has more than " + maxReferences + " references");
+        }
+
+        return referencesToReferences;
+    }
+
     // helper methods
 
     private void auditlogRequest(final HttpServletRequest request) {
@@ -32,4 +32,8 @@ public class StreamingHelper {
     public static StreamingMarshal getStreamingMarshalJson(final OutputStream outputStream){
         return new StreamingMarshalJson(outputStream);
     }
+
+    public static StreamingMarshal getStreamingMarshalXml(final OutputStream outputStream){
+        return new StreamingMarshalXml(outputStream, "whois-resources");
+    }
 }
@@ -1,5 +1,8 @@
 package net.ripe.db.whois.api.rest;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
+
 public interface StreamingMarshal {
     void open();
 
@@ -15,6 +18,40 @@ public interface StreamingMarshal {
 
     void close();
 
+    // write a whois object directly from its fields, without building intermediate JAXB beans
+    void startObject(String type, String href, String source);
+
+    void startAttributes(String name);
+
+    void writeAttribute(String name, String value, @Nullable String comment, @Nullable String referencedType, @Nullable String href);
+
+    void endAttributes(String name);
+
+    void startTags();
+
+    void writeTag(String id, String data);
+
+    void endTags();
+
+    void endObject();
+
+    // write the response metadata directly, without building intermediate JAXB beans
+    void writeService(String name);
+
+    void startParameters();
+
+    void writeParameter(String name, String element, String attribute, Collection<String> values);
+
+    void endParameters();
+
+    void startErrorMessages();
+
+    void writeErrorMessage(String severity, String text, Collection<String> args);
+
+    void endErrorMessages();
+
+    void writeLink(String name, String href);
+
     // TODO: [AH] handle streaming on a higher level; e.g. have strategies for different object types (WhoisObjectStreamer) and input (streaming query, from memory)
     <T> void singleton(T t);
 }
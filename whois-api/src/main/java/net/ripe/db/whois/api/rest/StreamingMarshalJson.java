@@ -10,15 +10,19 @@ import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
 import net.ripe.db.whois.api.rest.client.StreamingException;
+import net.ripe.db.whois.api.rest.mapper.ValidXmlAdapter;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
 
 class StreamingMarshalJson implements StreamingMarshal {
+    private static ObjectMapper objectMapper;
     private static JsonFactory jsonFactory;
 
     static {
-        final ObjectMapper objectMapper = new ObjectMapper()
+        objectMapper = new ObjectMapper()
                 .configure(SerializationFeature.INDENT_OUTPUT, true)
                 .configure(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS, false)
                 .setSerializationInclusion(JsonInclude.Include.NON_NULL);
@@ -31,6 +35,7 @@ class StreamingMarshalJson implements StreamingMarshal {
     }
 
     private final JsonGenerator generator;
+    private boolean attributeArrayStarted;
 
     StreamingMarshalJson(OutputStream outputStream) {
         try {
@@ -111,6 +116,236 @@ class StreamingMarshalJson implements StreamingMarshal {
         }
     }
 
+    @Override
+    public void startObject(final String type, final String href, final String source) {
+        try {
+            usePrettyPrinter();
+            generator.writeStartObject();
+            generator.writeStringField("type", type);
+            writeLink(href);
+            generator.writeObjectFieldStart("source");
+            generator.writeStringField("id", source);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startAttributes(final String name) {
+        try {
+            generator.writeObjectFieldStart(name);
+            attributeArrayStarted = false;
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeAttribute(final String name, final String value, @Nullable final String comment, @Nullable final String referencedType, @Nullable final String href) {
+        try {
+            if (!attributeArrayStarted) {
+                generator.writeArrayFieldStart("attribute");
+                attributeArrayStarted = true;
+            }
+            generator.writeStartObject();
+            if (href != null) {
+                writeLink(href);
+            }
+            generator.writeStringField("name", name);
+            generator.writeStringField("value", ValidXmlAdapter.removeNonvalidXmlCharacters(value));
+            if (referencedType != null) {
+                generator.writeStringField("referenced-type", referencedType);
+            }
+            if (comment != null) {
+                generator.writeStringField("comment", comment);
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endAttributes(final String name) {
+        try {
+            if (attributeArrayStarted) {
+                generator.writeEndArray();
+                attributeArrayStarted = false;
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startTags() {
+        try {
+            generator.writeObjectFieldStart("tags");
+            generator.writeArrayFieldStart("tag");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeTag(final String id, final String data) {
+        try {
+            generator.writeStartObject();
+            if (id != null) {
+                generator.writeStringField("id", id);
+            }
+            if (data != null) {
+                generator.writeStringField("data", data);
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endTags() {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endObject() {
+        try {
+            generator.writeEndObject();
+            generator.flush();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeService(final String name) {
+        try {
+            startField("service");
+            generator.writeStringField("name", name);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startParameters() {
+        try {
+            startField("parameters");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeParameter(final String name, final String element, final String attribute, final Collection<String> values) {
+        try {
+            generator.writeObjectFieldStart(name);
+            if (!values.isEmpty()) {
+                generator.writeArrayFieldStart(element);
+                for (final String value : values) {
+                    generator.writeStartObject();
+                    generator.writeStringField(attribute, value);
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endParameters() {
+        try {
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startErrorMessages() {
+        try {
+            startField("errormessages");
+            generator.writeArrayFieldStart("errormessage");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeErrorMessage(final String severity, final String text, final Collection<String> args) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("severity", severity);
+            generator.writeStringField("text", text);
+            if (!args.isEmpty()) {
+                generator.writeArrayFieldStart("args");
+                for (final String arg : args) {
+                    generator.writeStartObject();
+                    generator.writeStringField("value", arg);
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endErrorMessages() {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeLink(final String name, final String href) {
+        try {
+            startField(name);
+            generator.writeStringField("type", "locator");
+            generator.writeStringField("href", href);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    private void startField(final String name) throws IOException {
+        generator.writeFieldName(name);
+        usePrettyPrinter();
+        generator.writeStartObject();
+    }
+
+    // same as ObjectMapper.writeValue(), so the output is identical to marshalling the equivalent JAXB bean
+    private void usePrettyPrinter() {
+        if (generator.getPrettyPrinter() == null) {
+            generator.setPrettyPrinter(objectMapper.getSerializationConfig().constructDefaultPrettyPrinter());
+        }
+    }
+
+    private void writeLink(final String href) throws IOException {
+        generator.writeObjectFieldStart("link");
+        generator.writeStringField("type", "locator");
+        generator.writeStringField("href", href);
+        generator.writeEndObject();
+    }
+
     @Override
     public <T> void singleton(T t) {
         try {
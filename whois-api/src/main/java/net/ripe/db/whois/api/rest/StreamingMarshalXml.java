@@ -9,7 +9,9 @@ import net.ripe.db.whois.api.rest.domain.AbuseResources;
 import net.ripe.db.whois.api.rest.domain.Link;
 import net.ripe.db.whois.api.rest.domain.TemplateResources;
 import net.ripe.db.whois.api.rest.domain.WhoisResources;
+import net.ripe.db.whois.api.rest.mapper.ValidXmlAdapter;
 
+import javax.annotation.Nullable;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
@@ -21,6 +23,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.Collection;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,6 +31,7 @@ import java.util.regex.Pattern;
 class StreamingMarshalXml implements StreamingMarshal {
     private static final List<Namespace> NAMESPACES = ImmutableList.<Namespace>of(new NamespaceEvent("xlink", Link.XLINK_URI));
     private static final NewlineEscapeHandler NEWLINE_ESCAPE_HANDLER = new NewlineEscapeHandler();
+    private static final String INDENT = "    ";
 
     private static final JAXBContext context;
 
@@ -42,6 +46,8 @@ class StreamingMarshalXml implements StreamingMarshal {
     private final NamespaceSuppressingOutputStream xmlOut;
     private final Marshaller marshaller;
     private final String root;
+    private String attributesName;
+    private boolean attributesStarted;
 
     StreamingMarshalXml(final OutputStream outputStream, String root) {
         try {
@@ -128,6 +134,312 @@ class StreamingMarshalXml implements StreamingMarshal {
         }
     }
 
+    @Override
+    public void startObject(final String type, final String href, final String source) {
+        try {
+            xmlOut.write("<object type=\"");
+            escapeAttributeValue(type, xmlOut);
+            xmlOut.write("\">\n");
+            writeLinkElement(INDENT, href);
+            xmlOut.write(INDENT);
+            xmlOut.write("<source id=\"");
+            escapeAttributeValue(source, xmlOut);
+            xmlOut.write("\"/>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startAttributes(final String name) {
+        attributesName = name;
+        attributesStarted = false;
+    }
+
+    @Override
+    public void writeAttribute(final String name, final String value, @Nullable final String comment, @Nullable final String referencedType, @Nullable final String href) {
+        try {
+            // JAXB writes an empty element when there are no attributes, so only open the enclosing element on the first one
+            if (!attributesStarted) {
+                xmlOut.write(INDENT);
+                xmlOut.write('<');
+                xmlOut.write(attributesName);
+                xmlOut.write(">\n");
+                attributesStarted = true;
+            }
+
+            xmlOut.write(INDENT);
+            xmlOut.write(INDENT);
+            xmlOut.write("<attribute name=\"");
+            escapeAttributeValue(name, xmlOut);
+            xmlOut.write("\" value=\"");
+            escapeAttributeValue(ValidXmlAdapter.removeNonvalidXmlCharacters(value), xmlOut);
+            xmlOut.write('"');
+            if (referencedType != null) {
+                xmlOut.write(" referenced-type=\"");
+                escapeAttributeValue(referencedType, xmlOut);
+                xmlOut.write('"');
+            }
+            if (comment != null) {
+                xmlOut.write(" comment=\"");
+                escapeAttributeValue(comment, xmlOut);
+                xmlOut.write('"');
+            }
+
+            if (href != null) {
+                xmlOut.write(">\n");
+                writeLinkElement(INDENT + INDENT + INDENT, href);
+                xmlOut.write(INDENT);
+                xmlOut.write(INDENT);
+                xmlOut.write("</attribute>\n");
+            } else {
+                xmlOut.write("/>\n");
+            }
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endAttributes(final String name) {
+        try {
+            xmlOut.write(INDENT);
+            if (attributesStarted) {
+                xmlOut.write("</");
+                xmlOut.write(name);
+                xmlOut.write(">\n");
+            } else {
+                xmlOut.write('<');
+                xmlOut.write(name);
+                xmlOut.write("/>\n");
+            }
+            attributesStarted = false;
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startTags() {
+        try {
+            xmlOut.write(INDENT);
+            xmlOut.write("<tags>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeTag(final String id, final String data) {
+        try {
+            xmlOut.write(INDENT);
+            xmlOut.write(INDENT);
+            xmlOut.write("<tag");
+            if (id != null) {
+                xmlOut.write(" id=\"");
+                escapeAttributeValue(id, xmlOut);
+                xmlOut.write('"');
+            }
+            if (data != null) {
+                xmlOut.write(" data=\"");
+                escapeAttributeValue(data, xmlOut);
+                xmlOut.write('"');
+            }
+            xmlOut.write("/>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endTags() {
+        try {
+            xmlOut.write(INDENT);
+            xmlOut.write("</tags>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endObject() {
+        try {
+            xmlOut.write("</object>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeService(final String name) {
+        try {
+            xmlOut.write("<service name=\"");
+            escapeAttributeValue(name, xmlOut);
+            xmlOut.write("\"/>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startParameters() {
+        try {
+            xmlOut.write("<parameters>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeParameter(final String name, final String element, final String attribute, final Collection<String> values) {
+        try {
+            xmlOut.write(INDENT);
+            xmlOut.write('<');
+            xmlOut.write(name);
+            if (values.isEmpty()) {
+                xmlOut.write("/>\n");
+                return;
+            }
+            xmlOut.write(">\n");
+
+            for (final String value : values) {
+                xmlOut.write(INDENT);
+                xmlOut.write(INDENT);
+                xmlOut.write('<');
+                xmlOut.write(element);
+                xmlOut.write(' ');
+                xmlOut.write(attribute);
+                xmlOut.write("=\"");
+                escapeAttributeValue(value, xmlOut);
+                xmlOut.write("\"/>\n");
+            }
+
+            xmlOut.write(INDENT);
+            xmlOut.write("</");
+            xmlOut.write(name);
+            xmlOut.write(">\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endParameters() {
+        try {
+            xmlOut.write("</parameters>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void startErrorMessages() {
+        try {
+            xmlOut.write("<errormessages>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeErrorMessage(final String severity, final String text, final Collection<String> args) {
+        try {
+            xmlOut.write(INDENT);
+            xmlOut.write("<errormessage severity=\"");
+            escapeAttributeValue(severity, xmlOut);
+            xmlOut.write("\" text=\"");
+            escapeAttributeValue(text, xmlOut);
+            if (args.isEmpty()) {
+                xmlOut.write("\"/>\n");
+                return;
+            }
+            xmlOut.write("\">\n");
+
+            for (final String arg : args) {
+                xmlOut.write(INDENT);
+                xmlOut.write(INDENT);
+                xmlOut.write("<args value=\"");
+                escapeAttributeValue(arg, xmlOut);
+                xmlOut.write("\"/>\n");
+            }
+
+            xmlOut.write(INDENT);
+            xmlOut.write("</errormessage>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void endErrorMessages() {
+        try {
+            xmlOut.write("</errormessages>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    @Override
+    public void writeLink(final String name, final String href) {
+        try {
+            xmlOut.write('<');
+            xmlOut.write(name);
+            xmlOut.write(" xlink:type=\"locator\" xlink:href=\"");
+            escapeAttributeValue(href, xmlOut);
+            xmlOut.write("\"/>\n");
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    private void writeLinkElement(final String indent, final String href) throws IOException {
+        xmlOut.write(indent);
+        xmlOut.write("<link xlink:type=\"locator\" xlink:href=\"");
+        escapeAttributeValue(href, xmlOut);
+        xmlOut.write("\"/>\n");
+    }
+
+    // same escaping as NewlineEscapeHandler applies to attribute values
+    static void escapeAttributeValue(final String value, final Writer out) throws IOException {
+        final int length = value.length();
+        int start = 0;
+
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+
+            if (c == '&' || c == '<' || c == '>' || c == '\r' || c == '\n' || c == '\"') {
+
+                if (i > start) {
+                    out.write(value, start, i - start);
+                }
+
+                start = i + 1;
+
+                switch (c) {
+                    case '&':
+                        out.write("&amp;");
+                        break;
+                    case '<':
+                        out.write("&lt;");
+                        break;
+                    case '>':
+                        out.write("&gt;");
+                        break;
+                    case '\"':
+                        out.write("&quot;");
+                        break;
+                    case '\n':
+                        out.write("&#xA;");
+                        break;
+                }
+            }
+        }
+
+        if (length > start) {
+            out.write(value, start, length - start);
+        }
+    }
+
     @Override
     public <T> void singleton(T t) {
         try {
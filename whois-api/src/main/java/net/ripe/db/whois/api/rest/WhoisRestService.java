@@ -6,15 +6,6 @@ import com.google.common.collect.Sets;
 import com.google.common.net.InetAddresses;
 import net.ripe.db.whois.api.QueryBuilder;
 import net.ripe.db.whois.api.rest.client.StreamingException;
-import net.ripe.db.whois.api.rest.domain.Flags;
-import net.ripe.db.whois.api.rest.domain.InverseAttributes;
-import net.ripe.db.whois.api.rest.domain.Link;
-import net.ripe.db.whois.api.rest.domain.Parameters;
-import net.ripe.db.whois.api.rest.domain.QueryString;
-import net.ripe.db.whois.api.rest.domain.QueryStrings;
-import net.ripe.db.whois.api.rest.domain.Service;
-import net.ripe.db.whois.api.rest.domain.Sources;
-import net.ripe.db.whois.api.rest.domain.TypeFilters;
 import net.ripe.db.whois.api.rest.domain.WhoisObject;
 import net.ripe.db.whois.api.rest.domain.WhoisResources;
 import net.ripe.db.whois.api.rest.domain.WhoisVersions;
@@ -489,20 +480,14 @@ public class WhoisRestService {
 
         final Query query = Query.parse(queryBuilder.build(searchKey), Query.Origin.REST, isTrusted(request));
 
-        final Parameters parameters = new Parameters(
-                new InverseAttributes(inverseAttributes),
-                new TypeFilters(types),
-                new Flags(separateFlags),
-                new QueryStrings(new QueryString(searchKey)),
-                new Sources(sources),
-                null);
+        final SearchParameters parameters = new SearchParameters(inverseAttributes, types, separateFlags, searchKey, sources);
 
         return handleQueryAndStreamResponse(
                 query,
                 request,
                 InetAddresses.forString(request.getRemoteAddr()),
                 parameters,
-                new Service(SERVICE_SEARCH),
+                SERVICE_SEARCH,
                 isQueryParamSet(unformatted));
     }
 
@@ -653,8 +638,8 @@ public class WhoisRestService {
     private Response handleQueryAndStreamResponse(final Query query,
                                                   final HttpServletRequest request,
                                                   final InetAddress remoteAddress,
-                                                  @Nullable final Parameters parameters,
-                                                  @Nullable final Service service,
+                                                  @Nullable final SearchParameters parameters,
+                                                  @Nullable final String service,
                                                   final boolean unformatted) {
 
         return Response.ok(new RpslObjectStreamer(request, query, remoteAddress, parameters, service, unformatted)).build();
@@ -703,8 +688,8 @@ public class WhoisRestService {
         private final HttpServletRequest request;
         private final Query query;
         private final InetAddress remoteAddress;
-        private final Parameters parameters;
-        private final Service service;
+        private final SearchParameters parameters;
+        private final String service;
         private StreamingMarshal streamingMarshal;
         private Class<? extends AttributeMapper> attributeMapper;
 
@@ -712,8 +697,8 @@ public class WhoisRestService {
                 final HttpServletRequest request,
                 final Query query,
                 final InetAddress remoteAddress,
-                final Parameters parameters,
-                final Service service,
+                final SearchParameters parameters,
+                final String service,
                 final boolean unformatted) {
             this.request = request;
             this.query = query;
@@ -790,11 +775,11 @@ public class WhoisRestService {
                 streamingMarshal.open();
 
                 if (service != null) {
-                    streamingMarshal.write("service", service);
+                    streamingMarshal.writeService(service);
                 }
 
                 if (parameters != null) {
-                    streamingMarshal.write("parameters", parameters);
+                    parameters.stream(streamingMarshal);
                 }
 
                 streamingMarshal.start("objects");
@@ -806,9 +791,7 @@ public class WhoisRestService {
                     return;
                 }
 
-                final WhoisObject whoisObject = whoisObjectServerMapper.map(rpslObject, tagResponseObject, attributeMapper);
-
-                streamingMarshal.writeArray(whoisObject);
+                whoisObjectServerMapper.stream(rpslObject, tagResponseObject, attributeMapper, streamingMarshal);
                 tagResponseObject = null;
             }
 
@@ -826,15 +809,55 @@ public class WhoisRestService {
 
                 streamingMarshal.end("objects");
                 if (errors.size() > 0) {
-                    streamingMarshal.write("errormessages", whoisService.createErrorMessages(errors));
+                    streamingMarshal.startErrorMessages();
+                    for (final Message error : errors) {
+                        final List<String> args = Lists.newArrayListWithExpectedSize(error.getArgs().length);
+                        for (final Object arg : error.getArgs()) {
+                            args.add(arg.toString());
+                        }
+                        streamingMarshal.writeErrorMessage(error.getType().toString(), error.getText(), args);
+                    }
+                    streamingMarshal.endErrorMessages();
                     errors.clear();
                 }
 
-                streamingMarshal.write("terms-and-conditions", Link.create(WhoisResources.TERMS_AND_CONDITIONS));
+                streamingMarshal.writeLink("terms-and-conditions", WhoisResources.TERMS_AND_CONDITIONS);
                 streamingMarshal.end("whois-resources");
                 streamingMarshal.close();
                 return errors;
             }
         }
     }
+
+    private static class SearchParameters {
+        private final Set<String> inverseAttributes;
+        private final Set<String> types;
+        private final Set<QueryFlag> flags;
+        private final String searchKey;
+        private final Set<String> sources;
+
+        private SearchParameters(final Set<String> inverseAttributes, final Set<String> types, final Set<QueryFlag> flags, final String searchKey, final Set<String> sources) {
+            this.inverseAttributes = inverseAttributes;
+            this.types = types;
+            this.flags = flags;
+            this.searchKey = searchKey;
+            this.sources = sources;
+        }
+
+        // same layout as marshalling a Parameters bean
+        private void stream(final StreamingMarshal streamingMarshal) {
+            final List<String> flagNames = Lists.newArrayListWithExpectedSize(flags.size());
+            for (final QueryFlag flag : flags) {
+                flagNames.add(flag.getName());
+            }
+
+            streamingMarshal.startParameters();
+            streamingMarshal.writeParameter("inverse-lookup", "inverse-attribute", "value", inverseAttributes);
+            streamingMarshal.writeParameter("type-filters", "type-filter", "id", types);
+            streamingMarshal.writeParameter("flags", "flag", "value", flagNames);
+            streamingMarshal.writeParameter("query-strings", "query-string", "value", Collections.singletonList(searchKey));
+            streamingMarshal.writeParameter("sources", "source", "id", sources);
+            streamingMarshal.endParameters();
+        }
+    }
 }
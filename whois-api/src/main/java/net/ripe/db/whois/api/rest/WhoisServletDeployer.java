@@ -6,6 +6,7 @@ import net.ripe.db.whois.api.autocomplete.AutocompleteService;
 import net.ripe.db.whois.api.httpserver.DefaultExceptionMapper;
 import net.ripe.db.whois.api.httpserver.ServletDeployer;
 import net.ripe.db.whois.api.transfer.AsnTransfersRestService;
+import net.ripe.db.whois.api.transfer.BatchTransfersRestService;
 import net.ripe.db.whois.api.transfer.InetnumTransfersRestService;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletHolder;
@@ -29,6 +30,7 @@ public class WhoisServletDeployer implements ServletDeployer {
     private final SyncUpdatesService syncUpdatesService;
     private final AsnTransfersRestService asnTransfersRestService;
     private final InetnumTransfersRestService inetnumTransfersRestService;
+    private final BatchTransfersRestService batchTransfersRestService;
     private final WhoisMetadata whoisMetadata;
     private final GeolocationService geolocationService;
     private final AbuseContactService abuseContactService;
@@ -43,6 +45,7 @@ public class WhoisServletDeployer implements ServletDeployer {
                                 final SyncUpdatesService syncUpdatesService,
                                 final AsnTransfersRestService asnTransfersRestService,
                                 final InetnumTransfersRestService inetnumTransfersRestService,
+                                final BatchTransfersRestService batchTransfersRestService,
                                 final WhoisMetadata whoisMetadata,
                                 final GeolocationService geolocationService,
                                 final AbuseContactService abuseContactService,
@@ -55,6 +58,7 @@ public class WhoisServletDeployer implements ServletDeployer {
         this.syncUpdatesService = syncUpdatesService;
         this.asnTransfersRestService = asnTransfersRestService;
         this.inetnumTransfersRestService = inetnumTransfersRestService;
+        this.batchTransfersRestService = batchTransfersRestService;
         this.whoisMetadata = whoisMetadata;
         this.geolocationService = geolocationService;
         this.abuseContactService = abuseContactService;
@@ -77,6 +81,7 @@ public class WhoisServletDeployer implements ServletDeployer {
         resourceConfig.register(syncUpdatesService);
         resourceConfig.register(asnTransfersRestService);
         resourceConfig.register(inetnumTransfersRestService);
+        resourceConfig.register(batchTransfersRestService);
         resourceConfig.register(whoisMetadata);
         resourceConfig.register(geolocationService);
         resourceConfig.register(abuseContactService);
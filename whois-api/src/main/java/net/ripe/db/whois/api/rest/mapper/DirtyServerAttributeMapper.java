@@ -1,5 +1,6 @@
 package net.ripe.db.whois.api.rest.mapper;
 
+import com.google.common.collect.Lists;
 import net.ripe.db.whois.api.rest.ReferencedTypeResolver;
 import net.ripe.db.whois.api.rest.domain.Attribute;
 import net.ripe.db.whois.api.rest.domain.Link;
@@ -10,12 +11,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 @Component
-public class DirtyServerAttributeMapper implements AttributeMapper {
+public class DirtyServerAttributeMapper implements AttributeMapper, StreamingAttributeMapper {
     private final ReferencedTypeResolver referencedTypeResolver;
     private final String baseUrl;
 
@@ -33,20 +36,31 @@ public class DirtyServerAttributeMapper implements AttributeMapper {
 
     @Override
     public Collection<Attribute> map(final RpslAttribute rpslAttribute, final String source) {
+        final List<Attribute> result = Lists.newArrayListWithExpectedSize(1);
+        map(rpslAttribute, source, new AttributeConsumer() {
+            @Override
+            public void accept(final String name, final String value, @Nullable final String comment, @Nullable final String referencedType, @Nullable final String href) {
+                result.add(new Attribute(name, value, comment, referencedType, (href != null) ? Link.create(href) : null));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void map(final RpslAttribute rpslAttribute, final String source, final AttributeConsumer consumer) {
         final Set<CIString> cleanValues = rpslAttribute.getCleanValues();
 
         if (cleanValues.size() == 1) {
             // TODO: [AH] for each person or role reference returned, we make an sql lookup - baaad
             final CIString cleanValue = cleanValues.iterator().next();
             final String referencedType = (rpslAttribute.getType() != null) ? referencedTypeResolver.getReferencedType(rpslAttribute.getType(), cleanValue) : null;
-            final Link link = (referencedType != null) ? Link.create(baseUrl, source, referencedType, cleanValue.toString()) : null;
-            return Collections.singleton(new Attribute(rpslAttribute.getKey(), rpslAttribute.getFormattedValue(), null, referencedType, link));
+            final String href = (referencedType != null) ? Link.href(baseUrl, source, referencedType, cleanValue.toString()) : null;
+            consumer.accept(rpslAttribute.getKey(), rpslAttribute.getFormattedValue(), null, referencedType, href);
         } else {
-            return Collections.singleton(new Attribute(rpslAttribute.getKey(), rpslAttribute.getFormattedValue(), null, null, null));
+            consumer.accept(rpslAttribute.getKey(), rpslAttribute.getFormattedValue(), null, null, null);
         }
     }
 
-
     // TODO: duplicate method
     private static String getAttributeValue(final Attribute attribute) {
         if (StringUtils.isBlank(attribute.getComment())) {
@@ -15,12 +15,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 @Component
-public class FormattedServerAttributeMapper implements AttributeMapper {
+public class FormattedServerAttributeMapper implements AttributeMapper, StreamingAttributeMapper {
 
     private static final AttributeParser.MntRoutesParser MNT_ROUTES_PARSER = new AttributeParser.MntRoutesParser();
 
@@ -42,13 +43,23 @@ public class FormattedServerAttributeMapper implements AttributeMapper {
     @Override
     public Collection<Attribute> map(final RpslAttribute rpslAttribute, final String source) {
         final List<Attribute> result = Lists.newArrayList();
+        map(rpslAttribute, source, new AttributeConsumer() {
+            @Override
+            public void accept(final String name, final String value, @Nullable final String comment, @Nullable final String referencedType, @Nullable final String href) {
+                result.add(new Attribute(name, value, comment, referencedType, (href != null) ? Link.create(href) : null));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void map(final RpslAttribute rpslAttribute, final String source, final AttributeConsumer consumer) {
         for (CIString value : rpslAttribute.getCleanValues()) {
             // TODO: [AH] for each person or role reference returned, we make an sql lookup - baaad
             final String referencedType = (rpslAttribute.getType() != null) ? referencedTypeResolver.getReferencedType(rpslAttribute.getType(), value) : null;
-            final Link link = (referencedType != null) ? Link.create(baseUrl, source, referencedType, getLinkValue(rpslAttribute.getType(), value)) : null;
-            result.add(new Attribute(rpslAttribute.getKey(), value.toString(), rpslAttribute.getCleanComment(), referencedType, link));
+            final String href = (referencedType != null) ? Link.href(baseUrl, source, referencedType, getLinkValue(rpslAttribute.getType(), value)) : null;
+            consumer.accept(rpslAttribute.getKey(), value.toString(), rpslAttribute.getCleanComment(), referencedType, href);
         }
-        return result;
     }
 
     // TODO: duplicate method
@@ -0,0 +1,16 @@
+package net.ripe.db.whois.api.rest.mapper;
+
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maps an RPSL attribute directly onto a consumer, without creating intermediate {@link net.ripe.db.whois.api.rest.domain.Attribute} beans.
+ */
+public interface StreamingAttributeMapper {
+    void map(RpslAttribute rpslAttribute, String source, AttributeConsumer consumer);
+
+    interface AttributeConsumer {
+        void accept(String name, String value, @Nullable String comment, @Nullable String referencedType, @Nullable String href);
+    }
+}
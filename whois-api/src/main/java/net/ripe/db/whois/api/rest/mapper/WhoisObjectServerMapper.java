@@ -1,27 +1,47 @@
 package net.ripe.db.whois.api.rest.mapper;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.ripe.db.whois.api.rest.StreamingMarshal;
+import net.ripe.db.whois.api.rest.domain.Link;
 import net.ripe.db.whois.api.rest.domain.WhoisObject;
 import net.ripe.db.whois.api.rest.domain.WhoisTag;
 import net.ripe.db.whois.api.rest.domain.WhoisVersion;
+import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.domain.Tag;
 import net.ripe.db.whois.common.domain.serials.Operation;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectTemplate;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import net.ripe.db.whois.query.domain.DeletedVersionResponseObject;
 import net.ripe.db.whois.query.domain.TagResponseObject;
 import net.ripe.db.whois.query.domain.VersionResponseObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class WhoisObjectServerMapper {
     private final WhoisObjectMapper whoisObjectMapper;
+    private final Map<Class, StreamingAttributeMapper> streamingAttributeMappers;
+    private final String baseUrl;
 
     @Autowired
-    public WhoisObjectServerMapper(final WhoisObjectMapper whoisObjectMapper) {
+    public WhoisObjectServerMapper(final WhoisObjectMapper whoisObjectMapper,
+                                   final StreamingAttributeMapper[] streamingAttributeMappers,
+                                   @Value("${api.rest.baseurl}") final String baseUrl) {
         this.whoisObjectMapper = whoisObjectMapper;
+        this.baseUrl = baseUrl;
+
+        this.streamingAttributeMappers = Maps.newHashMapWithExpectedSize(streamingAttributeMappers.length);
+        for (final StreamingAttributeMapper streamingAttributeMapper : streamingAttributeMappers) {
+            this.streamingAttributeMappers.put(streamingAttributeMapper.getClass(), streamingAttributeMapper);
+        }
     }
 
     public List<WhoisVersion> mapVersions(final List<DeletedVersionResponseObject> deleted, final List<VersionResponseObject> versions) {
@@ -51,4 +71,51 @@ public class WhoisObjectServerMapper {
         }
         return object;
     }
+
+    /**
+     * Writes the same output as marshalling the result of {@link #map(RpslObject, TagResponseObject, Class)}, but
+     * straight from the RPSL object, without creating intermediate JAXB beans.
+     */
+    public void stream(final RpslObject rpslObject, @Nullable final TagResponseObject tagResponseObject, final Class<?> mapFunction, final StreamingMarshal streamingMarshal) {
+        final StreamingAttributeMapper attributeMapper = streamingAttributeMappers.get(mapFunction);
+        if (attributeMapper == null) {
+            throw new IllegalArgumentException("No streaming attribute mapper for " + mapFunction);
+        }
+
+        final String source = rpslObject.getValueForAttribute(AttributeType.SOURCE).toString().toLowerCase();
+        final String type = rpslObject.getType().getName();
+
+        streamingMarshal.startObject(type, Link.href(baseUrl, source, type, rpslObject.getKey().toString()), source);
+
+        streamingMarshal.startAttributes("primary-key");
+        for (final RpslAttribute keyAttribute : rpslObject.findAttributes(ObjectTemplate.getTemplate(rpslObject.getType()).getKeyAttributes())) {
+            for (final CIString value : keyAttribute.getCleanValues()) {
+                streamingMarshal.writeAttribute(keyAttribute.getKey(), value.toString(), keyAttribute.getCleanComment(), null, null);
+            }
+        }
+        streamingMarshal.endAttributes("primary-key");
+
+        final StreamingAttributeMapper.AttributeConsumer attributeConsumer = new StreamingAttributeMapper.AttributeConsumer() {
+            @Override
+            public void accept(final String name, final String value, @Nullable final String comment, @Nullable final String referencedType, @Nullable final String href) {
+                streamingMarshal.writeAttribute(name, value, comment, referencedType, href);
+            }
+        };
+
+        streamingMarshal.startAttributes("attributes");
+        for (final RpslAttribute rpslAttribute : rpslObject.getAttributes()) {
+            attributeMapper.map(rpslAttribute, source, attributeConsumer);
+        }
+        streamingMarshal.endAttributes("attributes");
+
+        if (tagResponseObject != null && !tagResponseObject.getTags().isEmpty()) {
+            streamingMarshal.startTags();
+            for (final Tag tag : tagResponseObject.getTags()) {
+                streamingMarshal.writeTag(tag.getType().toString(), tag.getValue());
+            }
+            streamingMarshal.endTags();
+        }
+
+        streamingMarshal.endObject();
+    }
 }
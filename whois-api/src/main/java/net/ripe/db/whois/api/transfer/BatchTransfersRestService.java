@@ -0,0 +1,70 @@
+package net.ripe.db.whois.api.transfer;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.api.rest.domain.ErrorMessage;
+import net.ripe.db.whois.api.rest.domain.WhoisResources;
+import net.ripe.db.whois.common.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+import static net.ripe.db.whois.api.transfer.ResponseHandling.createResponse;
+
+@Service
+@Path("/transfer/batch")
+public class BatchTransfersRestService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchTransfersRestService.class);
+    private final BatchTransfersService batchTransfersService;
+
+    @Autowired
+    public BatchTransfersRestService(final BatchTransfersService batchTransfersService) {
+        this.batchTransfersService = batchTransfersService;
+    }
+
+    @POST
+    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+    public Response transfer(@Context final HttpServletRequest request,
+                             @QueryParam("out") final List<String> transfersOut,
+                             @QueryParam("in") final List<String> transfersIn,
+                             @QueryParam("override") final String override) {
+
+        LOGGER.info("transfer-batch: out: {} in: {}", transfersOut, transfersIn);
+
+        if (transfersOut.isEmpty() && transfersIn.isEmpty()) {
+            return createResponse(request, "No resources to transfer", Response.Status.BAD_REQUEST);
+        }
+
+        try {
+            final List<Message> results = batchTransfersService.transfer(request, transfersOut, transfersIn, override);
+
+            final List<ErrorMessage> messages = Lists.newArrayListWithExpectedSize(results.size());
+            for (Message result : results) {
+                messages.add(new ErrorMessage(result));
+            }
+
+            final WhoisResources whoisResources = new WhoisResources();
+            whoisResources.setErrorMessages(messages);
+            return createResponse(request, whoisResources, Response.Status.OK);
+        } catch (IllegalArgumentException exc) {
+            LOGGER.info("IllegalArgumentException: {}", exc.getMessage());
+            return createResponse(request, exc.getMessage(), Response.Status.BAD_REQUEST);
+        } catch (ClientErrorException exc) {
+            LOGGER.info("ClientErrorException: {}", exc.getMessage());
+            return createResponse(request, exc.getMessage(), Response.Status.fromStatusCode(exc.getResponse().getStatus()));
+        } catch (TransferFailedException exc) {
+            LOGGER.info("TransferFailedException: {}", exc.getMessage());
+            return createResponse(request, exc.getMessage(), exc.getStatus());
+        } catch (Exception exc) {
+            LOGGER.info("Exception: {}", exc.getMessage());
+            return createResponse(request, "", Response.Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package net.ripe.db.whois.api.transfer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.ObjectArrays;
+import net.ripe.commons.ip.Asn;
+import net.ripe.commons.ip.Ipv4;
+import net.ripe.commons.ip.Ipv4Range;
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.db.whois.api.rest.InternalUpdatePerformer;
+import net.ripe.db.whois.api.rest.domain.ActionRequest;
+import net.ripe.db.whois.api.transfer.lock.TransferUpdateLockDao;
+import net.ripe.db.whois.api.transfer.logic.AuthoritativeResourceService;
+import net.ripe.db.whois.api.transfer.logic.Transfer;
+import net.ripe.db.whois.api.transfer.logic.TransferSnapshot;
+import net.ripe.db.whois.api.transfer.logic.TransferSnapshotLoader;
+import net.ripe.db.whois.api.transfer.logic.asn.AsnTransferLogic;
+import net.ripe.db.whois.api.transfer.logic.inet6num.Inet6numTransfer;
+import net.ripe.db.whois.api.transfer.logic.inet6num.Inet6numTransfersLogic;
+import net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfer;
+import net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfersLogic;
+import net.ripe.db.whois.common.Message;
+import net.ripe.db.whois.common.Messages;
+import net.ripe.db.whois.common.iptree.IpTreeUpdater;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.source.SourceContext;
+import net.ripe.db.whois.update.log.LoggerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Performs many inetnum, inet6num and aut-num transfers at once.
+ *
+ * The objects needed to plan all transfers are loaded once into a {@link TransferSnapshot}. Each transfer is planned
+ * against the snapshot as changed by the transfers before it, so placeholders shared by several transfers are merged.
+ * The resulting changes are performed as a single update, under a single acquisition of the transfer lock.
+ * Adjacent inetnums transferred out are merged first, so they end up in a single placeholder.
+ * Transfers that cannot be planned are skipped and reported in the result.
+ */
+@Component
+public class BatchTransfersService extends AbstractTransferService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchTransfersService.class);
+
+    private final IpTreeUpdater ipTreeUpdater;
+    private final TransferSnapshotLoader transferSnapshotLoader;
+    private final InetnumTransfersLogic inetnumTransfersLogic;
+    private final Inet6numTransfersLogic inet6numTransfersLogic;
+    private final AsnTransferLogic asnTransferLogic;
+    private final AuthoritativeResourceService authoritativeResourceService;
+
+    @Autowired
+    public BatchTransfersService(final SourceContext sourceContext,
+                                 final InternalUpdatePerformer updatePerformer,
+                                 final TransferUpdateLockDao updateLockDao,
+                                 final LoggerContext loggerContext,
+                                 final IpTreeUpdater ipTreeUpdater,
+                                 final TransferSnapshotLoader transferSnapshotLoader,
+                                 final InetnumTransfersLogic inetnumTransfersLogic,
+                                 final Inet6numTransfersLogic inet6numTransfersLogic,
+                                 final AsnTransferLogic asnTransferLogic,
+                                 final AuthoritativeResourceService authoritativeResourceService) {
+        super(sourceContext, updatePerformer, updateLockDao, loggerContext);
+        this.ipTreeUpdater = ipTreeUpdater;
+        this.transferSnapshotLoader = transferSnapshotLoader;
+        this.inetnumTransfersLogic = inetnumTransfersLogic;
+        this.inet6numTransfersLogic = inet6numTransfersLogic;
+        this.asnTransferLogic = asnTransferLogic;
+        this.authoritativeResourceService = authoritativeResourceService;
+    }
+
+    /**
+     * @param transfersOut resources to transfer out, as "inetnum/{inetnum}", "inet6num/{inet6num}" or "aut-num/{aut-num}"
+     * @param transfersIn resources to transfer in, in the same format
+     * @return a message for every resource, transfers out first, in the order given
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED, propagation = Propagation.REQUIRES_NEW)
+    public List<Message> transfer(final HttpServletRequest request,
+                                  final List<String> transfersOut,
+                                  final List<String> transfersIn,
+                                  final String override) {
+        try {
+            // use master database: also for search
+            sourceContext.setCurrentSourceToWhoisMaster();
+
+            // Acquire lock once for the whole batch
+            transferUpdateLockDao.acquireUpdateLock();
+
+            // make sure the ip-tree is in sync with the master database
+            ipTreeUpdater.updateTransactional();
+
+            final List<Item> items = Lists.newArrayList();
+            for (String transferOut : transfersOut) {
+                items.add(new Item(transferOut, false));
+            }
+            for (String transferIn : transfersIn) {
+                items.add(new Item(transferIn, true));
+            }
+
+            final List<Group> groups = groupItems(items);
+            final TransferSnapshot snapshot = loadSnapshot(groups);
+
+            final List<Group> transferred = Lists.newArrayList();
+            final List<Transfer<Ipv4Range>> inetnumTransfers = Lists.newArrayList();
+            final List<Transfer<Ipv6Range>> inet6numTransfers = Lists.newArrayList();
+
+            for (Group group : groups) {
+                final List<ActionRequest> groupRequests;
+                try {
+                    groupRequests = planTransfer(group, snapshot);
+                } catch (ClientErrorException | IllegalArgumentException e) {
+                    LOGGER.info("Transfer of {} failed: {}", group.resource, e.getMessage());
+                    group.setResult(new Message(Messages.Type.ERROR, e.getMessage()));
+                    continue;
+                }
+
+                if (groupRequests.isEmpty()) {
+                    group.setResult(Messages.Type.INFO, "%s %s is already " + (group.income ? "RIPE." : "non-RIPE."), group.getTypeName());
+                    continue;
+                }
+
+                // later transfers are planned against the changed snapshot
+                snapshot.apply(groupRequests);
+                transferred.add(group);
+
+                if (group.type == ObjectType.INETNUM) {
+                    inetnumTransfers.add(group.income ?
+                            InetnumTransfer.buildIncoming(group.resource) :
+                            InetnumTransfer.buildOutgoing(group.resource));
+                } else if (group.type == ObjectType.INET6NUM) {
+                    inet6numTransfers.add(group.income ?
+                            Inet6numTransfer.buildIncoming(group.resource) :
+                            Inet6numTransfer.buildOutgoing(group.resource));
+                }
+            }
+
+            if (!transferred.isEmpty()) {
+                final List<ActionRequest> requests = snapshot.getChanges();
+                if (!requests.isEmpty()) {
+                    // perform the actual batch update
+                    performUpdates(request, requests, override);
+                }
+
+                authoritativeResourceService.transferIpv4Blocks(inetnumTransfers);
+                if (!inet6numTransfers.isEmpty()) {
+                    authoritativeResourceService.transferIpv6Blocks(inet6numTransfers);
+                }
+                asnTransferLogic.updateAuthoritativeResources(requests);
+            }
+
+            // only report success once the update succeeded
+            for (Group group : transferred) {
+                group.setResult(Messages.Type.INFO, "Successfully transferred %s %s %s",
+                        group.income ? "in" : "out", group.type.getName());
+            }
+
+            final List<Message> results = Lists.newArrayListWithExpectedSize(items.size());
+            for (Item item : items) {
+                results.add(item.result);
+            }
+            return results;
+
+        } finally {
+            sourceContext.removeCurrentSource();
+        }
+    }
+
+    private TransferSnapshot loadSnapshot(final List<Group> groups) {
+        final List<Ipv4Range> inetnums = Lists.newArrayList();
+        final List<Ipv6Range> inet6nums = Lists.newArrayList();
+        final List<Asn> autNums = Lists.newArrayList();
+
+        for (Group group : groups) {
+            if (group.range != null) {
+                inetnums.add(group.range);
+            } else if (group.ipv6Range != null) {
+                inet6nums.add(group.ipv6Range);
+            } else if (group.autNum != null) {
+                autNums.add(group.autNum);
+            }
+        }
+
+        return transferSnapshotLoader.load(inetnums, inet6nums, autNums);
+    }
+
+    private List<ActionRequest> planTransfer(final Group group, final TransferSnapshot snapshot) {
+        switch (group.type) {
+            case INETNUM:
+                return group.income ?
+                        inetnumTransfersLogic.getTransferInActions(group.resource, snapshot) :
+                        inetnumTransfersLogic.getTransferOutActions(group.resource, snapshot);
+            case INET6NUM:
+                return group.income ?
+                        inet6numTransfersLogic.getTransferInActions(group.resource, snapshot) :
+                        inet6numTransfersLogic.getTransferOutActions(group.resource, snapshot);
+            case AUT_NUM:
+                return group.income ?
+                        asnTransferLogic.transferInSteps(group.resource, snapshot) :
+                        asnTransferLogic.getTransferOutSteps(group.resource, snapshot);
+            default:
+                throw new BadRequestException("Transfers of " + group.type.getName() + " are not supported.");
+        }
+    }
+
+    private static List<Group> groupItems(final List<Item> items) {
+        final List<Group> groups = Lists.newArrayList();
+        final List<Item> inetnumsOut = Lists.newArrayList();
+
+        for (Item item : items) {
+            if (item.result != null) {
+                continue;
+            }
+
+            if (item.type == ObjectType.INETNUM && !item.income) {
+                inetnumsOut.add(item);
+            } else {
+                groups.add(new Group(item));
+            }
+        }
+
+        groups.addAll(0, mergeAdjacentInetnums(inetnumsOut));
+        return groups;
+    }
+
+    // adjacent inetnums transferred out would each be merged into the same placeholder, so transfer them together
+    private static List<Group> mergeAdjacentInetnums(final List<Item> items) {
+        Collections.sort(items, new Comparator<Item>() {
+            @Override
+            public int compare(final Item first, final Item second) {
+                return first.range.start().compareTo(second.range.start());
+            }
+        });
+
+        final List<Group> groups = Lists.newArrayList();
+        Group group = null;
+        for (Item item : items) {
+            if (group != null && canMerge(group.range, item.range)) {
+                group.add(item);
+            } else {
+                group = new Group(item);
+                groups.add(group);
+            }
+        }
+        return groups;
+    }
+
+    // placeholders are not merged across /8 boundaries either
+    private static boolean canMerge(final Ipv4Range range, final Ipv4Range other) {
+        if (!range.overlaps(other) && !range.isConsecutive(other)) {
+            return false;
+        }
+
+        final Ipv4Range mergedRange = range.merge(other);
+        final Ipv4 startLowerBoundForPrefix = mergedRange.start().lowerBoundForPrefix(8);
+        final Ipv4 endLowerBoundForPrefix = mergedRange.end().lowerBoundForPrefix(8);
+        return startLowerBoundForPrefix.equals(endLowerBoundForPrefix);
+    }
+
+    private static class Item {
+        private final boolean income;
+        private ObjectType type;
+        private String resource;
+        private Ipv4Range range;
+        private Ipv6Range ipv6Range;
+        private Asn autNum;
+        private Message result;
+
+        private Item(final String value, final boolean income) {
+            this.income = income;
+
+            final int separator = value.indexOf('/');
+            if (separator == -1) {
+                result = new Message(Messages.Type.ERROR, "Transfer %s should be formatted as {type}/{resource}.", value);
+                return;
+            }
+
+            type = ObjectType.getByNameOrNull(value.substring(0, separator));
+            resource = value.substring(separator + 1);
+
+            if (type != ObjectType.INETNUM && type != ObjectType.INET6NUM && type != ObjectType.AUT_NUM) {
+                result = new Message(Messages.Type.ERROR, "Transfer %s is not supported.", value);
+            } else if (type == ObjectType.INETNUM) {
+                try {
+                    InetnumTransfersService.validateInput(resource);
+                    range = Ipv4Range.parse(resource);
+                } catch (BadRequestException | IllegalArgumentException e) {
+                    result = new Message(Messages.Type.ERROR, "Inetnum %s has invalid syntax.", resource);
+                }
+            } else if (type == ObjectType.INET6NUM) {
+                try {
+                    // an inet6num is always a prefix
+                    ipv6Range = Ipv6Range.parse(resource);
+                    if (ipv6Range.splitToPrefixes().size() != 1) {
+                        ipv6Range = null;
+                        result = new Message(Messages.Type.ERROR, "Inet6num %s has invalid syntax.", resource);
+                    }
+                } catch (IllegalArgumentException e) {
+                    result = new Message(Messages.Type.ERROR, "Inet6num %s has invalid syntax.", resource);
+                }
+            } else {
+                try {
+                    autNum = Asn.of(resource);
+                } catch (IllegalArgumentException e) {
+                    // reported when planning the transfer
+                }
+            }
+        }
+    }
+
+    private static class Group {
+        private final ObjectType type;
+        private final boolean income;
+        private final List<Item> items = Lists.newArrayList();
+        private final Ipv6Range ipv6Range;
+        private final Asn autNum;
+        private Ipv4Range range;
+        private String resource;
+
+        private Group(final Item item) {
+            this.type = item.type;
+            this.income = item.income;
+            this.range = item.range;
+            this.ipv6Range = item.ipv6Range;
+            this.autNum = item.autNum;
+            this.resource = item.resource;
+            this.items.add(item);
+        }
+
+        private void add(final Item item) {
+            range = range.merge(item.range);
+            resource = range.toStringInRangeNotation();
+            items.add(item);
+        }
+
+        private String getTypeName() {
+            switch (type) {
+                case AUT_NUM:
+                    return "Aut-num";
+                case INET6NUM:
+                    return "Inet6num";
+                default:
+                    return "Inetnum";
+            }
+        }
+
+        private void setResult(final Message message) {
+            for (Item item : items) {
+                item.result = message;
+            }
+        }
+
+        // merged items share the result of their group, but are reported with their own resource as last argument
+        private void setResult(final Messages.Type messageType, final String format, final Object... args) {
+            for (Item item : items) {
+                item.result = new Message(messageType, format, ObjectArrays.concat(args, item.resource));
+            }
+        }
+    }
+}
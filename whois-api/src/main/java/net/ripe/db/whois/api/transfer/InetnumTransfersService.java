@@ -118,7 +118,7 @@ public class InetnumTransfersService extends AbstractTransferService {
         }
     }
 
-    private void validateInput(final String inetnum) {
+    static void validateInput(final String inetnum) {
         final RpslAttribute attr = new RpslAttribute(AttributeType.INETNUM, inetnum);
         final ObjectMessages msgs = new ObjectMessages();
         attr.validateSyntax(ObjectType.INETNUM, msgs);
@@ -2,9 +2,14 @@ package net.ripe.db.whois.api.transfer.logic;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import net.ripe.commons.ip.AbstractIp;
+import net.ripe.commons.ip.AbstractIpRange;
 import net.ripe.commons.ip.AsnRange;
 import net.ripe.commons.ip.Ipv4;
 import net.ripe.commons.ip.Ipv4Range;
+import net.ripe.commons.ip.Ipv6;
+import net.ripe.commons.ip.Ipv6Range;
 import net.ripe.commons.ip.SortedRangeSet;
 import net.ripe.db.whois.common.dao.ResourceDataDao;
 import net.ripe.db.whois.common.grs.AuthoritativeResource;
@@ -15,6 +20,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -44,54 +51,82 @@ public class AuthoritativeResourceService {
 
     @Transactional
     public void transferInIpv4Block(final String range) {
-        final AuthoritativeResource resources = resourceDataDao.load(source);
+        transferIn(loadIpv4Resources(), Ipv4Range.parse(range));
+    }
 
-        final Iterable<Ipv4Range> overlaps = containsOrOverlaps(resources, range);
-        if (isEmpty(overlaps)) {
-            authoritativeResourceDao.create(source, formatIpv4Resource(range));
-        } else {
-            final Ipv4Range ipv4Range = Ipv4Range.parse(range);
+    @Transactional
+    public void transferOutIpv4Block(final String range) {
+        transferOut(loadIpv4Resources(), Ipv4Range.parse(range));
+    }
+
+    /**
+     * Update the authoritative resources for a batch of transfers, in order.
+     * The current resources are loaded once and kept up to date in memory while processing the batch.
+     */
+    @Transactional
+    public void transferIpv4Blocks(final List<Transfer<Ipv4Range>> transfers) {
+        transfer(loadIpv4Resources(), transfers);
+    }
+
+    /**
+     * Update the authoritative resources for a batch of inet6num transfers, in order.
+     * IPv6 resources are stored as prefixes.
+     */
+    @Transactional
+    public void transferIpv6Blocks(final List<Transfer<Ipv6Range>> transfers) {
+        transfer(loadIpv6Resources(), transfers);
+    }
 
-            for (Ipv4Range overlap : overlaps) {
-                if (overlap.contains(ipv4Range)) {
+    private <C extends AbstractIp<C, R>, R extends AbstractIpRange<C, R>> void transfer(final SortedRangeSet<C, R> resources, final List<Transfer<R>> transfers) {
+        for (Transfer<R> transfer : transfers) {
+            if (transfer.isIncome()) {
+                transferIn(resources, transfer.getResource());
+            } else {
+                transferOut(resources, transfer.getResource());
+            }
+        }
+    }
+
+    private <C extends AbstractIp<C, R>, R extends AbstractIpRange<C, R>> void transferIn(final SortedRangeSet<C, R> resources, final R range) {
+        final List<R> overlaps = containsOrOverlaps(resources, range);
+        if (overlaps.isEmpty()) {
+            create(resources, range);
+        } else {
+            for (R overlap : overlaps) {
+                if (overlap.contains(range)) {
                     // found parent which completely overlaps range, no need to create a new one
                     break;
                 } else {
-                    for (Ipv4Range nonOverlap : ipv4Range.exclude(overlap)) {
+                    for (R nonOverlap : range.exclude(overlap)) {
                         // create new entry for non-overlapping range
-                        authoritativeResourceDao.create(source, nonOverlap.toStringInRangeNotation());
+                        create(resources, nonOverlap);
                     }
                 }
             }
         }
     }
 
-    @Transactional
-    public void transferOutIpv4Block(final String range) {
-        final AuthoritativeResource resources = resourceDataDao.load(source);
-
-        final Iterable<Ipv4Range> overlaps = containsOrOverlaps(resources, range);
-        if (isEmpty(overlaps)) {
-            authoritativeResourceDao.delete(source, formatIpv4Resource(range));
+    private <C extends AbstractIp<C, R>, R extends AbstractIpRange<C, R>> void transferOut(final SortedRangeSet<C, R> resources, final R range) {
+        final List<R> overlaps = containsOrOverlaps(resources, range);
+        if (overlaps.isEmpty()) {
+            delete(resources, range);
         } else {
-            final Ipv4Range ipv4Range = Ipv4Range.parse(range);
-
-            for (Ipv4Range overlap : overlaps) {
-                if (overlap.contains(ipv4Range)) {
+            for (R overlap : overlaps) {
+                if (overlap.contains(range)) {
                     // found a parent range
-                    authoritativeResourceDao.delete(source, overlap.toStringInRangeNotation());
+                    delete(resources, overlap);
 
-                    for (Ipv4Range nonOverlap : overlap.exclude(ipv4Range)) {
+                    for (R nonOverlap : overlap.exclude(range)) {
                         // create new entry for non-overlapping range
-                        authoritativeResourceDao.create(source, nonOverlap.toStringInRangeNotation());
+                        create(resources, nonOverlap);
                     }
                 } else {
-                    if (overlap.overlaps(ipv4Range)) {
-                        authoritativeResourceDao.delete(source, overlap.toStringInRangeNotation());
+                    if (overlap.overlaps(range)) {
+                        delete(resources, overlap);
 
-                        for (Ipv4Range nonOverlap : overlap.exclude(ipv4Range)) {
+                        for (R nonOverlap : overlap.exclude(range)) {
                             // create new entry for non-overlapping range
-                            authoritativeResourceDao.create(source, nonOverlap.toStringInRangeNotation());
+                            create(resources, nonOverlap);
                         }
                     }
                 }
@@ -99,6 +134,32 @@ public class AuthoritativeResourceService {
         }
     }
 
+    private <C extends AbstractIp<C, R>, R extends AbstractIpRange<C, R>> void create(final SortedRangeSet<C, R> resources, final R range) {
+        for (String resource : format(range)) {
+            authoritativeResourceDao.create(source, resource);
+        }
+        resources.add(range);
+    }
+
+    private <C extends AbstractIp<C, R>, R extends AbstractIpRange<C, R>> void delete(final SortedRangeSet<C, R> resources, final R range) {
+        for (String resource : format(range)) {
+            authoritativeResourceDao.delete(source, resource);
+        }
+        resources.remove(range);
+    }
+
+    private static List<String> format(final AbstractIpRange<?, ?> range) {
+        if (range instanceof Ipv4Range) {
+            return Collections.singletonList(range.toStringInRangeNotation());
+        }
+
+        final List<String> prefixes = Lists.newArrayList();
+        for (AbstractIpRange<?, ?> prefix : range.splitToPrefixes()) {
+            prefixes.add(prefix.toStringInCidrNotation());
+        }
+        return prefixes;
+    }
+
     @Transactional
     public void transferInAsBlock(final String asBlock) {
         authoritativeResourceDao.create(source.toLowerCase(), formatAsBlock(asBlock));
@@ -109,14 +170,28 @@ public class AuthoritativeResourceService {
         authoritativeResourceDao.delete(source.toLowerCase(), formatAsBlock(asBlock));
     }
 
-    private Iterable<Ipv4Range> containsOrOverlaps(final AuthoritativeResource resources, final String range) {
-        final Ipv4Range ipv4Range = Ipv4Range.parse(range);
-        return Iterables.filter(extractIpv4Resources(resources), new Predicate<Ipv4Range>() {
+    private SortedRangeSet<Ipv4, Ipv4Range> loadIpv4Resources() {
+        return extractIpv4Resources(resourceDataDao.load(source));
+    }
+
+    private SortedRangeSet<Ipv6, Ipv6Range> loadIpv6Resources() {
+        final SortedRangeSet<Ipv6, Ipv6Range> results = new SortedRangeSet<>();
+        for (String resource : resourceDataDao.load(source).getResources()) {
+            if (resource.indexOf(':') >= 0) {
+                results.add(Ipv6Range.parse(resource));
+            }
+        }
+
+        return results;
+    }
+
+    private <C extends AbstractIp<C, R>, R extends AbstractIpRange<C, R>> List<R> containsOrOverlaps(final SortedRangeSet<C, R> resources, final R range) {
+        return Lists.newArrayList(Iterables.filter(resources, new Predicate<R>() {
             @Override
-            public boolean apply(final Ipv4Range input) {
-                return input.contains(ipv4Range) || input.overlaps(ipv4Range);
+            public boolean apply(final R input) {
+                return input.contains(range) || input.overlaps(range);
             }
-        });
+        }));
     }
 
     private SortedRangeSet<Ipv4, Ipv4Range> extractIpv4Resources(final AuthoritativeResource resources) {
@@ -130,16 +205,7 @@ public class AuthoritativeResourceService {
         return results;
     }
 
-
-    private String formatIpv4Resource(final String range) {
-        return Ipv4Range.parse(range).toStringInRangeNotation();
-    }
-
     private String formatAsBlock(final String asBlock) {
         return AsnRange.parse(asBlock).toString();
     }
-
-    private boolean isEmpty(final Iterable iterable) {
-        return !iterable.iterator().hasNext();
-    }
 }
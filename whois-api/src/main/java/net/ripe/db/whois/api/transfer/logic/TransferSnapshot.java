@@ -0,0 +1,213 @@
+package net.ripe.db.whois.api.transfer.logic;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.ripe.commons.ip.AbstractRange;
+import net.ripe.commons.ip.Asn;
+import net.ripe.commons.ip.AsnRange;
+import net.ripe.commons.ip.Ipv4;
+import net.ripe.commons.ip.Ipv4Range;
+import net.ripe.commons.ip.Ipv6;
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.commons.ip.Rangeable;
+import net.ripe.db.whois.api.rest.domain.Action;
+import net.ripe.db.whois.api.rest.domain.ActionRequest;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.attrs.AsBlockRange;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The inetnums, inet6nums and as-blocks needed to plan a number of transfers, loaded once.
+ *
+ * Planned actions are applied to the snapshot, so later transfers are planned against the result of earlier ones.
+ * The snapshot also keeps the net changes: an object created by one transfer and deleted by a later one
+ * (e.g. a placeholder that is merged again) is not changed at all.
+ */
+public class TransferSnapshot {
+
+    private final Resources<Ipv4, Ipv4Range> inetnums = new Resources<Ipv4, Ipv4Range>() {
+        @Override
+        Ipv4Range parse(final RpslObject rpslObject) {
+            return Ipv4Range.parse(rpslObject.getKey().toString());
+        }
+    };
+
+    private final Resources<Ipv6, Ipv6Range> inet6nums = new Resources<Ipv6, Ipv6Range>() {
+        @Override
+        Ipv6Range parse(final RpslObject rpslObject) {
+            return Ipv6Range.parse(rpslObject.getKey().toString());
+        }
+    };
+
+    private final Resources<Asn, AsnRange> asBlocks = new Resources<Asn, AsnRange>() {
+        @Override
+        AsnRange parse(final RpslObject rpslObject) {
+            final AsBlockRange asBlockRange = AsBlockRange.parse(rpslObject.getKey().toString());
+            return AsnRange.from(asBlockRange.getBegin()).to(asBlockRange.getEnd());
+        }
+    };
+
+    private final List<ActionRequest> changes = Lists.newArrayList();
+
+    public TransferSnapshot(final Collection<RpslObject> rpslObjects) {
+        for (RpslObject rpslObject : rpslObjects) {
+            getResources(rpslObject).put(rpslObject);
+        }
+    }
+
+    /**
+     * @return the inetnum with the given range and all less specific inetnums, the least specific first
+     */
+    public List<RpslObject> findExactAndAllLessSpecificInetnums(final Ipv4Range range) {
+        return inetnums.findExactAndAllLessSpecific(range);
+    }
+
+    public Optional<RpslObject> findMostSpecificInetnum(final Ipv4 address) {
+        return inetnums.findMostSpecific(address.asRange());
+    }
+
+    /**
+     * @return the inet6num with the given range and all less specific inet6nums, the least specific first
+     */
+    public List<RpslObject> findExactAndAllLessSpecificInet6nums(final Ipv6Range range) {
+        return inet6nums.findExactAndAllLessSpecific(range);
+    }
+
+    public Optional<RpslObject> findMostSpecificInet6num(final Ipv6 address) {
+        return inet6nums.findMostSpecific(address.asRange());
+    }
+
+    public Optional<RpslObject> findAsBlock(final Asn asn) {
+        return asBlocks.findMostSpecific(asn.asRange());
+    }
+
+    public void apply(final List<ActionRequest> requests) {
+        for (ActionRequest request : requests) {
+            final RpslObject rpslObject = request.getRpslObject();
+            final Resources<?, ?> resources = getResources(rpslObject);
+
+            switch (request.getAction()) {
+                case CREATE:
+                    resources.put(rpslObject);
+                    changes.add(request);
+                    break;
+                case MODIFY:
+                    resources.put(rpslObject);
+                    if (!replaceChange(resources, rpslObject)) {
+                        changes.add(request);
+                    }
+                    break;
+                case DELETE:
+                    resources.remove(rpslObject);
+                    if (!removeCreated(resources, rpslObject)) {
+                        changes.add(request);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected action " + request.getAction());
+            }
+        }
+    }
+
+    /**
+     * @return the changes to perform, in the order planned
+     */
+    public List<ActionRequest> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    // a created or modified object that is modified again is changed only once
+    private boolean replaceChange(final Resources<?, ?> resources, final RpslObject rpslObject) {
+        for (int index = 0; index < changes.size(); index++) {
+            final ActionRequest change = changes.get(index);
+            if (change.getAction() != Action.DELETE && resources.isSameResource(change.getRpslObject(), rpslObject)) {
+                changes.set(index, new ActionRequest(rpslObject, change.getAction()));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // an object created (and possibly modified) in this snapshot that is deleted again is not created at all
+    private boolean removeCreated(final Resources<?, ?> resources, final RpslObject rpslObject) {
+        for (Iterator<ActionRequest> iterator = changes.iterator(); iterator.hasNext(); ) {
+            final ActionRequest change = iterator.next();
+            if (change.getAction() == Action.DELETE || !resources.isSameResource(change.getRpslObject(), rpslObject)) {
+                continue;
+            }
+
+            iterator.remove();
+            if (change.getAction() == Action.CREATE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Resources<?, ?> getResources(final RpslObject rpslObject) {
+        switch (rpslObject.getType()) {
+            case INETNUM:
+                return inetnums;
+            case INET6NUM:
+                return inet6nums;
+            case AS_BLOCK:
+                return asBlocks;
+            default:
+                throw new IllegalArgumentException("Unexpected object type " + rpslObject.getType().getName());
+        }
+    }
+
+    private abstract static class Resources<C extends Rangeable<C, R>, R extends AbstractRange<C, R>> {
+        private final Map<R, RpslObject> objects = Maps.newHashMap();
+
+        abstract R parse(RpslObject rpslObject);
+
+        void put(final RpslObject rpslObject) {
+            objects.put(parse(rpslObject), rpslObject);
+        }
+
+        void remove(final RpslObject rpslObject) {
+            objects.remove(parse(rpslObject));
+        }
+
+        boolean isSameResource(final RpslObject rpslObject, final RpslObject other) {
+            return rpslObject.getType() == other.getType() && parse(rpslObject).equals(parse(other));
+        }
+
+        List<RpslObject> findExactAndAllLessSpecific(final R range) {
+            final List<R> matches = Lists.newArrayList();
+            for (R candidate : objects.keySet()) {
+                if (candidate.contains(range)) {
+                    matches.add(candidate);
+                }
+            }
+
+            // all matches contain the range, so they are nested: sort the least specific first
+            Collections.sort(matches, new Comparator<R>() {
+                @Override
+                public int compare(final R first, final R second) {
+                    final int start = first.start().compareTo(second.start());
+                    return start != 0 ? start : second.end().compareTo(first.end());
+                }
+            });
+
+            final List<RpslObject> result = Lists.newArrayListWithExpectedSize(matches.size());
+            for (R match : matches) {
+                result.add(objects.get(match));
+            }
+            return result;
+        }
+
+        Optional<RpslObject> findMostSpecific(final R range) {
+            final List<RpslObject> matches = findExactAndAllLessSpecific(range);
+            return matches.isEmpty() ? Optional.<RpslObject>absent() : Optional.of(matches.get(matches.size() - 1));
+        }
+    }
+}
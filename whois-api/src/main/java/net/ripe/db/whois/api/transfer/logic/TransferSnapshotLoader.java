@@ -0,0 +1,100 @@
+package net.ripe.db.whois.api.transfer.logic;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import net.ripe.commons.ip.Asn;
+import net.ripe.commons.ip.Ipv4Range;
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.db.whois.common.dao.RpslObjectDao;
+import net.ripe.db.whois.common.domain.Identifiable;
+import net.ripe.db.whois.common.ip.Ipv4Resource;
+import net.ripe.db.whois.common.ip.Ipv6Resource;
+import net.ripe.db.whois.common.iptree.Ipv4Tree;
+import net.ripe.db.whois.common.iptree.Ipv6Tree;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads a {@link TransferSnapshot} with every object that planning the given transfers can look at:
+ * the inetnums and inet6nums containing the transferred ranges or the addresses next to them,
+ * and the as-blocks containing the transferred aut-nums or the aut-nums next to them.
+ *
+ * The ip trees are used to find the objects, which are then loaded with a single query; as-blocks with another.
+ */
+@Component
+public class TransferSnapshotLoader {
+    private final Ipv4Tree ipv4Tree;
+    private final Ipv6Tree ipv6Tree;
+    private final RpslObjectDao rpslObjectDao;
+
+    @Autowired
+    public TransferSnapshotLoader(final Ipv4Tree ipv4Tree, final Ipv6Tree ipv6Tree, final RpslObjectDao rpslObjectDao) {
+        this.ipv4Tree = ipv4Tree;
+        this.ipv6Tree = ipv6Tree;
+        this.rpslObjectDao = rpslObjectDao;
+    }
+
+    public TransferSnapshot load(final Collection<Ipv4Range> inetnums, final Collection<Ipv6Range> inet6nums, final Collection<Asn> autNums) {
+        final Set<Identifiable> identifiables = Sets.newLinkedHashSet();
+
+        for (Ipv4Range range : inetnums) {
+            identifiables.addAll(ipv4Tree.findExactAndAllLessSpecific(toResource(range)));
+            if (range.start().hasPrevious()) {
+                identifiables.addAll(ipv4Tree.findExactAndAllLessSpecific(toResource(range.start().previous().asRange())));
+            }
+            if (range.end().hasNext()) {
+                identifiables.addAll(ipv4Tree.findExactAndAllLessSpecific(toResource(range.end().next().asRange())));
+            }
+        }
+
+        for (Ipv6Range range : inet6nums) {
+            identifiables.addAll(ipv6Tree.findExactAndAllLessSpecific(toResource(range)));
+            if (range.start().hasPrevious()) {
+                identifiables.addAll(ipv6Tree.findExactAndAllLessSpecific(toResource(range.start().previous().asRange())));
+            }
+            if (range.end().hasNext()) {
+                identifiables.addAll(ipv6Tree.findExactAndAllLessSpecific(toResource(range.end().next().asRange())));
+            }
+        }
+
+        final List<RpslObject> rpslObjects = Lists.newArrayList();
+        if (!identifiables.isEmpty()) {
+            rpslObjectDao.load(Lists.newArrayList(identifiables), rpslObjects);
+        }
+
+        if (!autNums.isEmpty()) {
+            // as-blocks are few, so load all of them between the lowest and highest aut-num at once
+            long begin = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+            for (Asn autNum : autNums) {
+                begin = Math.min(begin, autNum.asBigInteger().longValue());
+                end = Math.max(end, autNum.asBigInteger().longValue());
+            }
+            rpslObjects.addAll(rpslObjectDao.findAsBlockIntersections(Math.max(begin - 1, Asn.ASN_MIN_VALUE), Math.min(end + 1, Asn.ASN_32_BIT_MAX_VALUE)));
+        }
+
+        return new TransferSnapshot(rpslObjects);
+    }
+
+    public TransferSnapshot loadInetnum(final Ipv4Range range) {
+        return load(Collections.singletonList(range), Collections.<Ipv6Range>emptyList(), Collections.<Asn>emptyList());
+    }
+
+    public TransferSnapshot loadAutNum(final Asn autNum) {
+        return load(Collections.<Ipv4Range>emptyList(), Collections.<Ipv6Range>emptyList(), Collections.singletonList(autNum));
+    }
+
+    private static Ipv4Resource toResource(final Ipv4Range range) {
+        return new Ipv4Resource(range.start().asBigInteger().longValue(), range.end().asBigInteger().longValue());
+    }
+
+    private static Ipv6Resource toResource(final Ipv6Range range) {
+        return new Ipv6Resource(range.start().asBigInteger(), range.end().asBigInteger());
+    }
+}
@@ -8,9 +8,10 @@ import net.ripe.db.whois.api.rest.domain.ActionRequest;
 import net.ripe.db.whois.api.rest.domain.ErrorMessage;
 import net.ripe.db.whois.api.transfer.logic.AuthoritativeResourceService;
 import net.ripe.db.whois.api.transfer.logic.Transfer;
+import net.ripe.db.whois.api.transfer.logic.TransferSnapshot;
+import net.ripe.db.whois.api.transfer.logic.TransferSnapshotLoader;
 import net.ripe.db.whois.api.transfer.logic.TransferStage;
 import net.ripe.db.whois.api.transfer.logic.asn.stages.*;
-import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,17 +29,17 @@ public class AsnTransferLogic {
 
     public static final String ASN_TRANSFER_SERVICE = "asnTransferService";
     private static final Logger LOGGER = LoggerFactory.getLogger(AsnTransferLogic.class);
-    private final RpslObjectDao rpslObjectDao;
+    private final TransferSnapshotLoader transferSnapshotLoader;
     private final AuthoritativeResourceService authoritativeResourceService;
     private final String source;
 
     private final TransferStage transferPipeline;
 
     @Autowired
-    public AsnTransferLogic(final RpslObjectDao rpslObjectDao,
+    public AsnTransferLogic(final TransferSnapshotLoader transferSnapshotLoader,
                             final AuthoritativeResourceService authoritativeResourceService,
                             final @Value("${whois.source}") String source) {
-        this.rpslObjectDao = rpslObjectDao;
+        this.transferSnapshotLoader = transferSnapshotLoader;
         this.authoritativeResourceService = authoritativeResourceService;
         this.source = source;
 
@@ -59,8 +60,15 @@ public class AsnTransferLogic {
 
         validateAutnumInput(stringAutNum);
 
+        return transferInSteps(stringAutNum, transferSnapshotLoader.loadAutNum(Asn.of(stringAutNum)));
+    }
+
+    public List<ActionRequest> transferInSteps(final String stringAutNum, final TransferSnapshot snapshot) {
+
+        validateAutnumInput(stringAutNum);
+
         final Transfer<Asn> transfer = AsnTransfer.buildIncoming(stringAutNum);
-        final Optional<RpslObject> originalAsBlock = findBlock(transfer.getResource());
+        final Optional<RpslObject> originalAsBlock = snapshot.findAsBlock(transfer.getResource());
 
         validateTargetBlock(transfer, originalAsBlock);
 
@@ -68,15 +76,22 @@ public class AsnTransferLogic {
             return Collections.emptyList();
         }
 
-        return getTransferSteps(transfer, originalAsBlock.get());
+        return getTransferSteps(transfer, originalAsBlock.get(), snapshot);
     }
 
     public List<ActionRequest> getTransferOutSteps(final String stringAutNum) {
 
         validateAutnumInput(stringAutNum);
 
+        return getTransferOutSteps(stringAutNum, transferSnapshotLoader.loadAutNum(Asn.of(stringAutNum)));
+    }
+
+    public List<ActionRequest> getTransferOutSteps(final String stringAutNum, final TransferSnapshot snapshot) {
+
+        validateAutnumInput(stringAutNum);
+
         final Transfer<Asn> transfer = AsnTransfer.buildOutgoing(stringAutNum);
-        final Optional<RpslObject> originalAsBlock = findBlock(transfer.getResource());
+        final Optional<RpslObject> originalAsBlock = snapshot.findAsBlock(transfer.getResource());
 
         validateTargetBlock(transfer, originalAsBlock);
 
@@ -84,7 +99,7 @@ public class AsnTransferLogic {
             return Collections.emptyList();
         }
 
-        return getTransferSteps(transfer, originalAsBlock.get());
+        return getTransferSteps(transfer, originalAsBlock.get(), snapshot);
     }
 
     private void validateAutnumInput(final String rawInput) {
@@ -117,15 +132,15 @@ public class AsnTransferLogic {
         }
     }
 
-    private List<ActionRequest> getTransferSteps(final Transfer<Asn> transfer, final RpslObject originalAsBlock) {
+    private List<ActionRequest> getTransferSteps(final Transfer<Asn> transfer, final RpslObject originalAsBlock, final TransferSnapshot snapshot) {
         LOGGER.debug("Start performing {}", transfer);
 
         Preconditions.checkArgument(transfer != null);
         Preconditions.checkArgument(originalAsBlock != null);
 
         // get neighbours or absent when to direct neighbour is found
-        Optional<RpslObject> precedingBlock = getLeftDirectNeighbour(transfer, originalAsBlock);
-        Optional<RpslObject> followingBlock = getRightDirectNeighbour(transfer, originalAsBlock);
+        Optional<RpslObject> precedingBlock = getLeftDirectNeighbour(transfer, originalAsBlock, snapshot);
+        Optional<RpslObject> followingBlock = getRightDirectNeighbour(transfer, originalAsBlock, snapshot);
 
         // Push the context through all stages of the pipeline
         final List<ActionRequest> requests = transferPipeline.doTransfer(
@@ -143,23 +158,23 @@ public class AsnTransferLogic {
         }
     }
 
-    private Optional<RpslObject> getLeftDirectNeighbour(final Transfer<Asn> transfer, final RpslObject originalAsBlock) {
-        return getDirectNeighbour(transfer, originalAsBlock, true);
+    private Optional<RpslObject> getLeftDirectNeighbour(final Transfer<Asn> transfer, final RpslObject originalAsBlock, final TransferSnapshot snapshot) {
+        return getDirectNeighbour(transfer, originalAsBlock, snapshot, true);
     }
 
-    private Optional<RpslObject> getRightDirectNeighbour(final Transfer<Asn> transfer, final RpslObject originalAsBlock) {
-        return getDirectNeighbour(transfer, originalAsBlock, false);
+    private Optional<RpslObject> getRightDirectNeighbour(final Transfer<Asn> transfer, final RpslObject originalAsBlock, final TransferSnapshot snapshot) {
+        return getDirectNeighbour(transfer, originalAsBlock, snapshot, false);
     }
 
-    private Optional<RpslObject> getDirectNeighbour(final Transfer<Asn> transfer, final RpslObject originalAsBlock, boolean left) {
+    private Optional<RpslObject> getDirectNeighbour(final Transfer<Asn> transfer, final RpslObject originalAsBlock, final TransferSnapshot snapshot, boolean left) {
         Preconditions.checkArgument(transfer != null);
         Preconditions.checkArgument(originalAsBlock != null);
 
         Optional<RpslObject> neighbour;
         if (left) {
-            neighbour = findBlock(transfer.getResource().previous());
+            neighbour = snapshot.findAsBlock(transfer.getResource().previous());
         } else {
-            neighbour = findBlock(transfer.getResource().next());
+            neighbour = snapshot.findAsBlock(transfer.getResource().next());
         }
         if (neighbour.isPresent()) {
             if (neighbour.get().getKey().equals(originalAsBlock.getKey())) {
@@ -196,17 +211,6 @@ public class AsnTransferLogic {
         return builder.toString();
     }
 
-    private Optional<RpslObject> findBlock(Asn asn) {
-        final long begin, end;
-        begin = end = asn.asBigInteger().longValue();
-        RpslObject obj = rpslObjectDao.findAsBlock(begin, end);
-        if (obj == null) {
-            return Optional.absent();
-        }
-
-        return Optional.of(obj);
-    }
-
     public void updateAuthoritativeResources(final List<ActionRequest> actionRequests) {
         try {
             for (ActionRequest actionRequest : actionRequests) {
@@ -0,0 +1,30 @@
+package net.ripe.db.whois.api.transfer.logic.inet6num;
+
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.db.whois.api.transfer.logic.Transfer;
+
+/**
+ * Inet6num placeholders are recognised by the same netnames as inetnum placeholders,
+ * see {@link net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfer}.
+ */
+public class Inet6numTransfer extends Transfer<Ipv6Range> {
+
+    private Inet6numTransfer(final Ipv6Range ipv6Range, final boolean income) {
+        super(ipv6Range, income);
+    }
+
+    public static Transfer buildOutgoing(final String inet6num) {
+        return new Inet6numTransfer(Ipv6Range.parse(inet6num), false);
+    }
+
+    public static Transfer buildIncoming(final String inet6num) {
+        return new Inet6numTransfer(Ipv6Range.parse(inet6num), true);
+    }
+
+    public String toString() {
+        return String.format("Transfer %s of inet6num %s",
+                (isIncome() ? "in" : "out"),
+                this.getResource());
+    }
+
+}
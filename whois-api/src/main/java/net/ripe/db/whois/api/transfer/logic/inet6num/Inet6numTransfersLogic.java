@@ -0,0 +1,121 @@
+package net.ripe.db.whois.api.transfer.logic.inet6num;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.db.whois.api.rest.domain.ActionRequest;
+import net.ripe.db.whois.api.transfer.logic.Transfer;
+import net.ripe.db.whois.api.transfer.logic.TransferSnapshot;
+import net.ripe.db.whois.api.transfer.logic.TransferStage;
+import net.ripe.db.whois.api.transfer.logic.inet6num.stages.CreatePlaceholderForInet6numStage;
+import net.ripe.db.whois.api.transfer.logic.inet6num.stages.CreatePlaceholderForWhatIsLeftInet6numStage;
+import net.ripe.db.whois.api.transfer.logic.inet6num.stages.DeleteOriginalInet6numStage;
+import net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfer;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotFoundException;
+import java.util.List;
+
+/**
+ * Plans inet6num transfers in the same way as {@link net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfersLogic}
+ * plans inetnum transfers; inet6nums are only transferred in batches.
+ */
+@Service
+public class Inet6numTransfersLogic {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Inet6numTransfersLogic.class);
+    private final TransferStage transferInPipeline;
+    private final TransferStage transferOutPipeline;
+
+    @Autowired
+    public Inet6numTransfersLogic(final @Value("${whois.source}") String source) {
+        this.transferInPipeline = new DeleteOriginalInet6numStage(source)
+                .next(new CreatePlaceholderForWhatIsLeftInet6numStage(source));
+        this.transferOutPipeline = new CreatePlaceholderForInet6numStage(source);
+    }
+
+    public List<ActionRequest> getTransferOutActions(final String inet6num, final TransferSnapshot snapshot) {
+        final List<ActionRequest> requests = Lists.newArrayList();
+
+        final Ipv6Range range = Ipv6Range.parse(inet6num);
+        final List<RpslObject> searchResults = snapshot.findExactAndAllLessSpecificInet6nums(range);
+        validateSearchResults(inet6num, searchResults);
+
+        final RpslObject matchingObject = Iterables.getLast(searchResults);
+
+        if (InetnumTransfer.isNonRipeResource(matchingObject)) {
+            LOGGER.warn("Inet6num {} is already non-RIPE", inet6num);
+            // no transfer tasks to be performed
+        } else {
+            if (Ipv6Range.parse(matchingObject.getKey().toString()).isSameRange(range)) {
+                throw new BadRequestException(inet6num + " is an exact match and cannot be transferred out");
+            }
+
+            final Optional<RpslObject> preceding = range.start().hasPrevious() ?
+                    getNeighbour(snapshot.findMostSpecificInet6num(range.start().previous())) :
+                    Optional.<RpslObject>absent();
+            final Optional<RpslObject> following = range.end().hasNext() ?
+                    getNeighbour(snapshot.findMostSpecificInet6num(range.end().next())) :
+                    Optional.<RpslObject>absent();
+
+            final Transfer transfer = Inet6numTransfer.buildOutgoing(inet6num);
+            requests.addAll(transferOutPipeline.doTransfer(transfer, preceding, matchingObject, following));
+        }
+
+        logSteps(requests);
+
+        return requests;
+    }
+
+    public List<ActionRequest> getTransferInActions(final String inet6num, final TransferSnapshot snapshot) {
+        final List<ActionRequest> requests = Lists.newArrayList();
+
+        final List<RpslObject> searchResults = snapshot.findExactAndAllLessSpecificInet6nums(Ipv6Range.parse(inet6num));
+        validateSearchResults(inet6num, searchResults);
+
+        final Transfer transfer = Inet6numTransfer.buildIncoming(inet6num);
+        for (RpslObject rpslObject : Lists.reverse(searchResults)) {
+            if (InetnumTransfer.isNonRipeResource(rpslObject)) {
+                requests.addAll(transferInPipeline.doTransfer(transfer, rpslObject));
+                break;
+            }
+        }
+
+        logSteps(requests);
+
+        return requests;
+    }
+
+    private Optional<RpslObject> getNeighbour(final Optional<RpslObject> parent) {
+        if (parent.isPresent() && InetnumTransfer.isNonRipeResource(parent.get())) {
+            return parent;
+        }
+        return Optional.absent();
+    }
+
+    private void logSteps(final List<ActionRequest> requests) {
+        LOGGER.info("Inet6num-transfer tasks:{}", requests.size());
+        for (ActionRequest req : requests) {
+            LOGGER.info("action:{} {}", req.getAction(), req.getRpslObject().getFormattedKey());
+        }
+    }
+
+    private void validateSearchResults(final String inet6num, final List<RpslObject> searchResults) {
+        // only ::/0 is returned: so requested object does not exist
+        if (searchResults.size() <= 1) {
+            LOGGER.info("Inet6num to transfer {} not found", inet6num);
+            throw new NotFoundException("Inet6num " + inet6num + " not found.");
+        }
+
+        if (InetnumTransfer.isIanaResource(Iterables.getLast(searchResults))) {
+            LOGGER.info("Inet6num to transfer {} is owned by IANA", inet6num);
+            throw new BadRequestException("Inet6num " + inet6num + " is owned by IANA.");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.ripe.db.whois.api.transfer.logic.inet6num.stages;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.db.whois.api.rest.domain.Action;
+import net.ripe.db.whois.api.rest.domain.ActionRequest;
+import net.ripe.db.whois.api.transfer.logic.Transfer;
+import net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfer;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+
+import java.util.List;
+
+/**
+ * An inet6num is always a prefix, so neighbouring placeholders are only merged if the result is a single prefix.
+ */
+public class CreatePlaceholderForInet6numStage extends Inet6numTransferStage {
+
+    public static final String TEMPLATE = "" +
+            "inet6num:        %s\n" +
+            "netname:         " + InetnumTransfer.NON_RIPE_NETNAME + "\n" +
+            "descr:           IPv6 address block not managed by the RIPE NCC\n" +
+            "remarks:         ------------------------------------------------------\n" +
+            "remarks:         \n" +
+            "remarks:         You can find the whois server to query, or the\n" +
+            "remarks:         IANA registry to query on this web page:\n" +
+            "remarks:         http://www.iana.org/assignments/ipv6-unicast-address-assignments\n" +
+            "remarks:         \n" +
+            "remarks:         You can access databases of other RIR's at:\n" +
+            "remarks:         \n" +
+            "remarks:         AFRINIC (Africa)\n" +
+            "remarks:         http://www.afrinic.net/ whois.afrinic.net\n" +
+            "remarks:         \n" +
+            "remarks:         APNIC (Asia Pacific)\n" +
+            "remarks:         http://www.apnic.net/ whois.apnic.net\n" +
+            "remarks:         \n" +
+            "remarks:         ARIN (Northern America)\n" +
+            "remarks:         http://www.arin.net/ whois.arin.net\n" +
+            "remarks:         \n" +
+            "remarks:         LACNIC (Latin America and the Carribean)\n" +
+            "remarks:         http://www.lacnic.net/ whois.lacnic.net\n" +
+            "remarks:         \n" +
+            "remarks:         ------------------------------------------------------\n" +
+            "country:         EU # Country is really world wide\n" +
+            "org:             ORG-IANA1-RIPE\n" +
+            "admin-c:         IANA1-RIPE\n" +
+            "tech-c:          IANA1-RIPE\n" +
+            "status:          ALLOCATED-BY-RIR\n" +
+            "mnt-by:          RIPE-NCC-HM-MNT\n" +
+            "mnt-lower:       RIPE-NCC-HM-MNT\n" +
+            "mnt-routes:      RIPE-NCC-RPSL-MNT\n" +
+            "source:          %s";
+
+    public CreatePlaceholderForInet6numStage(final String source) {
+        super(source);
+    }
+
+    @Override
+    protected String getName() {
+        return CreatePlaceholderForInet6numStage.class.getSimpleName();
+    }
+
+    @Override
+    public List<ActionRequest> doTransfer(final Transfer<Ipv6Range> transfer, final Optional<RpslObject> precedingObject, final RpslObject originalObject, final Optional<RpslObject> followingObject) {
+        final List<ActionRequest> requests = Lists.newArrayList();
+
+        final Ipv6Range resource = transfer.getResource();
+        final Optional<Ipv6Range> preceding = getConsecutiveRange(precedingObject, resource);
+        final Optional<Ipv6Range> following = getConsecutiveRange(followingObject, resource);
+
+        if (preceding.isPresent() && following.isPresent() && isPrefix(preceding.get().merge(resource).merge(following.get()))) {
+            requests.add(new ActionRequest(precedingObject.get(), Action.DELETE));
+            requests.add(new ActionRequest(followingObject.get(), Action.DELETE));
+            requests.add(createObject(preceding.get().merge(resource).merge(following.get())));
+        } else if (preceding.isPresent() && isPrefix(preceding.get().merge(resource))) {
+            requests.add(new ActionRequest(precedingObject.get(), Action.DELETE));
+            requests.add(createObject(preceding.get().merge(resource)));
+        } else if (following.isPresent() && isPrefix(following.get().merge(resource))) {
+            requests.add(new ActionRequest(followingObject.get(), Action.DELETE));
+            requests.add(createObject(following.get().merge(resource)));
+        } else {
+            requests.add(createObject(resource));
+        }
+
+        return doNextTransferStep(transfer, precedingObject, originalObject, followingObject, requests);
+    }
+
+    private ActionRequest createObject(final Ipv6Range range) {
+        final RpslObject rpslObject = RpslObject.parse(String.format(TEMPLATE, range.toStringInCidrNotation(), source));
+        return new ActionRequest(rpslObject, Action.CREATE);
+    }
+
+    private Optional<Ipv6Range> getConsecutiveRange(final Optional<RpslObject> rpslObject, final Ipv6Range resource) {
+        if (rpslObject.isPresent()) {
+            final Ipv6Range rangeObject = Ipv6Range.parse(rpslObject.get().getKey().toString());
+            if (rangeObject.isConsecutive(resource)) {
+                return Optional.of(rangeObject);
+            }
+        }
+
+        return Optional.absent();
+    }
+
+    private static boolean isPrefix(final Ipv6Range range) {
+        return range.splitToPrefixes().size() == 1;
+    }
+}
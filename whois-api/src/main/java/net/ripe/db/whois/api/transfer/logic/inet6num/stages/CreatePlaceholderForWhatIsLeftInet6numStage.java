@@ -0,0 +1,55 @@
+package net.ripe.db.whois.api.transfer.logic.inet6num.stages;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.db.whois.api.rest.domain.Action;
+import net.ripe.db.whois.api.rest.domain.ActionRequest;
+import net.ripe.db.whois.api.transfer.logic.Transfer;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectBuilder;
+
+import java.util.List;
+
+public class CreatePlaceholderForWhatIsLeftInet6numStage extends Inet6numTransferStage {
+    public CreatePlaceholderForWhatIsLeftInet6numStage(String source) {
+        super(source);
+    }
+
+    @Override
+    protected String getName() {
+        return CreatePlaceholderForWhatIsLeftInet6numStage.class.getSimpleName();
+    }
+
+    @Override
+    public List<ActionRequest> doTransfer(final Transfer<Ipv6Range> transfer, final Optional<RpslObject> precedingObject, final RpslObject originalObject, final Optional<RpslObject> followingObject) {
+        final List<ActionRequest> requests = Lists.newArrayList();
+
+        final Ipv6Range originalRange = Ipv6Range.parse(originalObject.getKey().toString());
+
+        // an inet6num is always a prefix, so what is left is split up into prefixes
+        final List<Ipv6Range> whatIsLeft = Lists.newArrayList();
+        for (Ipv6Range range : originalRange.exclude(transfer.getResource())) {
+            whatIsLeft.addAll(range.splitToPrefixes());
+        }
+
+        final List<RpslAttribute> originalObjectAttributes = originalObject.getAttributes();
+
+        for (Ipv6Range range : whatIsLeft) {
+            final RpslObjectBuilder whatIsLeftRpslObjectBuilder = new RpslObjectBuilder(Lists.newArrayList(originalObjectAttributes));
+
+            for (RpslAttribute rpslAttribute : originalObjectAttributes) {
+                if (rpslAttribute.getType() == AttributeType.INET6NUM) {
+                    final RpslAttribute newRange = new RpslAttribute(AttributeType.INET6NUM, range.toStringInCidrNotation());
+                    whatIsLeftRpslObjectBuilder.replaceAttribute(rpslAttribute, newRange);
+                }
+            }
+
+            requests.add(new ActionRequest(whatIsLeftRpslObjectBuilder.get(), Action.CREATE));
+        }
+
+        return doNextTransferStep(transfer, precedingObject, originalObject, followingObject, requests);
+    }
+}
@@ -0,0 +1,14 @@
+package net.ripe.db.whois.api.transfer.logic.inet6num.stages;
+
+import net.ripe.commons.ip.Ipv6Range;
+import net.ripe.db.whois.api.transfer.logic.TransferStage;
+
+
+public abstract class Inet6numTransferStage extends TransferStage<Ipv6Range> {
+
+    public Inet6numTransferStage(String source) {
+        super(source);
+    }
+
+
+}
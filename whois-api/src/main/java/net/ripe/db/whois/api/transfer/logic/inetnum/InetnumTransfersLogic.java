@@ -6,22 +6,17 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import net.ripe.commons.ip.Ipv4;
 import net.ripe.commons.ip.Ipv4Range;
-import net.ripe.db.whois.api.QueryBuilder;
 import net.ripe.db.whois.api.rest.domain.ActionRequest;
 import net.ripe.db.whois.api.transfer.logic.Transfer;
+import net.ripe.db.whois.api.transfer.logic.TransferSnapshot;
+import net.ripe.db.whois.api.transfer.logic.TransferSnapshotLoader;
 import net.ripe.db.whois.api.transfer.logic.TransferStage;
 import net.ripe.db.whois.api.transfer.logic.inetnum.stages.CreatePlaceholderForInetnumStage;
 import net.ripe.db.whois.api.transfer.logic.inetnum.stages.CreatePlaceholderForWhatIsLeftStage;
 import net.ripe.db.whois.api.transfer.logic.inetnum.stages.DeleteOriginalInetnumStage;
-import net.ripe.db.whois.common.domain.ResponseObject;
 import net.ripe.db.whois.common.rpsl.AttributeType;
-import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslAttribute;
 import net.ripe.db.whois.common.rpsl.RpslObject;
-import net.ripe.db.whois.query.QueryFlag;
-import net.ripe.db.whois.query.domain.ResponseHandler;
-import net.ripe.db.whois.query.executor.SearchQueryExecutor;
-import net.ripe.db.whois.query.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,22 +26,21 @@ import org.springframework.stereotype.Service;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 @Service
 public class InetnumTransfersLogic {
     private static final Logger LOGGER = LoggerFactory.getLogger(InetnumTransfersLogic.class);
     private final String source;
-    private final SearchQueryExecutor searchQueryExecutor;
+    private final TransferSnapshotLoader transferSnapshotLoader;
     private final TransferStage transferInPipeline;
     private final TransferStage transferOutPipeline;
 
     @Autowired
     public InetnumTransfersLogic( final @Value("${whois.source}") String source,
-                                 final SearchQueryExecutor searchQueryExecutor ) {
+                                 final TransferSnapshotLoader transferSnapshotLoader ) {
         this.source = source;
-        this.searchQueryExecutor = searchQueryExecutor;
+        this.transferSnapshotLoader = transferSnapshotLoader;
 
         this.transferInPipeline = new DeleteOriginalInetnumStage(this.source)
                 .next(new CreatePlaceholderForWhatIsLeftStage(this.source));
@@ -54,14 +48,19 @@ public class InetnumTransfersLogic {
     }
 
     public List<ActionRequest> getTransferOutActions(final String inetnum) {
-        return planOutgoingTransfer(inetnum);
+        return getTransferOutActions(inetnum, transferSnapshotLoader.loadInetnum(Ipv4Range.parse(inetnum)));
     }
 
-    private List<ActionRequest> planOutgoingTransfer(final String inetnum) {
+    public List<ActionRequest> getTransferOutActions(final String inetnum, final TransferSnapshot snapshot) {
+        return planOutgoingTransfer(inetnum, snapshot);
+    }
+
+    private List<ActionRequest> planOutgoingTransfer(final String inetnum, final TransferSnapshot snapshot) {
 
         final List<ActionRequest> requests = Lists.newArrayList();
 
-        final Collection<RpslObject> searchResults = searchInetnumObject(inetnum, QueryFlag.ALL_LESS);
+        final Ipv4Range range = Ipv4Range.parse(inetnum);
+        final List<RpslObject> searchResults = snapshot.findExactAndAllLessSpecificInetnums(range);
 
         validateSearchResults(inetnum, searchResults);
 
@@ -72,13 +71,12 @@ public class InetnumTransfersLogic {
             // no transfer tasks to be performed
         } else {
 
-            final Ipv4Range range = Ipv4Range.parse(inetnum);
             if (isExactMatch(range, matchingObject) == true) {
                 throw new BadRequestException(inetnum + " is an exact match and cannot be transferred out");
             }
 
-            final Optional<RpslObject> preceding = getPrecedingRpslObject(range);
-            final Optional<RpslObject> following = getFollowingRpslObject(range);
+            final Optional<RpslObject> preceding = getPrecedingRpslObject(range, snapshot);
+            final Optional<RpslObject> following = getFollowingRpslObject(range, snapshot);
 
             final Transfer transfer = InetnumTransfer.buildOutgoing(inetnum);
             requests.addAll(transferOutPipeline.doTransfer(transfer, preceding, matchingObject, following));
@@ -101,24 +99,22 @@ public class InetnumTransfersLogic {
         return status;
     }
 
-    private Optional<RpslObject> getPrecedingRpslObject(Ipv4Range range) {
+    private Optional<RpslObject> getPrecedingRpslObject(final Ipv4Range range, final TransferSnapshot snapshot) {
         final Optional<RpslObject> preceding;
         if (range.start().hasPrevious()) {
             final Ipv4 previous = range.start().previous();
-            final Collection<RpslObject> parents = searchInetnumObject(previous.toString(), QueryFlag.ONE_LESS);
-            preceding = getNeighbour(parents);
+            preceding = getNeighbour(snapshot.findMostSpecificInetnum(previous));
         } else {
             preceding = Optional.absent();
         }
         return preceding;
     }
 
-    private Optional<RpslObject> getFollowingRpslObject(Ipv4Range range) {
+    private Optional<RpslObject> getFollowingRpslObject(final Ipv4Range range, final TransferSnapshot snapshot) {
         final Optional<RpslObject> following;
         if (range.end().hasNext()) {
             final Ipv4 next = range.end().next();
-            final Collection<RpslObject> parents = searchInetnumObject(next.toString(), QueryFlag.ONE_LESS);
-            following = getNeighbour(parents);
+            following = getNeighbour(snapshot.findMostSpecificInetnum(next));
         } else {
             following = Optional.absent();
         }
@@ -126,34 +122,29 @@ public class InetnumTransfersLogic {
         return following;
     }
 
-    private Optional<RpslObject> getNeighbour(final Collection<RpslObject> parents) {
-        Optional<RpslObject> result;
-        if (parents.isEmpty()) {
-            result = Optional.absent();
-        } else {
-            final RpslObject reference = Iterables.getLast(parents);
-            if (InetnumTransfer.isNonRipeResource(reference)) {
-                result = Optional.of(reference);
-            } else {
-                result = Optional.absent();
-            }
+    private Optional<RpslObject> getNeighbour(final Optional<RpslObject> parent) {
+        if (parent.isPresent() && InetnumTransfer.isNonRipeResource(parent.get())) {
+            return parent;
         }
-        return result;
+        return Optional.absent();
     }
 
     public List<ActionRequest> getTransferInActions(final String inetnum) {
-        return planIncomingTransfer(inetnum);
+        return getTransferInActions(inetnum, transferSnapshotLoader.loadInetnum(Ipv4Range.parse(inetnum)));
+    }
+
+    public List<ActionRequest> getTransferInActions(final String inetnum, final TransferSnapshot snapshot) {
+        return planIncomingTransfer(inetnum, snapshot);
     }
 
-    private List<ActionRequest> planIncomingTransfer(final String inetnum) {
+    private List<ActionRequest> planIncomingTransfer(final String inetnum, final TransferSnapshot snapshot) {
         final List<ActionRequest> requests = Lists.newArrayList();
 
-        final Collection<RpslObject> searchResults = searchInetnumObject(inetnum, QueryFlag.ALL_LESS);
+        final List<RpslObject> searchResults = snapshot.findExactAndAllLessSpecificInetnums(Ipv4Range.parse(inetnum));
         validateSearchResults(inetnum, searchResults);
 
         final Transfer transfer = InetnumTransfer.buildIncoming(inetnum);
-        Collections.reverse((List) searchResults);
-        for (RpslObject rpslObject : searchResults) {
+        for (RpslObject rpslObject : Lists.reverse(searchResults)) {
             if (InetnumTransfer.isNonRipeResource(rpslObject)) {
                 requests.addAll(transferInPipeline.doTransfer(transfer, rpslObject));
                 break;
@@ -172,39 +163,6 @@ public class InetnumTransfersLogic {
         }
     }
 
-    private Collection<RpslObject> searchInetnumObject(final String inetnum, final QueryFlag level) {
-
-        String queryString = new QueryBuilder()
-                .addCommaList(QueryFlag.SOURCES, source)
-                .addCommaList(QueryFlag.SELECT_TYPES, ObjectType.INETNUM.getName())
-                .addFlag(level)
-                .addFlag(QueryFlag.NO_FILTERING)
-                .addFlag(QueryFlag.NO_IRT)
-                .addFlag(QueryFlag.REVERSE_DOMAIN)
-                .addFlag(QueryFlag.NO_REFERENCED).build(inetnum);
-
-        final Query query = Query.parse(queryString, Query.Origin.REST, true);
-        LOGGER.debug("Query: {}" + query);
-        final List<RpslObject> inetnums = Lists.newArrayList();
-        searchQueryExecutor.execute(query, new ResponseHandler() {
-            @Override
-            public String getApi() {
-                return "API";
-            }
-
-            @Override
-            public void handle(final ResponseObject responseObject) {
-                if( responseObject instanceof RpslObject ) {
-                    final RpslObject obj = (RpslObject)responseObject;
-                    LOGGER.debug("Found: " + obj.getKey() + " with netname " + obj.getValueForAttribute(AttributeType.NETNAME));
-                    inetnums.add( obj );
-                }
-            }
-        });
-
-        return inetnums;
-    }
-
     private void validateSearchResults(final String inetnum, final Collection<RpslObject> searchResults) {
         // only /0 is returned: so requested object does not exist
         if (searchResults.isEmpty() || searchResults.size() == 1) {
@@ -0,0 +1,85 @@
+package net.ripe.db.whois.api.autocomplete;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.IntegrationTest;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Runs the autocomplete tests with the autocomplete index enabled for all object types, so that every query it can
+ * answer is answered from the index instead of the freetext index.
+ */
+@Category(IntegrationTest.class)
+public class AutocompleteIndexTestIntegration extends AutocompleteServiceTestIntegration {
+    @Autowired AutocompleteIndex autocompleteIndex;
+
+    @BeforeClass
+    public static void setIndexTypes() {
+        final List<String> objectTypes = Lists.newArrayList();
+        for (final ObjectType objectType : ObjectType.values()) {
+            objectTypes.add(objectType.getName());
+        }
+        System.setProperty("autocomplete.index.types", Joiner.on(',').join(objectTypes));
+    }
+
+    @AfterClass
+    public static void clearIndexTypes() {
+        System.clearProperty("autocomplete.index.types");
+    }
+
+    @Test
+    public void index_follows_serials() {
+        assertThat(lookupKeys("ad"), is(empty()));
+
+        final RpslObject mntner = databaseHelper.addObject("mntner: AD1-MNT");
+        autocompleteIndex.update();
+        assertThat(lookupKeys("ad"), contains("AD1-MNT"));
+
+        databaseHelper.deleteObject(mntner);
+        autocompleteIndex.update();
+        assertThat(lookupKeys("ad"), is(empty()));
+    }
+
+    @Test
+    public void results_in_lookup_key_order() {
+        assertThat(lookupKeys("a"), contains("AA1-MNT", "AB1-MNT", "AC1-MNT"));
+        assertThat(lookupKeys("mnt"), contains("AA1-MNT", "AB1-MNT", "AC1-MNT", "random1-mnt", "random2-mnt", "something-mnt"));
+    }
+
+    @Test
+    public void unsupported_queries_fall_back() {
+        assertThat(autocompleteIndex.search("aa1 mnt", EnumSet.of(AttributeType.MNTNER), EnumSet.of(ObjectType.MNTNER), 10), is(nullValue()));
+        assertThat(autocompleteIndex.search("", EnumSet.of(AttributeType.MNTNER), EnumSet.of(ObjectType.MNTNER), 10), is(nullValue()));
+        assertThat(autocompleteIndex.search("aa1", EnumSet.of(AttributeType.DESCR), EnumSet.of(ObjectType.MNTNER), 10), is(nullValue()));
+    }
+
+    private List<String> lookupKeys(final String query) {
+        final List<String> lookupKeys = Lists.newArrayList();
+        for (final AutocompleteIndex.Entry entry : autocompleteIndex.search(query, EnumSet.of(AttributeType.MNTNER), EnumSet.of(ObjectType.MNTNER), 10)) {
+            lookupKeys.add(entry.getLookupKey());
+        }
+        return lookupKeys;
+    }
+
+    @Override
+    protected void rebuildIndex() {
+        super.rebuildIndex();
+        autocompleteIndex.rebuild();
+    }
+}
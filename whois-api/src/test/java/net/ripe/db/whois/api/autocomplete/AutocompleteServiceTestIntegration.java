@@ -691,7 +691,7 @@ public class AutocompleteServiceTestIntegration extends AbstractIntegrationTest
         return builder.toString();
     }
 
-    private void rebuildIndex() {
+    protected void rebuildIndex() {
         freeTextIndex.rebuild();
     }
 }
@@ -0,0 +1,165 @@
+package net.ripe.db.whois.api.freetext;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compares the highlights read from term vectors to the highlights of the analyzed stored values.
+ */
+public class FreeTextHighlighterTest {
+    private static final String[] QUERIES = {
+            "remark", "Amsterdam", "test", "10.0.0.0", "10.0", "2001:db8", "example.net", "noc@example.net",
+            "dev1-mnt", "mnt", "remark AND amsterdam", "remark OR street", "remark -amsterdam",
+            "\"second remark\"", "\"street 12\"", "remar*", "ams?erdam", "amsterdm~", "remarks:remark", "descr:second",
+            "inetnum", "T.E.S.T", "ltd"
+    };
+
+    private static RAMDirectory directory;
+    private static IndexReader indexReader;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        directory = new RAMDirectory();
+        try (final IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig(Version.LUCENE_4_10_4, FreeTextIndex.INDEX_ANALYZER))) {
+            indexWriter.addDocument(FreeTextIndex.createDocument(RpslObject.parse(1, "" +
+                    "mntner:  DEV1-MNT\n" +
+                    "descr:   First remark, Second remark\n" +
+                    "remarks: Some remark\n" +
+                    "remarks: Second remark\n" +
+                    "remarks: \n" +
+                    "remarks: remark  remark remark\n" +
+                    "upd-to:  noc@example.net\n" +
+                    "auth:    MD5-PW $1$d9fKeTr2$Si7YudNf4rUGmR71n/cqk/\n" +
+                    "source:  TEST")));
+            indexWriter.addDocument(FreeTextIndex.createDocument(RpslObject.parse(2, "" +
+                    "person:  Test Person\n" +
+                    "address: Street 12\n" +
+                    "address: Amsterdam\n" +
+                    "address: the Netherlands\n" +
+                    "e-mail:  test@example.net\n" +
+                    "nic-hdl: TP1-TEST\n" +
+                    "remarks: remark on Amsterdam\n" +
+                    "mnt-by:  DEV1-MNT\n" +
+                    "source:  TEST")));
+            indexWriter.addDocument(FreeTextIndex.createDocument(RpslObject.parse(3, "" +
+                    "inetnum: 10.0.0.0 - 10.0.0.255\n" +
+                    "netname: TEST-NET\n" +
+                    "descr:   T.E.S.T. Ltd\n" +
+                    "descr:   Amsterdam\n" +
+                    "remarks: 10.0.0.0/24 remark\n" +
+                    "mnt-by:  DEV1-MNT\n" +
+                    "source:  TEST")));
+            indexWriter.addDocument(FreeTextIndex.createDocument(RpslObject.parse(4, "" +
+                    "inet6num: 2001:db8::/32\n" +
+                    "netname:  EXAMPLE-NET\n" +
+                    "descr:    example.net\n" +
+                    "remarks:  2001:db8:1::/48 remark\n" +
+                    "mnt-by:   DEV1-MNT\n" +
+                    "source:   TEST")));
+        }
+
+        indexReader = DirectoryReader.open(directory);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        indexReader.close();
+        directory.close();
+    }
+
+    @Test
+    public void same_highlights_as_analyzed_values() throws Exception {
+        int highlights = 0;
+
+        for (final String queryString : QUERIES) {
+            final Query query = parse(queryString);
+            final FreeTextHighlighter freeTextHighlighter = new FreeTextHighlighter(query, "<b>", "</b>");
+
+            final IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+            for (final ScoreDoc scoreDoc : indexSearcher.search(query, 10).scoreDocs) {
+                final Document document = indexSearcher.doc(scoreDoc.doc);
+                final List<String> expected = analyzedHighlights(query, document);
+
+                assertThat(queryString, toStrings(freeTextHighlighter.highlight(indexReader, scoreDoc.doc, document)), is(expected));
+                highlights += expected.size();
+            }
+        }
+
+        assertThat(highlights, greaterThan(50));
+    }
+
+    @Test
+    public void highlight_repeated_attribute() throws Exception {
+        final FreeTextHighlighter freeTextHighlighter = new FreeTextHighlighter(parse("remark"), "<b>", "</b>");
+
+        assertThat(toStrings(freeTextHighlighter.highlight(indexReader, 0, indexReader.document(0))), contains(
+                "descr=First <b>remark</b>, Second <b>remark</b>",
+                "remarks=Some <b>remark</b>",
+                "remarks=Second <b>remark</b>",
+                "remarks=<b>remark</b>  <b>remark</b> <b>remark</b>"));
+    }
+
+    @Test
+    public void no_highlight_without_matching_terms() throws Exception {
+        final FreeTextHighlighter freeTextHighlighter = new FreeTextHighlighter(parse("amsterdam"), "<b>", "</b>");
+
+        assertThat(freeTextHighlighter.highlight(indexReader, 0, indexReader.document(0)), is(empty()));
+    }
+
+    private static Query parse(final String queryString) throws Exception {
+        final QueryParser queryParser = new MultiFieldQueryParser(FreeTextIndex.FIELD_NAMES, FreeTextIndex.QUERY_ANALYZER);
+        queryParser.setDefaultOperator(QueryParser.Operator.AND);
+        return queryParser.parse(queryString);
+    }
+
+    // highlighting as it was done before term vectors were stored
+    private static List<String> analyzedHighlights(final Query query, final Document document) throws Exception {
+        final Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<b>", "</b>"), new QueryScorer(query));
+        highlighter.setTextFragmenter(new SimpleFragmenter(Integer.MAX_VALUE));
+
+        final List<String> highlights = Lists.newArrayList();
+        for (final IndexableField field : document.getFields()) {
+            final String highlightedValue = highlighter.getBestFragment(FreeTextIndex.INDEX_ANALYZER, field.name(), field.stringValue());
+            if (highlightedValue != null) {
+                highlights.add(field.name() + "=" + highlightedValue);
+            }
+        }
+        return highlights;
+    }
+
+    private static List<String> toStrings(final List<SearchResponse.Arr> arrs) {
+        final List<String> highlights = Lists.newArrayList();
+        for (final SearchResponse.Arr arr : arrs) {
+            highlights.add(arr.getName() + "=" + arr.getStr().getValue());
+        }
+        return highlights;
+    }
+}
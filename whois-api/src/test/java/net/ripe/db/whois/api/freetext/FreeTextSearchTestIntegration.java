@@ -13,14 +13,17 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.oxm.Marshaller;
 
 import javax.ws.rs.BadRequestException;
+import java.io.StringWriter;
 import java.util.List;
 import java.util.Map;
 
 import static net.ripe.db.whois.api.freetext.FreeTextSolrUtils.parseResponse;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
@@ -30,6 +33,7 @@ import static org.junit.Assert.fail;
 @Category(IntegrationTest.class)
 public class FreeTextSearchTestIntegration extends AbstractIntegrationTest {
     @Autowired FreeTextIndex freeTextIndex;
+    @Autowired Marshaller marshaller;
 
     @BeforeClass
     public static void setProperty() {
@@ -118,6 +122,30 @@ public class FreeTextSearchTestIntegration extends AbstractIntegrationTest {
         assertThat(map.keySet(), contains("remarks"));
     }
 
+    @Test
+    public void highlighting_budget_used_up() throws Exception {
+        databaseHelper.addObject(RpslObject.parse("" +
+                "mntner: DEV1-MNT\n" +
+                "remarks: Some remark\n" +
+                "source: RIPE"));
+        databaseHelper.addObject(RpslObject.parse("" +
+                "mntner: DEV2-MNT\n" +
+                "remarks: Second remark\n" +
+                "source: RIPE"));
+        freeTextIndex.rebuild();
+
+        final StringWriter writer = new StringWriter();
+        new FreeTextSearch(freeTextIndex, marshaller, 0).freeTextSearch("q=remark&hl=true", writer);
+
+        final QueryResponse queryResponse = parseResponse(writer.toString());
+
+        assertThat(queryResponse.getResults().getNumFound(), is(2L));
+        final Map<String, Map<String, List<String>>> highlighting = queryResponse.getHighlighting();
+        assertThat(highlighting.keySet(), hasSize(2));
+        assertThat(highlighting.get("1").keySet(), is(empty()));
+        assertThat(highlighting.get("2").keySet(), is(empty()));
+    }
+
     @Test
     public void search_multiple_results_with_facet() throws Exception {
         databaseHelper.addObject(RpslObject.parse("" +
@@ -0,0 +1,207 @@
+package net.ripe.db.whois.api.rest;
+
+import net.ripe.db.whois.api.AbstractIntegrationTest;
+import net.ripe.db.whois.api.rest.domain.WhoisResources;
+import net.ripe.db.whois.common.IntegrationTest;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.iptree.Ipv4Tree;
+import net.ripe.db.whois.common.iptree.Ipv6Tree;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.ws.rs.WebApplicationException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.io.StringWriter;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+@Category(IntegrationTest.class)
+public class GeolocationCacheTestIntegration extends AbstractIntegrationTest {
+    private static final String[] IPKEYS = {
+            "10.0.0.0", "10.1.0.0", "10.1.1.1", "10.1.1.0 - 10.1.1.255", "10.1.2.1", "10.1.3.1",
+            "10.2.0.1", "10.3.0.1", "11.0.0.1", "192.168.0.1", "2001:db8::1", "2001:db8:1::1", "invalid"
+    };
+
+    @Autowired private IpTreeCacheManager ipTreeCacheManager;
+    @Autowired private Ipv4Tree ipv4Tree;
+    @Autowired private Ipv6Tree ipv6Tree;
+
+    private GeolocationCache geolocationCache;
+    private GeolocationService cached;
+    private GeolocationService uncached;
+
+    @Before
+    public void setup() {
+        databaseHelper.addObject("" +
+                "organisation:  ORG-GEO1-TEST\n" +
+                "geoloc:        52.375599 4.899902\n" +
+                "language:      NL\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "organisation:  ORG-NOGEO1-TEST\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inetnum:       0.0.0.0 - 255.255.255.255\n" +
+                "status:        ALLOCATED UNSPECIFIED\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inetnum:       10.0.0.0 - 10.255.255.255\n" +
+                "org:           ORG-GEO1-TEST\n" +
+                "status:        ALLOCATED PA\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inetnum:       10.1.0.0 - 10.1.255.255\n" +
+                "language:      EN\n" +
+                "status:        SUB-ALLOCATED PA\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inetnum:       10.1.1.0 - 10.1.1.255\n" +
+                "org:           ORG-NOGEO1-TEST\n" +
+                "status:        ASSIGNED PA\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inetnum:       10.1.2.0 - 10.1.2.255\n" +
+                "geoloc:        10.0 20.0\n" +
+                "status:        ASSIGNED PA\n" +
+                "source:        TEST");
+        final RpslObject missingOrganisation = databaseHelper.addObject("" +
+                "organisation:  ORG-MISSING1-TEST\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inetnum:       10.2.0.0 - 10.2.255.255\n" +
+                "geoloc:        30.0 40.0\n" +
+                "org:           ORG-MISSING1-TEST\n" +
+                "status:        ASSIGNED PA\n" +
+                "source:        TEST");
+        databaseHelper.deleteObject(missingOrganisation);
+        databaseHelper.addObject("" +
+                "inetnum:       192.168.0.0 - 192.168.255.255\n" +
+                "status:        ASSIGNED PA\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inet6num:      2001:db8::/32\n" +
+                "geoloc:        50.0 60.0\n" +
+                "language:      DE\n" +
+                "status:        ALLOCATED-BY-RIR\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inet6num:      2001:db8::/48\n" +
+                "org:           ORG-GEO1-TEST\n" +
+                "status:        ASSIGNED\n" +
+                "source:        TEST");
+
+        ipTreeUpdater.rebuild();
+
+        geolocationCache = new GeolocationCache(ipTreeCacheManager, sourceContext, 100);
+        cached = new GeolocationService(ipv4Tree, ipv6Tree, rpslObjectDao, geolocationCache);
+        uncached = new GeolocationService(ipv4Tree, ipv6Tree, rpslObjectDao, new GeolocationCache(ipTreeCacheManager, sourceContext, 0));
+        // the cache is brought up to date by the next update of the trees
+        ipTreeUpdater.update();
+    }
+
+    @Test
+    public void cached_matches_uncached() {
+        assertSameGeolocations();
+        assertSameGeolocations();
+
+        assertThat(geolocationCache.getStats().hitCount(), greaterThan(0L));
+        assertThat(geolocation(cached, "10.1.1.1"), containsString("<location value=\"52.375599 4.899902\">"));
+        assertThat(geolocation(cached, "10.1.1.1"), containsString("<language value=\"EN\">"));
+        assertThat(geolocation(cached, "10.2.0.1"), is("No geolocation data was found for the given ipkey: 10.2.0.1"));
+    }
+
+    @Test
+    public void organisation_changed() {
+        assertSameGeolocations();
+
+        databaseHelper.updateObject("" +
+                "organisation:  ORG-NOGEO1-TEST\n" +
+                "geoloc:        1.0 2.0\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertSameGeolocations();
+        assertThat(geolocation(cached, "10.1.1.1"), containsString("<location value=\"1.0 2.0\">"));
+    }
+
+    @Test
+    public void missing_organisation_added() {
+        assertSameGeolocations();
+
+        databaseHelper.addObject("" +
+                "organisation:  ORG-MISSING1-TEST\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertSameGeolocations();
+        assertThat(geolocation(cached, "10.2.0.1"), containsString("<location value=\"30.0 40.0\">"));
+    }
+
+    @Test
+    public void less_specific_added_and_deleted() {
+        assertSameGeolocations();
+
+        final RpslObject lessSpecific = databaseHelper.addObject("" +
+                "inetnum:       10.1.0.0 - 10.1.1.255\n" +
+                "geoloc:        5.0 6.0\n" +
+                "status:        SUB-ALLOCATED PA\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertSameGeolocations();
+        assertThat(geolocation(cached, "10.1.1.1"), containsString("<location value=\"5.0 6.0\">"));
+
+        databaseHelper.deleteObject(lessSpecific);
+        ipTreeUpdater.update();
+
+        assertSameGeolocations();
+        assertThat(geolocation(cached, "10.1.1.1"), containsString("<location value=\"52.375599 4.899902\">"));
+    }
+
+    @Test
+    public void stop_status_changed() {
+        assertSameGeolocations();
+
+        databaseHelper.updateObject("" +
+                "inetnum:       10.1.0.0 - 10.1.255.255\n" +
+                "language:      EN\n" +
+                "status:        ASSIGNED PI\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertSameGeolocations();
+        assertThat(geolocation(cached, "10.1.3.1"), containsString("<language value=\"EN\">"));
+        assertThat(geolocation(cached, "10.1.3.1"), not(containsString("52.375599 4.899902")));
+    }
+
+    private void assertSameGeolocations() {
+        for (final String ipkey : IPKEYS) {
+            assertThat(ipkey, geolocation(cached, ipkey), is(geolocation(uncached, ipkey)));
+        }
+    }
+
+    private static String geolocation(final GeolocationService geolocationService, final String ipkey) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/whois/geolocation");
+        request.setQueryString("ipkey=" + ipkey);
+
+        try {
+            final WhoisResources whoisResources = geolocationService.geolocation(request, ipkey);
+            final StringWriter writer = new StringWriter();
+            JAXBContext.newInstance(WhoisResources.class).createMarshaller().marshal(whoisResources, writer);
+            return writer.toString();
+        } catch (WebApplicationException e) {
+            return e.getResponse().getEntity().toString();
+        } catch (JAXBException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package net.ripe.db.whois.api.rest;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.api.rest.mapper.WhoisObjectMapper;
+import net.ripe.db.whois.common.dao.RpslObjectDao;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.RpslObjectUpdateDao;
+import net.ripe.db.whois.common.domain.Identifiable;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.source.Source;
+import net.ripe.db.whois.common.source.SourceContext;
+import net.ripe.db.whois.update.log.LoggerContext;
+import net.ripe.db.whois.update.sso.SsoTranslator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReferencesServiceTest {
+    private static final int MAX_REFERENCES = 4;
+
+    @Mock HttpServletRequest request;
+    @Mock RpslObjectDao rpslObjectDao;
+    @Mock RpslObjectUpdateDao rpslObjectUpdateDao;
+    @Mock SourceContext sourceContext;
+    @Mock InternalUpdatePerformer updatePerformer;
+    @Mock SsoTranslator ssoTranslator;
+    @Mock WhoisService whoisService;
+    @Mock LoggerContext loggerContext;
+    @Mock WhoisObjectMapper whoisObjectMapper;
+    ReferencesService subject;
+
+    final RpslObject mntner = RpslObject.parse(1, "mntner: OWNER-MNT\nadmin-c: TP1-TEST\nmnt-by: OWNER-MNT\nsource: TEST");
+    final RpslObject person = RpslObject.parse(2, "person: Test Person\nnic-hdl: TP1-TEST\nmnt-by: OWNER-MNT\nsource: TEST");
+    final RpslObjectInfo mntnerInfo = new RpslObjectInfo(1, ObjectType.MNTNER, "OWNER-MNT");
+    final RpslObjectInfo personInfo = new RpslObjectInfo(2, ObjectType.PERSON, "TP1-TEST");
+
+    @Before
+    public void setup() {
+        final Map<String, String> dummyMap = ImmutableMap.of("admin-c", "DR1-TEST");
+        subject = new ReferencesService(rpslObjectDao, rpslObjectUpdateDao, sourceContext, updatePerformer, ssoTranslator, whoisService, loggerContext, whoisObjectMapper, dummyMap, MAX_REFERENCES);
+
+        when(rpslObjectDao.getByKey(ObjectType.MNTNER, "OWNER-MNT")).thenReturn(mntner);
+        when(rpslObjectUpdateDao.getReferences(mntner)).thenReturn(Collections.singleton(personInfo));
+        doAnswer(new Answer<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                ((List<RpslObject>) invocation.getArguments()[1]).add(person);
+                return null;
+            }
+        }).when(rpslObjectDao).load(anyListOf(Identifiable.class), anyListOf(RpslObject.class));
+    }
+
+    @Test
+    public void lookup_references_within_maximum() {
+        givenReferencesToPerson(mntnerInfo, new RpslObjectInfo(3, ObjectType.INETNUM, "10.0.0.0 - 10.0.0.255"));
+
+        final ReferencesService.Reference reference = subject.lookup("TEST", "mntner", "OWNER-MNT");
+
+        assertThat(reference.getIncoming(), hasSize(1));
+        assertThat(reference.getIncoming().get(0).getIncoming(), hasSize(2));
+    }
+
+    @Test
+    public void lookup_references_of_references_exceeding_maximum() {
+        givenReferencesToPerson(mntnerInfo,
+                new RpslObjectInfo(3, ObjectType.INETNUM, "10.0.0.0 - 10.0.0.255"),
+                new RpslObjectInfo(4, ObjectType.INETNUM, "10.0.1.0 - 10.0.1.255"),
+                new RpslObjectInfo(5, ObjectType.INETNUM, "10.0.2.0 - 10.0.2.255"));
+
+        try {
+            subject.lookup("TEST", "mntner", "OWNER-MNT");
+            fail("Expected failure");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Object OWNER-MNT has more than 4 references"));
+        }
+    }
+
+    @Test
+    public void delete_references_of_references_exceeding_maximum() {
+        when(sourceContext.getCurrentSource()).thenReturn(Source.master("TEST"));
+        givenReferencesToPerson(mntnerInfo,
+                new RpslObjectInfo(3, ObjectType.INETNUM, "10.0.0.0 - 10.0.0.255"),
+                new RpslObjectInfo(4, ObjectType.INETNUM, "10.0.1.0 - 10.0.1.255"),
+                new RpslObjectInfo(5, ObjectType.INETNUM, "10.0.2.0 - 10.0.2.255"));
+
+        try {
+            subject.delete(request, "TEST", "mntner", "OWNER-MNT", "--", Collections.<String>emptyList(), null, null);
+            fail("Expected failure");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Object OWNER-MNT has more than 4 references"));
+        }
+
+        verifyZeroInteractions(updatePerformer);
+    }
+
+    private void givenReferencesToPerson(final RpslObjectInfo... references) {
+        final Map<RpslObject, Set<RpslObjectInfo>> referencesToReferences = Collections.singletonMap(person, (Set<RpslObjectInfo>) Sets.newHashSet(references));
+        when(rpslObjectUpdateDao.getReferences(anyCollectionOf(RpslObject.class))).thenReturn(referencesToReferences);
+    }
+}
@@ -0,0 +1,232 @@
+package net.ripe.db.whois.api.rest;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.api.rest.domain.ErrorMessage;
+import net.ripe.db.whois.api.rest.domain.ErrorMessages;
+import net.ripe.db.whois.api.rest.domain.Flags;
+import net.ripe.db.whois.api.rest.domain.InverseAttributes;
+import net.ripe.db.whois.api.rest.domain.Link;
+import net.ripe.db.whois.api.rest.domain.Parameters;
+import net.ripe.db.whois.api.rest.domain.QueryString;
+import net.ripe.db.whois.api.rest.domain.QueryStrings;
+import net.ripe.db.whois.api.rest.domain.Service;
+import net.ripe.db.whois.api.rest.domain.Sources;
+import net.ripe.db.whois.api.rest.domain.TypeFilters;
+import net.ripe.db.whois.api.rest.domain.WhoisResources;
+import net.ripe.db.whois.api.rest.mapper.AttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.DirtyServerAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.FormattedClientAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.FormattedServerAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.StreamingAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.WhoisObjectMapper;
+import net.ripe.db.whois.api.rest.mapper.WhoisObjectServerMapper;
+import net.ripe.db.whois.common.Message;
+import net.ripe.db.whois.common.Messages;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.domain.Tag;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.QueryFlag;
+import net.ripe.db.whois.query.domain.TagResponseObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import static net.ripe.db.whois.common.domain.CIString.ciString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StreamingMarshalTest {
+    private static final String BASE_URL = "http://localhost/lookup";
+
+    private static final List<RpslObject> OBJECTS = Lists.newArrayList(
+            RpslObject.parse("" +
+                    "mntner:      TST-MNT\n" +
+                    "descr:       MNTNER for <test> & \"friends\"\n" +
+                    "admin-c:     TP1-TEST\n" +
+                    "upd-to:      dbtest@ripe.net\n" +
+                    "auth:        MD5-PW $1$d9fKeTr2$Si7YudNf4rUGmR71n/cqk/ # test\n" +
+                    "auth:        PGPKEY-28F6CD6C\n" +
+                    "mnt-by:      TST-MNT\n" +
+                    "source:      TEST\n"),
+            RpslObject.parse("" +
+                    "as-set:      AS-set-attendees\n" +
+                    "descr:       AS-set containing all attendees' ASNs.\n" +
+                    "tech-c:      TS1-TEST\n" +
+                    "members:     as1,as2,\n" +
+                    "+            as3 # comment\n" +
+                    "remarks:     multi\n" +
+                    "\tline \u0001value\n" +
+                    "remarks:     éè unicode\n" +
+                    "mnt-by:      TS1-MNT\n" +
+                    "source:      TEST\n"),
+            RpslObject.parse("" +
+                    "route:       10.0.0.0/8\n" +
+                    "origin:      AS123\n" +
+                    "mnt-routes:  TS1-MNT {10.0.0.0/16^+}\n" +
+                    "mnt-by:      TS1-MNT\n" +
+                    "source:      TEST\n"));
+
+    private static final List<String> INVERSE_ATTRIBUTES = Lists.newArrayList("admin-c", "tech-c");
+    private static final List<QueryFlag> FLAGS = Lists.newArrayList(QueryFlag.NO_REFERENCED, QueryFlag.BRIEF);
+    private static final String QUERY_STRING = "TP1-TEST <&>";
+    private static final List<String> SOURCES = Lists.newArrayList("TEST");
+
+    private static final List<Message> MESSAGES = Lists.newArrayList(
+            new Message(Messages.Type.ERROR, "Invalid \"%s\" for <%s>\nsecond line", "value", 1),
+            new Message(Messages.Type.WARNING, "No arguments"));
+
+    @Mock private ReferencedTypeResolver referencedTypeResolver;
+
+    private WhoisObjectServerMapper whoisObjectServerMapper;
+
+    @Before
+    public void setup() {
+        when(referencedTypeResolver.getReferencedType(eq(AttributeType.ADMIN_C), any(CIString.class))).thenReturn("person");
+        when(referencedTypeResolver.getReferencedType(eq(AttributeType.TECH_C), any(CIString.class))).thenReturn("role");
+        when(referencedTypeResolver.getReferencedType(eq(AttributeType.MEMBERS), any(CIString.class))).thenReturn("aut-num");
+        when(referencedTypeResolver.getReferencedType(eq(AttributeType.MNT_BY), any(CIString.class))).thenReturn("mntner");
+        when(referencedTypeResolver.getReferencedType(eq(AttributeType.MNT_ROUTES), any(CIString.class))).thenReturn("mntner");
+        when(referencedTypeResolver.getReferencedType(AttributeType.AUTH, ciString("PGPKEY-28F6CD6C"))).thenReturn("key-cert");
+
+        final FormattedServerAttributeMapper formattedServerAttributeMapper = new FormattedServerAttributeMapper(referencedTypeResolver, BASE_URL);
+        final DirtyServerAttributeMapper dirtyServerAttributeMapper = new DirtyServerAttributeMapper(referencedTypeResolver, BASE_URL);
+
+        final WhoisObjectMapper whoisObjectMapper = new WhoisObjectMapper(BASE_URL, new AttributeMapper[]{
+                formattedServerAttributeMapper,
+                dirtyServerAttributeMapper,
+                new FormattedClientAttributeMapper()
+        });
+
+        whoisObjectServerMapper = new WhoisObjectServerMapper(whoisObjectMapper, new StreamingAttributeMapper[]{
+                formattedServerAttributeMapper,
+                dirtyServerAttributeMapper
+        }, BASE_URL);
+    }
+
+    @Test
+    public void stream_formatted_xml_is_identical_to_marshalled_objects() {
+        assertIdentical(new XmlMarshalFactory(), FormattedServerAttributeMapper.class);
+    }
+
+    @Test
+    public void stream_unformatted_xml_is_identical_to_marshalled_objects() {
+        assertIdentical(new XmlMarshalFactory(), DirtyServerAttributeMapper.class);
+    }
+
+    @Test
+    public void stream_formatted_json_is_identical_to_marshalled_objects() {
+        assertIdentical(new JsonMarshalFactory(), FormattedServerAttributeMapper.class);
+    }
+
+    @Test
+    public void stream_unformatted_json_is_identical_to_marshalled_objects() {
+        assertIdentical(new JsonMarshalFactory(), DirtyServerAttributeMapper.class);
+    }
+
+    // helper methods
+
+    private void assertIdentical(final MarshalFactory marshalFactory, final Class<? extends AttributeMapper> mapFunction) {
+        final TagResponseObject tags = new TagResponseObject(ciString("TST-MNT"), Lists.newArrayList(
+                new Tag(ciString("foo"), "foo <data>"),
+                new Tag(ciString("bar"), "bar data")));
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final StreamingMarshal marshalled = marshalFactory.create(expected);
+        marshalled.open();
+        marshalled.write("service", new Service("search"));
+        marshalled.write("parameters", new Parameters(
+                new InverseAttributes(INVERSE_ATTRIBUTES),
+                new TypeFilters(Collections.<String>emptyList()),
+                new Flags(FLAGS),
+                new QueryStrings(new QueryString(QUERY_STRING)),
+                new Sources(SOURCES),
+                null));
+        startObjects(marshalled);
+        for (final RpslObject rpslObject : OBJECTS) {
+            marshalled.writeArray(whoisObjectServerMapper.map(rpslObject, rpslObject == OBJECTS.get(0) ? tags : null, mapFunction));
+        }
+        endObjects(marshalled);
+        final List<ErrorMessage> errorMessages = Lists.newArrayList();
+        for (final Message message : MESSAGES) {
+            errorMessages.add(new ErrorMessage(message));
+        }
+        marshalled.write("errormessages", new ErrorMessages(errorMessages));
+        marshalled.write("terms-and-conditions", Link.create(WhoisResources.TERMS_AND_CONDITIONS));
+        close(marshalled);
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        final StreamingMarshal streamed = marshalFactory.create(actual);
+        streamed.open();
+        streamed.writeService("search");
+        streamed.startParameters();
+        streamed.writeParameter("inverse-lookup", "inverse-attribute", "value", INVERSE_ATTRIBUTES);
+        streamed.writeParameter("type-filters", "type-filter", "id", Collections.<String>emptyList());
+        streamed.writeParameter("flags", "flag", "value", Lists.newArrayList(QueryFlag.NO_REFERENCED.getName(), QueryFlag.BRIEF.getName()));
+        streamed.writeParameter("query-strings", "query-string", "value", Collections.singletonList(QUERY_STRING));
+        streamed.writeParameter("sources", "source", "id", SOURCES);
+        streamed.endParameters();
+        startObjects(streamed);
+        for (final RpslObject rpslObject : OBJECTS) {
+            whoisObjectServerMapper.stream(rpslObject, rpslObject == OBJECTS.get(0) ? tags : null, mapFunction, streamed);
+        }
+        endObjects(streamed);
+        streamed.startErrorMessages();
+        for (final Message message : MESSAGES) {
+            final List<String> args = Lists.newArrayList();
+            for (final Object arg : message.getArgs()) {
+                args.add(arg.toString());
+            }
+            streamed.writeErrorMessage(message.getType().toString(), message.getText(), args);
+        }
+        streamed.endErrorMessages();
+        streamed.writeLink("terms-and-conditions", WhoisResources.TERMS_AND_CONDITIONS);
+        close(streamed);
+
+        assertThat(actual.toString(), is(expected.toString()));
+    }
+
+    private static void startObjects(final StreamingMarshal streamingMarshal) {
+        streamingMarshal.start("objects");
+        streamingMarshal.startArray("object");
+    }
+
+    private static void endObjects(final StreamingMarshal streamingMarshal) {
+        streamingMarshal.endArray();
+        streamingMarshal.end("objects");
+    }
+
+    private static void close(final StreamingMarshal streamingMarshal) {
+        streamingMarshal.end("whois-resources");
+        streamingMarshal.close();
+    }
+
+    private interface MarshalFactory {
+        StreamingMarshal create(OutputStream outputStream);
+    }
+
+    private static class XmlMarshalFactory implements MarshalFactory {
+        @Override
+        public StreamingMarshal create(final OutputStream outputStream) {
+            return new StreamingMarshalXml(outputStream, "whois-resources");
+        }
+    }
+
+    private static class JsonMarshalFactory implements MarshalFactory {
+        @Override
+        public StreamingMarshal create(final OutputStream outputStream) {
+            return new StreamingMarshalJson(outputStream);
+        }
+    }
+}
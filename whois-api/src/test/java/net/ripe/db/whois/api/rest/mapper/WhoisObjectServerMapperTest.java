@@ -50,11 +50,12 @@ public class WhoisObjectServerMapperTest {
 
     @Before
     public void setup() {
+        final FormattedServerAttributeMapper formattedServerAttributeMapper = new FormattedServerAttributeMapper(referencedTypeResolver, BASE_URL);
         whoisObjectMapper = new WhoisObjectMapper(BASE_URL, new AttributeMapper[]{
-                new FormattedServerAttributeMapper(referencedTypeResolver, BASE_URL),
+                formattedServerAttributeMapper,
                 new FormattedClientAttributeMapper()
         });
-        whoisObjectServerMapper = new WhoisObjectServerMapper(whoisObjectMapper);
+        whoisObjectServerMapper = new WhoisObjectServerMapper(whoisObjectMapper, new StreamingAttributeMapper[]{formattedServerAttributeMapper}, BASE_URL);
     }
 
     @Test
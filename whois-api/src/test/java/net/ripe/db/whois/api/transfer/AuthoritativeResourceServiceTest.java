@@ -1,10 +1,14 @@
 package net.ripe.db.whois.api.transfer;
 
+import com.google.common.collect.Lists;
 import net.ripe.commons.ip.*;
 import net.ripe.db.whois.common.dao.ResourceDataDao;
 import net.ripe.db.whois.common.grs.AuthoritativeResource;
 import net.ripe.db.whois.api.transfer.logic.AuthoritativeResourceDao;
 import net.ripe.db.whois.api.transfer.logic.AuthoritativeResourceService;
+import net.ripe.db.whois.api.transfer.logic.Transfer;
+import net.ripe.db.whois.api.transfer.logic.inet6num.Inet6numTransfer;
+import net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfer;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -77,8 +81,57 @@ public class AuthoritativeResourceServiceTest {
         verify(authoritativeResourceDao).create("test", "193.0.0.0-193.255.254.255");
     }
 
+    @Test
+    public void transfer_ipv4_blocks_loads_resources_once() {
+        when(resourceDataDao.load("test")).thenReturn(createIpv4AuthoritativeResource("193.0.0.0 - 193.255.255.255"));
+
+        subject.transferIpv4Blocks(Lists.<Transfer<Ipv4Range>>newArrayList(
+                InetnumTransfer.buildOutgoing("193.10.0.0 - 193.10.255.255"),
+                InetnumTransfer.buildOutgoing("193.20.0.0 - 193.20.255.255")));
+
+        verify(resourceDataDao).load("test");
+        verify(authoritativeResourceDao).delete("test", "193.0.0.0-193.255.255.255");
+        verify(authoritativeResourceDao).create("test", "193.0.0.0-193.9.255.255");
+        verify(authoritativeResourceDao).create("test", "193.11.0.0-193.255.255.255");
+        verify(authoritativeResourceDao).delete("test", "193.11.0.0-193.255.255.255");
+        verify(authoritativeResourceDao).create("test", "193.11.0.0-193.19.255.255");
+        verify(authoritativeResourceDao).create("test", "193.21.0.0-193.255.255.255");
+        verifyNoMoreInteractions(authoritativeResourceDao, resourceDataDao);
+    }
+
+    @Test
+    public void transfer_ipv6_blocks_as_prefixes() {
+        when(resourceDataDao.load("test")).thenReturn(createIpv6AuthoritativeResource("2001:600::/23"));
+
+        subject.transferIpv6Blocks(Lists.<Transfer<Ipv6Range>>newArrayList(
+                Inet6numTransfer.buildOutgoing("2001:600::/32"),
+                Inet6numTransfer.buildIncoming("2001:2000::/20")));
+
+        verify(resourceDataDao).load("test");
+        verify(authoritativeResourceDao).delete("test", "2001:600::/23");
+        verify(authoritativeResourceDao).create("test", "2001:601::/32");
+        verify(authoritativeResourceDao).create("test", "2001:602::/31");
+        verify(authoritativeResourceDao).create("test", "2001:604::/30");
+        verify(authoritativeResourceDao).create("test", "2001:608::/29");
+        verify(authoritativeResourceDao).create("test", "2001:610::/28");
+        verify(authoritativeResourceDao).create("test", "2001:620::/27");
+        verify(authoritativeResourceDao).create("test", "2001:640::/26");
+        verify(authoritativeResourceDao).create("test", "2001:680::/25");
+        verify(authoritativeResourceDao).create("test", "2001:700::/24");
+        verify(authoritativeResourceDao).create("test", "2001:2000::/20");
+        verifyNoMoreInteractions(authoritativeResourceDao, resourceDataDao);
+    }
+
     // helper methods
 
+    private AuthoritativeResource createIpv6AuthoritativeResource(final String... prefixes) {
+        final SortedRangeSet<Ipv6, Ipv6Range> ipv6RangeSet = new SortedRangeSet<>();
+        for (String prefix : prefixes) {
+            ipv6RangeSet.add(Ipv6Range.parse(prefix));
+        }
+        return new AuthoritativeResource(new SortedRangeSet<Asn, AsnRange>(), new SortedRangeSet<Ipv4, Ipv4Range>(), ipv6RangeSet);
+    }
+
     private AuthoritativeResource createIpv4AuthoritativeResource(final String... ranges) {
         final SortedRangeSet<Ipv4, Ipv4Range> ipv4RangeSet = new SortedRangeSet<>();
         for (String range : ranges) {
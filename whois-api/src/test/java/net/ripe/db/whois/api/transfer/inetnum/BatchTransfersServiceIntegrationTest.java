@@ -0,0 +1,256 @@
+package net.ripe.db.whois.api.transfer.inetnum;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.api.RestTest;
+import net.ripe.db.whois.api.rest.domain.ErrorMessage;
+import net.ripe.db.whois.api.rest.domain.WhoisResources;
+import net.ripe.db.whois.api.syncupdate.SyncUpdateUtils;
+import net.ripe.db.whois.api.transfer.logic.AuthoritativeResourceDao;
+import net.ripe.db.whois.api.transfer.logic.asn.AsnTransfer;
+import net.ripe.db.whois.api.transfer.logic.inet6num.stages.CreatePlaceholderForInet6numStage;
+import net.ripe.db.whois.api.transfer.logic.inetnum.InetnumTransfer;
+import net.ripe.db.whois.api.transfer.logic.inetnum.stages.CreatePlaceholderForInetnumStage;
+import net.ripe.db.whois.common.IntegrationTest;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+@Category(IntegrationTest.class)
+public class BatchTransfersServiceIntegrationTest extends AbstractInetnumTransferInternalTest {
+
+    @Autowired
+    private AuthoritativeResourceDao authoritativeResourceDao;
+
+    @Before
+    public void setUpEach() {
+        authoritativeResourceDao.delete("test", "0.0.0.0/0");
+        authoritativeResourceDao.delete("test", "::/0");
+
+        databaseHelper.addObject("" +
+                "inetnum:         194.0.0.0 - 194.255.255.255\n" +
+                "netname:         EU-ZZ-194\n" +
+                "descr:           IPv4 address block managed by the RIPE NCC\n" +
+                "country:         EU # Country is in fact world wide\n" +
+                "admin-c:         IANA1-RIPE\n" +
+                "tech-c:          IANA1-RIPE\n" +
+                "status:          ALLOCATED UNSPECIFIED\n" +
+                "mnt-by:          RIPE-NCC-HM-MNT\n" +
+                "source:          TEST");
+        authoritativeResourceDao.create("test", "194.0.0.0-194.255.255.255");
+
+        databaseHelper.addObject("" +
+                "inetnum:         194.0.0.0 - 194.0.0.255\n" +
+                "netname:         EU-ZZ-194\n" +
+                "descr:           IPv4 address block managed by the RIPE NCC\n" +
+                "country:         EU # Country is in fact world wide\n" +
+                "admin-c:         IANA1-RIPE\n" +
+                "tech-c:          IANA1-RIPE\n" +
+                "status:          ALLOCATED UNSPECIFIED\n" +
+                "mnt-by:          RIPE-NCC-HM-MNT\n" +
+                "source:          TEST");
+
+        databaseHelper.addObject("" +
+                "as-block:      AS10 - AS19\n" +
+                "descr:         " + AsnTransfer.RIPE_NCC_ASN_BLOCK_DESCR + "\n" +
+                "mnt-by:        RIPE-NCC-HM-MNT\n" +
+                "source:        TEST");
+        authoritativeResourceDao.create("test", "AS10-AS19");
+
+        databaseHelper.addObject("" +
+                "as-block:      AS20 - AS29\n" +
+                "descr:         " + AsnTransfer.NON_RIPE_NCC_ASN_BLOCK_DESCR + "\n" +
+                "mnt-by:        RIPE-NCC-HM-MNT\n" +
+                "source:        TEST");
+        authoritativeResourceDao.create("arin", "AS20-AS29");
+
+        databaseHelper.addObject("" +
+                "inet6num:        ::/0\n" +
+                "netname:         IANA-BLK\n" +
+                "descr:           The whole IPv6 address space\n" +
+                "country:         EU # Country is in fact world wide\n" +
+                "admin-c:         IANA1-RIPE\n" +
+                "tech-c:          IANA1-RIPE\n" +
+                "status:          ALLOCATED-BY-RIR\n" +
+                "mnt-by:          RIPE-NCC-HM-MNT\n" +
+                "source:          TEST");
+
+        databaseHelper.addObject("" +
+                "inet6num:        2001:600::/23\n" +
+                "netname:         EU-ZZ-2001-0600\n" +
+                "descr:           IPv6 address block managed by the RIPE NCC\n" +
+                "country:         EU # Country is in fact world wide\n" +
+                "org:             ORG-NCC1-RIPE\n" +
+                "admin-c:         IANA1-RIPE\n" +
+                "tech-c:          IANA1-RIPE\n" +
+                "status:          ALLOCATED-BY-RIR\n" +
+                "mnt-by:          RIPE-NCC-HM-MNT\n" +
+                "source:          TEST");
+        authoritativeResourceDao.create("test", "2001:600::/23");
+
+        databaseHelper.addObject(String.format(CreatePlaceholderForInet6numStage.TEMPLATE, "2001:2000::/19", "TEST"));
+
+        ipTreeUpdater.rebuild();
+    }
+
+    @Test
+    public void adjacent_inetnums_end_up_in_single_placeholder() {
+        final List<String> results = transfer("out=inetnum/194.0.0.1/32&out=inetnum/194.0.0.0/32");
+
+        assertThat(results, contains(
+                "Info: Successfully transferred out inetnum 194.0.0.1/32",
+                "Info: Successfully transferred out inetnum 194.0.0.0/32"));
+        assertThat(inetnumWithNetnameExists("194.0.0.0 - 194.0.0.1", InetnumTransfer.NON_RIPE_NETNAME), is(true));
+        assertThat(inetNumExists("194.0.0.0/32"), is(false));
+        assertThat(inetNumExists("194.0.0.1/32"), is(false));
+
+        assertThat(isMaintainedInRirSpace("194.0.0.0-194.255.255.255"), is(false));
+        assertThat(isMaintainedInRirSpace("194.0.0.2-194.255.255.255"), is(true));
+    }
+
+    @Test
+    public void placeholder_shared_by_transfers_is_merged() {
+        databaseHelper.addObject(String.format(CreatePlaceholderForInetnumStage.TEMPLATE, "194.0.0.1 - 194.0.0.1", "TEST"));
+        ipTreeUpdater.rebuild();
+
+        final List<String> results = transfer("out=inetnum/194.0.0.0/32&out=inetnum/194.0.0.2/32");
+
+        assertThat(results, contains(
+                "Info: Successfully transferred out inetnum 194.0.0.0/32",
+                "Info: Successfully transferred out inetnum 194.0.0.2/32"));
+        assertThat(inetnumWithNetnameExists("194.0.0.0 - 194.0.0.2", InetnumTransfer.NON_RIPE_NETNAME), is(true));
+        assertThat(inetNumExists("194.0.0.0 - 194.0.0.1"), is(false));
+        assertThat(inetNumExists("194.0.0.1/32"), is(false));
+    }
+
+    @Test
+    public void aut_nums_in_same_block() {
+        final List<String> results = transfer("out=aut-num/AS15&out=aut-num/AS16");
+
+        assertThat(results, contains(
+                "Info: Successfully transferred out aut-num AS15",
+                "Info: Successfully transferred out aut-num AS16"));
+        assertThat(isRipeAsBlock("AS10 - AS14"), is(true));
+        assertThat(isRipeAsBlock("AS15 - AS16"), is(false));
+        assertThat(isRipeAsBlock("AS17 - AS19"), is(true));
+        assertThat(objectExists(ObjectType.AS_BLOCK, "AS16 - AS19"), is(false));
+    }
+
+    @Test
+    public void transfer_inet6nums() {
+        final List<String> results = transfer("out=inet6num/2001:600::/32&in=inet6num/2001:2000::/20");
+
+        assertThat(results, contains(
+                "Info: Successfully transferred out inet6num 2001:600::/32",
+                "Info: Successfully transferred in inet6num 2001:2000::/20"));
+        assertThat(inet6numWithNetnameExists("2001:600::/32", InetnumTransfer.NON_RIPE_NETNAME), is(true));
+        assertThat(objectExists(ObjectType.INET6NUM, "2001:2000::/19"), is(false));
+        assertThat(inet6numWithNetnameExists("2001:3000::/20", InetnumTransfer.NON_RIPE_NETNAME), is(true));
+
+        assertThat(isMaintainedInRirSpace("2001:600::/23"), is(false));
+        assertThat(isMaintainedInRirSpace("2001:601::/32"), is(true));
+        assertThat(isMaintainedInRirSpace("2001:2000::/20"), is(true));
+    }
+
+    @Test
+    public void inetnums_and_aut_nums_in_single_batch() {
+        final List<String> results = transfer("out=inetnum/194.0.0.0/32&out=aut-num/AS19");
+
+        assertThat(results, contains(
+                "Info: Successfully transferred out inetnum 194.0.0.0/32",
+                "Info: Successfully transferred out aut-num AS19"));
+        assertThat(inetnumWithNetnameExists("194.0.0.0/32", InetnumTransfer.NON_RIPE_NETNAME), is(true));
+        assertThat(isMaintainedInRirSpace("194.0.0.1-194.255.255.255"), is(true));
+        assertThat(isRipeAsBlock("AS10 - AS18"), is(true));
+        assertThat(isRipeAsBlock("AS19 - AS29"), is(false));
+    }
+
+    @Test
+    public void failed_items_are_reported_individually() {
+        final List<String> results = transfer("" +
+                "out=aut-num/AS15" +
+                "&out=aut-num/AS25" +
+                "&out=inetnum/10.0.0.0/8" +
+                "&out=inet6num/2001::/32" +
+                "&out=inet6num/2001::-2001::2" +
+                "&out=route/10.0.0.0/8AS1" +
+                "&out=AS1");
+
+        // errors are reported first
+        assertThat(results, containsInAnyOrder(
+                "Info: Successfully transferred out aut-num AS15",
+                "Info: Aut-num AS25 is already non-RIPE.",
+                "Error: Inetnum 10.0.0.0/8 not found.",
+                "Error: Inet6num 2001::/32 not found.",
+                "Error: Inet6num 2001::-2001::2 has invalid syntax.",
+                "Error: Transfer route/10.0.0.0/8AS1 is not supported.",
+                "Error: Transfer AS1 should be formatted as {type}/{resource}."));
+        assertThat(objectExists(ObjectType.AS_BLOCK, "AS10 - AS14"), is(true));
+        assertThat(objectExists(ObjectType.AS_BLOCK, "AS16 - AS19"), is(true));
+    }
+
+    @Test
+    public void nothing_is_transferred_when_update_fails() {
+        try {
+            transfer("out=inetnum/194.0.0.0/32&out=aut-num/AS19", "nonExistingUser,dummyPassword,noreason");
+            fail();
+        } catch (NotAuthorizedException e) {
+            assertThat(e.getResponse().readEntity(String.class), containsString("FAILED_AUTHENTICATION"));
+        }
+
+        assertThat(inetNumExists("194.0.0.0/32"), is(false));
+        assertThat(isRipeAsBlock("AS10 - AS19"), is(true));
+        assertThat(isMaintainedInRirSpace("194.0.0.0-194.255.255.255"), is(true));
+    }
+
+    @Test
+    public void nothing_to_transfer() {
+        try {
+            transfer("");
+            fail();
+        } catch (BadRequestException e) {
+            assertThat(getErrorMessage(e.getResponse().readEntity(WhoisResources.class)), is("No resources to transfer"));
+        }
+    }
+
+    private boolean inet6numWithNetnameExists(final String primaryKey, final String netname) {
+        return objectExists(ObjectType.INET6NUM, primaryKey) &&
+                lookup(ObjectType.INET6NUM, primaryKey).getValueForAttribute(AttributeType.NETNAME).equals(netname);
+    }
+
+    private boolean isRipeAsBlock(final String primaryKey) {
+        return lookup(ObjectType.AS_BLOCK, primaryKey).getValueForAttribute(AttributeType.DESCR)
+                .equals(AsnTransfer.RIPE_NCC_ASN_BLOCK_DESCR);
+    }
+
+    private List<String> transfer(final String transfers) {
+        return transfer(transfers, OVERRIDE_LINE);
+    }
+
+    private List<String> transfer(final String transfers, final String overrideLine) {
+        final WhoisResources whoisResources = RestTest.target(getPort(), "whois/transfer/batch",
+                transfers + "&override=" + SyncUpdateUtils.encode(overrideLine), null)
+                .request(MediaType.APPLICATION_JSON_TYPE)
+                .post(null, WhoisResources.class);
+
+        final List<String> results = Lists.newArrayList();
+        for (ErrorMessage errorMessage : whoisResources.getErrorMessages()) {
+            results.add(errorMessage.getSeverity() + ": " + errorMessage);
+        }
+        return results;
+    }
+}
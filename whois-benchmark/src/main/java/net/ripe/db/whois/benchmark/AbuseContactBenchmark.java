@@ -0,0 +1,177 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectDao;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.domain.Maintainers;
+import net.ripe.db.whois.common.etree.IntervalMap;
+import net.ripe.db.whois.common.etree.NestedIntervalMap;
+import net.ripe.db.whois.common.ip.Ipv4Resource;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.iptree.Ipv4Entry;
+import net.ripe.db.whois.common.iptree.Ipv4Tree;
+import net.ripe.db.whois.common.iptree.Ipv6Tree;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.planner.AbuseCFinder;
+import net.ripe.db.whois.query.planner.AbuseContactCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving the abuse contacts of a brief (-b) query result over a deep inetnum hierarchy, where only the root
+ * refers to an organisation with an abuse-c, with and without the abuse contact cache.
+ *
+ * Every branch of the hierarchy is a chain of nested inetnums of the given depth below 10.0.0.0/8, and every query
+ * result holds the most specific inetnums of all branches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbuseContactBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbuseContactBenchmark.class);
+
+    private static final int BRANCHES = 64;
+
+    @Param({"4", "16"})
+    private int depth;
+
+    @Param({"0", "10000"})
+    private int cacheSize;
+
+    private EmbeddedDatabase database;
+    private AbuseContactCache abuseContactCache;
+    private AbuseCFinder abuseCFinder;
+    private List<RpslObject> queryResult;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+
+        final List<RpslObject> objects = Lists.newArrayList();
+        objects.add(RpslObject.parse("" +
+                "role:           Abuse Role\n" +
+                "nic-hdl:        AR1-TEST\n" +
+                "abuse-mailbox:  abuse@example.net\n" +
+                "source:         " + SyntheticDataset.SOURCE));
+        objects.add(RpslObject.parse("" +
+                "organisation:   ORG-AR1-TEST\n" +
+                "abuse-c:        AR1-TEST\n" +
+                "source:         " + SyntheticDataset.SOURCE));
+        objects.add(inetnum(Ipv4Resource.parse("10.0.0.0/8"), "org:            ORG-AR1-TEST\n"));
+        for (int branch = 0; branch < BRANCHES; branch++) {
+            for (int level = 0; level < depth; level++) {
+                objects.add(inetnum(Ipv4Resource.parse("10." + branch + ".0.0/" + (16 + level)), ""));
+            }
+        }
+
+        final IntervalMap<Ipv4Resource, Ipv4Entry> tree = new NestedIntervalMap<>();
+        queryResult = Lists.newArrayList();
+        for (final RpslObject object : database.addObjects(objects)) {
+            if (object.getType() == ObjectType.INETNUM) {
+                final Ipv4Resource resource = Ipv4Resource.parse(object.getKey());
+                tree.put(resource, new Ipv4Entry(resource, object.getObjectId()));
+                if (resource.getPrefixLength() == 16 + depth - 1) {
+                    queryResult.add(object);
+                }
+            }
+        }
+
+        final BenchmarkSourceContext sourceContext = new BenchmarkSourceContext(database.getDataSource());
+        final long lastSerial = database.getJdbcTemplate().queryForObject("SELECT MAX(serial_id) FROM serials", Long.class);
+
+        abuseContactCache = new AbuseContactCache(new StaticIpTreeCacheManager(database.getDataSource(), lastSerial), sourceContext, cacheSize);
+        if (abuseContactCache.isEnabled()) {
+            abuseContactCache.treesUpdated(sourceContext.getWhoisSlaveSource().getName(), lastSerial);
+        }
+        abuseCFinder = new AbuseCFinder(
+                new JdbcRpslObjectDao(database.getDataSource(), null),
+                new StaticIpv4Tree(tree),
+                new Ipv6Tree(null, null),
+                new Maintainers(new String[0], new String[0], new String[0], new String[0], new String[0]));
+        abuseCFinder.setAbuseContactCache(abuseContactCache);
+
+        for (final RpslObject object : queryResult) {
+            if (!"abuse@example.net".equals(abuseCFinder.getAbuseContact(object))) {
+                throw new IllegalStateException("Unexpected abuse contact for " + object.getKey());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (abuseContactCache.isEnabled()) {
+            LOGGER.info("Abuse contact cache: {}", abuseContactCache.getStats());
+        }
+        database.close();
+    }
+
+    @Benchmark
+    public int briefQuery() {
+        int found = 0;
+        for (final RpslObject object : queryResult) {
+            if (abuseCFinder.getAbuseContact(object) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static RpslObject inetnum(final Ipv4Resource resource, final String org) {
+        return RpslObject.parse("" +
+                "inetnum:        " + resource.toRangeString() + "\n" +
+                "netname:        BENCHMARK-NET\n" +
+                org +
+                "status:         ASSIGNED PA\n" +
+                "source:         " + SyntheticDataset.SOURCE);
+    }
+
+    // the tree is never updated during the benchmark
+    private static final class StaticIpTreeCacheManager extends IpTreeCacheManager {
+        private final long lastSerial;
+
+        private StaticIpTreeCacheManager(final DataSource dataSource, final long lastSerial) {
+            super(dataSource, null);
+            this.lastSerial = lastSerial;
+        }
+
+        @Override
+        public long getLastSerial(final CIString source) {
+            return lastSerial;
+        }
+    }
+
+    private static final class StaticIpv4Tree extends Ipv4Tree {
+        private final IntervalMap<Ipv4Resource, Ipv4Entry> tree;
+
+        private StaticIpv4Tree(final IntervalMap<Ipv4Resource, Ipv4Entry> tree) {
+            super(null, null);
+            this.tree = tree;
+        }
+
+        @Override
+        public List<Ipv4Entry> findFirstLessSpecific(final Ipv4Resource key) {
+            return tree.findFirstLessSpecific(key);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.rpsl.AttributeSyntax;
+import net.ripe.db.whois.common.rpsl.ObjectMessages;
+import net.ripe.db.whois.common.rpsl.ObjectTemplate;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Syntax validation of submitted objects, which checks every attribute value against its {@code AttributeSyntax}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeSyntaxBenchmark {
+    @Param({"INETNUM", "AUT_NUM", "PERSON", "MNTNER"})
+    private ObjectType objectType;
+
+    @Param({"10000"})
+    private int size;
+
+    private ObjectTemplate objectTemplate;
+    private RpslObject[] objects;
+    private AttributeSyntax[] syntaxes;
+    private String[] values;
+    private int nextObject;
+    private int nextAttribute;
+
+    @Setup
+    public void setup() {
+        final List<RpslObject> dataset = SyntheticDataset.generate(size).getObjects(objectType);
+        objectTemplate = ObjectTemplate.getTemplate(objectType);
+
+        final List<AttributeSyntax> datasetSyntaxes = Lists.newArrayList();
+        final List<String> datasetValues = Lists.newArrayList();
+        for (final RpslObject rpslObject : dataset) {
+            if (objectTemplate.validate(rpslObject).hasErrors()) {
+                throw new IllegalStateException(String.format("Invalid object in dataset: %s", rpslObject.getFormattedKey()));
+            }
+
+            for (final RpslAttribute attribute : rpslObject.getAttributes()) {
+                for (final CIString cleanValue : attribute.getCleanValues()) {
+                    datasetSyntaxes.add(attribute.getType().getSyntax());
+                    datasetValues.add(cleanValue.toString());
+                }
+            }
+        }
+
+        objects = dataset.toArray(new RpslObject[dataset.size()]);
+        syntaxes = datasetSyntaxes.toArray(new AttributeSyntax[datasetSyntaxes.size()]);
+        values = datasetValues.toArray(new String[datasetValues.size()]);
+    }
+
+    @Benchmark
+    public ObjectMessages validateObject() {
+        if (++nextObject == objects.length) {
+            nextObject = 0;
+        }
+        return objectTemplate.validate(objects[nextObject]);
+    }
+
+    @Benchmark
+    public boolean matchesAttribute() {
+        if (++nextAttribute == values.length) {
+            nextAttribute = 0;
+        }
+        return syntaxes[nextAttribute].matches(objectType, values[nextAttribute]);
+    }
+}
@@ -0,0 +1,103 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.update.autokey.dao.NicHandleRepositoryJdbc;
+import net.ripe.db.whois.update.autokey.dao.OrganisationIdRepositoryJdbc;
+import net.ripe.db.whois.update.domain.NicHandle;
+import net.ripe.db.whois.update.domain.OrganisationId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.aspectj.AnnotationTransactionAspect;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claiming the next nic-hdl and organisation id (AUTO-n keys), each claim in its own transaction.
+ *
+ * Updates hold the global update lock, so claims are never made concurrently and this runs on a single thread.
+ * The nic-hdl space has a number of fragmented ranges after the first free index, as left behind by handles that
+ * were specified explicitly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoKeyRepositoryBenchmark {
+    private static final String SPACE = "AA";
+    private static final String SUFFIX = "TEST";
+
+    @Param({"1", "1000"})
+    private int fragments;
+
+    private EmbeddedDatabase database;
+    private TransactionTemplate transactionTemplate;
+    private NicHandleRepositoryJdbc nicHandleRepository;
+    private OrganisationIdRepositoryJdbc organisationIdRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+
+        final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(database.getDataSource());
+        AnnotationTransactionAspect.aspectOf().setTransactionManager(transactionManager);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        nicHandleRepository = new NicHandleRepositoryJdbc(database.getDataSource());
+        organisationIdRepository = new OrganisationIdRepositoryJdbc(database.getDataSource());
+
+        transactionTemplate.execute(new TransactionCallback<Void>() {
+            @Override
+            public Void doInTransaction(final TransactionStatus status) {
+                // leave room for all claims made by the benchmark before the fragmented ranges
+                final int start = 100_000_000;
+                for (int fragment = 0; fragment < fragments; fragment++) {
+                    nicHandleRepository.createRange(SPACE, SUFFIX, start + fragment * 10, start + fragment * 10 + 4);
+                }
+                return null;
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public NicHandle claimNicHandle() {
+        return transactionTemplate.execute(new TransactionCallback<NicHandle>() {
+            @Override
+            public NicHandle doInTransaction(final TransactionStatus status) {
+                return nicHandleRepository.claimNextAvailableIndex(SPACE, SUFFIX);
+            }
+        });
+    }
+
+    @Benchmark
+    public OrganisationId claimOrganisationId() {
+        return transactionTemplate.execute(new TransactionCallback<OrganisationId>() {
+            @Override
+            public OrganisationId doInTransaction(final TransactionStatus status) {
+                return organisationIdRepository.claimNextAvailableIndex(SPACE, SUFFIX);
+            }
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.api.autocomplete.AutocompleteIndex;
+import net.ripe.db.whois.api.autocomplete.AutocompleteSearch;
+import net.ripe.db.whois.api.freetext.FreeTextIndex;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectDao;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete lookups of an admin-c (nic-hdl of person and role) and a mnt-by (mntner) prefix, answered by the
+ * free text index and by the autocomplete index, with and without response attributes (which the autocomplete index
+ * loads from the database).
+ *
+ * The setup checks that both give the same results, and logs the heap used by the autocomplete index next to the
+ * size of the free text index on disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutocompleteSearchBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AutocompleteSearchBenchmark.class);
+
+    @Param({"sp1", "sp42", "synthetic4"})
+    private String query;
+
+    @Param({"false", "true"})
+    private boolean autocompleteIndexEnabled;
+
+    @Param({"false", "true"})
+    private boolean withResponseAttributes;
+
+    @Param({"10000"})
+    private int size;
+
+    private EmbeddedDatabase database;
+    private File indexDir;
+    private FreeTextIndex freeTextIndex;
+    private AutocompleteSearch autocompleteSearch;
+    private Set<AttributeType> queryAttributes;
+    private Set<AttributeType> responseAttributes;
+    private Set<ObjectType> objectTypes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = EmbeddedDatabase.start();
+        database.addObjects(SyntheticDataset.generate(size).getAll());
+
+        indexDir = Files.createTempDirectory("freetext").toFile();
+        freeTextIndex = new FreeTextIndex(database.getDataSource(), SyntheticDataset.SOURCE, indexDir.getAbsolutePath());
+        freeTextIndex.init();
+
+        if (query.startsWith("sp")) {
+            queryAttributes = Sets.newHashSet(AttributeType.NIC_HDL);
+            responseAttributes = EnumSet.of(AttributeType.PERSON, AttributeType.ADDRESS);
+            objectTypes = Sets.newHashSet(ObjectType.PERSON, ObjectType.ROLE);
+        } else {
+            queryAttributes = Sets.newHashSet(AttributeType.MNTNER);
+            responseAttributes = EnumSet.of(AttributeType.DESCR, AttributeType.ADMIN_C);
+            objectTypes = Sets.newHashSet(ObjectType.MNTNER);
+        }
+
+        if (!withResponseAttributes) {
+            responseAttributes = Collections.emptySet();
+        }
+
+        final JdbcRpslObjectDao rpslObjectDao = new JdbcRpslObjectDao(database.getDataSource(), null);
+        final AutocompleteSearch freeTextSearch = new AutocompleteSearch(freeTextIndex, new AutocompleteIndex(database.getDataSource(), ""), rpslObjectDao);
+
+        if (autocompleteIndexEnabled) {
+            final long heapBefore = usedHeap();
+            final AutocompleteIndex autocompleteIndex = new AutocompleteIndex(database.getDataSource(), "person,role,mntner");
+            autocompleteIndex.rebuild();
+            final long heapAfter = usedHeap();
+
+            LOGGER.info("Autocomplete index heap: {} KiB, free text index on disk: {} KiB", (heapAfter - heapBefore) / 1024, FileUtils.sizeOfDirectory(indexDir) / 1024);
+
+            autocompleteSearch = new AutocompleteSearch(freeTextIndex, autocompleteIndex, rpslObjectDao);
+
+            final List<Map<String, Object>> expected = freeTextSearch.search(query, queryAttributes, responseAttributes, objectTypes);
+            final List<Map<String, Object>> actual = autocompleteSearch.search(query, queryAttributes, responseAttributes, objectTypes);
+            if (expected.isEmpty() || !expected.equals(actual)) {
+                throw new IllegalStateException("Autocomplete index found " + actual + " instead of " + expected);
+            }
+        } else {
+            autocompleteSearch = freeTextSearch;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        freeTextIndex.destroy();
+        FileUtils.deleteDirectory(indexDir);
+        database.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> search() throws IOException {
+        return autocompleteSearch.search(query, queryAttributes, responseAttributes, objectTypes);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
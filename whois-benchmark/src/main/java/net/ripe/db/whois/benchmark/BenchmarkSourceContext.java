@@ -0,0 +1,117 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.source.Source;
+import net.ripe.db.whois.common.source.SourceConfiguration;
+import net.ripe.db.whois.common.source.SourceContext;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The main source of the synthetic dataset, as the only source, backed by the given database.
+ */
+final class BenchmarkSourceContext implements SourceContext {
+    private final SourceConfiguration sourceConfiguration;
+
+    BenchmarkSourceContext(final DataSource dataSource) {
+        this.sourceConfiguration = new SourceConfiguration(Source.slave(SyntheticDataset.SOURCE), dataSource);
+    }
+
+    @Override
+    public Source getCurrentSource() {
+        return sourceConfiguration.getSource();
+    }
+
+    @Override
+    public SourceConfiguration getCurrentSourceConfiguration() {
+        return sourceConfiguration;
+    }
+
+    @Override
+    public Source getWhoisSlaveSource() {
+        return sourceConfiguration.getSource();
+    }
+
+    @Override
+    public SourceConfiguration getSourceConfiguration(final Source source) {
+        return sourceConfiguration;
+    }
+
+    @Override
+    public Collection<SourceConfiguration> getAllSourceConfigurations() {
+        return Collections.singletonList(sourceConfiguration);
+    }
+
+    @Override
+    public Set<CIString> getAllSourceNames() {
+        return Collections.singleton(sourceConfiguration.getSource().getName());
+    }
+
+    @Override
+    public boolean isMain() {
+        return true;
+    }
+
+    @Override
+    public boolean isAcl() {
+        return true;
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return false;
+    }
+
+    @Override
+    public boolean isVirtual(final CIString source) {
+        return false;
+    }
+
+    @Override
+    public boolean isDummificationRequired() {
+        return false;
+    }
+
+    @Override
+    public boolean isTagRoutes() {
+        return false;
+    }
+
+    @Override
+    public Set<CIString> getGrsSourceNames() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<CIString> getAdditionalSourceNames() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public CIString getAlias(final CIString source) {
+        return null;
+    }
+
+    @Override
+    public void setCurrentSourceToWhoisMaster() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setCurrent(final Source source) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeCurrentSource() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void destroyDataSources() {
+        throw new UnsupportedOperationException();
+    }
+}
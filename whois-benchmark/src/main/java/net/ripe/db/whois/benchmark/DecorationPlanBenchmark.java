@@ -0,0 +1,77 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import net.ripe.db.whois.common.domain.ResponseObject;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.transform.FilterAuthFunction;
+import net.ripe.db.whois.common.rpsl.transform.FilterChangedFunction;
+import net.ripe.db.whois.common.rpsl.transform.FilterEmailFunction;
+import net.ripe.db.whois.query.planner.RpslResponseDecorator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering the e-mail, auth and changed attributes of a query response, as a chain of transformed iterables
+ * (one copy of the object per filter) and as a single decoration pass (one copy per object, if any).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecorationPlanBenchmark {
+    private static final FilterEmailFunction FILTER_EMAIL_FUNCTION = new FilterEmailFunction();
+    private static final FilterAuthFunction FILTER_AUTH_FUNCTION = new FilterAuthFunction();
+    private static final FilterChangedFunction FILTER_CHANGED_FUNCTION = new FilterChangedFunction();
+
+    @Param({"1000"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean filterEmail;
+
+    private List<RpslObject> objects;
+    private Function<Iterable<? extends ResponseObject>, Iterable<? extends ResponseObject>> decorationPlan;
+
+    @Setup
+    public void setup() {
+        objects = SyntheticDataset.generate(size).getAll();
+        decorationPlan = RpslResponseDecorator.createAttributeFilter(filterEmail, FILTER_AUTH_FUNCTION);
+    }
+
+    @Benchmark
+    public void sequential(final Blackhole blackhole) {
+        Iterable<RpslObject> result = objects;
+        if (filterEmail) {
+            result = Iterables.transform(result, FILTER_EMAIL_FUNCTION);
+        }
+        result = Iterables.transform(result, FILTER_AUTH_FUNCTION);
+        result = Iterables.transform(result, FILTER_CHANGED_FUNCTION);
+
+        for (final RpslObject rpslObject : result) {
+            blackhole.consume(rpslObject);
+        }
+    }
+
+    @Benchmark
+    public void decorationPlan(final Blackhole blackhole) {
+        for (final ResponseObject responseObject : decorationPlan.apply(objects)) {
+            blackhole.consume(responseObject);
+        }
+    }
+}
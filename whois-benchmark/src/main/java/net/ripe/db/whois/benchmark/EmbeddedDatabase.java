@@ -0,0 +1,106 @@
+package net.ripe.db.whois.benchmark;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.google.common.collect.Lists;
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import net.ripe.db.whois.common.ClockDateTimeProvider;
+import net.ripe.db.whois.common.DateTimeProvider;
+import net.ripe.db.whois.common.dao.RpslObjectUpdateInfo;
+import net.ripe.db.whois.common.jdbc.SimpleDataSourceFactory;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.mariadb.jdbc.Driver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.List;
+
+import static net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectOperations.insertIntoLastAndUpdateSerials;
+import static net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectOperations.insertIntoTablesIgnoreMissing;
+import static net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectOperations.loadScripts;
+
+/**
+ * A MariaDB server embedded in the benchmark process, holding a whois database with the production schema.
+ *
+ * The server binaries are unpacked from the classpath into a temporary directory, so no database needs to be installed.
+ */
+public final class EmbeddedDatabase implements Closeable {
+    private static final String DATABASE_NAME = "WHOIS_BENCHMARK_TEST";
+    private static final String JDBC_DRIVER = "org.mariadb.jdbc.Driver";
+    private static final String USERNAME = "root";
+
+    private final DB db;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private EmbeddedDatabase(final DB db, final DataSource dataSource) {
+        this.db = db;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public static EmbeddedDatabase start() {
+        try {
+            final DBConfiguration configuration = DBConfigurationBuilder.newBuilder()
+                    .setPort(0)
+                    .addArg("--user=root")
+                    .build();
+
+            final DB db = DB.newEmbeddedDB(configuration);
+            db.start();
+
+            final String url = String.format("jdbc:mariadb://localhost:%d/", configuration.getPort());
+            new JdbcTemplate(new SimpleDriverDataSource(new Driver(), url, USERNAME, "")).execute("CREATE DATABASE " + DATABASE_NAME);
+
+            final DataSource dataSource = new SimpleDataSourceFactory(JDBC_DRIVER).createDataSource(url + DATABASE_NAME, USERNAME, "");
+            final EmbeddedDatabase embeddedDatabase = new EmbeddedDatabase(db, dataSource);
+            loadScripts(embeddedDatabase.jdbcTemplate, "whois_schema.sql", "whois_data.sql");
+            return embeddedDatabase;
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Unable to start embedded database", e);
+        }
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * Stores the objects and their index entries, in the given order.
+     *
+     * @return the stored objects, with their object ids
+     */
+    public List<RpslObject> addObjects(final Iterable<RpslObject> rpslObjects) {
+        final DateTimeProvider dateTimeProvider = new ClockDateTimeProvider();
+        final List<RpslObject> result = Lists.newArrayList();
+
+        for (final RpslObject rpslObject : rpslObjects) {
+            final RpslObjectUpdateInfo updateInfo = insertIntoLastAndUpdateSerials(dateTimeProvider, jdbcTemplate, rpslObject);
+            insertIntoTablesIgnoreMissing(jdbcTemplate, updateInfo, rpslObject);
+            result.add(new RpslObject(updateInfo.getObjectId(), rpslObject));
+        }
+
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (dataSource instanceof ComboPooledDataSource) {
+            ((ComboPooledDataSource) dataSource).close();
+        }
+
+        try {
+            db.stop();
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Unable to stop embedded database", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.api.freetext.FreeTextIndex;
+import net.ripe.db.whois.api.freetext.FreeTextSearch;
+import net.ripe.db.whois.api.freetext.SearchResponse;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full text search over an index built from the embedded database, including sorting, highlighting and facets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FreeTextSearchBenchmark {
+    @Param({
+            "q=SYNTHETIC-NET-4242&facet=true",
+            "q=Amsterdam&rows=10",
+            "q=Amsterdam&rows=10&hl=true",
+            "q=example.net&rows=100",
+            "q=example.net&rows=100&hl=true",
+            "q=Synthetic&rows=10&facet=true&hl=true"})
+    private String query;
+
+    @Param({"10000"})
+    private int size;
+
+    private EmbeddedDatabase database;
+    private File indexDir;
+    private FreeTextIndex freeTextIndex;
+    private FreeTextSearch freeTextSearch;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        database = EmbeddedDatabase.start();
+        database.addObjects(SyntheticDataset.generate(size).getAll());
+
+        indexDir = Files.createTempDirectory("freetext").toFile();
+        freeTextIndex = new FreeTextIndex(database.getDataSource(), SyntheticDataset.SOURCE, indexDir.getAbsolutePath());
+        freeTextIndex.init();
+
+        final Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+        marshaller.setClassesToBeBound(SearchResponse.class);
+        marshaller.afterPropertiesSet();
+
+        freeTextSearch = new FreeTextSearch(freeTextIndex, marshaller, Long.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        freeTextIndex.destroy();
+        FileUtils.deleteDirectory(indexDir);
+        database.close();
+    }
+
+    @Benchmark
+    public String search() throws IOException {
+        final StringWriter writer = new StringWriter();
+        freeTextSearch.freeTextSearch(query, writer);
+        return writer.toString();
+    }
+}
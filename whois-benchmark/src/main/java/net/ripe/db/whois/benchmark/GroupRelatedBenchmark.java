@@ -0,0 +1,116 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectDao;
+import net.ripe.db.whois.common.domain.ResponseObject;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.planner.GroupRelatedFunction;
+import net.ripe.db.whois.query.planner.PrimaryObjectDecorator;
+import net.ripe.db.whois.query.planner.RelatedToDecorator;
+import net.ripe.db.whois.query.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grouping the related objects of a response with many primary inetnums, resolved per batch of primary objects
+ * and per single primary object.
+ *
+ * The number of statements the database executes for one response is logged for both, at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupRelatedBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupRelatedBenchmark.class);
+
+    @Param({"1000"})
+    private int size;
+
+    @Param({"10", "250"})
+    private int responseSize;
+
+    private EmbeddedDatabase database;
+    private GroupRelatedFunction groupRelatedFunction;
+    private List<ResponseObject> primaryObjects;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+
+        primaryObjects = Lists.newArrayListWithExpectedSize(responseSize);
+        for (final RpslObject object : database.addObjects(SyntheticDataset.generate(size).getAll())) {
+            if (object.getType() == ObjectType.INETNUM && primaryObjects.size() < responseSize) {
+                primaryObjects.add(object);
+            }
+        }
+
+        final JdbcRpslObjectDao rpslObjectDao = new JdbcRpslObjectDao(database.getDataSource(), null);
+        groupRelatedFunction = new GroupRelatedFunction(rpslObjectDao, Query.parse("10.0.0.0"), Sets.<PrimaryObjectDecorator>newHashSet(new RelatedToDecorator(rpslObjectDao)));
+
+        LOGGER.info("Statements per response of {} primary objects: {} batched, {} per object",
+                responseSize,
+                countStatements(true),
+                countStatements(false));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public int batched() {
+        int hash = 0;
+        for (final ResponseObject responseObject : groupRelatedFunction.groupInline(primaryObjects)) {
+            hash += responseObject.hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int perObject() {
+        int hash = 0;
+        for (final ResponseObject primaryObject : primaryObjects) {
+            for (final ResponseObject responseObject : groupRelatedFunction.apply(primaryObject)) {
+                hash += responseObject.hashCode();
+            }
+        }
+        return hash;
+    }
+
+    private long countStatements(final boolean batched) {
+        final long before = getQuestions();
+        if (batched) {
+            batched();
+        } else {
+            perObject();
+        }
+        // the server counts the second status query as well
+        return getQuestions() - before - 1;
+    }
+
+    private long getQuestions() {
+        return Long.parseLong(database.getJdbcTemplate().queryForList("SHOW GLOBAL STATUS LIKE 'Questions'").get(0).get("Value").toString());
+    }
+}
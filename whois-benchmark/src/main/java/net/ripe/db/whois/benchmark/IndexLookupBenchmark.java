@@ -0,0 +1,131 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectDao;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectTemplate;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.query.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of an unqualified search key in the indexes of all object types, as done for a query like "whois FOO-RIPE":
+ * with a query for each object type and lookup attribute, or with the lookups combined into a single query.
+ *
+ * Sampled, so the percentiles of the latency are reported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexLookupBenchmark {
+    private static final Set<ObjectType> NOT_INDEX_LOOKUP_TYPES = EnumSet.of(ObjectType.AS_BLOCK, ObjectType.INETNUM, ObjectType.INET6NUM, ObjectType.DOMAIN, ObjectType.ROUTE, ObjectType.ROUTE6);
+
+    @Param({"MNTNER", "PERSON", "MISSING"})
+    private String key;
+
+    @Param({"10000"})
+    private int size;
+
+    private EmbeddedDatabase database;
+    private JdbcRpslObjectDao rpslObjectDao;
+    private String searchValue;
+    private Map<ObjectType, List<AttributeType>> lookups;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+        final SyntheticDataset dataset = SyntheticDataset.generate(size);
+        database.addObjects(dataset.getAll());
+
+        // the source context is only used when objects are missing, which never happens here
+        rpslObjectDao = new JdbcRpslObjectDao(database.getDataSource(), null);
+
+        switch (key) {
+            case "MNTNER":
+            case "PERSON":
+                searchValue = dataset.getObjects(ObjectType.valueOf(key)).get(0).getKey().toString();
+                break;
+            default:
+                searchValue = "NONEXISTENT-TEST";
+        }
+
+        final Query query = Query.parse("-r " + searchValue);
+        lookups = Maps.newEnumMap(ObjectType.class);
+        for (final ObjectType type : Sets.difference(query.getObjectTypes(), NOT_INDEX_LOOKUP_TYPES)) {
+            final List<AttributeType> lookupAttributes = Lists.newArrayList();
+            for (final AttributeType lookupAttribute : ObjectTemplate.getTemplate(type).getLookupAttributes()) {
+                if (query.matchesObjectTypeAndAttribute(type, lookupAttribute)) {
+                    lookupAttributes.add(lookupAttribute);
+                }
+            }
+
+            if (!lookupAttributes.isEmpty()) {
+                lookups.put(type, lookupAttributes);
+            }
+        }
+
+        if (!queryPerIndex().equals(combinedQuery())) {
+            throw new IllegalStateException("Combined query finds other objects than a query per index for " + searchValue);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Set<RpslObjectInfo> queryPerIndex() {
+        final Set<RpslObjectInfo> result = Sets.newTreeSet();
+        for (final Map.Entry<ObjectType, List<AttributeType>> entry : lookups.entrySet()) {
+            final ObjectType type = entry.getKey();
+            final Set<AttributeType> keyAttributes = ObjectTemplate.getTemplate(type).getKeyAttributes();
+
+            for (final AttributeType lookupAttribute : entry.getValue()) {
+                if (keyAttributes.contains(lookupAttribute)) {
+                    try {
+                        result.add(rpslObjectDao.findByKey(type, searchValue));
+                    } catch (EmptyResultDataAccessException ignored) {
+                    }
+                } else {
+                    for (final RpslObjectInfo objectInfo : rpslObjectDao.findByAttribute(lookupAttribute, searchValue)) {
+                        if (objectInfo.getObjectType() == type) {
+                            result.add(objectInfo);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Set<RpslObjectInfo> combinedQuery() {
+        return Sets.newTreeSet(rpslObjectDao.findInIndexes(lookups, searchValue));
+    }
+}
@@ -0,0 +1,102 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.etree.IntervalMap;
+import net.ripe.db.whois.common.etree.NestedIntervalMap;
+import net.ripe.db.whois.common.etree.SynchronizedIntervalMap;
+import net.ripe.db.whois.common.ip.Ipv4Resource;
+import net.ripe.db.whois.common.iptree.Ipv4Entry;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in the in-memory IPv4 tree that {@code IpTreeCacheManager} keeps per source, and rebuilding that tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpTreeBenchmark {
+    private static final int NR_LOOKUPS = 65536;
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    private Ipv4Entry[] entries;
+    private IntervalMap<Ipv4Resource, Ipv4Entry> tree;
+    private Ipv4Resource[] addresses;
+    private Ipv4Resource[] ranges;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final List<RpslObject> inetnums = SyntheticDataset.generate(size).getObjects(ObjectType.INETNUM);
+
+        entries = new Ipv4Entry[inetnums.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Ipv4Entry(Ipv4Resource.parse(inetnums.get(i).getKey()), i + 1);
+        }
+
+        tree = build(entries);
+
+        final Random random = new Random(SyntheticDataset.DEFAULT_SEED);
+        addresses = new Ipv4Resource[NR_LOOKUPS];
+        ranges = new Ipv4Resource[NR_LOOKUPS];
+        for (int i = 0; i < NR_LOOKUPS; i++) {
+            final Ipv4Resource range = entries[random.nextInt(entries.length)].getKey();
+            final long address = range.begin() + (long) (random.nextDouble() * (range.end() - range.begin() + 1));
+            addresses[i] = new Ipv4Resource(address, address);
+            ranges[i] = range;
+        }
+    }
+
+    @Benchmark
+    public List<Ipv4Entry> findMostSpecificAddress() {
+        return tree.findExactOrFirstLessSpecific(addresses[next()]);
+    }
+
+    @Benchmark
+    public List<Ipv4Entry> findAllLessSpecific() {
+        return tree.findExactAndAllLessSpecific(ranges[next()]);
+    }
+
+    @Benchmark
+    public List<Ipv4Entry> findFirstMoreSpecific() {
+        return tree.findFirstMoreSpecific(ranges[next()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public IntervalMap<Ipv4Resource, Ipv4Entry> rebuild() {
+        return build(entries);
+    }
+
+    private int next() {
+        next = (next + 1) & (NR_LOOKUPS - 1);
+        return next;
+    }
+
+    private static IntervalMap<Ipv4Resource, Ipv4Entry> build(final Ipv4Entry[] entries) {
+        final IntervalMap<Ipv4Resource, Ipv4Entry> result = SynchronizedIntervalMap.synchronizedMap(new NestedIntervalMap<Ipv4Resource, Ipv4Entry>());
+        for (final Ipv4Entry entry : entries) {
+            result.put(entry.getKey(), entry);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectDao;
+import net.ripe.db.whois.common.domain.Identifiable;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading objects from the database, by object id, by primary key and in batches as done for query results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcRpslObjectDaoBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"10000"})
+    private int size;
+
+    private EmbeddedDatabase database;
+    private JdbcRpslObjectDao rpslObjectDao;
+    private RpslObject[] inetnums;
+    private List<List<Identifiable>> identifierBatches;
+    private List<List<RpslObject>> inetnumBatches;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+        final List<RpslObject> objects = database.addObjects(SyntheticDataset.generate(size).getAll());
+
+        // the source context is only used when objects are missing, which never happens here
+        rpslObjectDao = new JdbcRpslObjectDao(database.getDataSource(), null);
+
+        // load() only queries objects referred to by an identifier, so it is not given the objects themselves
+        final List<Identifiable> identifiers = Lists.newArrayList();
+        final List<RpslObject> storedInetnums = Lists.newArrayList();
+        for (final RpslObject object : objects) {
+            identifiers.add(new RpslObjectInfo(object.getObjectId(), object.getType(), object.getKey()));
+            if (object.getType() == ObjectType.INETNUM) {
+                storedInetnums.add(object);
+            }
+        }
+
+        inetnums = storedInetnums.toArray(new RpslObject[storedInetnums.size()]);
+        identifierBatches = Lists.partition(identifiers, BATCH_SIZE);
+        inetnumBatches = Lists.partition(storedInetnums, BATCH_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next(final int length) {
+            if (++next >= length) {
+                next = 0;
+            }
+            return next;
+        }
+    }
+
+    @Benchmark
+    public RpslObject getById(final Cursor cursor) {
+        return rpslObjectDao.getById(inetnums[cursor.next(inetnums.length)].getObjectId());
+    }
+
+    @Benchmark
+    public RpslObject getByKey(final Cursor cursor) {
+        return rpslObjectDao.getByKey(ObjectType.INETNUM, inetnums[cursor.next(inetnums.length)].getKey());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<RpslObject> loadBatch(final Cursor cursor) {
+        final List<RpslObject> result = Lists.newArrayListWithExpectedSize(BATCH_SIZE);
+        rpslObjectDao.load(identifierBatches.get(cursor.next(identifierBatches.size())), result);
+        return result;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Collection<RpslObjectInfo>> relatedToBatch(final Cursor cursor) {
+        return rpslObjectDao.relatedTo(inetnumBatches.get(cursor.next(inetnumBatches.size())), Collections.<ObjectType>emptySet());
+    }
+}
@@ -0,0 +1,104 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.ClockDateTimeProvider;
+import net.ripe.db.whois.common.DateTimeProvider;
+import net.ripe.db.whois.common.dao.RpslObjectUpdateInfo;
+import net.ripe.db.whois.common.dao.VersionInfo;
+import net.ripe.db.whois.common.dao.VersionLookupResult;
+import net.ripe.db.whois.common.dao.jdbc.JdbcVersionDao;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectOperations.copyToHistoryAndUpdateSerials;
+import static net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectOperations.updateLastAndUpdateSerials;
+
+/**
+ * Version history lookups (--list-versions, --show-version) on an aut-num with a long history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcVersionDaoBenchmark {
+    @Param({"10000"})
+    private int size;
+
+    @Param({"100", "5000"})
+    private int revisions;
+
+    private EmbeddedDatabase database;
+    private JdbcVersionDao versionDao;
+    private String key;
+    private long timestamp;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+        final List<RpslObject> objects = database.addObjects(SyntheticDataset.generate(size).getAll());
+
+        RpslObject autnum = null;
+        for (final RpslObject object : objects) {
+            if (object.getType() == ObjectType.AUT_NUM) {
+                autnum = object;
+                break;
+            }
+        }
+        if (autnum == null) {
+            throw new IllegalStateException("No aut-num in dataset of size " + size);
+        }
+
+        final DateTimeProvider dateTimeProvider = new ClockDateTimeProvider();
+        key = autnum.getKey().toString();
+        int sequenceId = 1;
+        for (int revision = 1; revision < revisions; revision++) {
+            final RpslObjectUpdateInfo updateInfo = new RpslObjectUpdateInfo(autnum.getObjectId(), sequenceId, ObjectType.AUT_NUM, key);
+            final RpslObject updated = new RpslObjectBuilder(autnum)
+                    .addAttributeSorted(new RpslAttribute(AttributeType.REMARKS, "revision " + revision))
+                    .get();
+
+            copyToHistoryAndUpdateSerials(database.getJdbcTemplate(), updateInfo);
+            sequenceId = updateLastAndUpdateSerials(dateTimeProvider, database.getJdbcTemplate(), updateInfo, updated);
+        }
+
+        versionDao = new JdbcVersionDao(database.getDataSource());
+
+        final List<VersionInfo> versions = versionDao.findByKey(ObjectType.AUT_NUM, key).getAllVersions();
+        timestamp = versions.get(versions.size() / 2).getTimestamp().getTimestamp().toDateTime().getMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public VersionLookupResult findByKey() {
+        return versionDao.findByKey(ObjectType.AUT_NUM, key);
+    }
+
+    @Benchmark
+    public List<VersionInfo> getVersionsForTimestamp() {
+        return versionDao.getVersionsForTimestamp(ObjectType.AUT_NUM, key, timestamp);
+    }
+}
@@ -0,0 +1,119 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.update.domain.PgpCredential;
+import net.ripe.db.whois.update.keycert.KeyWrapperCache;
+import net.ripe.db.whois.update.keycert.PgpPublicKeyWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifying a PGP signed update against the key-cert of the maintainer, with and without the parsed key cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PgpCredentialBenchmark {
+    private static final RpslObject KEYCERT_OBJECT = RpslObject.parse("" +
+            "key-cert:       PGPKEY-5763950D\n" +
+            "method:         PGP\n" +
+            "owner:          noreply@ripe.net <noreply@ripe.net>\n" +
+            "fingerpr:       884F 8E23 69E5 E6F1 9FB3  63F4 BBCC BB2D 5763 950D\n" +
+            "certif:         -----BEGIN PGP PUBLIC KEY BLOCK-----\n" +
+            "certif:         Version: GnuPG v1\n" +
+            "certif:         \n" +
+            "certif:         mQENBFC0yvUBCACn2JKwa5e8Sj3QknEnD5ypvmzNWwYbDhLjmD06wuZxt7Wpgm4+\n" +
+            "certif:         yO68swuow09jsrh2DAl2nKQ7YaODEipis0d4H2i0mSswlsC7xbmpx3dRP/yOu4WH\n" +
+            "certif:         2kZciQYxC1NY9J3CNIZxgw6zcghJhtm+LT7OzPS8s3qp+w5nj+vKY09A+BK8yHBN\n" +
+            "certif:         E+VPeLOAi+D97s+Da/UZWkZxFJHdV+cAzQ05ARqXKXeadfFdbkx0Eq2R0RZm9R+L\n" +
+            "certif:         A9tPUhtw5wk1gFMsN7c5NKwTUQ/0HTTgA5eyKMnTKAdwhIY5/VDxUd1YprnK+Ebd\n" +
+            "certif:         YNZh+L39kqoUL6lqeu0dUzYp2Ll7R2IURaXNABEBAAG0I25vcmVwbHlAcmlwZS5u\n" +
+            "certif:         ZXQgPG5vcmVwbHlAcmlwZS5uZXQ+iQE4BBMBAgAiBQJQtMr1AhsDBgsJCAcDAgYV\n" +
+            "certif:         CAIJCgsEFgIDAQIeAQIXgAAKCRC7zLstV2OVDdjSCACYAyyWr83Df/zzOWGP+qMF\n" +
+            "certif:         Vukj8xhaM5f5MGb9FjMKClo6ezT4hLjQ8hfxAAZxndwAXoz46RbDUsAe/aBwdwKB\n" +
+            "certif:         0owcacoaxUd0i+gVEn7CBHPVUfNIuNemcrf1N7aqBkpBLf+NINZ2+3c3t14k1BGe\n" +
+            "certif:         xCInxEqHnq4zbUmunCNYjHoKbUj6Aq7janyC7W1MIIAcOY9/PvWQyf3VnERQImgt\n" +
+            "certif:         0fhiekCr6tRbANJ4qFoJQSM/ACoVkpDvb5PHZuZXf/v+XB1DV7gZHjJeZA+Jto5Z\n" +
+            "certif:         xrmS5E+HEHVBO8RsBOWDlmWCcZ4k9olxp7/z++mADXPprmLaK8vjQmiC2q/KOTVA\n" +
+            "certif:         uQENBFC0yvUBCADTYI6i4baHAkeY2lR2rebpTu1nRHbIET20II8/ZmZDK8E2Lwyv\n" +
+            "certif:         eWold6pAWDq9E23J9xAWL4QUQRQ4V+28+lknMySXbU3uFLXGAs6W9PrZXGcmy/12\n" +
+            "certif:         pZ+82hHckh+jN9xUTtF89NK/wHh09SAxDa/ST/z/Dj0k3pQWzgBdi36jwEFtHhck\n" +
+            "certif:         xFwGst5Cv8SLvA9/DaP75m9VDJsmsSwh/6JqMUb+hY71Dr7oxlIFLdsREsFVzVec\n" +
+            "certif:         YHsKINlZKh60dA/Br+CC7fClBycEsR4Z7akw9cPLWIGnjvw2+nq9miE005QLqRy4\n" +
+            "certif:         dsrwydbMGplaE/mZc0d2WnNyiCBXAHB5UhmZABEBAAGJAR8EGAECAAkFAlC0yvUC\n" +
+            "certif:         GwwACgkQu8y7LVdjlQ1GMAgAgUohj4q3mAJPR6d5pJ8Ig5E3QK87z3lIpgxHbYR4\n" +
+            "certif:         HNaR0NIV/GAt/uca11DtIdj3kBAj69QSPqNVRqaZja3NyhNWQM4OPDWKIUZfolF3\n" +
+            "certif:         eY2q58kEhxhz3JKJt4z45TnFY2GFGqYwFPQ94z1S9FOJCifL/dLpwPBSKucCac9y\n" +
+            "certif:         6KiKfjEehZ4VqmtM/SvN23GiI/OOdlHL/xnU4NgZ90GHmmQFfdUiX36jWK99LBqC\n" +
+            "certif:         RNW8V2MV+rElPVRHev+nw7vgCM0ewXZwQB/bBLbBrayx8LzGtMvAo4kDJ1kpQpip\n" +
+            "certif:         a/bmKCK6E+Z9aph5uoke8bKoybIoQ2K3OQ4Mh8yiI+AjiQ==\n" +
+            "certif:         =HQmg\n" +
+            "certif:         -----END PGP PUBLIC KEY BLOCK-----\n" +
+            "notify:         noreply@ripe.net\n" +
+            "mnt-by:         TEST-MNT\n" +
+            "source:         RIPE\n");
+
+    private static final String SIGNED_MESSAGE = "" +
+            "-----BEGIN PGP SIGNED MESSAGE-----\n" +
+            "Hash: SHA1\n" +
+            "\n" +
+            "inetnum:        213.168.127.96 - 213.168.127.10\n" +
+            "netname:        NETNAME\n" +
+            "descr:          Description\n" +
+            "country:        DE\n" +
+            "admin-c:        TEST-RIPE\n" +
+            "tech-c:         TEST-RIPE\n" +
+            "status:         ASSIGNED PA\n" +
+            "mnt-by:         TEST-MNT\n" +
+            "mnt-lower:      TEST-MNT\n" +
+            "source:         RIPE\n" +
+            "delete:         reason\n" +
+            "-----BEGIN PGP SIGNATURE-----\n" +
+            "Version: GnuPG v1\n" +
+            "Comment: GPGTools - http://gpgtools.org\n" +
+            "\n" +
+            "iQEcBAEBAgAGBQJWTc5TAAoJELvMuy1XY5UNorkIAJsWhjbTcPBLCtug50Hkp0ty\n" +
+            "6hMMVWfIS92fGFzpUKkS3fTnUXkTwsaF0+KQRSHEa6pobMXsP5MCl0SPJaVY4FTz\n" +
+            "CtlpTHQ1avld/o281Y44wGmN/JFcGml8cnpY9/wseNS2OogemJ1ZQdd9Y4zNuCNX\n" +
+            "YS5y2jXLQyuLEzmhg423+b4IqeVZBHdWX43tituzk5phy9U2ZuVAnxLQWvNt0QZC\n" +
+            "v6g0Rig345U3rn0aRCAAFz6C/Al1QbRt5dsH3vQ/lQfiCBoR0A1x9ttsUkB7oCdJ\n" +
+            "P4eeAXVVIZIqCPKBmNo2fRoDJW5Ly1YEAIASp1pjh0h/kDfJwPQc+mqOQ1CRwgQ=\n" +
+            "=KPdC\n" +
+            "-----END PGP SIGNATURE-----";
+
+    private KeyWrapperCache keyWrapperCache;
+    private PgpCredential offeredCredential;
+
+    @Setup
+    public void setup() {
+        keyWrapperCache = new KeyWrapperCache();
+        offeredCredential = PgpCredential.createOfferedCredential(SIGNED_MESSAGE);
+
+        if (!verifyUncached()) {
+            throw new IllegalStateException("Signature does not verify");
+        }
+    }
+
+    @Benchmark
+    public boolean verifyUncached() {
+        return offeredCredential.verify(PgpPublicKeyWrapper.parse(KEYCERT_OBJECT).getPublicKey());
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        return offeredCredential.verify(keyWrapperCache.getPgpPublicKey(KEYCERT_OBJECT).getPublicKey());
+    }
+}
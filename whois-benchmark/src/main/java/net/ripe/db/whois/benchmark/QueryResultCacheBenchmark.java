@@ -0,0 +1,227 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectDao;
+import net.ripe.db.whois.common.domain.Identifiable;
+import net.ripe.db.whois.common.domain.ResponseObject;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.acl.AccessControlListManager;
+import net.ripe.db.whois.query.domain.EncodedResponseHandler;
+import net.ripe.db.whois.query.domain.QueryCompletionInfo;
+import net.ripe.db.whois.query.domain.ResponseHandler;
+import net.ripe.db.whois.query.executor.QueryExecutor;
+import net.ripe.db.whois.query.handler.QueryHandler;
+import net.ripe.db.whois.query.handler.QueryResultCache;
+import net.ripe.db.whois.query.handler.WhoisLog;
+import net.ripe.db.whois.query.pipeline.WhoisEncoder;
+import net.ripe.db.whois.query.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaying a query log through the query handler with and without the query result cache.
+ *
+ * The log is skewed towards popular objects the way real query logs are: the n-th most popular inetnum is looked up
+ * with a probability proportional to 1/n. Every lookup loads the inetnum and the objects it refers to from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryResultCacheBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryResultCacheBenchmark.class);
+
+    private static final int LOG_SIZE = 100000;
+    private static final InetAddress REMOTE_ADDRESS = InetAddress.getLoopbackAddress();
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"0", "1000"})
+    private int cacheSize;
+
+    private EmbeddedDatabase database;
+    private QueryResultCache queryResultCache;
+    private QueryHandler queryHandler;
+    private Query[] queryLog;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+        final List<RpslObject> inetnums = Lists.newArrayList();
+        for (final RpslObject object : database.addObjects(SyntheticDataset.generate(size).getAll())) {
+            if (object.getType() == ObjectType.INETNUM) {
+                inetnums.add(object);
+            }
+        }
+
+        final JdbcRpslObjectDao rpslObjectDao = new JdbcRpslObjectDao(database.getDataSource(), null);
+        queryResultCache = new QueryResultCache(new IpTreeCacheManager(database.getDataSource(), null), cacheSize, 65536);
+        queryHandler = new QueryHandler(new NoopWhoisLog(), new UnlimitedAccessControlListManager(), new BenchmarkSourceContext(database.getDataSource()), queryResultCache, new LookupQueryExecutor(rpslObjectDao));
+
+        queryLog = generateQueryLog(inetnums);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (queryResultCache.isEnabled()) {
+            LOGGER.info("Query result cache: {}", queryResultCache.getStats());
+        }
+        database.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client implements EncodedResponseHandler {
+        private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        private int next;
+
+        Query next(final Query[] queryLog) {
+            if (++next >= queryLog.length) {
+                next = 0;
+            }
+            response.reset();
+            return queryLog[next];
+        }
+
+        @Override
+        public String getApi() {
+            return "QRY";
+        }
+
+        @Override
+        public void handle(final ResponseObject responseObject) {
+            try {
+                WhoisEncoder.encode(responseObject, response);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void handleEncoded(final byte[] encodedResponse) {
+            response.write(encodedResponse, 0, encodedResponse.length);
+        }
+    }
+
+    @Benchmark
+    public int query(final Client client) {
+        queryHandler.streamResults(client.next(queryLog), REMOTE_ADDRESS, 0, client);
+        return client.response.size();
+    }
+
+    private static Query[] generateQueryLog(final List<RpslObject> inetnums) {
+        final double[] cumulative = new double[inetnums.size()];
+        double total = 0;
+        for (int rank = 0; rank < cumulative.length; rank++) {
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+
+        final Random random = new Random(SyntheticDataset.DEFAULT_SEED);
+        Collections.shuffle(inetnums, random);
+
+        final Query[] queryLog = new Query[LOG_SIZE];
+        for (int i = 0; i < queryLog.length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            queryLog[i] = Query.parse("-T inetnum " + inetnums.get(Math.min(rank, cumulative.length - 1)).getKey());
+        }
+        return queryLog;
+    }
+
+    // looks up the inetnum and the objects it refers to, like a search without the ip tree lookup
+    private static final class LookupQueryExecutor implements QueryExecutor {
+        private final JdbcRpslObjectDao rpslObjectDao;
+
+        private LookupQueryExecutor(final JdbcRpslObjectDao rpslObjectDao) {
+            this.rpslObjectDao = rpslObjectDao;
+        }
+
+        @Override
+        public boolean isAclSupported() {
+            return true;
+        }
+
+        @Override
+        public boolean supports(final Query query) {
+            return true;
+        }
+
+        @Override
+        public void execute(final Query query, final ResponseHandler responseHandler) {
+            final RpslObject inetnum = rpslObjectDao.getByKey(ObjectType.INETNUM, query.getSearchValue());
+            responseHandler.handle(inetnum);
+
+            final List<Identifiable> related = Lists.<Identifiable>newArrayList(rpslObjectDao.relatedTo(inetnum, Collections.<ObjectType>emptySet()));
+            final List<RpslObject> relatedObjects = Lists.newArrayListWithExpectedSize(related.size());
+            rpslObjectDao.load(related, relatedObjects);
+            for (final RpslObject relatedObject : relatedObjects) {
+                responseHandler.handle(relatedObject);
+            }
+        }
+    }
+
+    private static final class UnlimitedAccessControlListManager extends AccessControlListManager {
+        private UnlimitedAccessControlListManager() {
+            super(null, null, null, null, null);
+        }
+
+        @Override
+        public boolean isDenied(final InetAddress remoteAddress) {
+            return false;
+        }
+
+        @Override
+        public boolean canQueryPersonalObjects(final InetAddress remoteAddress) {
+            return true;
+        }
+
+        @Override
+        public boolean isUnlimited(final InetAddress remoteAddress) {
+            return false;
+        }
+
+        @Override
+        public int getPersonalObjects(final InetAddress remoteAddress) {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void accountPersonalObjects(final InetAddress remoteAddress, final int amount) {
+        }
+    }
+
+    private static final class NoopWhoisLog extends WhoisLog {
+        @Override
+        public void logQueryResult(final String api, final int personalObjects, final int nonPersonalObjects, final QueryCompletionInfo completionInfo, final long executionTime, final InetAddress remoteAddress, final Integer channelId, final String queryString) {
+        }
+    }
+}
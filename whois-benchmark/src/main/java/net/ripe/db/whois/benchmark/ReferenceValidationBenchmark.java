@@ -0,0 +1,106 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.ClockDateTimeProvider;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.JdbcRpslObjectUpdateDao;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of the references of an aut-num with many mnt-by, admin-c and tech-c values: a lookup per reference
+ * value, or the lookups batched per key index as done by {@link JdbcRpslObjectUpdateDao#getInvalidReferences}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceValidationBenchmark {
+    @Param({"10", "100"})
+    private int referencesPerAttribute;
+
+    @Param({"10000"})
+    private int size;
+
+    private EmbeddedDatabase database;
+    private JdbcRpslObjectUpdateDao rpslObjectUpdateDao;
+    private RpslObject autnum;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = EmbeddedDatabase.start();
+        final SyntheticDataset dataset = SyntheticDataset.generate(size);
+        database.addObjects(dataset.getAll());
+
+        rpslObjectUpdateDao = new JdbcRpslObjectUpdateDao(database.getDataSource(), new ClockDateTimeProvider());
+
+        final List<RpslObject> maintainers = dataset.getObjects(ObjectType.MNTNER);
+        final List<RpslObject> persons = dataset.getObjects(ObjectType.PERSON);
+
+        final List<RpslAttribute> attributes = Lists.newArrayList();
+        attributes.add(new RpslAttribute(AttributeType.AUT_NUM, "AS4294967295"));
+        attributes.add(new RpslAttribute(AttributeType.AS_NAME, "BENCHMARK-AS"));
+        for (int i = 0; i < referencesPerAttribute; i++) {
+            attributes.add(new RpslAttribute(AttributeType.MNT_BY, maintainers.get(i % maintainers.size()).getKey().toString()));
+            attributes.add(new RpslAttribute(AttributeType.ADMIN_C, persons.get(i % persons.size()).getKey().toString()));
+            attributes.add(new RpslAttribute(AttributeType.TECH_C, persons.get((i + 1) % persons.size()).getKey().toString()));
+        }
+        attributes.add(new RpslAttribute(AttributeType.SOURCE, SyntheticDataset.SOURCE));
+        autnum = new RpslObject(attributes);
+
+        if (perReference() != batched().size()) {
+            throw new IllegalStateException("Batched validation finds other invalid references than a lookup per reference");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public int perReference() {
+        int invalid = 0;
+        for (final RpslAttribute attribute : autnum.getAttributes()) {
+            if (attribute.getType().getReferences().isEmpty()) {
+                continue;
+            }
+
+            for (final CIString value : attribute.getReferenceValues()) {
+                final RpslObjectInfo reference = rpslObjectUpdateDao.getAttributeReference(attribute.getType(), value);
+                if (reference == null) {
+                    invalid++;
+                }
+            }
+        }
+        return invalid;
+    }
+
+    @Benchmark
+    public Map<RpslAttribute, Set<CIString>> batched() {
+        return rpslObjectUpdateDao.getInvalidReferences(autnum);
+    }
+}
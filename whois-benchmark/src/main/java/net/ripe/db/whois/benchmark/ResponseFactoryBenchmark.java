@@ -0,0 +1,123 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.api.rest.SyncUpdate;
+import net.ripe.db.whois.common.ClockDateTimeProvider;
+import net.ripe.db.whois.common.DateTimeProvider;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectMessages;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectBuilder;
+import net.ripe.db.whois.update.domain.Ack;
+import net.ripe.db.whois.update.domain.Action;
+import net.ripe.db.whois.update.domain.Notification;
+import net.ripe.db.whois.update.domain.Operation;
+import net.ripe.db.whois.update.domain.Origin;
+import net.ripe.db.whois.update.domain.Paragraph;
+import net.ripe.db.whois.update.domain.PreparedUpdate;
+import net.ripe.db.whois.update.domain.ResponseMessage;
+import net.ripe.db.whois.update.domain.Update;
+import net.ripe.db.whois.update.domain.UpdateContext;
+import net.ripe.db.whois.update.domain.UpdateResult;
+import net.ripe.db.whois.update.domain.UpdateStatus;
+import net.ripe.db.whois.update.handler.response.ResponseFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the acknowledgement and the notifications of a large update message, every object of which is modified.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFactoryBenchmark {
+    @Param({"1000"})
+    private int size;
+
+    @Param({"1", "10"})
+    private int recipients;
+
+    private ResponseFactory responseFactory;
+    private UpdateContext updateContext;
+    private Origin origin;
+    private Ack ack;
+    private List<PreparedUpdate> preparedUpdates;
+
+    @Setup
+    public void setup() {
+        final DateTimeProvider dateTimeProvider = new ClockDateTimeProvider();
+        responseFactory = new ResponseFactory(dateTimeProvider);
+        setField(responseFactory, "version", "1.0");
+        setField(responseFactory, "source", SyntheticDataset.SOURCE);
+
+        updateContext = new UpdateContext(null);
+        origin = new SyncUpdate(dateTimeProvider, "127.0.0.1");
+
+        final List<UpdateResult> updateResults = Lists.newArrayListWithExpectedSize(size);
+        preparedUpdates = Lists.newArrayListWithExpectedSize(size);
+
+        for (final RpslObject originalObject : SyntheticDataset.generate(size).getAll()) {
+            final RpslObject updatedObject = new RpslObjectBuilder(originalObject)
+                    .addAttributeSorted(new RpslAttribute(AttributeType.REMARKS, "modified"))
+                    .get();
+
+            final Update update = new Update(new Paragraph(updatedObject.toString()), Operation.UNSPECIFIED, Collections.<String>emptyList(), updatedObject);
+            preparedUpdates.add(new PreparedUpdate(update, originalObject, updatedObject, Action.MODIFY));
+            updateResults.add(new UpdateResult(originalObject, updatedObject, Action.MODIFY, UpdateStatus.SUCCESS, new ObjectMessages(), 0, false));
+        }
+
+        ack = new Ack(updateResults, Collections.<Paragraph>emptyList());
+    }
+
+    @Benchmark
+    public String createAckResponse() {
+        return responseFactory.createAckResponse(updateContext, origin, ack);
+    }
+
+    @Benchmark
+    public void createNotifications(final Blackhole blackhole) {
+        final List<Notification> notifications = Lists.newArrayListWithExpectedSize(recipients);
+        for (int recipient = 0; recipient < recipients; recipient++) {
+            notifications.add(new Notification("notify" + recipient + "@ripe.net"));
+        }
+
+        // every recipient is notified of all updates, as with a maintainer shared by all objects
+        for (final PreparedUpdate preparedUpdate : preparedUpdates) {
+            final Notification.Update update = new Notification.Update(preparedUpdate, updateContext);
+            for (final Notification notification : notifications) {
+                notification.add(Notification.Type.SUCCESS, update);
+            }
+        }
+
+        for (final Notification notification : notifications) {
+            final ResponseMessage responseMessage = responseFactory.createNotification(updateContext, origin, notification);
+            blackhole.consume(responseMessage);
+        }
+    }
+
+    private static void setField(final Object target, final String name, final Object value) {
+        final Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,157 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import net.ripe.db.whois.api.rest.ReferencedTypeResolver;
+import net.ripe.db.whois.api.rest.StreamingHelper;
+import net.ripe.db.whois.api.rest.StreamingMarshal;
+import net.ripe.db.whois.api.rest.domain.ErrorMessage;
+import net.ripe.db.whois.api.rest.domain.ErrorMessages;
+import net.ripe.db.whois.api.rest.domain.Flags;
+import net.ripe.db.whois.api.rest.domain.InverseAttributes;
+import net.ripe.db.whois.api.rest.domain.Link;
+import net.ripe.db.whois.api.rest.domain.Parameters;
+import net.ripe.db.whois.api.rest.domain.QueryString;
+import net.ripe.db.whois.api.rest.domain.QueryStrings;
+import net.ripe.db.whois.api.rest.domain.Service;
+import net.ripe.db.whois.api.rest.domain.Sources;
+import net.ripe.db.whois.api.rest.domain.TypeFilters;
+import net.ripe.db.whois.api.rest.domain.WhoisResources;
+import net.ripe.db.whois.api.rest.mapper.AttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.DirtyServerAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.FormattedClientAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.FormattedServerAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.StreamingAttributeMapper;
+import net.ripe.db.whois.api.rest.mapper.WhoisObjectMapper;
+import net.ripe.db.whois.api.rest.mapper.WhoisObjectServerMapper;
+import net.ripe.db.whois.common.Message;
+import net.ripe.db.whois.common.Messages;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.QueryFlag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a REST search response, by marshalling intermediate JAXB beans and by streaming the objects directly.
+ *
+ * Both write the same bytes (see StreamingMarshalTest); referenced types are resolved without a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestStreamingBenchmark {
+    private static final String BASE_URL = "http://rest.db.ripe.net";
+    private static final Message WARNING = new Message(Messages.Type.WARNING, "Query returned %s objects", 100);
+
+    @Param({"100"})
+    private int size;
+
+    @Param({"xml", "json"})
+    private String format;
+
+    private List<RpslObject> objects;
+    private WhoisObjectServerMapper whoisObjectServerMapper;
+
+    @Setup
+    public void setup() {
+        objects = SyntheticDataset.generate(size).getAll();
+
+        final ReferencedTypeResolver referencedTypeResolver = new ReferencedTypeResolver(null) {
+            @Override
+            public String getReferencedType(final AttributeType attributeType, final CIString value) {
+                return attributeType.getReferences().isEmpty() ? null : attributeType.getReferences().iterator().next().getName();
+            }
+        };
+
+        final FormattedServerAttributeMapper formattedServerAttributeMapper = new FormattedServerAttributeMapper(referencedTypeResolver, BASE_URL);
+        final DirtyServerAttributeMapper dirtyServerAttributeMapper = new DirtyServerAttributeMapper(referencedTypeResolver, BASE_URL);
+
+        final WhoisObjectMapper whoisObjectMapper = new WhoisObjectMapper(BASE_URL, new AttributeMapper[]{
+                formattedServerAttributeMapper,
+                dirtyServerAttributeMapper,
+                new FormattedClientAttributeMapper()
+        });
+
+        whoisObjectServerMapper = new WhoisObjectServerMapper(whoisObjectMapper, new StreamingAttributeMapper[]{
+                formattedServerAttributeMapper,
+                dirtyServerAttributeMapper
+        }, BASE_URL);
+    }
+
+    @Benchmark
+    public void marshalBeans() {
+        final StreamingMarshal streamingMarshal = createStreamingMarshal();
+        streamingMarshal.open();
+        streamingMarshal.write("service", new Service("search"));
+        streamingMarshal.write("parameters", new Parameters(
+                new InverseAttributes(Collections.<String>emptyList()),
+                new TypeFilters(Collections.singletonList(ObjectType.INETNUM.getName())),
+                new Flags(Collections.<QueryFlag>emptyList()),
+                new QueryStrings(new QueryString("10.0.0.0/8")),
+                new Sources(Collections.singletonList(SyntheticDataset.SOURCE)),
+                null));
+        streamingMarshal.start("objects");
+        streamingMarshal.startArray("object");
+        for (final RpslObject rpslObject : objects) {
+            streamingMarshal.writeArray(whoisObjectServerMapper.map(rpslObject, null, FormattedServerAttributeMapper.class));
+        }
+        streamingMarshal.endArray();
+        streamingMarshal.end("objects");
+        streamingMarshal.write("errormessages", new ErrorMessages(Lists.newArrayList(new ErrorMessage(WARNING))));
+        streamingMarshal.write("terms-and-conditions", Link.create(WhoisResources.TERMS_AND_CONDITIONS));
+        streamingMarshal.end("whois-resources");
+        streamingMarshal.close();
+    }
+
+    @Benchmark
+    public void streamObjects() {
+        final StreamingMarshal streamingMarshal = createStreamingMarshal();
+        streamingMarshal.open();
+        streamingMarshal.writeService("search");
+        streamingMarshal.startParameters();
+        streamingMarshal.writeParameter("inverse-lookup", "inverse-attribute", "value", Collections.<String>emptyList());
+        streamingMarshal.writeParameter("type-filters", "type-filter", "id", Collections.singletonList(ObjectType.INETNUM.getName()));
+        streamingMarshal.writeParameter("flags", "flag", "value", Collections.<String>emptyList());
+        streamingMarshal.writeParameter("query-strings", "query-string", "value", Collections.singletonList("10.0.0.0/8"));
+        streamingMarshal.writeParameter("sources", "source", "id", Collections.singletonList(SyntheticDataset.SOURCE));
+        streamingMarshal.endParameters();
+        streamingMarshal.start("objects");
+        streamingMarshal.startArray("object");
+        for (final RpslObject rpslObject : objects) {
+            whoisObjectServerMapper.stream(rpslObject, null, FormattedServerAttributeMapper.class, streamingMarshal);
+        }
+        streamingMarshal.endArray();
+        streamingMarshal.end("objects");
+        streamingMarshal.startErrorMessages();
+        streamingMarshal.writeErrorMessage(WARNING.getType().toString(), WARNING.getText(), Collections.singletonList("100"));
+        streamingMarshal.endErrorMessages();
+        streamingMarshal.writeLink("terms-and-conditions", WhoisResources.TERMS_AND_CONDITIONS);
+        streamingMarshal.end("whois-resources");
+        streamingMarshal.close();
+    }
+
+    private StreamingMarshal createStreamingMarshal() {
+        return "json".equals(format) ?
+                StreamingHelper.getStreamingMarshalJson(ByteStreams.nullOutputStream()) :
+                StreamingHelper.getStreamingMarshalXml(ByteStreams.nullOutputStream());
+    }
+}
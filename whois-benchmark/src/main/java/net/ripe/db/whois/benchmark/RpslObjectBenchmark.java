@@ -0,0 +1,79 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and writing of single objects, as done for every object read from the database or submitted in an update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RpslObjectBenchmark {
+    @Param({"INETNUM", "AUT_NUM", "PERSON", "MNTNER"})
+    private ObjectType objectType;
+
+    @Param({"10000"})
+    private int size;
+
+    private RpslObject[] objects;
+    private byte[][] bytes;
+    private String[] strings;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final List<RpslObject> dataset = SyntheticDataset.generate(size).getObjects(objectType);
+
+        objects = dataset.toArray(new RpslObject[dataset.size()]);
+        bytes = new byte[objects.length][];
+        strings = new String[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            strings[i] = objects[i].toString();
+            bytes[i] = objects[i].toByteArray();
+        }
+    }
+
+    @Benchmark
+    public RpslObject parseBytes() {
+        return RpslObject.parse(bytes[next()]);
+    }
+
+    @Benchmark
+    public RpslObject parseString() {
+        return RpslObject.parse(strings[next()]);
+    }
+
+    @Benchmark
+    public byte[] writeTo() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        objects[next()].writeTo(out);
+        return out.toByteArray();
+    }
+
+    private int next() {
+        if (++next == objects.length) {
+            next = 0;
+        }
+        return next;
+    }
+}
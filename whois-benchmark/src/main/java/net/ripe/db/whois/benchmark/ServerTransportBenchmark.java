@@ -0,0 +1,121 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.base.Charsets;
+import net.ripe.db.whois.common.pipeline.ServerTransport;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.pipeline.WhoisEncoder;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.ChannelPipelineFactory;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
+import org.jboss.netty.handler.codec.string.StringDecoder;
+import org.jboss.netty.handler.execution.ExecutionHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of a query over loopback through the port 43 transport, from connecting to reading the end of the
+ * response, with a pipeline shaped like the query server's but answering from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerTransportBenchmark {
+    private static final byte[] QUERY = "-r 10.0.0.0\n".getBytes(Charsets.UTF_8);
+
+    @Param({"false", "true"})
+    private boolean directBuffers;
+
+    @Param({"1", "1000"})
+    private int responseSize;
+
+    private ExecutionHandler executionHandler;
+    private Channel serverChannel;
+    private InetSocketAddress address;
+
+    @Setup
+    public void setup() {
+        final List<RpslObject> dataset = SyntheticDataset.generate(responseSize).getObjects(ObjectType.INETNUM);
+        final RpslObject[] response = dataset.subList(0, Math.min(responseSize, dataset.size())).toArray(new RpslObject[0]);
+
+        final WhoisEncoder encoder = new WhoisEncoder();
+        executionHandler = ServerTransport.createExecutionHandler("benchmark", 16, 30);
+
+        final ChannelPipelineFactory pipelineFactory = new ChannelPipelineFactory() {
+            @Override
+            public ChannelPipeline getPipeline() {
+                final ChannelPipeline pipeline = Channels.pipeline();
+                pipeline.addLast("query-frame-decoder", new DelimiterBasedFrameDecoder(1024, true, ChannelBuffers.wrappedBuffer(new byte[]{'\n'})));
+                pipeline.addLast("string-decoder", new StringDecoder(Charsets.UTF_8));
+                pipeline.addLast("whois-encoder", encoder);
+                pipeline.addLast("execution-handler", executionHandler);
+                pipeline.addLast("query-handler", new SimpleChannelUpstreamHandler() {
+                    @Override
+                    public void messageReceived(final ChannelHandlerContext ctx, final MessageEvent e) {
+                        final Channel channel = e.getChannel();
+                        for (final RpslObject rpslObject : response) {
+                            channel.write(rpslObject);
+                        }
+                        channel.write(ChannelBuffers.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+                    }
+                });
+                return pipeline;
+            }
+        };
+
+        serverChannel = new ServerTransport(0, directBuffers).bind("Benchmark", pipelineFactory, 0);
+        address = new InetSocketAddress("localhost", ((InetSocketAddress) serverChannel.getLocalAddress()).getPort());
+    }
+
+    @TearDown
+    public void tearDown() {
+        serverChannel.close().awaitUninterruptibly();
+        executionHandler.releaseExternalResources();
+    }
+
+    @Benchmark
+    public long query() throws IOException {
+        try (final Socket socket = new Socket()) {
+            socket.connect(address);
+            final OutputStream out = socket.getOutputStream();
+            out.write(QUERY);
+            out.flush();
+
+            final InputStream in = socket.getInputStream();
+            final byte[] buffer = new byte[8192];
+            long received = 0;
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                received += read;
+            }
+            return received;
+        }
+    }
+}
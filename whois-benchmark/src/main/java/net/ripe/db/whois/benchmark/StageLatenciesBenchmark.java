@@ -0,0 +1,58 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.jmx.LatencyHistogram;
+import net.ripe.db.whois.common.jmx.StageLatencies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of recording the latency of a stage, as added to every invocation of a method annotated with @Timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageLatenciesBenchmark {
+
+    @Benchmark
+    public long record() {
+        final LatencyHistogram histogram = StageLatencies.get("benchmark");
+        final long start = System.nanoTime();
+        final long elapsed = System.nanoTime() - start;
+        histogram.record(elapsed);
+        return elapsed;
+    }
+
+    // as done for @Timed(sampleRate = 64)
+    @Benchmark
+    public long recordSampled() {
+        if (ThreadLocalRandom.current().nextInt(64) != 0) {
+            return 0;
+        }
+
+        final LatencyHistogram histogram = StageLatencies.get("benchmark");
+        final long start = System.nanoTime();
+        final long elapsed = System.nanoTime() - start;
+        histogram.record(elapsed, 64);
+        return elapsed;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long recordConcurrently() {
+        return record();
+    }
+}
@@ -0,0 +1,222 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.common.ip.Ipv4Resource;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic RPSL dataset for benchmarks: the same seed and size always produce the same objects, in the same order.
+ *
+ * The dataset consists of maintainers, persons, aut-nums with large routing policies and an inetnum hierarchy that is
+ * several levels deep. Objects reference each other, so they can be stored and indexed like a real database.
+ */
+public final class SyntheticDataset {
+    public static final long DEFAULT_SEED = 20161019L;
+    public static final String SOURCE = "TEST";
+
+    private static final int FIRST_AS_NUMBER = 64496;
+    private static final int ROOT_PREFIX_LENGTH = 8;
+    private static final int PREFIX_LENGTH_STEP = 4;
+    private static final int MAX_PREFIX_LENGTH = 32;
+    private static final int MIN_POLICY_LINES = 50;
+    private static final int MAX_POLICY_LINES = 250;
+
+    private final Random random;
+    private final List<RpslObject> mntners = Lists.newArrayList();
+    private final List<RpslObject> persons = Lists.newArrayList();
+    private final List<RpslObject> autNums = Lists.newArrayList();
+    private final List<RpslObject> inetnums = Lists.newArrayList();
+
+    private SyntheticDataset(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param size the number of inetnums; the number of other objects is derived from it
+     */
+    public static SyntheticDataset generate(final int size) {
+        return generate(DEFAULT_SEED, size);
+    }
+
+    public static SyntheticDataset generate(final long seed, final int size) {
+        final SyntheticDataset dataset = new SyntheticDataset(seed);
+        dataset.addMntners(Math.max(1, size / 100));
+        dataset.addPersons(Math.max(1, size / 10));
+        dataset.addAutNums(Math.max(1, size / 20));
+        dataset.addInetnums(size);
+        return dataset;
+    }
+
+    public List<RpslObject> getObjects(final ObjectType objectType) {
+        switch (objectType) {
+            case MNTNER:
+                return mntners;
+            case PERSON:
+                return persons;
+            case AUT_NUM:
+                return autNums;
+            case INETNUM:
+                return inetnums;
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported object type: %s", objectType));
+        }
+    }
+
+    /** All objects, with every object following the maintainers and persons it references. */
+    public List<RpslObject> getAll() {
+        return ImmutableList.<RpslObject>builder()
+                .addAll(mntners)
+                .addAll(persons)
+                .addAll(autNums)
+                .addAll(inetnums)
+                .build();
+    }
+
+    private void addMntners(final int count) {
+        for (int i = 0; i < count; i++) {
+            mntners.add(RpslObject.parse("" +
+                    "mntner:         " + mntnerName(i) + "\n" +
+                    "descr:          Synthetic maintainer " + i + "\n" +
+                    "admin-c:        " + nicHandle(i) + "\n" +
+                    "upd-to:         noc" + i + "@example.net\n" +
+                    "mnt-nfy:        noc" + i + "@example.net\n" +
+                    "auth:           MD5-PW $1$d9fKeTr2$Si7YudNf4rUGmR71n/cqk/ # test\n" +
+                    "mnt-by:         " + mntnerName(i) + "\n" +
+                    "source:         " + SOURCE));
+        }
+    }
+
+    private void addPersons(final int count) {
+        for (int i = 0; i < count; i++) {
+            persons.add(RpslObject.parse("" +
+                    "person:         Synthetic Person " + i + "\n" +
+                    "address:        Street " + random.nextInt(1000) + "\n" +
+                    "address:        Amsterdam\n" +
+                    "phone:          +31 20 " + (1000000 + random.nextInt(9000000)) + "\n" +
+                    "e-mail:         person" + i + "@example.net\n" +
+                    "nic-hdl:        " + nicHandle(i) + "\n" +
+                    "mnt-by:         " + randomMntnerName() + "\n" +
+                    "source:         " + SOURCE));
+        }
+    }
+
+    private void addAutNums(final int count) {
+        for (int i = 0; i < count; i++) {
+            final int asNumber = FIRST_AS_NUMBER + i;
+            final StringBuilder builder = new StringBuilder()
+                    .append("aut-num:        AS").append(asNumber).append('\n')
+                    .append("as-name:        SYNTHETIC-AS").append(asNumber).append('\n')
+                    .append("descr:          Synthetic autonomous system ").append(i).append('\n');
+
+            final int policyLines = MIN_POLICY_LINES + random.nextInt(MAX_POLICY_LINES - MIN_POLICY_LINES + 1);
+            for (int line = 0; line < policyLines; line++) {
+                final int peer = FIRST_AS_NUMBER + random.nextInt(count);
+                switch (line % 4) {
+                    case 0:
+                        builder.append("import:         from AS").append(peer).append(" action pref=").append(random.nextInt(200)).append("; accept AS").append(peer).append('\n');
+                        break;
+                    case 1:
+                        builder.append("export:         to AS").append(peer).append(" announce AS").append(asNumber).append('\n');
+                        break;
+                    case 2:
+                        builder.append("mp-import:      afi ipv6.unicast from AS").append(peer).append(" accept ANY AND NOT {0::/0^0-16}\n");
+                        break;
+                    default:
+                        builder.append("mp-export:      afi ipv6.unicast to AS").append(peer).append(" announce AS").append(asNumber).append('\n');
+                        break;
+                }
+            }
+
+            builder.append("admin-c:        ").append(randomNicHandle()).append('\n')
+                    .append("tech-c:         ").append(randomNicHandle()).append('\n')
+                    .append("mnt-by:         ").append(randomMntnerName()).append('\n')
+                    .append("source:         ").append(SOURCE);
+
+            autNums.add(RpslObject.parse(builder.toString()));
+        }
+    }
+
+    private void addInetnums(final int count) {
+        final Deque<Ipv4Resource> parents = new ArrayDeque<>();
+
+        for (int first = 10; first < 224 && inetnums.size() < count; first += 1 + random.nextInt(16)) {
+            final long begin = (long) first << (MAX_PREFIX_LENGTH - ROOT_PREFIX_LENGTH);
+            final Ipv4Resource root = new Ipv4Resource(begin, begin + size(ROOT_PREFIX_LENGTH) - 1);
+            addInetnum(root, "ALLOCATED PA");
+            parents.add(root);
+        }
+
+        while (inetnums.size() < count && !parents.isEmpty()) {
+            final Ipv4Resource parent = parents.removeFirst();
+            final int prefixLength = prefixLength(parent) + PREFIX_LENGTH_STEP;
+            if (prefixLength > MAX_PREFIX_LENGTH) {
+                continue;
+            }
+
+            final int slots = 1 << PREFIX_LENGTH_STEP;
+            final Set<Integer> children = Sets.newTreeSet();
+            final int nrChildren = 1 + random.nextInt(slots / 2);
+            while (children.size() < nrChildren) {
+                children.add(random.nextInt(slots));
+            }
+
+            for (final Integer child : children) {
+                if (inetnums.size() >= count) {
+                    break;
+                }
+
+                final long begin = parent.begin() + child * size(prefixLength);
+                final Ipv4Resource resource = new Ipv4Resource(begin, begin + size(prefixLength) - 1);
+                addInetnum(resource, "ASSIGNED PA");
+                parents.add(resource);
+            }
+        }
+    }
+
+    private void addInetnum(final Ipv4Resource resource, final String status) {
+        final int i = inetnums.size();
+        inetnums.add(RpslObject.parse("" +
+                "inetnum:        " + resource.toRangeString() + "\n" +
+                "netname:        SYNTHETIC-NET-" + i + "\n" +
+                "descr:          Synthetic network " + i + "\n" +
+                "country:        NL\n" +
+                "admin-c:        " + randomNicHandle() + "\n" +
+                "tech-c:         " + randomNicHandle() + "\n" +
+                "status:         " + status + "\n" +
+                "mnt-by:         " + randomMntnerName() + "\n" +
+                "source:         " + SOURCE));
+    }
+
+    private String randomMntnerName() {
+        return mntnerName(random.nextInt(Math.max(1, mntners.size())));
+    }
+
+    private String randomNicHandle() {
+        return nicHandle(random.nextInt(Math.max(1, persons.size())));
+    }
+
+    private static String mntnerName(final int index) {
+        return "SYNTHETIC" + index + "-MNT";
+    }
+
+    private static String nicHandle(final int index) {
+        return "SP" + (index + 1) + "-" + SOURCE;
+    }
+
+    private static long size(final int prefixLength) {
+        return 1L << (MAX_PREFIX_LENGTH - prefixLength);
+    }
+
+    private static int prefixLength(final Ipv4Resource resource) {
+        return MAX_PREFIX_LENGTH - Long.numberOfTrailingZeros(resource.end() - resource.begin() + 1);
+    }
+}
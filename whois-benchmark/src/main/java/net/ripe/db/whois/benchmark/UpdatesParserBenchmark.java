@@ -0,0 +1,67 @@
+package net.ripe.db.whois.benchmark;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.api.UpdatesParser;
+import net.ripe.db.whois.common.ClockDateTimeProvider;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.update.domain.ContentWithCredentials;
+import net.ripe.db.whois.update.domain.Update;
+import net.ripe.db.whois.update.domain.UpdateContext;
+import net.ripe.db.whois.update.log.LoggerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting a submitted update message into paragraphs and parsing each paragraph into an update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdatesParserBenchmark {
+    @Param({"1", "100"})
+    private int objectsPerMessage;
+
+    @Param({"10000"})
+    private int size;
+
+    private final UpdatesParser updatesParser = new UpdatesParser();
+    private final LoggerContext loggerContext = new LoggerContext(new ClockDateTimeProvider());
+
+    private String[] messages;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final List<String> datasetMessages = Lists.newArrayList();
+        for (final List<RpslObject> objects : Lists.partition(SyntheticDataset.generate(size).getAll(), objectsPerMessage)) {
+            datasetMessages.add("password: test\n\n" + Joiner.on("\n\n").join(objects));
+        }
+
+        messages = datasetMessages.toArray(new String[datasetMessages.size()]);
+    }
+
+    @Benchmark
+    public List<Update> parse() {
+        if (++next == messages.length) {
+            next = 0;
+        }
+        return updatesParser.parse(new UpdateContext(loggerContext), Collections.singletonList(new ContentWithCredentials(messages[next])));
+    }
+}
@@ -0,0 +1,62 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.pipeline.WhoisEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of query results into channel buffers for the port 43 response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhoisEncoderBenchmark {
+    @Param({"INETNUM", "AUT_NUM", "PERSON"})
+    private ObjectType objectType;
+
+    @Param({"10000"})
+    private int size;
+
+    private final Encoder encoder = new Encoder();
+
+    private RpslObject[] objects;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final List<RpslObject> dataset = SyntheticDataset.generate(size).getObjects(objectType);
+        objects = dataset.toArray(new RpslObject[dataset.size()]);
+    }
+
+    @Benchmark
+    public Object encode() throws IOException {
+        if (++next == objects.length) {
+            next = 0;
+        }
+        return encoder.encode(objects[next]);
+    }
+
+    private static final class Encoder extends WhoisEncoder {
+        Object encode(final Object msg) throws IOException {
+            return encode(null, null, msg);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.ripe.db.whois.benchmark;
+
+import net.ripe.db.whois.common.etree.NestedIntervalMap;
+import net.ripe.db.whois.common.ip.Ipv4Resource;
+import net.ripe.db.whois.common.rpsl.ObjectTemplate;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class SyntheticDatasetTest {
+
+    @Test
+    public void same_seed_generates_same_objects() {
+        assertThat(SyntheticDataset.generate(42L, 500).getAll(), is(SyntheticDataset.generate(42L, 500).getAll()));
+    }
+
+    @Test
+    public void different_seed_generates_different_objects() {
+        assertThat(SyntheticDataset.generate(42L, 500).getAll(), is(not(SyntheticDataset.generate(43L, 500).getAll())));
+    }
+
+    @Test
+    public void object_counts() {
+        final SyntheticDataset dataset = SyntheticDataset.generate(1000);
+
+        assertThat(dataset.getObjects(ObjectType.INETNUM), hasSize(1000));
+        assertThat(dataset.getObjects(ObjectType.AUT_NUM), hasSize(50));
+        assertThat(dataset.getObjects(ObjectType.PERSON), hasSize(100));
+        assertThat(dataset.getObjects(ObjectType.MNTNER), hasSize(10));
+        assertThat(dataset.getAll(), hasSize(1160));
+    }
+
+    @Test
+    public void objects_are_valid() {
+        for (final RpslObject rpslObject : SyntheticDataset.generate(200).getAll()) {
+            assertThat(rpslObject.getFormattedKey(), ObjectTemplate.getTemplate(rpslObject.getType()).validate(rpslObject).hasErrors(), is(false));
+        }
+    }
+
+    @Test
+    public void inetnums_are_nested() {
+        final NestedIntervalMap<Ipv4Resource, Ipv4Resource> tree = new NestedIntervalMap<>();
+
+        // a NestedIntervalMap does not accept intersecting intervals
+        for (final RpslObject inetnum : SyntheticDataset.generate(1000).getObjects(ObjectType.INETNUM)) {
+            final Ipv4Resource resource = Ipv4Resource.parse(inetnum.getKey());
+            tree.put(resource, resource);
+        }
+
+        int nested = 0;
+        for (final RpslObject inetnum : SyntheticDataset.generate(1000).getObjects(ObjectType.INETNUM)) {
+            if (!tree.findAllLessSpecific(Ipv4Resource.parse(inetnum.getKey())).isEmpty()) {
+                nested++;
+            }
+        }
+        assertThat(nested > 900, is(true));
+    }
+}
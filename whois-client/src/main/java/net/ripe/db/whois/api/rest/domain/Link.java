@@ -39,7 +39,11 @@ public class Link {
     }
 
     public static Link create(final String baseUrl, final String source, final String type, final String key) {
-        return create(String.format("%s/%s/%s/%s", baseUrl, source, type, key));
+        return create(href(baseUrl, source, type, key));
+    }
+
+    public static String href(final String baseUrl, final String source, final String type, final String key) {
+        return baseUrl + '/' + source + '/' + type + '/' + key;
     }
 
     public static Link create(final String href) {
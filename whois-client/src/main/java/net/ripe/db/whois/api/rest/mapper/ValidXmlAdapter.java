@@ -17,7 +17,17 @@ public class ValidXmlAdapter extends XmlAdapter<String, String> {
         return removeNonvalidXmlCharacters(v);
     }
 
-    private static String removeNonvalidXmlCharacters(final String str) {
-        return INVALID_CHARS_XML1_0.matcher(str).replaceAll("");
+    public static String removeNonvalidXmlCharacters(final String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (!isValidXmlCharacter(str.charAt(i))) {
+                return INVALID_CHARS_XML1_0.matcher(str).replaceAll("");
+            }
+        }
+        return str;
+    }
+
+    // mirrors INVALID_CHARS_XML1_0 for characters in the basic multilingual plane, so the common case skips the regex
+    private static boolean isValidXmlCharacter(final char c) {
+        return (c >= '\u0020' && c <= '\uD7FF') || c == '\n' || c == '\t' || c == '\r' || (c >= '\uE000' && c <= '\uFFFD');
     }
 }
@@ -3,7 +3,10 @@ package net.ripe.db.whois.query;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import joptsimple.NonOptionArgumentSpec;
 import joptsimple.OptionException;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
@@ -12,9 +15,13 @@ import joptsimple.OptionSpecBuilder;
 import net.ripe.db.whois.common.IllegalArgumentExceptionMessage;
 import net.ripe.db.whois.common.domain.CIString;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -33,12 +40,15 @@ public class QueryParser {
 
     private final String originalStringQuery;
     private final String searchKey;
-    private final OptionSet options;
+    private final ParsedOptions options;
 
     public QueryParser(final String query) {
-        originalStringQuery = query;
-        options = PARSER.parse(Iterables.toArray(SPACE_SPLITTER.split(query), String.class));
+        this(query, true);
+    }
 
+    QueryParser(final String query, final boolean fastPath) {
+        originalStringQuery = query;
+        options = parse(Iterables.toArray(SPACE_SPLITTER.split(query), String.class), fastPath);
 
         final List<?> searchKeys = options.nonOptionArguments();
         if (searchKeys.size() >= MAX_QUERY_ARGUMENTS) {
@@ -47,6 +57,21 @@ public class QueryParser {
         searchKey = SPACE_JOINER.join(searchKeys);
     }
 
+    private static ParsedOptions parse(final String[] arguments, final boolean fastPath) {
+        if (fastPath) {
+            final ParsedOptions parsedOptions = SimpleOptions.parse(arguments);
+            if (parsedOptions != null) {
+                return parsedOptions;
+            }
+        }
+
+        return new JoptOptions(PARSER.parse(arguments));
+    }
+
+    boolean isFastPath() {
+        return options instanceof SimpleOptions;
+    }
+
     public String getSearchKey() {
         return searchKey;
     }
@@ -142,12 +167,203 @@ public class QueryParser {
     }
 
     public boolean hasOnlyQueryFlag(final QueryFlag queryFlag) {
-        final List<OptionSpec<?>> specs = options.specs();
-        return specs.size() == 1 && queryFlag.getFlags().contains(specs.get(0).options().iterator().next());
+        final List<String> flags = options.flags();
+        return flags.size() == 1 && options.nonOptionArguments().isEmpty() && queryFlag.getFlags().contains(flags.get(0));
     }
 
     public static boolean hasFlags(final String queryString) {
-        return PARSER.parse(Iterables.toArray(SPACE_SPLITTER.split(queryString), String.class)).hasOptions();
+        return parse(Iterables.toArray(SPACE_SPLITTER.split(queryString), String.class), true).hasOptions();
+    }
+
+    private interface ParsedOptions {
+        boolean hasOptions();
+
+        boolean has(String flag);
+
+        List<?> valuesOf(String flag);
+
+        /** the flags in the order they occur in the query */
+        List<String> flags();
+
+        List<?> nonOptionArguments();
+    }
+
+    private static final class JoptOptions implements ParsedOptions {
+        private final OptionSet optionSet;
+
+        private JoptOptions(final OptionSet optionSet) {
+            this.optionSet = optionSet;
+        }
+
+        @Override
+        public boolean hasOptions() {
+            return optionSet.hasOptions();
+        }
+
+        @Override
+        public boolean has(final String flag) {
+            return optionSet.has(flag);
+        }
+
+        @Override
+        public List<?> valuesOf(final String flag) {
+            return optionSet.valuesOf(flag);
+        }
+
+        @Override
+        public List<String> flags() {
+            final List<String> flags = Lists.newArrayList();
+            for (final OptionSpec<?> spec : optionSet.specs()) {
+                if (!(spec instanceof NonOptionArgumentSpec)) {
+                    flags.add(spec.options().iterator().next());
+                }
+            }
+            return flags;
+        }
+
+        @Override
+        public List<?> nonOptionArguments() {
+            return optionSet.nonOptionArguments();
+        }
+    }
+
+    /**
+     * Parses the common forms of queries without jopt-simple: search keys, clusters of short flags (of which the last
+     * may take a value, either attached or as the next argument), and exact long flags with their value as the next
+     * argument. Anything else (including a cluster which abbreviates a long flag) is left to jopt-simple, so both
+     * always agree.
+     */
+    private static final class SimpleOptions implements ParsedOptions {
+        private final Map<String, List<String>> options = Maps.newHashMap();
+        private final List<String> flags = Lists.newArrayList();
+        private final List<String> nonOptionArguments = Lists.newArrayList();
+
+        @CheckForNull
+        static SimpleOptions parse(final String[] arguments) {
+            final SimpleOptions result = new SimpleOptions();
+
+            for (int i = 0; i < arguments.length; i++) {
+                final String argument = arguments[i];
+
+                // a single dash separates the ends of a range
+                if (argument.charAt(0) != '-' || argument.length() == 1) {
+                    result.nonOptionArguments.add(argument);
+                    continue;
+                }
+
+                if (argument.indexOf('=') != -1) {
+                    return null;
+                }
+
+                final int next;
+                if (argument.charAt(1) == '-') {
+                    next = result.addLongFlag(argument.substring(2), arguments, i + 1);
+                } else {
+                    next = result.addShortFlags(argument.substring(1), arguments, i + 1);
+                }
+
+                if (next < 0) {
+                    return null;
+                }
+
+                i = next - 1;
+            }
+
+            return result;
+        }
+
+        // returns the index of the next argument, or -1 if the flag is not a simple one
+        private int addLongFlag(final String flag, final String[] arguments, final int next) {
+            final QueryFlag queryFlag = QueryFlag.getForLongFlag(flag);
+            if (queryFlag == null) {
+                return -1;
+            }
+
+            return addFlag(flag, queryFlag, null, arguments, next);
+        }
+
+        private int addShortFlags(final String cluster, final String[] arguments, final int next) {
+            // jopt-simple reads a single dash followed by (an abbreviation of) a long flag as that long flag
+            if (cluster.length() > 1) {
+                for (final String longFlag : QueryFlag.getValidLongFlags()) {
+                    if (longFlag.regionMatches(true, 0, cluster, 0, cluster.length())) {
+                        return -1;
+                    }
+                }
+            }
+
+            for (int i = 0; i < cluster.length(); i++) {
+                final String flag = cluster.substring(i, i + 1);
+                final QueryFlag queryFlag = QueryFlag.getForShortFlag(flag);
+                if (queryFlag == null) {
+                    return -1;
+                }
+
+                if (queryFlag.getRequiredArgument() != null) {
+                    return addFlag(flag, queryFlag, i + 1 < cluster.length() ? cluster.substring(i + 1) : null, arguments, next);
+                }
+
+                addFlag(flag, queryFlag, null, arguments, next);
+            }
+
+            return next;
+        }
+
+        private int addFlag(final String flag, final QueryFlag queryFlag, @Nullable final String attachedValue, final String[] arguments, final int next) {
+            List<String> values = options.get(flag);
+            if (values == null) {
+                values = Lists.newArrayListWithCapacity(1);
+                options.put(flag, values);
+            }
+            flags.add(flag);
+
+            final Class<?> requiredArgument = queryFlag.getRequiredArgument();
+            if (requiredArgument == null) {
+                return next;
+            }
+
+            if (requiredArgument != String.class) {
+                return -1;
+            }
+
+            if (attachedValue != null) {
+                values.add(attachedValue);
+                return next;
+            }
+
+            if (next >= arguments.length || arguments[next].charAt(0) == '-') {
+                return -1;
+            }
+
+            values.add(arguments[next]);
+            return next + 1;
+        }
+
+        @Override
+        public boolean hasOptions() {
+            return !options.isEmpty();
+        }
+
+        @Override
+        public boolean has(final String flag) {
+            return options.containsKey(flag);
+        }
+
+        @Override
+        public List<?> valuesOf(final String flag) {
+            final List<String> values = options.get(flag);
+            return values == null ? Collections.<String>emptyList() : values;
+        }
+
+        @Override
+        public List<String> flags() {
+            return flags;
+        }
+
+        @Override
+        public List<?> nonOptionArguments() {
+            return nonOptionArguments;
+        }
     }
 
     static class QueryFlagParser extends OptionParser {
@@ -0,0 +1,340 @@
+package net.ripe.db.whois.common;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.JdbcStreamingHelper;
+import net.ripe.db.whois.common.dao.jdbc.index.BulkIndexStrategy;
+import net.ripe.db.whois.common.dao.jdbc.index.IndexRows;
+import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategies;
+import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategy;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.ripe.db.whois.common.rpsl.AttributeType.AUTH;
+import static net.ripe.db.whois.common.rpsl.AttributeType.E_MAIL;
+import static net.ripe.db.whois.common.rpsl.AttributeType.IRT_NFY;
+import static net.ripe.db.whois.common.rpsl.AttributeType.MNT_NFY;
+import static net.ripe.db.whois.common.rpsl.AttributeType.NOTIFY;
+import static net.ripe.db.whois.common.rpsl.AttributeType.PERSON;
+import static net.ripe.db.whois.common.rpsl.AttributeType.REF_NFY;
+import static net.ripe.db.whois.common.rpsl.AttributeType.UPD_TO;
+
+/**
+ * Dummifies into fresh copies of the object tables, instead of updating every row in place.
+ *
+ * last and history are streamed, dummified in parallel and written to empty copies with multi-row inserts. The index
+ * tables holding dummified values are rebuilt into empty copies from the dummified objects in last. All copies then
+ * replace the original tables in a single RENAME TABLE, which is atomic, and the original tables are dropped.
+ */
+class CopyTableDummifier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CopyTableDummifier.class);
+
+    private static final String COPY_SUFFIX = "_dummified";
+    private static final String ORIGINAL_SUFFIX = "_original";
+
+    private static final List<String> OBJECT_TABLES = Lists.newArrayList("last", "history");
+    private static final String OBJECT_COLUMNS = "object_id, sequence_id, timestamp, object_type, object, pkey";
+    private static final String OBJECT_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_ROWS = 1000;
+    private static final int BATCH_BYTES = 1 << 20;
+
+    // the dummifier changes the values of these attributes
+    private static final Set<AttributeType> DUMMIFIED_ATTRIBUTES = Sets.immutableEnumSet(PERSON, AUTH, E_MAIL, NOTIFY, REF_NFY, IRT_NFY, MNT_NFY, UPD_TO);
+
+    private static final Set<String> INDEX_TABLES;
+    private static final Map<AttributeType, BulkIndexStrategy> INDEXED_ATTRIBUTES;
+
+    static {
+        final Set<String> indexTables = Sets.newLinkedHashSet();
+        for (final AttributeType attributeType : DUMMIFIED_ATTRIBUTES) {
+            indexTables.add(IndexStrategies.get(attributeType).getLookupTableName());
+        }
+        INDEX_TABLES = Collections.unmodifiableSet(indexTables);
+
+        // an index table can hold values of other attributes too (e.g. names of role objects)
+        final Map<AttributeType, BulkIndexStrategy> indexedAttributes = Maps.newEnumMap(AttributeType.class);
+        for (final AttributeType attributeType : AttributeType.values()) {
+            final IndexStrategy indexStrategy = IndexStrategies.get(attributeType);
+            if (INDEX_TABLES.contains(indexStrategy.getLookupTableName())) {
+                if (!(indexStrategy instanceof BulkIndexStrategy)) {
+                    throw new IllegalStateException("Index " + indexStrategy.getLookupTableName() + " of " + attributeType + " cannot be rebuilt in bulk");
+                }
+                indexedAttributes.put(attributeType, (BulkIndexStrategy) indexStrategy);
+            }
+        }
+        INDEXED_ATTRIBUTES = Collections.unmodifiableMap(indexedAttributes);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate batchTransactionTemplate;
+
+    CopyTableDummifier(final DataSource dataSource) {
+        final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // batches run by the streaming thread (when the queue is full) must not use its connection
+        this.batchTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return the time taken by each phase
+     * @throws IllegalStateException if not all rows were copied, the original tables are left in place
+     */
+    String dummify() {
+        final List<String> tables = Lists.newArrayList(OBJECT_TABLES);
+        tables.addAll(INDEX_TABLES);
+
+        final Timings timings = new Timings();
+
+        timings.start("create tables");
+        for (final String table : tables) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table + COPY_SUFFIX);
+            jdbcTemplate.execute("CREATE TABLE " + table + COPY_SUFFIX + " LIKE " + table);
+        }
+
+        timings.start("dummify last and rebuild indexes");
+        copyTable("last", true);
+
+        timings.start("dummify history");
+        copyTable("history", false);
+
+        timings.start("verify");
+        for (final String table : OBJECT_TABLES) {
+            final int rows = count(table);
+            final int copiedRows = count(table + COPY_SUFFIX);
+            if (rows != copiedRows) {
+                throw new IllegalStateException(String.format("Copied %d of %d rows of %s, original tables left in place", copiedRows, rows, table));
+            }
+        }
+
+        timings.start("swap tables");
+        final List<String> renames = Lists.newArrayList();
+        for (final String table : tables) {
+            renames.add(String.format("%1$s TO %1$s%2$s, %1$s%3$s TO %1$s", table, ORIGINAL_SUFFIX, COPY_SUFFIX));
+        }
+        jdbcTemplate.execute("RENAME TABLE " + Joiner.on(", ").join(renames));
+
+        timings.start("drop original tables");
+        for (final String table : tables) {
+            jdbcTemplate.execute("DROP TABLE " + table + ORIGINAL_SUFFIX);
+        }
+
+        return timings.stop();
+    }
+
+    private int count(final String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private void copyTable(final String table, final boolean rebuildIndexes) {
+        final int numThreads = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executorService = new ThreadPoolExecutor(numThreads, numThreads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(numThreads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        final AtomicInteger failedBatches = new AtomicInteger();
+
+        transactionTemplate.execute(new TransactionCallback<Object>() {
+            @Override
+            public Object doInTransaction(final TransactionStatus status) {
+                JdbcStreamingHelper.executeStreaming(jdbcTemplate, "SELECT " + OBJECT_COLUMNS + " FROM " + table, new ResultSetExtractor<Object>() {
+                    @Override
+                    public Object extractData(final ResultSet rs) throws SQLException, DataAccessException {
+                        List<ObjectRow> batch = Lists.newArrayListWithExpectedSize(BATCH_ROWS);
+                        int batchBytes = 0;
+
+                        while (rs.next()) {
+                            final ObjectRow row = new ObjectRow(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getBytes(5), rs.getString(6));
+                            batch.add(row);
+                            batchBytes += row.object.length;
+
+                            if (batch.size() == BATCH_ROWS || batchBytes >= BATCH_BYTES) {
+                                executorService.submit(new BatchProcessor(table, batch, rebuildIndexes, failedBatches));
+                                batch = Lists.newArrayListWithExpectedSize(BATCH_ROWS);
+                                batchBytes = 0;
+                            }
+                        }
+
+                        if (!batch.isEmpty()) {
+                            executorService.submit(new BatchProcessor(table, batch, rebuildIndexes, failedBatches));
+                        }
+                        return null;
+                    }
+                });
+                return null;
+            }
+        });
+
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(1, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while copying " + table, e);
+        }
+
+        if (failedBatches.get() > 0) {
+            throw new IllegalStateException(String.format("%d batches of %s failed, original tables left in place", failedBatches.get(), table));
+        }
+    }
+
+    private final class BatchProcessor implements Runnable {
+        private final String table;
+        private final List<ObjectRow> rows;
+        private final boolean rebuildIndexes;
+        private final AtomicInteger failedBatches;
+
+        private BatchProcessor(final String table, final List<ObjectRow> rows, final boolean rebuildIndexes, final AtomicInteger failedBatches) {
+            this.table = table;
+            this.rows = rows;
+            this.rebuildIndexes = rebuildIndexes;
+            this.failedBatches = failedBatches;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final IndexRows indexRows = new IndexRows();
+                final List<Object> arguments = Lists.newArrayListWithExpectedSize(rows.size() * 6);
+
+                for (final ObjectRow row : rows) {
+                    byte[] object = row.object;
+
+                    // deleted objects are left in last with an empty object
+                    if (row.sequenceId != 0) {
+                        RpslObject rpslObject = null;
+                        try {
+                            rpslObject = RpslObject.parse(row.objectId, row.object);
+                            rpslObject = DatabaseDummifierJmx.DatabaseObjectProcessor.dummify(rpslObject);
+                            object = rpslObject.toByteArray();
+                        } catch (RuntimeException e) {
+                            // leave the object as it is, as the in place dummifier does
+                            LOGGER.error(String.format("%s: %d,%d failed\n%s", table, row.objectId, row.sequenceId, new String(row.object)), e);
+                        }
+
+                        if (rebuildIndexes && rpslObject != null) {
+                            addIndexRows(indexRows, row.objectId, rpslObject);
+                        }
+                    }
+
+                    Collections.addAll(arguments, row.objectId, row.sequenceId, row.timestamp, row.objectType, object, row.pkey);
+                }
+
+                batchTransactionTemplate.execute(new TransactionCallback<Object>() {
+                    @Override
+                    public Object doInTransaction(final TransactionStatus status) {
+                        insert(table + COPY_SUFFIX, OBJECT_COLUMNS, OBJECT_PLACEHOLDERS, rows.size(), arguments);
+                        indexRows.insert(jdbcTemplate, COPY_SUFFIX);
+                        return null;
+                    }
+                });
+            } catch (RuntimeException e) {
+                LOGGER.error(String.format("%s: batch of %d rows failed", table, rows.size()), e);
+                failedBatches.incrementAndGet();
+            }
+        }
+    }
+
+    private static void addIndexRows(final IndexRows indexRows, final int objectId, final RpslObject rpslObject) {
+        final RpslObjectInfo rpslObjectInfo = new RpslObjectInfo(objectId, rpslObject.getType(), rpslObject.getKey());
+
+        for (final Map.Entry<AttributeType, BulkIndexStrategy> entry : INDEXED_ATTRIBUTES.entrySet()) {
+            final BulkIndexStrategy indexStrategy = entry.getValue();
+
+            final Set<CIString> uniqueValues = Sets.newHashSet();
+            for (final RpslAttribute attribute : rpslObject.findAttributes(entry.getKey())) {
+                for (final CIString value : attribute.getReferenceValues()) {
+                    if (uniqueValues.add(value)) {
+                        indexStrategy.addToIndexRows(indexRows, rpslObjectInfo, rpslObject, value.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    private void insert(final String table, final String columns, final String placeholders, final int rows, final List<Object> arguments) {
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columns).append(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+
+        jdbcTemplate.update(sql.toString(), arguments.toArray());
+    }
+
+    private static final class ObjectRow {
+        private final int objectId;
+        private final int sequenceId;
+        private final int timestamp;
+        private final int objectType;
+        private final byte[] object;
+        private final String pkey;
+
+        private ObjectRow(final int objectId, final int sequenceId, final int timestamp, final int objectType, final byte[] object, final String pkey) {
+            this.objectId = objectId;
+            this.sequenceId = sequenceId;
+            this.timestamp = timestamp;
+            this.objectType = objectType;
+            this.object = object;
+            this.pkey = pkey;
+        }
+    }
+
+    private static final class Timings {
+        private final List<String> timings = Lists.newArrayList();
+        private String phase;
+        private Stopwatch stopwatch;
+
+        void start(final String phase) {
+            stop();
+            LOGGER.info("Dummifier: {}", phase);
+            this.phase = phase;
+            this.stopwatch = Stopwatch.createStarted();
+        }
+
+        String stop() {
+            if (phase != null) {
+                stopwatch.stop();
+                LOGGER.info("Dummifier: {} took {}", phase, stopwatch);
+                timings.add(String.format("%s: %s", phase, stopwatch));
+                phase = null;
+            }
+            return Joiner.on(", ").join(timings);
+        }
+    }
+}
@@ -44,9 +44,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * in jmxterm, run with:
  *      run dummify jdbc:mariadb://<host>/<db> <user> <pass>
+ *  or, writing into copies of the tables instead of updating in place:
+ *      run dummifyCopyTables jdbc:mariadb://<host>/<db> <user> <pass>
  *
  * in console, run with
- *      java -Xmx1G -cp whois.jar net.ripe.db.whois.common.DatabaseDummifierJmx --jdbc-url jdbc:mariadb://localhost/BLAH --user XXX --pass XXX
+ *      java -Xmx1G -cp whois.jar net.ripe.db.whois.common.DatabaseDummifierJmx --jdbc-url jdbc:mariadb://localhost/BLAH --user XXX --pass XXX [--copy-tables]
  *
  */
 public class DatabaseDummifierJmx extends JmxBase {
@@ -55,6 +57,7 @@ public class DatabaseDummifierJmx extends JmxBase {
     private static final String ARG_JDBCURL = "jdbc-url";
     private static final String ARG_USER = "user";
     private static final String ARG_PASS = "pass";
+    private static final String ARG_COPY_TABLES = "copy-tables";
 
     private static TransactionTemplate transactionTemplate;
     private static JdbcTemplate jdbcTemplate;
@@ -80,36 +83,57 @@ public class DatabaseDummifierJmx extends JmxBase {
             public String call() {
                 validateJdbcUrl(user, pass);
                 final SimpleDataSourceFactory simpleDataSourceFactory = new SimpleDataSourceFactory("org.mariadb.jdbc.Driver");
-                final DataSource dataSource = simpleDataSourceFactory.createDataSource(jdbcUrl, user, pass);
-                jdbcTemplate = new JdbcTemplate(dataSource);
-
-                final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
-                transactionTemplate = new TransactionTemplate(transactionManager);
-                transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
-
-                // sadly Executors don't offer a bounded/blocking submit() implementation
-                int numThreads = Runtime.getRuntime().availableProcessors();
-                final ArrayBlockingQueue<Runnable> workQueue = new ArrayBlockingQueue<>(numThreads * 64);
-                final ExecutorService executorService = new ThreadPoolExecutor(numThreads, numThreads,
-                        0L, TimeUnit.MILLISECONDS, workQueue, new ThreadPoolExecutor.CallerRunsPolicy());
-
-                LOGGER.info("Started {} threads", numThreads);
-
-                addWork("last", jdbcTemplate, executorService);
-                addWork("history", jdbcTemplate, executorService);
-                cleanUpAuthIndex(jdbcTemplate, executorService);
-
-                executorService.shutdown();
-                try {
-                    executorService.awaitTermination(1, TimeUnit.DAYS);
-                } catch (InterruptedException e) {
-                    LOGGER.error("shutdown", e);
-                }
+                dummifyInPlace(simpleDataSourceFactory.createDataSource(jdbcUrl, user, pass));
                 return "Database dummified";
             }
         });
     }
 
+    @ManagedOperation(description = "Dummify into copies of the tables, which replace the original tables when done")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "jdbcUrl", description = "jdbc url"),
+            @ManagedOperationParameter(name = "user", description = "jdbc username"),
+            @ManagedOperationParameter(name = "pass", description = "jdbc password")
+    })
+    public String dummifyCopyTables(final String jdbcUrl, final String user, final String pass) {
+        return invokeOperation("dummifyCopyTables", jdbcUrl, new Callable<String>() {
+            @Override
+            public String call() {
+                validateJdbcUrl(user, pass);
+                final SimpleDataSourceFactory simpleDataSourceFactory = new SimpleDataSourceFactory("org.mariadb.jdbc.Driver");
+                final String timings = new CopyTableDummifier(simpleDataSourceFactory.createDataSource(jdbcUrl, user, pass)).dummify();
+                return "Database dummified (" + timings + ")";
+            }
+        });
+    }
+
+    void dummifyInPlace(final DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // sadly Executors don't offer a bounded/blocking submit() implementation
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        final ArrayBlockingQueue<Runnable> workQueue = new ArrayBlockingQueue<>(numThreads * 64);
+        final ExecutorService executorService = new ThreadPoolExecutor(numThreads, numThreads,
+                0L, TimeUnit.MILLISECONDS, workQueue, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        LOGGER.info("Started {} threads", numThreads);
+
+        addWork("last", jdbcTemplate, executorService);
+        addWork("history", jdbcTemplate, executorService);
+        cleanUpAuthIndex(jdbcTemplate, executorService);
+
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(1, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            LOGGER.error("shutdown", e);
+        }
+    }
+
     private void validateJdbcUrl(final String user, final String password) {
         if (!user.equals(password) && !user.equals(reverse(password))) {
             throw new IllegalArgumentException("dummifier runs on non-production environments only (user==password)");
@@ -182,13 +206,7 @@ public class DatabaseDummifierJmx extends JmxBase {
                 @Override
                 public Object doInTransaction(TransactionStatus status) {
                     try {
-                        final RpslObject rpslObject = RpslObject.parse(object);
-                        RpslObject dummyObject = dummifier.dummify(3, rpslObject);
-
-                        if (ObjectType.MNTNER.equals(rpslObject.getType())) {
-                            dummyObject = replaceAuthAttributes(dummyObject);
-                        }
-
+                        final RpslObject dummyObject = dummify(RpslObject.parse(object));
                         jdbcTemplate.update("UPDATE " + table + " SET object = ? WHERE object_id = ? AND sequence_id = ?", dummyObject.toByteArray(), objectId, sequenceId);
                     } catch (RuntimeException e) {
                         LOGGER.error(String.format("%s: %s,%d failed\n%s", table, objectId, sequenceId, new String(object)), e);
@@ -202,6 +220,16 @@ public class DatabaseDummifierJmx extends JmxBase {
             });
         }
 
+        static RpslObject dummify(final RpslObject rpslObject) {
+            final RpslObject dummyObject = dummifier.dummify(3, rpslObject);
+
+            if (ObjectType.MNTNER.equals(rpslObject.getType())) {
+                return replaceAuthAttributes(dummyObject);
+            }
+
+            return dummyObject;
+        }
+
         static RpslObject replaceAuthAttributes(final RpslObject rpslObject) {
             RpslObjectBuilder builder = new RpslObjectBuilder(rpslObject);
 
@@ -227,6 +255,7 @@ public class DatabaseDummifierJmx extends JmxBase {
         parser.accepts(ARG_JDBCURL).withRequiredArg().required();
         parser.accepts(ARG_USER).withRequiredArg().required();
         parser.accepts(ARG_PASS).withRequiredArg().required();
+        parser.accepts(ARG_COPY_TABLES);
         return parser;
     }
 
@@ -235,6 +264,10 @@ public class DatabaseDummifierJmx extends JmxBase {
         String jdbcUrl = options.valueOf(ARG_JDBCURL).toString();
         String user = options.valueOf(ARG_USER).toString();
         String pass = options.valueOf(ARG_PASS).toString();
-        new DatabaseDummifierJmx().dummify(jdbcUrl, user, pass);
+        if (options.has(ARG_COPY_TABLES)) {
+            new DatabaseDummifierJmx().dummifyCopyTables(jdbcUrl, user, pass);
+        } else {
+            new DatabaseDummifierJmx().dummify(jdbcUrl, user, pass);
+        }
     }
 }
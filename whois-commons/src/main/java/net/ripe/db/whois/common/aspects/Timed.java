@@ -0,0 +1,21 @@
+package net.ripe.db.whois.common.aspects;
+
+import java.lang.annotation.*;
+
+/**
+ * Records the latency of every invocation of the annotated method in the histogram of the given stage.
+ *
+ * @see net.ripe.db.whois.common.jmx.StageLatencies
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Timed {
+    String value();
+
+    /**
+     * Time one in every sampleRate invocations only, for methods invoked too often to afford timing every invocation.
+     * Sampled invocations are recorded with a weight of sampleRate, so the counts remain estimates of all invocations.
+     */
+    int sampleRate() default 1;
+}
@@ -0,0 +1,32 @@
+package net.ripe.db.whois.common.aspects;
+
+import net.ripe.db.whois.common.jmx.LatencyHistogram;
+import net.ripe.db.whois.common.jmx.StageLatencies;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Aspect
+public class TimedAspect {
+    @Around("@annotation(timed) && execution(* *(..))")
+    public Object timedMethod(final ProceedingJoinPoint pjp, final Timed timed) throws Throwable {
+        final int sampleRate = timed.sampleRate();
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return pjp.proceed();
+        }
+
+        final LatencyHistogram histogram = StageLatencies.get(timed.value());
+        final long start = System.nanoTime();
+
+        try {
+            final Object result = pjp.proceed();
+            histogram.record(System.nanoTime() - start, sampleRate);
+            return result;
+        } catch (Throwable t) {
+            histogram.recordFailure(System.nanoTime() - start, sampleRate);
+            throw t;
+        }
+    }
+}
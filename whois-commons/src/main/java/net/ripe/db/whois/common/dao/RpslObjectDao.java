@@ -10,6 +10,7 @@ import net.ripe.db.whois.common.rpsl.RpslObject;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 // these should return Collection<> instead of List<> to allow for greater flexibility in implementation
@@ -44,7 +45,13 @@ public interface RpslObjectDao extends ProxyLoader<Identifiable, RpslObject> {
 
     List<RpslObjectInfo> findByAttribute(AttributeType attributeType, String attributeValue);
 
+    // objects of each type with the value in any of its given attributes, looked up with a single query where the indexes allow
+    List<RpslObjectInfo> findInIndexes(Map<ObjectType, ? extends Collection<AttributeType>> lookups, String value);
+
     List<RpslObjectInfo> findMemberOfByObjectTypeWithoutMbrsByRef(ObjectType objectType, String attributeValue);
 
     Collection<RpslObjectInfo> relatedTo(RpslObject identifiable, Set<ObjectType> excludeObjectTypes);
+
+    // related objects of each object in the same order, references are looked up with a single query per object type
+    List<Collection<RpslObjectInfo>> relatedTo(List<RpslObject> identifiables, Set<ObjectType> excludeObjectTypes);
 }
@@ -7,6 +7,7 @@ import net.ripe.db.whois.common.rpsl.RpslAttribute;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 
 import javax.annotation.CheckForNull;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -26,6 +27,9 @@ public interface RpslObjectUpdateDao {
 
     Set<RpslObjectInfo> getReferences(RpslObject object);
 
+    // references to each of the objects, with a query per reference index table for all objects together
+    Map<RpslObject, Set<RpslObjectInfo>> getReferences(Collection<RpslObject> objects);
+
     Map<RpslAttribute, Set<CIString>> getInvalidReferences(RpslObject object);
 
     @CheckForNull
@@ -6,14 +6,17 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import net.ripe.db.whois.common.aspects.RetryFor;
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectRowMapper;
 import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategies;
 import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategy;
+import net.ripe.db.whois.common.dao.jdbc.index.LookupQuery;
 import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.domain.Identifiable;
+import net.ripe.db.whois.common.refgraph.ReferenceGraphManager;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectTemplate;
 import net.ripe.db.whois.common.rpsl.ObjectType;
@@ -57,16 +60,26 @@ public class JdbcRpslObjectDao implements RpslObjectDao {
 
     private static final List<AttributeType> RELATED_TO_ATTRIBUTES = Lists.newArrayList(AttributeType.ADMIN_C, AttributeType.AUTHOR, AttributeType.ORG, AttributeType.PING_HDL, AttributeType.TECH_C, AttributeType.ZONE_C);
 
+    private static final int MAX_KEYS_PER_LOOKUP = 1000;
+
     private final JdbcTemplate jdbcTemplate;
     private final SourceContext sourceContext;
 
+    private ReferenceGraphManager referenceGraphManager;
+
     @Autowired
     public JdbcRpslObjectDao(@Qualifier("sourceAwareDataSource") final DataSource dataSource, final SourceContext sourceContext) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.sourceContext = sourceContext;
     }
 
+    @Autowired(required = false)
+    void setReferenceGraphManager(final ReferenceGraphManager referenceGraphManager) {
+        this.referenceGraphManager = referenceGraphManager;
+    }
+
     @Override
+    @Timed("dao.load")
     public void load(final List<Identifiable> proxy, final List<RpslObject> result) {
         final Map<Integer, RpslObject> loadedObjects = Maps.newHashMapWithExpectedSize(proxy.size());
 
@@ -294,10 +307,49 @@ public class JdbcRpslObjectDao implements RpslObjectDao {
 
     @Override
     public List<RpslObjectInfo> findByAttribute(final AttributeType attributeType, final String attributeValue) {
+        if (referenceGraphManager != null) {
+            final List<RpslObjectInfo> result = referenceGraphManager.findReferencing(jdbcTemplate, attributeType, attributeValue);
+            if (result != null) {
+                return result;
+            }
+        }
+
         final IndexStrategy indexStrategy = IndexStrategies.get(attributeType);
         return indexStrategy.findInIndex(jdbcTemplate, attributeValue);
     }
 
+    @Override
+    @Timed("dao.lookup")
+    public List<RpslObjectInfo> findInIndexes(final Map<ObjectType, ? extends Collection<AttributeType>> lookups, final String value) {
+        final List<RpslObjectInfo> result = Lists.newArrayList();
+        final List<LookupQuery> lookupQueries = Lists.newArrayList();
+
+        for (final Map.Entry<ObjectType, ? extends Collection<AttributeType>> entry : lookups.entrySet()) {
+            final ObjectType type = entry.getKey();
+            for (final AttributeType attributeType : entry.getValue()) {
+                final IndexStrategy indexStrategy = IndexStrategies.get(attributeType);
+                final LookupQuery lookupQuery = indexStrategy.getLookupQuery(value, type);
+                if (lookupQuery != null) {
+                    lookupQueries.add(lookupQuery);
+                    continue;
+                }
+
+                for (final RpslObjectInfo objectInfo : indexStrategy.findInIndex(jdbcTemplate, value, type)) {
+                    if (objectInfo.getObjectType() == type) {
+                        result.add(objectInfo);
+                    }
+                }
+            }
+        }
+
+        if (!lookupQueries.isEmpty()) {
+            final LookupQuery lookupQuery = LookupQuery.unionAll(lookupQueries);
+            result.addAll(jdbcTemplate.query(lookupQuery.getSql(), new RpslObjectInfoResultSetExtractor(), lookupQuery.getArgs().toArray()));
+        }
+
+        return result;
+    }
+
     @Override
     public List<RpslObjectInfo> findMemberOfByObjectTypeWithoutMbrsByRef(final ObjectType objectType, final String attributeValue) {
         final ObjectTemplate objectTemplate = ObjectTemplate.getTemplate(objectType);
@@ -322,24 +374,76 @@ public class JdbcRpslObjectDao implements RpslObjectDao {
 
     @Override
     public Collection<RpslObjectInfo> relatedTo(final RpslObject identifiable, final Set<ObjectType> excludeObjectTypes) {
-        final LinkedHashSet<RpslObjectInfo> result = Sets.newLinkedHashSet();
+        return relatedTo(Collections.singletonList(identifiable), excludeObjectTypes).get(0);
+    }
 
-        for (final RpslAttribute attribute : identifiable.findAttributes(RELATED_TO_ATTRIBUTES)) {
-            for (final CIString referenceValue : attribute.getReferenceValues()) {
-                for (final ObjectType objectType : attribute.getType().getReferences(referenceValue)) {
-                    if (excludeObjectTypes.contains(objectType)) {
-                        continue;
+    @Override
+    @Timed("dao.related")
+    public List<Collection<RpslObjectInfo>> relatedTo(final List<RpslObject> identifiables, final Set<ObjectType> excludeObjectTypes) {
+        final Map<ObjectType, Set<CIString>> referencedKeys = Maps.newEnumMap(ObjectType.class);
+        for (final RpslObject identifiable : identifiables) {
+            for (final RpslAttribute attribute : identifiable.findAttributes(RELATED_TO_ATTRIBUTES)) {
+                for (final CIString referenceValue : attribute.getReferenceValues()) {
+                    for (final ObjectType objectType : attribute.getType().getReferences(referenceValue)) {
+                        if (excludeObjectTypes.contains(objectType)) {
+                            continue;
+                        }
+
+                        Set<CIString> keys = referencedKeys.get(objectType);
+                        if (keys == null) {
+                            keys = Sets.newHashSet();
+                            referencedKeys.put(objectType, keys);
+                        }
+                        keys.add(referenceValue);
                     }
+                }
+            }
+        }
+
+        final Map<ObjectType, Map<CIString, List<RpslObjectInfo>>> referencedObjects = Maps.newEnumMap(ObjectType.class);
+        for (final Map.Entry<ObjectType, Set<CIString>> entry : referencedKeys.entrySet()) {
+            referencedObjects.put(entry.getKey(), findByKeysInIndex(entry.getKey(), entry.getValue()));
+        }
+
+        final List<Collection<RpslObjectInfo>> result = Lists.newArrayListWithExpectedSize(identifiables.size());
+        for (final RpslObject identifiable : identifiables) {
+            final LinkedHashSet<RpslObjectInfo> relatedTo = Sets.newLinkedHashSet();
+
+            for (final RpslAttribute attribute : identifiable.findAttributes(RELATED_TO_ATTRIBUTES)) {
+                for (final CIString referenceValue : attribute.getReferenceValues()) {
+                    for (final ObjectType objectType : attribute.getType().getReferences(referenceValue)) {
+                        if (excludeObjectTypes.contains(objectType)) {
+                            continue;
+                        }
 
-                    for (RpslObjectInfo rpslObjectInfo : findByKeyInIndex(objectType, referenceValue.toString())) {
-                        if (rpslObjectInfo.getObjectId() != identifiable.getObjectId()) {
-                            result.add(rpslObjectInfo);
+                        final List<RpslObjectInfo> rpslObjectInfos = referencedObjects.get(objectType).get(referenceValue);
+                        if (rpslObjectInfos == null) {
+                            continue;
+                        }
+
+                        for (final RpslObjectInfo rpslObjectInfo : rpslObjectInfos) {
+                            if (rpslObjectInfo.getObjectId() != identifiable.getObjectId()) {
+                                relatedTo.add(rpslObjectInfo);
+                            }
                         }
                     }
                 }
             }
+
+            result.add(relatedTo);
         }
 
         return result;
     }
+
+    private Map<CIString, List<RpslObjectInfo>> findByKeysInIndex(final ObjectType type, final Set<CIString> keys) {
+        final AttributeType keyLookupAttribute = ObjectTemplate.getTemplate(type).getKeyLookupAttribute();
+        final IndexStrategy indexStrategy = IndexStrategies.get(keyLookupAttribute);
+
+        final Map<CIString, List<RpslObjectInfo>> result = Maps.newHashMapWithExpectedSize(keys.size());
+        for (final List<CIString> partition : Iterables.partition(keys, MAX_KEYS_PER_LOOKUP)) {
+            result.putAll(indexStrategy.findInIndex(jdbcTemplate, partition, type));
+        }
+        return result;
+    }
 }
@@ -1,5 +1,6 @@
 package net.ripe.db.whois.common.dao.jdbc;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import net.ripe.db.whois.common.DateTimeProvider;
@@ -7,10 +8,12 @@ import net.ripe.db.whois.common.collect.CollectionHelper;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.dao.RpslObjectUpdateDao;
 import net.ripe.db.whois.common.dao.RpslObjectUpdateInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoMapper;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectRowMapper;
 import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategies;
 import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategy;
 import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.refgraph.ReferenceGraphManager;
 import net.ripe.db.whois.common.rpsl.*;
 import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
@@ -18,12 +21,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.CheckForNull;
 import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,9 +49,35 @@ import static net.ripe.db.whois.common.domain.CIString.ciString;
 public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcRpslObjectUpdateDao.class);
 
+    private static final int MAX_REFERENCES_PER_LOOKUP = 1000;
+
+    /** Object types by the index of their (single) key attribute */
+    private static final Map<IndexStrategy, Set<ObjectType>> KEY_INDEX_TYPES;
+
+    static {
+        final Map<IndexStrategy, Set<ObjectType>> keyIndexTypes = Maps.newHashMap();
+        for (final ObjectType objectType : ObjectType.values()) {
+            final Set<AttributeType> keyAttributes = ObjectTemplate.getTemplate(objectType).getKeyAttributes();
+            if (keyAttributes.size() != 1) {
+                continue;
+            }
+
+            final IndexStrategy indexStrategy = IndexStrategies.get(keyAttributes.iterator().next());
+            Set<ObjectType> objectTypes = keyIndexTypes.get(indexStrategy);
+            if (objectTypes == null) {
+                objectTypes = EnumSet.noneOf(ObjectType.class);
+                keyIndexTypes.put(indexStrategy, objectTypes);
+            }
+            objectTypes.add(objectType);
+        }
+        KEY_INDEX_TYPES = keyIndexTypes;
+    }
+
     private final JdbcTemplate jdbcTemplate;
     private final DateTimeProvider dateTimeProvider;
 
+    private ReferenceGraphManager referenceGraphManager;
+
     @Autowired
     public JdbcRpslObjectUpdateDao(@Qualifier("sourceAwareDataSource") final DataSource dataSource,
                                    final DateTimeProvider dateTimeProvider) {
@@ -46,12 +85,17 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
         this.dateTimeProvider = dateTimeProvider;
     }
 
+    @Autowired(required = false)
+    void setReferenceGraphManager(final ReferenceGraphManager referenceGraphManager) {
+        this.referenceGraphManager = referenceGraphManager;
+    }
+
     @Override
     public boolean isReferenced(final RpslObject object) {
         for (final RpslAttribute attribute : object.findAttributes(ObjectTemplate.getTemplate(object.getType()).getKeyAttributes())) {
             for (final IndexStrategy indexStrategy : IndexStrategies.getReferencing(object.getType())) {
                 for (final CIString value : attribute.getReferenceValues()) {
-                    for (final RpslObjectInfo result : indexStrategy.findInIndex(jdbcTemplate, value)) {
+                    for (final RpslObjectInfo result : findReferencing(indexStrategy, value)) {
                         if (object.getKey().equals(ciString(result.getKey())) && result.getObjectType().equals(object.getType())) {
                             continue;
                         }
@@ -67,33 +111,110 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
     @Override
     public Set<RpslObjectInfo> getReferences(final RpslObject object) {
         Set<RpslObjectInfo> references = Sets.newHashSet();
-        final List<IndexStrategy> indexStrategies = IndexStrategies.getReferencing(object.getType());
 
-        // for route(6), individually check each key
-        for (final RpslAttribute keyAttr : object.findAttributes(ObjectTemplate.getTemplate(object.getType()).getKeyAttributes())) {
-            for (final IndexStrategy indexStrategy : indexStrategies) {
-                for (final CIString value : keyAttr.getReferenceValues()) {
-                    final List<RpslObjectInfo> results = indexStrategy.findInIndex(jdbcTemplate, value);
-                    for (final RpslObjectInfo result : results) {
-                        if (object.getKey().equals(result.getKey()) && result.getObjectType().equals(object.getType())) {
-                            continue;
-                        }
+        for (final IndexStrategy indexStrategy : IndexStrategies.getReferencing(object.getType())) {
+            addReferences(object, indexStrategy, references);
+        }
+
+        return references;
+    }
+
+    @Override
+    public Map<RpslObject, Set<RpslObjectInfo>> getReferences(final Collection<RpslObject> objects) {
+        final Map<RpslObject, Set<RpslObjectInfo>> references = Maps.newLinkedHashMap();
+        final Map<IndexStrategy, Map<Integer, RpslObject>> referencedObjectsByIndex = Maps.newHashMap();
 
-                        references.add(result);
+        for (final RpslObject object : objects) {
+            final Set<RpslObjectInfo> objectReferences = Sets.newHashSet();
+            references.put(object, objectReferences);
+
+            final boolean lookupById = object.getObjectId() != 0 && ObjectTemplate.getTemplate(object.getType()).getKeyAttributes().size() == 1;
+            for (final IndexStrategy indexStrategy : IndexStrategies.getReferencing(object.getType())) {
+                if (lookupById && IndexStrategies.getReferenceIndexes().contains(indexStrategy)) {
+                    Map<Integer, RpslObject> referencedObjects = referencedObjectsByIndex.get(indexStrategy);
+                    if (referencedObjects == null) {
+                        referencedObjects = Maps.newHashMap();
+                        referencedObjectsByIndex.put(indexStrategy, referencedObjects);
                     }
+                    referencedObjects.put(object.getObjectId(), object);
+                } else {
+                    addReferences(object, indexStrategy, objectReferences);
                 }
             }
         }
 
+        final NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        for (final Map.Entry<IndexStrategy, Map<Integer, RpslObject>> entry : referencedObjectsByIndex.entrySet()) {
+            final IndexStrategy indexStrategy = entry.getKey();
+            final Map<Integer, RpslObject> referencedObjects = entry.getValue();
+            final String query = MessageFormat.format("" +
+                            "SELECT l.object_id, l.object_type, l.pkey, {0}.{1} " +
+                            "  FROM {0} " +
+                            "  JOIN last l ON l.object_id = {0}.object_id " +
+                            "  WHERE {0}.{1} IN (:ids) " +
+                            "  AND l.sequence_id != 0 ",
+                    indexStrategy.getLookupTableName(),
+                    indexStrategy.getLookupColumnName());
+
+            for (final List<Integer> ids : Iterables.partition(referencedObjects.keySet(), MAX_REFERENCES_PER_LOOKUP)) {
+                namedParameterJdbcTemplate.query(query, new MapSqlParameterSource("ids", ids), new RowCallbackHandler() {
+                    final RpslObjectInfoMapper rpslObjectInfoMapper = new RpslObjectInfoMapper();
+
+                    @Override
+                    public void processRow(final ResultSet rs) throws SQLException {
+                        final RpslObjectInfo result = rpslObjectInfoMapper.mapRow(rs, 0);
+                        final RpslObject object = referencedObjects.get(rs.getInt(4));
+                        if (result != null && !isSameObject(object, result)) {
+                            references.get(object).add(result);
+                        }
+                    }
+                });
+            }
+        }
+
         return references;
     }
 
+    private void addReferences(final RpslObject object, final IndexStrategy indexStrategy, final Set<RpslObjectInfo> references) {
+        // for route(6), individually check each key
+        for (final RpslAttribute keyAttr : object.findAttributes(ObjectTemplate.getTemplate(object.getType()).getKeyAttributes())) {
+            for (final CIString value : keyAttr.getReferenceValues()) {
+                final List<RpslObjectInfo> results = findReferencing(indexStrategy, value);
+                for (final RpslObjectInfo result : results) {
+                    if (isSameObject(object, result)) {
+                        continue;
+                    }
+
+                    references.add(result);
+                }
+            }
+        }
+    }
+
+    private static boolean isSameObject(final RpslObject object, final RpslObjectInfo objectInfo) {
+        return object.getKey().equals(objectInfo.getKey()) && objectInfo.getObjectType().equals(object.getType());
+    }
+
+    private List<RpslObjectInfo> findReferencing(final IndexStrategy indexStrategy, final CIString value) {
+        if (referenceGraphManager != null) {
+            final List<RpslObjectInfo> result = referenceGraphManager.findReferencing(jdbcTemplate, indexStrategy.getAttributeType(), value.toString());
+            if (result != null) {
+                return result;
+            }
+        }
+
+        return indexStrategy.findInIndex(jdbcTemplate, value);
+    }
+
     @Override
     public Map<RpslAttribute, Set<CIString>> getInvalidReferences(final RpslObject object) {
+        final ReferenceResolutions resolutions = getReferenceResolutions();
+        resolveReferences(object, resolutions);
+
         final Map<RpslAttribute, Set<CIString>> invalidReferenceMap = Maps.newHashMap();
 
         for (final RpslAttribute attribute : object.getAttributes()) {
-            final Set<CIString> invalidReferenceValues = getInvalidReferences(object, attribute);
+            final Set<CIString> invalidReferenceValues = getInvalidReferences(object, attribute, resolutions);
             if (!invalidReferenceValues.isEmpty()) {
                 invalidReferenceMap.put(attribute, invalidReferenceValues);
             }
@@ -102,14 +223,14 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
         return invalidReferenceMap;
     }
 
-    private Set<CIString> getInvalidReferences(final RpslObject object, final RpslAttribute attribute) {
+    private Set<CIString> getInvalidReferences(final RpslObject object, final RpslAttribute attribute, final ReferenceResolutions resolutions) {
         if (attribute.getType().getReferences().isEmpty()) {
             return Collections.emptySet();
         }
 
         final Set<CIString> invalidReferences = Sets.newLinkedHashSet();
         for (final CIString value : attribute.getReferenceValues()) {
-            if (isInvalidReference(object, attribute.getType(), value)) {
+            if (isInvalidReference(object, attribute.getType(), value, resolutions)) {
                 invalidReferences.add(value);
             }
         }
@@ -117,18 +238,18 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
         return invalidReferences;
     }
 
-    private boolean isInvalidReference(final RpslObject object, final AttributeType attributeType, final CIString referenceValue) {
+    private boolean isInvalidReference(final RpslObject object, final AttributeType attributeType, final CIString referenceValue, final ReferenceResolutions resolutions) {
         final Set<ObjectType> references = attributeType.getReferences(referenceValue);
         if (references.isEmpty()) {
             return false;
         }
 
         for (final ObjectType reference : references) {
-            if (reference.equals(object.getType()) && object.getKey().equals(referenceValue)) {
+            if (isSelfReference(object, reference, referenceValue)) {
                 return false;
             }
 
-            if (getAttributeReference(reference, referenceValue) != null) {
+            if (resolutions.exists(reference, referenceValue)) {
                 return false;
             }
         }
@@ -136,6 +257,59 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
         return true;
     }
 
+    private static boolean isSelfReference(final RpslObject object, final ObjectType reference, final CIString referenceValue) {
+        return reference.equals(object.getType()) && object.getKey().equals(referenceValue);
+    }
+
+    /**
+     * Look up all keys the object refers to which are not resolved yet, with a query per key index and object type.
+     *
+     * Like a single reference lookup, a key is resolved if it is in the key index for any object type (e.g. a role
+     * nic-hdl referenced as person).
+     */
+    private void resolveReferences(final RpslObject object, final ReferenceResolutions resolutions) {
+        final Map<IndexStrategy, Set<CIString>> unresolved = Maps.newHashMap();
+        for (final RpslAttribute attribute : object.getAttributes()) {
+            if (attribute.getType().getReferences().isEmpty()) {
+                continue;
+            }
+
+            for (final CIString value : attribute.getReferenceValues()) {
+                for (final ObjectType reference : attribute.getType().getReferences(value)) {
+                    if (isSelfReference(object, reference, value) || resolutions.isResolved(reference, value)) {
+                        continue;
+                    }
+
+                    final IndexStrategy indexStrategy = getKeyIndexStrategy(reference);
+                    Set<CIString> values = unresolved.get(indexStrategy);
+                    if (values == null) {
+                        values = Sets.newHashSet();
+                        unresolved.put(indexStrategy, values);
+                    }
+                    values.add(value);
+                }
+            }
+        }
+
+        for (final Map.Entry<IndexStrategy, Set<CIString>> entry : unresolved.entrySet()) {
+            final IndexStrategy indexStrategy = entry.getKey();
+            final Set<ObjectType> keyTypes = KEY_INDEX_TYPES.get(indexStrategy);
+
+            for (final List<CIString> values : Iterables.partition(entry.getValue(), MAX_REFERENCES_PER_LOOKUP)) {
+                final Set<CIString> found = Sets.newHashSet();
+                for (final ObjectType keyType : keyTypes) {
+                    found.addAll(indexStrategy.findInIndex(jdbcTemplate, values, keyType).keySet());
+                }
+
+                for (final CIString value : values) {
+                    for (final ObjectType keyType : keyTypes) {
+                        resolutions.put(keyType, value, found.contains(value));
+                    }
+                }
+            }
+        }
+    }
+
     @CheckForNull
     public RpslObjectInfo getAttributeReference(final AttributeType attributeType, final CIString value) {
         final CIString referenceValue = new RpslAttribute(attributeType, value.toString()).getReferenceValue();
@@ -150,17 +324,52 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
     }
 
     private RpslObjectInfo getAttributeReference(final ObjectType objectType, final CIString keyValue) {
+        final List<RpslObjectInfo> result = getKeyIndexStrategy(objectType).findInIndex(jdbcTemplate, keyValue);
+        return CollectionHelper.uniqueResult(result);
+    }
+
+    private static IndexStrategy getKeyIndexStrategy(final ObjectType objectType) {
         final ObjectTemplate referenceTemplate = ObjectTemplate.getTemplate(objectType);
         final Set<AttributeType> referenceKeyAttributes = referenceTemplate.getKeyAttributes();
         Validate.isTrue(referenceKeyAttributes.size() == 1, "We can never have a reference to a composed key");
-        final IndexStrategy indexStrategy = IndexStrategies.get(referenceKeyAttributes.iterator().next());
-        final List<RpslObjectInfo> result = indexStrategy.findInIndex(jdbcTemplate, keyValue);
-        return CollectionHelper.uniqueResult(result);
+        return IndexStrategies.get(referenceKeyAttributes.iterator().next());
+    }
+
+    /**
+     * Resolved references are kept for the whole transaction, so a multiple update resolves each key once. Writes
+     * through this dao evict the written key.
+     */
+    private static ReferenceResolutions getReferenceResolutions() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new ReferenceResolutions();
+        }
+
+        ReferenceResolutions resolutions = (ReferenceResolutions) TransactionSynchronizationManager.getResource(ReferenceResolutions.class);
+        if (resolutions == null) {
+            resolutions = new ReferenceResolutions();
+            TransactionSynchronizationManager.bindResource(ReferenceResolutions.class, resolutions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReferenceResolutions.class);
+                }
+            });
+        }
+
+        return resolutions;
+    }
+
+    private static void evictReferenceResolutions(final CIString key) {
+        final ReferenceResolutions resolutions = (ReferenceResolutions) TransactionSynchronizationManager.getResource(ReferenceResolutions.class);
+        if (resolutions != null) {
+            resolutions.evict(key);
+        }
     }
 
     @Override
     public RpslObjectUpdateInfo deleteObject(final int objectId, final String pkey) {
         final RpslObjectUpdateInfo rpslObjectInfo = lookupRpslObjectUpdateInfo(jdbcTemplate, objectId, pkey);
+        evictReferenceResolutions(ciString(pkey));
 
         deleteFromTables(jdbcTemplate, rpslObjectInfo);
         copyToHistoryAndUpdateSerials(jdbcTemplate, rpslObjectInfo);
@@ -189,6 +398,7 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
         final ObjectType objectType = rpslObject.getType();
         final String pkey = rpslObject.getKey().toString();
         final RpslObjectUpdateInfo updateInfo = new RpslObjectUpdateInfo(objectId, sequenceId, objectType, pkey);
+        evictReferenceResolutions(rpslObject.getKey());
 
         final Set<CIString> missingReferences = insertIntoTablesIgnoreMissing(jdbcTemplate, updateInfo, rpslObject);
         if (!missingReferences.isEmpty()) {
@@ -213,6 +423,7 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
 
     @Override
     public RpslObjectUpdateInfo createObject(final RpslObject object) {
+        evictReferenceResolutions(object.getKey());
         final RpslObjectUpdateInfo rpslObjectInfo = insertIntoLastAndUpdateSerials(dateTimeProvider, jdbcTemplate, object);
 
         insertIntoTables(jdbcTemplate, rpslObjectInfo, object);
@@ -223,4 +434,31 @@ public class JdbcRpslObjectUpdateDao implements RpslObjectUpdateDao {
     public RpslObjectUpdateInfo lookupObject(ObjectType type, String pkey) {
         return lookupRpslObjectUpdateInfo(jdbcTemplate, type, pkey);
     }
+
+    private static final class ReferenceResolutions {
+        private final Map<CIString, Map<ObjectType, Boolean>> resolutions = Maps.newHashMap();
+
+        boolean isResolved(final ObjectType objectType, final CIString key) {
+            final Map<ObjectType, Boolean> resolved = resolutions.get(key);
+            return resolved != null && resolved.containsKey(objectType);
+        }
+
+        boolean exists(final ObjectType objectType, final CIString key) {
+            final Map<ObjectType, Boolean> resolved = resolutions.get(key);
+            return resolved != null && Boolean.TRUE.equals(resolved.get(objectType));
+        }
+
+        void put(final ObjectType objectType, final CIString key, final boolean exists) {
+            Map<ObjectType, Boolean> resolved = resolutions.get(key);
+            if (resolved == null) {
+                resolved = Maps.newEnumMap(ObjectType.class);
+                resolutions.put(key, resolved);
+            }
+            resolved.put(objectType, exists);
+        }
+
+        void evict(final CIString key) {
+            resolutions.remove(key);
+        }
+    }
 }
@@ -1,12 +1,15 @@
 package net.ripe.db.whois.common.dao.jdbc;
 
 import net.ripe.db.whois.common.dao.UpdateLockDao;
+import net.ripe.db.whois.common.jmx.StageLatencies;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 
@@ -27,6 +30,31 @@ class JdbcUpdateLockDao implements UpdateLockDao {
             throw new IllegalStateException("Invalid isolation level: " + isolationLevel);
         }
 
+        if (TransactionSynchronizationManager.hasResource(LockHoldTime.class)) {
+            return;
+        }
+
+        final long start = System.nanoTime();
         jdbcTemplate.queryForObject("SELECT global_lock FROM update_lock WHERE global_lock = 0 FOR UPDATE", Integer.class);
+
+        final long acquired = System.nanoTime();
+        StageLatencies.get("update.lock.wait").record(acquired - start);
+        TransactionSynchronizationManager.bindResource(LockHoldTime.class, new LockHoldTime(acquired));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(final int status) {
+                final LockHoldTime lockHoldTime = (LockHoldTime) TransactionSynchronizationManager.unbindResource(LockHoldTime.class);
+                StageLatencies.get("update.lock.hold").record(System.nanoTime() - lockHoldTime.acquired);
+            }
+        });
+    }
+
+    /** The global lock is held until the transaction completes, however many updates are made in it */
+    private static final class LockHoldTime {
+        private final long acquired;
+
+        private LockHoldTime(final long acquired) {
+            this.acquired = acquired;
+        }
     }
 }
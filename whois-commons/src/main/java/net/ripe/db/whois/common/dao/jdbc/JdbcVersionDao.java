@@ -1,6 +1,5 @@
 package net.ripe.db.whois.common.dao.jdbc;
 
-import com.google.common.collect.Lists;
 import net.ripe.db.whois.common.dao.VersionDao;
 import net.ripe.db.whois.common.dao.VersionInfo;
 import net.ripe.db.whois.common.dao.VersionLookupResult;
@@ -12,8 +11,6 @@ import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.Nullable;
@@ -76,71 +73,56 @@ public class JdbcVersionDao implements VersionDao {
 
     @Override
     public VersionLookupResult findByKey(final ObjectType type, final String searchKey) {
-        final List<Integer> objectIds = getObjectIds(type, searchKey);
-
-        if (objectIds.isEmpty()) {
+        // all versions of all objects with this key in a single query, the (pkey, object_type) index on last
+        // resolves the object ids and the covering (object_id, sequence_id, atlast, operation) index on serials the versions
+        final List<VersionInfo> versionInfos = jdbcTemplate.query("" +
+                        "SELECT serials.atlast, " +
+                        "       serials.object_id, " +
+                        "       serials.sequence_id, " +
+                        "       serials.operation, " +
+                        "       CASE WHEN serials.atlast = 1 OR serials.operation = 2 THEN last.timestamp ELSE history.timestamp END AS timestamp " +
+                        "FROM   last " +
+                        "       JOIN serials ON serials.object_id = last.object_id " +
+                        "       LEFT JOIN history ON history.object_id = serials.object_id AND history.sequence_id = serials.sequence_id " +
+                        "WHERE last.pkey = ? " +
+                        "AND last.object_type = ? " +
+                        "ORDER BY serials.object_id, timestamp, serials.sequence_id",
+                new VersionInfoRowMapper(),
+                searchKey,
+                ObjectTypeIds.getId(type));
+
+        if (versionInfos.isEmpty() && getObjectIds(type, searchKey).isEmpty()) {
             return null;
         }
 
-        final List<VersionInfo> versionInfos = Lists.newArrayList();
-        for (final Integer objectId : objectIds) {
-            versionInfos.addAll(jdbcTemplate.query("" +
-                                    "SELECT serials.atlast, " +
-                                    "       serials.object_id, " +
-                                    "       serials.sequence_id, " +
-                                    "       serials.operation, " +
-                                    "       COALESCE(last.timestamp, history.timestamp) AS timestamp " +
-                                    "FROM   serials " +
-                                    "       LEFT JOIN last ON last.object_id = serials.object_id AND (serials.atlast = 1 OR serials.operation = 2) " +
-                                    "       LEFT JOIN history ON history.object_id = serials.object_id AND history.sequence_id = serials.sequence_id " +
-                                    "WHERE serials.object_id = ? " +
-                                    "ORDER BY timestamp, serials.sequence_id",
-                            new VersionInfoRowMapper(),
-                            objectId)
-            );
-        }
         return new VersionLookupResult(versionInfos, type, searchKey);
     }
 
-     @Nullable
-     @Override
-     public List<VersionInfo> getVersionsForTimestamp(final ObjectType type, final String searchKey, final long timestampInMilliseconds) {
-        final List<Integer> objectIds = getObjectIds(type, searchKey);
-        final long timestamp = timestampInMilliseconds / 1000L;
+    @Nullable
+    @Override
+    public List<VersionInfo> getVersionsForTimestamp(final ObjectType type, final String searchKey, final long timestampInMilliseconds) {
+        final List<VersionInfo> versionInfos = jdbcTemplate.query("" +
+                        "SELECT serials.atlast, " +
+                        "       serials.object_id, " +
+                        "       serials.sequence_id, " +
+                        "       serials.operation, " +
+                        "       COALESCE(history.timestamp, last.timestamp) AS timestamp " +
+                        "FROM   last " +
+                        "       JOIN serials ON serials.object_id = last.object_id " +
+                        "       LEFT JOIN history ON history.object_id = serials.object_id AND history.sequence_id = serials.sequence_id " +
+                        "WHERE last.pkey = ? " +
+                        "AND last.object_type = ? " +
+                        "AND COALESCE(history.timestamp, last.timestamp) = ? " +
+                        "ORDER BY serials.object_id DESC, serials.sequence_id DESC",
+                new VersionInfoRowMapper(),
+                searchKey,
+                ObjectTypeIds.getId(type),
+                timestampInMilliseconds / 1000L);
 
-        if (objectIds.isEmpty()) {
+        if (versionInfos.isEmpty() && getObjectIds(type, searchKey).isEmpty()) {
             return null;
         }
 
-        final MapSqlParameterSource parameters = new MapSqlParameterSource()
-                .addValue("objectIds", objectIds)
-                .addValue("cutofTime", timestamp);
-
-        // need named jdbc template to correctly resolve objectids in the IN sql part.
-        final NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
-        final List<VersionInfo> versionInfos = Lists.newArrayList();
-
-        versionInfos.addAll(namedParameterJdbcTemplate.query("" +
-                "SELECT " +
-                "  temp.atlast, " +
-                "  temp.object_id, " +
-                "  temp.sequence_id, " +
-                "  temp.operation, " +
-                "  temp.timestamp " +
-                "FROM " +
-                "  (" +
-                "    SELECT serials.atlast, " +
-                "       serials.object_id, " +
-                "       serials.sequence_id, " +
-                "       serials.operation, " +
-                "       COALESCE(history.timestamp, last.timestamp) AS timestamp " +
-                "    FROM serials " +
-                "       LEFT JOIN last ON serials.object_id = last.object_id " +
-                "       LEFT JOIN history ON serials.object_id=history.object_id AND serials.sequence_id=history.sequence_id " +
-                "    WHERE serials.object_id IN (:objectIds) " +
-                "    ORDER BY timestamp DESC, serials.object_id DESC, serials.sequence_id DESC " +
-                "  ) AS temp " +
-                "WHERE temp.timestamp=:cutofTime ", parameters, new VersionInfoRowMapper()));
         return versionInfos;
     }
 }
@@ -0,0 +1,13 @@
+package net.ripe.db.whois.common.dao.jdbc.index;
+
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+
+/**
+ * An index which needs no lookups to add a value, so the rows of many objects can be collected and inserted at once.
+ */
+public interface BulkIndexStrategy extends IndexStrategy {
+
+    /** Collect the index rows for the value, the same rows {@link #addToIndex} inserts */
+    void addToIndexRows(IndexRows indexRows, RpslObjectInfo objectInfo, RpslObject object, String value);
+}
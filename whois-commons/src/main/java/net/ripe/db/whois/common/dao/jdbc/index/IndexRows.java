@@ -0,0 +1,90 @@
+package net.ripe.db.whois.common.dao.jdbc.index;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rows for the index tables, collected by {@link BulkIndexStrategy#addToIndexRows}
+ * and inserted with one multi-row insert per table (and per batch of rows).
+ */
+public final class IndexRows {
+    private static final int BATCH_ROWS = 1000;
+
+    private final Map<String, TableRows> rowsByTable = Maps.newLinkedHashMap();
+
+    void add(final String table, final String columns, final Object... values) {
+        TableRows tableRows = rowsByTable.get(table);
+        if (tableRows == null) {
+            tableRows = new TableRows(columns, values.length);
+            rowsByTable.put(table, tableRows);
+        } else if (!tableRows.columns.equals(columns)) {
+            throw new IllegalStateException(String.format("Rows for %s with columns %s and %s", table, tableRows.columns, columns));
+        }
+
+        tableRows.rows.add(values);
+    }
+
+    public Set<String> getTableNames() {
+        return Collections.unmodifiableSet(rowsByTable.keySet());
+    }
+
+    public int insert(final JdbcTemplate jdbcTemplate) {
+        return insert(jdbcTemplate, "");
+    }
+
+    /**
+     * Inserts the rows into the tables named with the given suffix, e.g. copies of the index tables.
+     *
+     * @return the number of rows inserted
+     */
+    public int insert(final JdbcTemplate jdbcTemplate, final String tableSuffix) {
+        int inserted = 0;
+
+        for (final Map.Entry<String, TableRows> entry : rowsByTable.entrySet()) {
+            final TableRows tableRows = entry.getValue();
+
+            for (final List<Object[]> batch : Lists.partition(tableRows.rows, BATCH_ROWS)) {
+                final StringBuilder sql = new StringBuilder("INSERT INTO ")
+                        .append(entry.getKey()).append(tableSuffix)
+                        .append(" (").append(tableRows.columns).append(") VALUES ");
+
+                final List<Object> arguments = Lists.newArrayListWithExpectedSize(batch.size() * tableRows.nrColumns);
+                for (final Object[] row : batch) {
+                    if (!arguments.isEmpty()) {
+                        sql.append(", ");
+                    }
+                    sql.append(tableRows.placeholders);
+                    Collections.addAll(arguments, row);
+                }
+
+                inserted += jdbcTemplate.update(sql.toString(), arguments.toArray());
+            }
+        }
+
+        return inserted;
+    }
+
+    private static final class TableRows {
+        private final String columns;
+        private final int nrColumns;
+        private final String placeholders;
+        private final List<Object[]> rows = Lists.newArrayList();
+
+        private TableRows(final String columns, final int nrColumns) {
+            this.columns = columns;
+            this.nrColumns = nrColumns;
+
+            final StringBuilder placeholders = new StringBuilder("(");
+            for (int column = 0; column < nrColumns; column++) {
+                placeholders.append(column == 0 ? "?" : ", ?");
+            }
+            this.placeholders = placeholders.append(')').toString();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.util.Map;
 public final class IndexStrategies {
     private static final Map<AttributeType, IndexStrategy> INDEX_BY_ATTRIBUTE;
     private static final Map<ObjectType, List<IndexStrategy>> INDEXES_REFERING_OBJECT;
+    private static final List<IndexStrategy> REFERENCE_INDEXES;
 
     static {
         final IndexStrategy[] indexStrategies = {
@@ -140,6 +141,14 @@ public final class IndexStrategies {
             indexesReferingObject.put(objectType, Collections.unmodifiableList(indexesRefererringCurrentObject));
         }
         INDEXES_REFERING_OBJECT = Collections.unmodifiableMap(indexesReferingObject);
+
+        final List<IndexStrategy> referenceIndexes = Lists.newArrayList();
+        for (final IndexStrategy indexStrategy : indexStrategies) {
+            if (indexStrategy.getClass() == IndexWithReference.class) {
+                referenceIndexes.add(indexStrategy);
+            }
+        }
+        REFERENCE_INDEXES = Collections.unmodifiableList(referenceIndexes);
     }
 
     private IndexStrategies() {
@@ -152,4 +161,9 @@ public final class IndexStrategies {
     public static List<IndexStrategy> getReferencing(final ObjectType objectType) {
         return INDEXES_REFERING_OBJECT.get(objectType);
     }
+
+    /** Indexes holding the object id of the referenced object in their lookup column, with a row for every reference */
+    public static List<IndexStrategy> getReferenceIndexes() {
+        return REFERENCE_INDEXES;
+    }
 }
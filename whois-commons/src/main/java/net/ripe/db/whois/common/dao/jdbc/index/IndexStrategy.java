@@ -7,7 +7,10 @@ import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import javax.annotation.CheckForNull;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface IndexStrategy {
 
@@ -23,6 +26,13 @@ public interface IndexStrategy {
     List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final RpslObjectInfo value);
     List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final RpslObjectInfo value, final ObjectType type);
 
+    /** Look up a number of values at once, the result maps each value found to the objects it was found in */
+    Map<CIString, List<RpslObjectInfo>> findInIndex(JdbcTemplate jdbcTemplate, Collection<CIString> values, ObjectType type);
+
+    /** Query for the objects of a type with the value in this index, to be combined with other lookups; null if the index does not support it */
+    @CheckForNull
+    LookupQuery getLookupQuery(String value, ObjectType type);
+
     void removeFromIndex(JdbcTemplate jdbcTemplate, RpslObjectInfo objectInfo);
 
     String getLookupTableName();
@@ -1,5 +1,6 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
+import com.google.common.collect.Maps;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.rpsl.AttributeType;
@@ -8,8 +9,10 @@ import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.apache.commons.lang.Validate;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 abstract class IndexStrategyAdapter implements IndexStrategy {
     protected final AttributeType attributeType;
@@ -64,6 +67,27 @@ abstract class IndexStrategyAdapter implements IndexStrategy {
         return Collections.emptyList();
     }
 
+    @Override
+    public Map<CIString, List<RpslObjectInfo>> findInIndex(final JdbcTemplate jdbcTemplate, final Collection<CIString> values, final ObjectType type) {
+        return findEachInIndex(jdbcTemplate, values, type);
+    }
+
+    protected final Map<CIString, List<RpslObjectInfo>> findEachInIndex(final JdbcTemplate jdbcTemplate, final Collection<CIString> values, final ObjectType type) {
+        final Map<CIString, List<RpslObjectInfo>> result = Maps.newHashMapWithExpectedSize(values.size());
+        for (final CIString value : values) {
+            final List<RpslObjectInfo> objectInfos = findInIndex(jdbcTemplate, value.toString(), type);
+            if (!objectInfos.isEmpty()) {
+                result.put(value, objectInfos);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        return null;
+    }
+
     @Override
     public void removeFromIndex(final JdbcTemplate jdbcTemplate, final RpslObjectInfo objectInfo) {
     }
@@ -20,4 +20,11 @@ class IndexWithAuth extends IndexWithValueAndType {
             return super.addToIndex(jdbcTemplate, objectInfo, object, value);
         }
     }
+
+    @Override
+    public void addToIndexRows(final IndexRows indexRows, final RpslObjectInfo objectInfo, final RpslObject object, final String value) {
+        if (!value.toUpperCase().startsWith("MD5-PW ")) {
+            super.addToIndexRows(indexRows, objectInfo, object, value);
+        }
+    }
 }
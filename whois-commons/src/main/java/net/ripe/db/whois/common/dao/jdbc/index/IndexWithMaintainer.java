@@ -1,13 +1,17 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectType;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static net.ripe.db.whois.common.domain.CIString.ciString;
 
@@ -26,4 +30,27 @@ class IndexWithMaintainer extends IndexWithValue {
 
         return super.findInIndex(jdbcTemplate, value);
     }
+
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        if (ANY.equals(value)) {
+            return null;
+        }
+
+        return super.getLookupQuery(value, type);
+    }
+
+    @Override
+    public Map<CIString, List<RpslObjectInfo>> findInIndex(final JdbcTemplate jdbcTemplate, final Collection<CIString> values, final ObjectType type) {
+        if (!values.contains(ANY)) {
+            return super.findInIndex(jdbcTemplate, values, type);
+        }
+
+        final List<CIString> maintainers = Lists.newArrayList(values);
+        maintainers.removeAll(Collections.singleton(ANY));
+
+        final Map<CIString, List<RpslObjectInfo>> result = Maps.newHashMap(super.findInIndex(jdbcTemplate, maintainers, type));
+        result.put(ANY, findInIndex(jdbcTemplate, ANY.toString()));
+        return result;
+    }
 }
@@ -32,6 +32,11 @@ class IndexWithMemberOf extends IndexWithReference {
         return addToIndex(jdbcTemplate, objectInfo, reference);
     }
 
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        return null;
+    }
+
     @Override
     public List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final String value) {
         final List<RpslObjectInfo> result = Lists.newArrayList();
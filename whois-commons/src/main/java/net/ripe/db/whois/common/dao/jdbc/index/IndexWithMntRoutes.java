@@ -6,6 +6,7 @@ import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
 import net.ripe.db.whois.common.rpsl.attrs.MntRoutes;
 import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.springframework.jdbc.core.JdbcTemplate;
 
@@ -48,6 +49,11 @@ class IndexWithMntRoutes extends IndexWithReference {
                 ObjectTypeIds.getId(objectInfo.getObjectType()));
     }
 
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        return null;
+    }
+
     @Override
     public List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final String value) {
         return Lists.newArrayList(findInIndex(jdbcTemplate, value, "mnt_routes"));
@@ -1,12 +1,17 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
+import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 class IndexWithNServer extends IndexWithValue {
     IndexWithNServer(final AttributeType attributeType, final String lookupTableName, final String lookupColumnName) {
@@ -15,21 +20,46 @@ class IndexWithNServer extends IndexWithValue {
 
     @Override
     public List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final String value) {
-        String host = value;
-        if (host.endsWith(".") && host.length() > 1) {
-            host = host.substring(0, host.length() - 1);
-        }
+        final String query = MessageFormat.format(
+                "SELECT l.object_id, l.object_type, l.pkey " +
+                        "  FROM {0} " +
+                        "  LEFT JOIN last l ON l.object_id = {0}.object_id " +
+                        "  WHERE {0}.{1} LIKE ? " +
+                        "  AND l.sequence_id != 0 ",
+                lookupTableName,
+                lookupColumnName
+        );
 
+        return jdbcTemplate.query(query, new RpslObjectInfoResultSetExtractor(), getHostPattern(value));
+    }
+
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
         final String query = MessageFormat.format(
                 "SELECT l.object_id, l.object_type, l.pkey " +
                         "  FROM {0} " +
                         "  LEFT JOIN last l ON l.object_id = {0}.object_id " +
                         "  WHERE {0}.{1} LIKE ? " +
+                        "  AND l.object_type = ? " +
                         "  AND l.sequence_id != 0 ",
                 lookupTableName,
                 lookupColumnName
         );
 
-        return jdbcTemplate.query(query, new RpslObjectInfoResultSetExtractor(), host + "%");
+        return new LookupQuery(query, getHostPattern(value), ObjectTypeIds.getId(type));
+    }
+
+    private static String getHostPattern(final String value) {
+        String host = value;
+        if (host.endsWith(".") && host.length() > 1) {
+            host = host.substring(0, host.length() - 1);
+        }
+
+        return host + "%";
+    }
+
+    @Override
+    public Map<CIString, List<RpslObjectInfo>> findInIndex(final JdbcTemplate jdbcTemplate, final Collection<CIString> values, final ObjectType type) {
+        return findEachInIndex(jdbcTemplate, values, type);
     }
 }
@@ -2,11 +2,14 @@ package net.ripe.db.whois.common.dao.jdbc.index;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
 import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.apache.commons.lang.Validate;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -16,7 +19,7 @@ import java.util.Set;
 
 import static net.ripe.db.whois.common.domain.CIString.ciString;
 
-class IndexWithName extends IndexStrategyWithSingleLookupTable {
+class IndexWithName extends IndexStrategyWithSingleLookupTable implements BulkIndexStrategy {
     protected static final int MARIADB_MAX_JOINS = 61;
     protected static final Splitter SPACE_SPLITTER = Splitter.on(' ').trimResults().omitEmptyStrings();
 
@@ -31,6 +34,18 @@ class IndexWithName extends IndexStrategyWithSingleLookupTable {
         return jdbcTemplate.query(query, new RpslObjectInfoResultSetExtractor(), (Object[]) names);
     }
 
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        final String[] names = Iterables.toArray(SPACE_SPLITTER.split(value), String.class);
+        if (names.length == 0 || names.length >= MARIADB_MAX_JOINS) {
+            return null;
+        }
+
+        final List<Object> args = Lists.<Object>newArrayList((Object[]) names);
+        args.add(ObjectTypeIds.getId(type));
+        return new LookupQuery(getObjectQueryByName(lookupTableName, names) + " AND l.object_type = ?", args.toArray());
+    }
+
     protected static String getObjectQueryByName(String table, String[] names) {
         Validate.notEmpty(names, "no name");
         Validate.isTrue(names.length < MARIADB_MAX_JOINS, "reached join limit");
@@ -85,4 +100,18 @@ class IndexWithName extends IndexStrategyWithSingleLookupTable {
         final String query = String.format("INSERT INTO %s (object_id, name) VALUES (?, ?)", lookupTableName);
         return jdbcTemplate.update(query, objectId, name);
     }
+
+    @Override
+    public void addToIndexRows(final IndexRows indexRows, final RpslObjectInfo objectInfo, final RpslObject object, final String value) {
+        final Set<CIString> names = Sets.newHashSet();
+        for (String name : SPACE_SPLITTER.split(value)) {
+            if (names.add(ciString(name))) {
+                addName(indexRows, objectInfo.getObjectId(), name);
+            }
+        }
+    }
+
+    void addName(final IndexRows indexRows, final int objectId, final String name) {
+        indexRows.add(lookupTableName, "object_id, name", objectId, name);
+    }
 }
@@ -27,6 +27,11 @@ class IndexWithNameAndType extends IndexWithName {
         return jdbcTemplate.update(query, objectId, name, objectTypeId);
     }
 
+    @Override
+    void addName(final IndexRows indexRows, final int objectId, final String name) {
+        indexRows.add(lookupTableName, "object_id, name, object_type", objectId, name, objectTypeId);
+    }
+
     @Override
     public List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final String value) {
         final String[] names = Iterables.toArray(SPACE_SPLITTER.split(value), String.class);
@@ -1,5 +1,6 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import net.ripe.db.whois.common.collect.CollectionHelper;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
@@ -108,6 +109,37 @@ class IndexWithReference extends IndexStrategySimpleLookup {
                 new RpslObjectInfoResultSetExtractor());
     }
 
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        final List<LookupQuery> referenceQueries = Lists.newArrayList();
+        for (final ObjectType reference : attributeType.getReferences()) {
+            final IndexStrategy referenceStrategy = IndexStrategies.get(ObjectTemplate.getTemplate(reference).getKeyLookupAttribute());
+            final LookupQuery referenceQuery = referenceStrategy.getLookupQuery(value, reference);
+            if (referenceQuery == null) {
+                return null;
+            }
+
+            referenceQueries.add(referenceQuery);
+        }
+
+        final LookupQuery references = LookupQuery.unionAll(referenceQueries);
+        final String query = MessageFormat.format(
+                "SELECT l.object_id, l.object_type, l.pkey " +
+                        "  FROM {0} " +
+                        "  JOIN ({2}) r ON r.object_id = {0}.{1} " +
+                        "  LEFT JOIN last l ON l.object_id = {0}.object_id " +
+                        "  WHERE {0}.object_type = ? " +
+                        "  AND l.sequence_id != 0 ",
+                lookupTableName,
+                lookupColumnName,
+                references.getSql()
+        );
+
+        final List<Object> args = Lists.newArrayList(references.getArgs());
+        args.add(ObjectTypeIds.getId(type));
+        return new LookupQuery(query, args.toArray());
+    }
+
     //
     public List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final RpslObjectInfo value) {
         // FIXME: [AH] joining to last is very costly and unnecessary here; look for ways to drop this join
@@ -1,15 +1,32 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
+import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoMapper;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
+import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
-class IndexWithValue extends IndexStrategySimpleLookup {
+import static net.ripe.db.whois.common.domain.CIString.ciString;
+
+class IndexWithValue extends IndexStrategySimpleLookup implements BulkIndexStrategy {
 
     protected IndexWithValue(final AttributeType attributeType, final String lookupTableName, final String lookupColumnName) {
         super(attributeType, lookupTableName, lookupColumnName);
@@ -21,6 +38,11 @@ class IndexWithValue extends IndexStrategySimpleLookup {
         return jdbcTemplate.update(query, objectInfo.getObjectId(), value);
     }
 
+    @Override
+    public void addToIndexRows(final IndexRows indexRows, final RpslObjectInfo objectInfo, final RpslObject object, final String value) {
+        indexRows.add(lookupTableName, "object_id, " + lookupColumnName, objectInfo.getObjectId(), value);
+    }
+
     @Override
     public List<RpslObjectInfo> findInIndex(final JdbcTemplate jdbcTemplate, final String value) {
         // FIXME: [AH] joining to last is very costly and unnecessary here; look for ways to drop this join
@@ -36,4 +58,80 @@ class IndexWithValue extends IndexStrategySimpleLookup {
 
         return jdbcTemplate.query(query, new RpslObjectInfoResultSetExtractor(), value);
     }
+
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        final String query = MessageFormat.format("" +
+                "SELECT l.object_id, l.object_type, l.pkey " +
+                "  FROM {0} " +
+                "  LEFT JOIN last l ON l.object_id = {0}.object_id " +
+                "  WHERE {0}.{1} = ? " +
+                "  AND l.object_type = ? " +
+                "  AND l.sequence_id != 0 ",
+                lookupTableName,
+                lookupColumnName
+            );
+
+        return new LookupQuery(query, value, ObjectTypeIds.getId(type));
+    }
+
+    @Override
+    public Map<CIString, List<RpslObjectInfo>> findInIndex(final JdbcTemplate jdbcTemplate, final Collection<CIString> values, final ObjectType type) {
+        if (values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final String query = MessageFormat.format("" +
+                "SELECT l.object_id, l.object_type, l.pkey, {0}.{1} " +
+                "  FROM {0} " +
+                "  LEFT JOIN last l ON l.object_id = {0}.object_id " +
+                "  WHERE {0}.{1} IN (:values) " +
+                "  AND l.sequence_id != 0 ",
+                lookupTableName,
+                lookupColumnName
+            );
+
+        return new NamedParameterJdbcTemplate(jdbcTemplate).query(
+                query,
+                new MapSqlParameterSource("values", toStrings(values)),
+                new RpslObjectInfoByValueResultSetExtractor());
+    }
+
+    protected static List<String> toStrings(final Collection<CIString> values) {
+        final List<String> result = Lists.newArrayListWithExpectedSize(values.size());
+        for (final CIString value : values) {
+            result.add(value.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Groups the object infos found by the looked up value, which is expected in the column following the object info columns
+     */
+    protected static final class RpslObjectInfoByValueResultSetExtractor implements ResultSetExtractor<Map<CIString, List<RpslObjectInfo>>> {
+        private final RpslObjectInfoMapper rpslObjectInfoMapper = new RpslObjectInfoMapper();
+
+        @Override
+        public Map<CIString, List<RpslObjectInfo>> extractData(final ResultSet rs) throws SQLException, DataAccessException {
+            final Map<CIString, List<RpslObjectInfo>> result = Maps.newHashMap();
+
+            int rowNum = 0;
+            while (rs.next()) {
+                final RpslObjectInfo rpslObjectInfo = rpslObjectInfoMapper.mapRow(rs, rowNum++);
+                if (rpslObjectInfo == null) {
+                    continue;
+                }
+
+                final CIString value = ciString(rs.getString(4));
+                List<RpslObjectInfo> rpslObjectInfos = result.get(value);
+                if (rpslObjectInfos == null) {
+                    rpslObjectInfos = Lists.newArrayList();
+                    result.put(value, rpslObjectInfos);
+                }
+                rpslObjectInfos.add(rpslObjectInfo);
+            }
+
+            return result;
+        }
+    }
 }
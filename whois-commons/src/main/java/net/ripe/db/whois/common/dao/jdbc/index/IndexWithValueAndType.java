@@ -3,13 +3,19 @@ package net.ripe.db.whois.common.dao.jdbc.index;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
 import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
+import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 class IndexWithValueAndType extends IndexWithValue {
 
@@ -32,9 +38,51 @@ class IndexWithValueAndType extends IndexWithValue {
         return jdbcTemplate.query(query, new RpslObjectInfoResultSetExtractor(), value, ObjectTypeIds.getId(type));
     }
 
+    @Override
+    public LookupQuery getLookupQuery(final String value, final ObjectType type) {
+        final String query = MessageFormat.format("" +
+                        "SELECT l.object_id, l.object_type, l.pkey " +
+                        "  FROM {0} " +
+                        "  LEFT JOIN last l ON l.object_id = {0}.object_id " +
+                        "  WHERE {0}.{1} = ? AND {0}.object_type = ? " +
+                        "  AND l.sequence_id != 0 ",
+                lookupTableName,
+                lookupColumnName
+        );
+
+        return new LookupQuery(query, value, ObjectTypeIds.getId(type));
+    }
+
+    @Override
+    public Map<CIString, List<RpslObjectInfo>> findInIndex(final JdbcTemplate jdbcTemplate, final Collection<CIString> values, final ObjectType type) {
+        if (values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final String query = MessageFormat.format("" +
+                        "SELECT l.object_id, l.object_type, l.pkey, {0}.{1} " +
+                        "  FROM {0} " +
+                        "  LEFT JOIN last l ON l.object_id = {0}.object_id " +
+                        "  WHERE {0}.{1} IN (:values) AND {0}.object_type = :type " +
+                        "  AND l.sequence_id != 0 ",
+                lookupTableName,
+                lookupColumnName
+        );
+
+        return new NamedParameterJdbcTemplate(jdbcTemplate).query(
+                query,
+                new MapSqlParameterSource("values", toStrings(values)).addValue("type", ObjectTypeIds.getId(type)),
+                new RpslObjectInfoByValueResultSetExtractor());
+    }
+
     @Override
     public int addToIndex(final JdbcTemplate jdbcTemplate, final RpslObjectInfo objectInfo, final RpslObject object, final String value) {
         final String query = String.format("INSERT INTO %s (object_id, %s, object_type) VALUES (?, ?, ?)", lookupTableName, lookupColumnName);
         return jdbcTemplate.update(query, objectInfo.getObjectId(), value, ObjectTypeIds.getId(objectInfo.getObjectType()));
     }
+
+    @Override
+    public void addToIndexRows(final IndexRows indexRows, final RpslObjectInfo objectInfo, final RpslObject object, final String value) {
+        indexRows.add(lookupTableName, "object_id, " + lookupColumnName + ", object_type", objectInfo.getObjectId(), value, ObjectTypeIds.getId(objectInfo.getObjectType()));
+    }
 }
@@ -0,0 +1,43 @@
+package net.ripe.db.whois.common.dao.jdbc.index;
+
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A select of object infos (object_id, object_type, pkey) with positional arguments, which can be combined with others
+ * into a single statement.
+ */
+public final class LookupQuery {
+    private final String sql;
+    private final List<Object> args;
+
+    public LookupQuery(final String sql, final Object... args) {
+        this.sql = sql;
+        this.args = Collections.unmodifiableList(Lists.newArrayList(args));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getArgs() {
+        return args;
+    }
+
+    public static LookupQuery unionAll(final List<LookupQuery> lookupQueries) {
+        final StringBuilder sql = new StringBuilder();
+        final List<Object> args = Lists.newArrayList();
+
+        for (final LookupQuery lookupQuery : lookupQueries) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append(lookupQuery.sql);
+            args.addAll(lookupQuery.args);
+        }
+
+        return new LookupQuery(sql.toString(), args.toArray());
+    }
+}
@@ -31,7 +31,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static net.ripe.db.whois.common.domain.serials.Operation.UPDATE;
 import static net.ripe.db.whois.common.domain.serials.Operation.getByCode;
@@ -178,6 +180,16 @@ public class IpTreeCacheManager {
     }
 
     private final Map<CIString, CacheEntry> cache = Maps.newHashMap();
+    private final AtomicLong serialWatermark = new AtomicLong();
+    private final List<IpTreeUpdateListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Notify the listener after every rebuild and scheduled update of the trees (not after transactional updates,
+     * so listeners never slow down an update).
+     */
+    public void addListener(final IpTreeUpdateListener listener) {
+        listeners.add(listener);
+    }
 
     void rebuild(final SourceConfiguration sourceConfiguration) {
         final CIString source = sourceConfiguration.getSource().getName();
@@ -189,17 +201,33 @@ public class IpTreeCacheManager {
         final CacheEntry cacheEntry = new CacheEntry(sourceConfiguration);
         rebuild(sourceConfiguration.getJdbcTemplate(), cacheEntry);
         cache.put(source, cacheEntry);
+        notifyListeners(source, cacheEntry);
     }
 
     public void update(final SourceConfiguration sourceConfiguration) {
-        update(sourceConfiguration, sourceConfiguration.getJdbcTemplate());
+        if (update(sourceConfiguration, sourceConfiguration.getJdbcTemplate())) {
+            final CIString source = sourceConfiguration.getSource().getName();
+            notifyListeners(source, cache.get(source));
+        }
     }
 
     public void updateTransactional(final SourceConfiguration sourceConfiguration) {
         update(sourceConfiguration, this.jdbcTemplate);
     }
 
-    private void update(final SourceConfiguration sourceConfiguration, final JdbcTemplate jdbcTemplate) {
+    private void notifyListeners(final CIString source, final CacheEntry cacheEntry) {
+        final long lastSerial = cacheEntry.nestedIntervalMaps.lastSerial;
+        for (final IpTreeUpdateListener listener : listeners) {
+            try {
+                listener.treesUpdated(source, lastSerial);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to notify {} of update of {}", listener, source, e);
+            }
+        }
+    }
+
+    // returns false if another thread was already updating the tree
+    private boolean update(final SourceConfiguration sourceConfiguration, final JdbcTemplate jdbcTemplate) {
         final CIString source = sourceConfiguration.getSource().getName();
         final CacheEntry cacheEntry = cache.get(source);
         if (cacheEntry == null) {
@@ -215,7 +243,10 @@ public class IpTreeCacheManager {
             } finally {
                 cacheEntry.updateLock.release();
             }
+            return true;
         }
+
+        return false;
     }
 
     private void update(final JdbcTemplate jdbcTemplate, final CacheEntry cacheEntry) {
@@ -274,9 +305,25 @@ public class IpTreeCacheManager {
             );
 
             cacheEntry.nestedIntervalMaps.update(ipTreeUpdates, toInclusive, cacheEntry);
+            serialWatermark.incrementAndGet();
         }
     }
 
+    /**
+     * Changes every time one of the cached trees is brought up to date with a new serial, which makes it usable
+     * to invalidate anything derived from the database at an earlier serial.
+     */
+    public long getSerialWatermark() {
+        return serialWatermark.get();
+    }
+
+    /**
+     * The serial the trees of the given source are up to date with.
+     */
+    public long getLastSerial(final CIString source) {
+        return get(source).lastSerial;
+    }
+
     Map<SourceConfiguration, Long> getLastSerials() {
         final Map<SourceConfiguration, Long> lastSerials = Maps.newHashMap();
 
@@ -383,6 +430,7 @@ public class IpTreeCacheManager {
         nestedIntervalMaps.update(ipTreeUpdates, toInclusive, cacheEntry);
 
         cacheEntry.nestedIntervalMaps = nestedIntervalMaps;
+        serialWatermark.incrementAndGet();
     }
 
     private long getLastSerial(final JdbcTemplate jdbcTemplate) {
@@ -0,0 +1,11 @@
+package net.ripe.db.whois.common.iptree;
+
+import net.ripe.db.whois.common.domain.CIString;
+
+/**
+ * Notified on the ip tree update thread every time the trees of a source are rebuilt or brought up to date
+ * by {@link IpTreeUpdater}, whether anything changed or not.
+ */
+public interface IpTreeUpdateListener {
+    void treesUpdated(CIString source, long lastSerial);
+}
@@ -0,0 +1,300 @@
+package net.ripe.db.whois.common.iptree;
+
+import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.ip.Interval;
+import net.ripe.db.whois.common.ip.Ipv4Resource;
+import net.ripe.db.whois.common.ip.Ipv6Resource;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.source.SourceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static net.ripe.db.whois.common.rpsl.ObjectType.INET6NUM;
+import static net.ripe.db.whois.common.rpsl.ObjectType.INETNUM;
+
+/**
+ * Caches a value resolved for resources of the main source by object id, including the absence of one, e.g. the
+ * abuse contact of an inetnum.
+ *
+ * Cached values are invalidated from the serials on the ip tree update thread, once the ip trees have caught up with
+ * them: a change to a resource invalidates the values of all resources within it (as they may have inherited its
+ * value), and a change to an object of one of the key types invalidates the values that were resolved through its key.
+ * Until then (e.g. after a transactional update of the trees) the cache is not used.
+ *
+ * The cache is disabled if the maximum size is 0.
+ */
+public abstract class SerialInvalidatedCache<V> implements IpTreeUpdateListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerialInvalidatedCache.class);
+
+    private final IpTreeCacheManager ipTreeCacheManager;
+    private final SourceContext sourceContext;
+    private final Set<ObjectType> keyTypes;
+    private final Set<ObjectType> changedTypes;
+    private final Cache<Integer, Entry<V>> cache;
+
+    private final Lock updateLock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastSerial = Long.MIN_VALUE;
+
+    /**
+     * @param cachedTypes the types of the objects cached, invalidated when they change themselves
+     * @param keyTypes    the types of the objects the values are resolved through, by key
+     */
+    protected SerialInvalidatedCache(final IpTreeCacheManager ipTreeCacheManager,
+                                     final SourceContext sourceContext,
+                                     final int maximumSize,
+                                     final Set<ObjectType> cachedTypes,
+                                     final Set<ObjectType> keyTypes) {
+        this.ipTreeCacheManager = ipTreeCacheManager;
+        this.sourceContext = sourceContext;
+        this.keyTypes = keyTypes;
+        this.changedTypes = Sets.union(Sets.union(EnumSet.of(INETNUM, INET6NUM), cachedTypes), keyTypes).immutableCopy();
+        this.cache = maximumSize > 0 ? CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().<Integer, Entry<V>>build() : null;
+
+        if (cache != null) {
+            ipTreeCacheManager.addListener(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @CheckForNull
+    protected Entry<V> get(final int objectId) {
+        if (!isCacheable(objectId) || !isUpToDate()) {
+            return null;
+        }
+
+        return cache.getIfPresent(objectId);
+    }
+
+    /**
+     * Start recording the resolution of the value of a resource, to be cached once it is complete (if cacheable).
+     */
+    protected Recorder<V> record(final int objectId, @Nullable final Interval<?> resource, final boolean cacheable) {
+        final boolean record = cacheable && isCacheable(objectId) && isUpToDate();
+        return new Recorder<>(this, objectId, resource, record ? generation.get() : -1);
+    }
+
+    private boolean isCacheable(final int objectId) {
+        return cache != null && objectId != 0 && sourceContext.isMain();
+    }
+
+    // the cache may be behind the ip trees otherwise, and should not be used
+    private boolean isUpToDate() {
+        return ipTreeCacheManager.getLastSerial(getSource()) == lastSerial;
+    }
+
+    /**
+     * Bring the cache up to date with the ip trees, on the ip tree update thread.
+     */
+    @Override
+    public void treesUpdated(final CIString source, final long treeSerial) {
+        if (!source.equals(getSource())) {
+            return;
+        }
+
+        updateLock.lock();
+        try {
+            update(treeSerial);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Unable to update {} due to {}", getClass().getSimpleName(), e.getMessage());
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void update(final long treeSerial) {
+        final JdbcTemplate jdbcTemplate = sourceContext.getSourceConfiguration(sourceContext.getWhoisSlaveSource()).getJdbcTemplate();
+
+        // values are resolved from the database, so never process serials it has not caught up with yet
+        final long toInclusive = Math.min(treeSerial, jdbcTemplate.queryForObject("SELECT IFNULL(MAX(serial_id), 0) FROM serials", Long.class));
+        final long fromExclusive = lastSerial;
+
+        if (toInclusive == fromExclusive) {
+            return;
+        }
+
+        if (fromExclusive == Long.MIN_VALUE || toInclusive < fromExclusive) {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+            lastSerial = toInclusive;
+            return;
+        }
+
+        final Set<Integer> objectIds = Sets.newHashSet();
+        final Set<CIString> keys = Sets.newHashSet();
+        final List<Interval<?>> resources = Lists.newArrayList();
+
+        final List<Object> arguments = Lists.<Object>newArrayList(fromExclusive, toInclusive);
+        for (final ObjectType objectType : changedTypes) {
+            arguments.add(ObjectTypeIds.getId(objectType));
+        }
+
+        jdbcTemplate.query("" +
+                        "SELECT serials.object_id, last.object_type, last.pkey " +
+                        "FROM serials " +
+                        "JOIN last ON last.object_id = serials.object_id " +
+                        "WHERE serials.serial_id > ? " +
+                        "AND serials.serial_id <= ? " +
+                        "AND last.object_type IN (" + Joiner.on(", ").join(Collections.nCopies(changedTypes.size(), "?")) + ")",
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(final ResultSet rs) throws SQLException {
+                        objectIds.add(rs.getInt(1));
+
+                        final ObjectType objectType = ObjectTypeIds.getType(rs.getInt(2));
+                        if (keyTypes.contains(objectType)) {
+                            keys.add(CIString.ciString(rs.getString(3)));
+                        } else if (objectType == INETNUM) {
+                            resources.add(Ipv4Resource.parse(rs.getString(3)));
+                        } else if (objectType == INET6NUM) {
+                            resources.add(Ipv6Resource.parse(rs.getString(3)));
+                        }
+                    }
+                },
+                arguments.toArray());
+
+        // values being resolved now may have read the database before these changes
+        generation.incrementAndGet();
+
+        int invalidated = 0;
+        for (final Entry<V> entry : cache.asMap().values()) {
+            if (entry.dependsOn(objectIds, keys, resources)) {
+                cache.invalidate(entry.objectId);
+                invalidated++;
+            }
+        }
+
+        lastSerial = toInclusive;
+        LOGGER.debug("Updated {} from serial {} to {} ({} invalidated)", getClass().getSimpleName(), fromExclusive, toInclusive, invalidated);
+    }
+
+    // the source of the ip trees used for the main source
+    private CIString getSource() {
+        final CIString source = sourceContext.getWhoisSlaveSource().getName();
+        final CIString alias = sourceContext.getAlias(source);
+        return alias != null ? alias : source;
+    }
+
+    public static final class Entry<V> {
+        private final int objectId;
+        private final Interval<?> resource;
+        private final Set<CIString> keys;
+        private final V value;
+
+        private Entry(final int objectId, @Nullable final Interval<?> resource, final Set<CIString> keys, @Nullable final V value) {
+            this.objectId = objectId;
+            this.resource = resource;
+            this.keys = keys;
+            this.value = value;
+        }
+
+        @CheckForNull
+        public V getValue() {
+            return value;
+        }
+
+        private boolean dependsOn(final Set<Integer> objectIds, final Set<CIString> keys, final List<Interval<?>> resources) {
+            if (objectIds.contains(objectId) || !Collections.disjoint(this.keys, keys)) {
+                return true;
+            }
+
+            if (resource != null) {
+                for (final Interval<?> changedResource : resources) {
+                    if (contains(changedResource, resource)) {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+
+        private static boolean contains(final Interval<?> changedResource, final Interval<?> resource) {
+            if (changedResource instanceof Ipv4Resource && resource instanceof Ipv4Resource) {
+                return ((Ipv4Resource) changedResource).contains((Ipv4Resource) resource);
+            }
+
+            if (changedResource instanceof Ipv6Resource && resource instanceof Ipv6Resource) {
+                return ((Ipv6Resource) changedResource).contains((Ipv6Resource) resource);
+            }
+
+            return false;
+        }
+    }
+
+    public static final class Recorder<V> {
+        private final SerialInvalidatedCache<V> owner;
+        private final int objectId;
+        private final Interval<?> resource;
+        private final long generation;
+        private final Set<CIString> keys = Sets.newHashSet();
+
+        private Recorder(final SerialInvalidatedCache<V> owner, final int objectId, @Nullable final Interval<?> resource, final long generation) {
+            this.owner = owner;
+            this.objectId = objectId;
+            this.resource = resource;
+            this.generation = generation;
+        }
+
+        /**
+         * The value was resolved through the object with the given key (whether it exists or not).
+         */
+        public void addKey(final CIString key) {
+            keys.add(key);
+        }
+
+        /**
+         * The value was (partly) inherited from a less specific resource.
+         */
+        public void addParent(final Entry<?> parent) {
+            keys.addAll(parent.keys);
+        }
+
+        /**
+         * Cache the resolved value, unless the cache was updated while resolving it.
+         */
+        public Entry<V> complete(@Nullable final V value) {
+            final Entry<V> entry = new Entry<>(objectId, resource, keys, value);
+
+            if (generation >= 0 && generation == owner.generation.get()) {
+                owner.cache.put(objectId, entry);
+
+                // an update may have started after the check; it either sees the cached value or is noticed here
+                if (generation != owner.generation.get()) {
+                    owner.cache.invalidate(objectId);
+                }
+            }
+
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package net.ripe.db.whois.common.jmx;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds.
+ *
+ * Latencies are counted in logarithmic buckets: every power of two is split into 8 linear sub-buckets, so the
+ * percentiles reported are within 12.5% of the recorded latencies over the whole range, at a fixed size of 4k.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(final long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * @param weight the number of invocations represented by this one, if only a sample of invocations is recorded
+     */
+    public void record(final long nanos, final int weight) {
+        final long value = Math.max(nanos, 0);
+        buckets.addAndGet(getBucket(value), weight);
+        total.add(value * weight);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public void recordFailure(final long nanos) {
+        recordFailure(nanos, 1);
+    }
+
+    public void recordFailure(final long nanos, final int weight) {
+        failures.add(weight);
+        record(nanos, weight);
+    }
+
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets.set(bucket, 0);
+        }
+        total.reset();
+        failures.reset();
+        max.set(0);
+    }
+
+    public Snapshot getSnapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] = buckets.get(bucket);
+        }
+        return new Snapshot(counts, total.sum(), failures.sum(), max.get());
+    }
+
+    static int getBucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> exponent) & (SUB_BUCKETS - 1);
+        return (exponent + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // the highest value counted in a bucket
+    static long getBucketLimit(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int exponent = bucket / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << exponent;
+        return lowest + (1L << exponent) - 1;
+    }
+
+    /**
+     * Consistent view of a histogram, as far as is possible without locking.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long failures;
+        private final long max;
+
+        private Snapshot(final long[] counts, final long total, final long failures, final long max) {
+            long count = 0;
+            for (final long bucketCount : counts) {
+                count += bucketCount;
+            }
+
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.failures = failures;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getMean(final TimeUnit timeUnit) {
+            return count == 0 ? 0 : timeUnit.convert(total / count, TimeUnit.NANOSECONDS);
+        }
+
+        public long getMax(final TimeUnit timeUnit) {
+            return timeUnit.convert(max, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         */
+        public long getPercentile(final double percentile, final TimeUnit timeUnit) {
+            if (count == 0) {
+                return 0;
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return timeUnit.convert(Math.min(getBucketLimit(bucket), max), TimeUnit.NANOSECONDS);
+                }
+            }
+
+            return getMax(timeUnit);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package net.ripe.db.whois.common.jmx;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latencies of the stages of the query and update pipelines, as recorded for methods annotated with
+ * {@link net.ripe.db.whois.common.aspects.Timed}.
+ *
+ * The latencies are kept statically, as the aspect recording them is woven at compile time and not managed by Spring.
+ */
+public final class StageLatencies {
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private StageLatencies() {
+    }
+
+    public static LatencyHistogram get(final String stage) {
+        final LatencyHistogram histogram = HISTOGRAMS.get(stage);
+        if (histogram != null) {
+            return histogram;
+        }
+
+        final LatencyHistogram created = new LatencyHistogram();
+        final LatencyHistogram existing = HISTOGRAMS.putIfAbsent(stage, created);
+        return existing != null ? existing : created;
+    }
+
+    public static Map<String, LatencyHistogram.Snapshot> getSnapshots() {
+        final ImmutableSortedMap.Builder<String, LatencyHistogram.Snapshot> snapshots = ImmutableSortedMap.naturalOrder();
+        for (final Map.Entry<String, LatencyHistogram> entry : HISTOGRAMS.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().getSnapshot());
+        }
+        return snapshots.build();
+    }
+
+    public static void reset() {
+        for (final LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+}
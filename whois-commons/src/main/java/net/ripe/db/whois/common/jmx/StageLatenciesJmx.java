@@ -0,0 +1,59 @@
+package net.ripe.db.whois.common.jmx;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ManagedResource(objectName = JmxBase.OBJECT_NAME_BASE + "StageLatencies", description = "Latencies of the query and update pipeline stages")
+public class StageLatenciesJmx extends JmxBase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StageLatenciesJmx.class);
+
+    public StageLatenciesJmx() {
+        super(LOGGER);
+    }
+
+    @ManagedOperation(description = "Show the number of invocations, failures and latencies in microseconds of every stage")
+    public String getLatencies() {
+        return invokeOperation("Get stage latencies", "", new Callable<String>() {
+            @Override
+            public String call() {
+                final StringBuilder resultBuilder = new StringBuilder(String.format("%-24s %10s %8s %8s %8s %8s %8s %8s %10s%n",
+                        "stage", "count", "failures", "mean", "p50", "p90", "p99", "p99.9", "max"));
+
+                for (final Map.Entry<String, LatencyHistogram.Snapshot> entry : StageLatencies.getSnapshots().entrySet()) {
+                    final LatencyHistogram.Snapshot snapshot = entry.getValue();
+                    resultBuilder.append(String.format("%-24s %10d %8d %8d %8d %8d %8d %8d %10d%n",
+                            entry.getKey(),
+                            snapshot.getCount(),
+                            snapshot.getFailures(),
+                            snapshot.getMean(TimeUnit.MICROSECONDS),
+                            snapshot.getPercentile(50, TimeUnit.MICROSECONDS),
+                            snapshot.getPercentile(90, TimeUnit.MICROSECONDS),
+                            snapshot.getPercentile(99, TimeUnit.MICROSECONDS),
+                            snapshot.getPercentile(99.9, TimeUnit.MICROSECONDS),
+                            snapshot.getMax(TimeUnit.MICROSECONDS)));
+                }
+
+                return resultBuilder.toString();
+            }
+        });
+    }
+
+    @ManagedOperation(description = "Reset the latencies of every stage")
+    public String reset() {
+        return invokeOperation("Reset stage latencies", "", new Callable<String>() {
+            @Override
+            public String call() {
+                StageLatencies.reset();
+                return "Stage latencies reset";
+            }
+        });
+    }
+}
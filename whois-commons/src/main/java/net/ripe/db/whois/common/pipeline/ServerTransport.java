@@ -0,0 +1,93 @@
+package net.ripe.db.whois.common.pipeline;
+
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.buffer.DirectChannelBufferFactory;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelPipelineFactory;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.execution.ExecutionHandler;
+import org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor;
+import org.jboss.netty.util.ObjectSizeEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binds the port 43 and NRTM servers, with the same socket and buffer configuration for both.
+ *
+ * Responses are written as many small writes, so Nagle's algorithm is disabled to avoid delaying the last segment
+ * of a response until the client acknowledges the previous one. Optionally, data is read into direct buffers,
+ * preallocated in chunks, instead of being copied onto the heap.
+ */
+@Component
+public class ServerTransport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerTransport.class);
+
+    private static final int BACKLOG = 200;
+    private static final long MEMORY_SIZE_UNLIMITED = 0;
+
+    // without memory limits there is no need to estimate the size of every event
+    private static final ObjectSizeEstimator NO_SIZE_ESTIMATOR = new ObjectSizeEstimator() {
+        @Override
+        public int estimateSize(final Object o) {
+            return 0;
+        }
+    };
+
+    private final int ioWorkers;
+    private final boolean directBuffers;
+
+    @Autowired
+    public ServerTransport(@Value("${netty.io.workers:0}") final int ioWorkers,
+                           @Value("${netty.direct.buffers:false}") final boolean directBuffers) {
+        this.ioWorkers = ioWorkers;
+        this.directBuffers = directBuffers;
+    }
+
+    /**
+     * @param port the port to listen on, or 0 for any free port
+     */
+    public Channel bind(final String name, final ChannelPipelineFactory pipelineFactory, final int port) {
+        final NioServerSocketChannelFactory channelFactory = ioWorkers > 0 ?
+                new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool(), ioWorkers) :
+                new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool());
+
+        final ServerBootstrap bootstrap = new ServerBootstrap(channelFactory);
+        bootstrap.setPipelineFactory(pipelineFactory);
+        bootstrap.setOption("backlog", BACKLOG);
+        bootstrap.setOption("reuseAddress", true);
+        bootstrap.setOption("child.keepAlive", true);
+        bootstrap.setOption("child.tcpNoDelay", true);
+        if (directBuffers) {
+            bootstrap.setOption("child.bufferFactory", DirectChannelBufferFactory.getInstance());
+        }
+
+        final Channel channel = bootstrap.bind(new InetSocketAddress(port));
+        LOGGER.info("{} server listening on port {}", name, ((InetSocketAddress) channel.getLocalAddress()).getPort());
+        return channel;
+    }
+
+    /**
+     * Executes the events of a channel in order, on a pool of threads shared by all channels.
+     */
+    public static ExecutionHandler createExecutionHandler(final String name, final int poolSize, final long keepAliveSeconds) {
+        return new ExecutionHandler(new OrderedMemoryAwareThreadPoolExecutor(
+                poolSize, MEMORY_SIZE_UNLIMITED, MEMORY_SIZE_UNLIMITED, keepAliveSeconds, TimeUnit.SECONDS, NO_SIZE_ESTIMATOR, new ThreadFactory() {
+            private final ThreadGroup threadGroup = new ThreadGroup(name + "-pool");
+            private final AtomicInteger threadNumber = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(threadGroup, r, name + "-thread-" + threadNumber.incrementAndGet());
+            }
+        }));
+    }
+}
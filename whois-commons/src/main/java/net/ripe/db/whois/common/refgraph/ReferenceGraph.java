@@ -0,0 +1,210 @@
+package net.ripe.db.whois.common.refgraph;
+
+import com.google.common.collect.Maps;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * References between objects by object id, for every reference attribute, in both directions.
+ *
+ * Object ids are kept in primitive int arrays, so the graph costs about 8 bytes per reference. Not thread safe.
+ */
+class ReferenceGraph {
+    private final Map<AttributeType, Adjacency> referencing = Maps.newEnumMap(AttributeType.class);
+    private final Map<AttributeType, Adjacency> referenced = Maps.newEnumMap(AttributeType.class);
+
+    long lastSerial;
+
+    void add(final AttributeType attributeType, final int objectId, final int referencedObjectId) {
+        getAdjacency(referencing, attributeType).add(referencedObjectId, objectId);
+        getAdjacency(referenced, attributeType).add(objectId, referencedObjectId);
+    }
+
+    void removeReferencesFrom(final int objectId) {
+        for (final Map.Entry<AttributeType, Adjacency> entry : referenced.entrySet()) {
+            final Adjacency referencingAdjacency = referencing.get(entry.getKey());
+            for (final int referencedObjectId : entry.getValue().removeAll(objectId)) {
+                referencingAdjacency.remove(referencedObjectId, objectId);
+            }
+        }
+    }
+
+    /** object ids of the objects referring to the given object in an attribute of the given type */
+    int[] getReferencing(final AttributeType attributeType, final int referencedObjectId) {
+        final Adjacency adjacency = referencing.get(attributeType);
+        return adjacency == null ? Adjacency.EMPTY : adjacency.get(referencedObjectId);
+    }
+
+    /** object ids of the objects the given object refers to in attributes of the given type */
+    int[] getReferenced(final AttributeType attributeType, final int objectId) {
+        final Adjacency adjacency = referenced.get(attributeType);
+        return adjacency == null ? Adjacency.EMPTY : adjacency.get(objectId);
+    }
+
+    long size(final AttributeType attributeType) {
+        final Adjacency adjacency = referenced.get(attributeType);
+        return adjacency == null ? 0 : adjacency.values;
+    }
+
+    /** whether both graphs hold the same references for the given attribute type, regardless of order */
+    boolean equals(final ReferenceGraph other, final AttributeType attributeType) {
+        if (size(attributeType) != other.size(attributeType)) {
+            return false;
+        }
+
+        final Adjacency adjacency = referenced.get(attributeType);
+        if (adjacency == null) {
+            return true;
+        }
+
+        for (final int objectId : adjacency.keys()) {
+            final int[] referencedObjectIds = getReferenced(attributeType, objectId);
+            final int[] otherReferencedObjectIds = other.getReferenced(attributeType, objectId);
+            Arrays.sort(referencedObjectIds);
+            Arrays.sort(otherReferencedObjectIds);
+            if (!Arrays.equals(referencedObjectIds, otherReferencedObjectIds)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Adjacency getAdjacency(final Map<AttributeType, Adjacency> adjacencies, final AttributeType attributeType) {
+        Adjacency adjacency = adjacencies.get(attributeType);
+        if (adjacency == null) {
+            adjacency = new Adjacency();
+            adjacencies.put(attributeType, adjacency);
+        }
+        return adjacency;
+    }
+
+    /**
+     * Open addressing hash map from an object id to a list of object ids, where the first element of every list is
+     * the number of ids in it. Keys are never removed, only their lists emptied.
+     */
+    static final class Adjacency {
+        static final int[] EMPTY = new int[0];
+
+        private static final int FREE = -1;
+        private static final int INITIAL_CAPACITY = 16;
+        private static final int INITIAL_LIST_CAPACITY = 4;
+
+        private int[] keys = newKeys(INITIAL_CAPACITY);
+        private int[][] lists = new int[INITIAL_CAPACITY][];
+        private int size;
+        private long values;
+
+        void add(final int key, final int value) {
+            int slot = slot(keys, key);
+            if (keys[slot] == FREE) {
+                if ((size + 1) * 4L > keys.length * 3L) {
+                    grow();
+                    slot = slot(keys, key);
+                }
+
+                keys[slot] = key;
+                lists[slot] = new int[INITIAL_LIST_CAPACITY];
+                size++;
+            }
+
+            int[] list = lists[slot];
+            final int count = list[0];
+            if (count + 1 == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                lists[slot] = list;
+            }
+
+            list[count + 1] = value;
+            list[0] = count + 1;
+            values++;
+        }
+
+        boolean remove(final int key, final int value) {
+            final int slot = slot(keys, key);
+            if (keys[slot] == FREE) {
+                return false;
+            }
+
+            final int[] list = lists[slot];
+            final int count = list[0];
+            for (int i = 1; i <= count; i++) {
+                if (list[i] == value) {
+                    list[i] = list[count];
+                    list[0] = count - 1;
+                    values--;
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        int[] removeAll(final int key) {
+            final int slot = slot(keys, key);
+            if (keys[slot] == FREE) {
+                return EMPTY;
+            }
+
+            final int[] list = lists[slot];
+            final int[] result = Arrays.copyOfRange(list, 1, list[0] + 1);
+            values -= list[0];
+            list[0] = 0;
+            return result;
+        }
+
+        int[] get(final int key) {
+            final int slot = slot(keys, key);
+            if (keys[slot] == FREE) {
+                return EMPTY;
+            }
+
+            final int[] list = lists[slot];
+            return Arrays.copyOfRange(list, 1, list[0] + 1);
+        }
+
+        int[] keys() {
+            final int[] result = new int[size];
+            int index = 0;
+            for (final int key : keys) {
+                if (key != FREE) {
+                    result[index++] = key;
+                }
+            }
+            return result;
+        }
+
+        private void grow() {
+            final int[] oldKeys = keys;
+            final int[][] oldLists = lists;
+
+            keys = newKeys(oldKeys.length * 2);
+            lists = new int[keys.length][];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    final int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    lists[slot] = oldLists[i];
+                }
+            }
+        }
+
+        private static int[] newKeys(final int capacity) {
+            final int[] keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+
+        private static int slot(final int[] keys, final int key) {
+            final int mask = keys.length - 1;
+            final int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.ripe.db.whois.common.refgraph;
+
+import net.ripe.db.whois.common.jmx.JmxBase;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+@Component
+@ManagedResource(objectName = JmxBase.OBJECT_NAME_BASE + "ReferenceGraph", description = "Whois in-memory reference graph maintenance")
+public class ReferenceGraphJmx extends JmxBase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceGraphJmx.class);
+
+    private final ReferenceGraphManager referenceGraphManager;
+
+    @Autowired
+    public ReferenceGraphJmx(final ReferenceGraphManager referenceGraphManager) {
+        super(LOGGER);
+        this.referenceGraphManager = referenceGraphManager;
+    }
+
+    @ManagedOperation(description = "Initiate reload of the in-memory reference graph (WARNING: this keeps the 'old' graph in memory until the new graph is built)")
+    public String rebuild() {
+        return invokeOperation("Reload reference graph", "", new Callable<String>() {
+            @Override
+            public String call() {
+                if (!referenceGraphManager.isEnabled()) {
+                    return "Reference graph is disabled";
+                }
+
+                referenceGraphManager.rebuild();
+                return "Reference graph reloaded at serial " + referenceGraphManager.getLastSerial();
+            }
+        });
+    }
+
+    @ManagedOperation(description = "Compare the in-memory reference graph with the reference index tables")
+    public String checkConsistency() {
+        return invokeOperation("Check reference graph consistency", "", new Callable<String>() {
+            @Override
+            public String call() {
+                if (!referenceGraphManager.isEnabled()) {
+                    return "Reference graph is disabled";
+                }
+
+                final Set<AttributeType> inconsistent = referenceGraphManager.checkConsistency();
+                if (inconsistent.isEmpty()) {
+                    return "Reference graph consistent at serial " + referenceGraphManager.getLastSerial();
+                }
+
+                return "Reference graph inconsistent for " + inconsistent;
+            }
+        });
+    }
+
+    @ManagedOperation(description = "Number of references per attribute in the in-memory reference graph")
+    public String getSizes() {
+        return invokeOperation("Reference graph sizes", "", new Callable<String>() {
+            @Override
+            public String call() {
+                return "Serial " + referenceGraphManager.getLastSerial() + ": " + referenceGraphManager.getSizes();
+            }
+        });
+    }
+}
@@ -0,0 +1,310 @@
+package net.ripe.db.whois.common.refgraph;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
+import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategies;
+import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategy;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.ObjectTemplate;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.source.SourceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.PostConstruct;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the references of the main source in memory, so objects referring to a given object are found without joining
+ * the (large) reference index tables. Built at startup from the slave database and kept up to date from the serials,
+ * like the ip trees.
+ *
+ * The graph only answers when it is at the same serial as the database of the caller; otherwise the caller has to
+ * fall back to the index tables.
+ */
+@Component
+public class ReferenceGraphManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceGraphManager.class);
+
+    public static final int GRAPH_UPDATE_IN_SECONDS = 10;
+
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final boolean enabled;
+    private final SourceContext sourceContext;
+    private final Map<AttributeType, IndexStrategy> referenceIndexes;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile ReferenceGraph graph;
+
+    @Autowired
+    public ReferenceGraphManager(@Value("${reference.graph.enabled:false}") final boolean enabled, final SourceContext sourceContext) {
+        this.enabled = enabled;
+        this.sourceContext = sourceContext;
+
+        referenceIndexes = Maps.newEnumMap(AttributeType.class);
+        for (final IndexStrategy indexStrategy : IndexStrategies.getReferenceIndexes()) {
+            referenceIndexes.put(indexStrategy.getAttributeType(), indexStrategy);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean covers(final AttributeType attributeType) {
+        return enabled && referenceIndexes.containsKey(attributeType);
+    }
+
+    public synchronized void rebuild() {
+        LOGGER.info("Building reference graph");
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+
+        final ReferenceGraph newGraph = load(getJdbcTemplate());
+
+        lock.writeLock().lock();
+        try {
+            graph = newGraph;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LOGGER.info("Finished building reference graph at serial {} in {}", newGraph.lastSerial, stopwatch);
+    }
+
+    @Scheduled(fixedDelay = GRAPH_UPDATE_IN_SECONDS * 1000)
+    public synchronized void update() {
+        if (graph == null) {
+            return;
+        }
+
+        final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        final long fromExclusive = graph.lastSerial;
+        final long toInclusive = getLastSerial(jdbcTemplate);
+
+        if (toInclusive == fromExclusive) {
+            return;
+        }
+
+        if (toInclusive < fromExclusive) {
+            // the test database is reloaded every night
+            LOGGER.warn("Database went away; serial in graph: {}; serial in DB: {}", fromExclusive, toInclusive);
+            rebuild();
+            return;
+        }
+
+        final List<Integer> objectIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT object_id FROM serials WHERE serial_id > ? AND serial_id <= ?",
+                Integer.class,
+                fromExclusive,
+                toInclusive);
+
+        final List<Reference> references = Lists.newArrayList();
+        for (final List<Integer> partition : Iterables.partition(objectIds, MAX_IDS_PER_QUERY)) {
+            for (final Map.Entry<AttributeType, IndexStrategy> entry : referenceIndexes.entrySet()) {
+                references.addAll(findReferences(jdbcTemplate, entry.getKey(), entry.getValue(), partition));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (final Integer objectId : objectIds) {
+                graph.removeReferencesFrom(objectId);
+            }
+
+            for (final Reference reference : references) {
+                graph.add(reference.attributeType, reference.objectId, reference.referencedObjectId);
+            }
+
+            graph.lastSerial = toInclusive;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LOGGER.debug("Updated reference graph from serial {} to {} ({} objects)", fromExclusive, toInclusive, objectIds.size());
+    }
+
+    /**
+     * Find the objects referring to the object(s) with the given key in an attribute of the given type.
+     *
+     * @return the referring objects, or null if the graph cannot answer for the given attribute type or database
+     */
+    @CheckForNull
+    public List<RpslObjectInfo> findReferencing(final JdbcTemplate jdbcTemplate, final AttributeType attributeType, final String value) {
+        if (!covers(attributeType) || graph == null || !sourceContext.isMain()) {
+            return null;
+        }
+
+        final Set<Integer> referencedObjectIds = Sets.newHashSet();
+        for (final ObjectType reference : attributeType.getReferences()) {
+            for (final AttributeType keyAttribute : ObjectTemplate.getTemplate(reference).getKeyAttributes()) {
+                for (final RpslObjectInfo referencedObjectInfo : IndexStrategies.get(keyAttribute).findInIndex(jdbcTemplate, value)) {
+                    referencedObjectIds.add(referencedObjectInfo.getObjectId());
+                }
+            }
+        }
+
+        final long lastSerial = getLastSerial(jdbcTemplate);
+        final Set<Integer> objectIds = Sets.newTreeSet();
+
+        lock.readLock().lock();
+        try {
+            if (graph.lastSerial != lastSerial) {
+                return null;
+            }
+
+            for (final Integer referencedObjectId : referencedObjectIds) {
+                for (final int objectId : graph.getReferencing(attributeType, referencedObjectId)) {
+                    objectIds.add(objectId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (objectIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        final List<RpslObjectInfo> result = Lists.newArrayListWithExpectedSize(objectIds.size());
+        for (final List<Integer> partition : Iterables.partition(objectIds, MAX_IDS_PER_QUERY)) {
+            result.addAll(namedParameterJdbcTemplate.query(
+                    "SELECT object_id, object_type, pkey FROM last WHERE object_id IN (:ids) AND sequence_id != 0",
+                    new MapSqlParameterSource("ids", partition),
+                    new RpslObjectInfoResultSetExtractor()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Compare the graph with the reference index tables.
+     *
+     * @return the attribute types for which the graph differs from the index tables, empty if consistent
+     */
+    public synchronized Set<AttributeType> checkConsistency() {
+        if (graph == null) {
+            throw new IllegalStateException("Reference graph is not built");
+        }
+
+        update();
+
+        final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        final ReferenceGraph expected = load(jdbcTemplate);
+        if (expected.lastSerial != graph.lastSerial || getLastSerial(jdbcTemplate) != expected.lastSerial) {
+            throw new IllegalStateException("Database changed during consistency check, try again");
+        }
+
+        final Set<AttributeType> inconsistent = Sets.newTreeSet();
+        for (final AttributeType attributeType : referenceIndexes.keySet()) {
+            if (!graph.equals(expected, attributeType)) {
+                LOGGER.warn("Reference graph inconsistent for {}", attributeType);
+                inconsistent.add(attributeType);
+            }
+        }
+
+        return inconsistent;
+    }
+
+    Map<AttributeType, Long> getSizes() {
+        final Map<AttributeType, Long> sizes = Maps.newEnumMap(AttributeType.class);
+        lock.readLock().lock();
+        try {
+            for (final AttributeType attributeType : referenceIndexes.keySet()) {
+                sizes.put(attributeType, graph == null ? 0 : graph.size(attributeType));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return sizes;
+    }
+
+    long getLastSerial() {
+        return graph == null ? -1 : graph.lastSerial;
+    }
+
+    private ReferenceGraph load(final JdbcTemplate jdbcTemplate) {
+        final ReferenceGraph newGraph = new ReferenceGraph();
+        newGraph.lastSerial = getLastSerial(jdbcTemplate);
+
+        for (final Map.Entry<AttributeType, IndexStrategy> entry : referenceIndexes.entrySet()) {
+            final AttributeType attributeType = entry.getKey();
+            final IndexStrategy indexStrategy = entry.getValue();
+
+            jdbcTemplate.query(
+                    String.format("SELECT object_id, %s FROM %s", indexStrategy.getLookupColumnName(), indexStrategy.getLookupTableName()),
+                    new RowCallbackHandler() {
+                        @Override
+                        public void processRow(final ResultSet rs) throws SQLException {
+                            newGraph.add(attributeType, rs.getInt(1), rs.getInt(2));
+                        }
+                    });
+        }
+
+        return newGraph;
+    }
+
+    private static List<Reference> findReferences(final JdbcTemplate jdbcTemplate, final AttributeType attributeType, final IndexStrategy indexStrategy, final Collection<Integer> objectIds) {
+        final List<Reference> references = Lists.newArrayList();
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(
+                String.format("SELECT object_id, %s FROM %s WHERE object_id IN (:ids)", indexStrategy.getLookupColumnName(), indexStrategy.getLookupTableName()),
+                new MapSqlParameterSource("ids", objectIds),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(final ResultSet rs) throws SQLException {
+                        references.add(new Reference(attributeType, rs.getInt(1), rs.getInt(2)));
+                    }
+                });
+        return references;
+    }
+
+    private JdbcTemplate getJdbcTemplate() {
+        return sourceContext.getSourceConfiguration(sourceContext.getWhoisSlaveSource()).getJdbcTemplate();
+    }
+
+    private static long getLastSerial(final JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT IFNULL(MAX(serial_id), 0) FROM serials", Long.class);
+    }
+
+    private static final class Reference {
+        private final AttributeType attributeType;
+        private final int objectId;
+        private final int referencedObjectId;
+
+        private Reference(final AttributeType attributeType, final int objectId, final int referencedObjectId) {
+            this.attributeType = attributeType;
+            this.objectId = objectId;
+            this.referencedObjectId = referencedObjectId;
+        }
+    }
+}
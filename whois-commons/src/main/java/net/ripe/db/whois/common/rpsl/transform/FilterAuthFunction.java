@@ -68,8 +68,46 @@ public class FilterAuthFunction implements FilterFunction {
             return rpslObject;
         }
 
-        final Map<RpslAttribute, RpslAttribute> replace = Maps.newHashMap();
         final boolean authenticated = isMntnerAuthenticated(rpslObject);
+        final Map<RpslAttribute, RpslAttribute> replace = getReplacements(authAttributes, authenticated);
+
+        if (replace.isEmpty()) {
+            return rpslObject;
+        } else {
+            if (!authenticated) {
+                RpslObjectFilter.addFilteredSourceReplacement(rpslObject, replace);
+            }
+            return new RpslObjectBuilder(rpslObject).replaceAttributes(replace).get();
+        }
+    }
+
+    /**
+     * Filters the auth attributes of rpslObject in builder, which holds the (possibly already filtered) attributes of rpslObject.
+     * Returns true if any attribute was replaced.
+     */
+    public boolean apply(final RpslObject rpslObject, final RpslObjectBuilder builder) {
+        final List<RpslAttribute> authAttributes = rpslObject.findAttributes(AttributeType.AUTH);
+        if (authAttributes.isEmpty()) {
+            return false;
+        }
+
+        final boolean authenticated = isMntnerAuthenticated(rpslObject);
+        final Map<RpslAttribute, RpslAttribute> replace = getReplacements(authAttributes, authenticated);
+
+        if (replace.isEmpty()) {
+            return false;
+        } else {
+            if (!authenticated) {
+                // the source may already have been marked as filtered in builder
+                RpslObjectFilter.setFiltered(builder);
+            }
+            builder.replaceAttributes(replace);
+            return true;
+        }
+    }
+
+    private Map<RpslAttribute, RpslAttribute> getReplacements(final List<RpslAttribute> authAttributes, final boolean authenticated) {
+        final Map<RpslAttribute, RpslAttribute> replace = Maps.newHashMap();
 
         for (final RpslAttribute authAttribute : authAttributes) {
             final Iterator<String> authIterator = SPACE_SPLITTER.split(authAttribute.getCleanValue()).iterator();
@@ -87,14 +125,7 @@ public class FilterAuthFunction implements FilterFunction {
             }
         }
 
-        if (replace.isEmpty()) {
-            return rpslObject;
-        } else {
-            if (!authenticated) {
-                RpslObjectFilter.addFilteredSourceReplacement(rpslObject, replace);
-            }
-            return new RpslObjectBuilder(rpslObject).replaceAttributes(replace).get();
-        }
+        return replace;
     }
 
     private boolean isMntnerAuthenticated(final RpslObject rpslObject) {
@@ -16,6 +16,10 @@ public class FilterChangedFunction implements Function<RpslObject, RpslObject> {
     @Nullable
     @Override
     public RpslObject apply(final RpslObject rpslObject) {
-        return new RpslObjectBuilder(rpslObject).removeAttributeType(AttributeType.CHANGED).get();
+        return apply(new RpslObjectBuilder(rpslObject)).get();
+    }
+
+    public RpslObjectBuilder apply(final RpslObjectBuilder builder) {
+        return builder.removeAttributeType(AttributeType.CHANGED);
     }
 }
@@ -22,7 +22,23 @@ public class FilterEmailFunction implements FilterFunction {
 
     @Override @NotNull
     public RpslObject apply(RpslObject rpslObject) {
-        RpslObjectBuilder builder = new RpslObjectBuilder(rpslObject).removeAttributeTypes(filterAttributes);
-        return rpslObject.size() == builder.size() ? rpslObject : RpslObjectFilter.setFiltered(builder).get();
+        RpslObjectBuilder builder = new RpslObjectBuilder(rpslObject);
+        return apply(builder) ? builder.get() : rpslObject;
+    }
+
+    /** Filters the attributes in builder, and marks the source as filtered. Returns true if any attribute was removed. */
+    public boolean apply(final RpslObjectBuilder builder) {
+        final int size = builder.size();
+        builder.removeAttributeTypes(filterAttributes);
+        if (size == builder.size()) {
+            return false;
+        }
+
+        RpslObjectFilter.setFiltered(builder);
+        return true;
+    }
+
+    public Set<AttributeType> getFilterAttributes() {
+        return filterAttributes;
     }
 }
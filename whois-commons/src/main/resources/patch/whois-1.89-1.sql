@@ -0,0 +1,21 @@
+DROP TABLE IF EXISTS `mail_outbox`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `mail_outbox` (
+  `id` int(10) unsigned NOT NULL AUTO_INCREMENT,
+  `recipient` varchar(256) NOT NULL,
+  `message` longblob NOT NULL,
+  `status` varchar(16) NOT NULL,
+  `attempts` int(10) unsigned NOT NULL DEFAULT '0',
+  `next_attempt` int(10) unsigned NOT NULL DEFAULT '0',
+  `claim_host` varchar(80) DEFAULT NULL,
+  `claim_uuid` varchar(80) DEFAULT NULL,
+  `changed` int(10) unsigned NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`),
+  KEY `mail_outbox_status_idx` (`status`,`next_attempt`),
+  KEY `mail_outbox_claim_idx` (`claim_uuid`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+TRUNCATE version;
+INSERT INTO version VALUES ('whois-1.89-1');
@@ -0,0 +1,11 @@
+--
+-- version lookups (--list-versions, --show-version, --diff-versions) resolve the object ids by (pkey, object_type)
+-- and then read all serials of those objects, both lookups are now served from a single index range scan
+--
+
+ALTER TABLE last DROP KEY `last_pkey`, ADD KEY `last_pkey` (`pkey`, `object_type`);
+
+ALTER TABLE serials DROP KEY `object`, ADD KEY `object` (`object_id`, `sequence_id`, `atlast`, `operation`);
+
+TRUNCATE version;
+INSERT INTO version VALUES ('whois-1.89-2');
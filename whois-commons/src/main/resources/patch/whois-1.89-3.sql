@@ -0,0 +1,8 @@
+--
+-- claiming the next nic-hdl reads the ranges of a space in range_start order, up to the first free index
+--
+
+ALTER TABLE nic_hdl DROP KEY `space`, ADD KEY `space` (`space`, `source`, `range_start`);
+
+TRUNCATE version;
+INSERT INTO version VALUES ('whois-1.89-3');
@@ -420,11 +420,34 @@ CREATE TABLE `last` (
   `object` longblob NOT NULL,
   `pkey` varchar(254) NOT NULL DEFAULT '',
   PRIMARY KEY (`object_id`,`sequence_id`),
-  KEY `last_pkey` (`pkey`),
+  KEY `last_pkey` (`pkey`,`object_type`),
   KEY `object_type_index` (`object_type`)
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `mail_outbox`
+--
+
+DROP TABLE IF EXISTS `mail_outbox`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `mail_outbox` (
+  `id` int(10) unsigned NOT NULL AUTO_INCREMENT,
+  `recipient` varchar(256) NOT NULL,
+  `message` longblob NOT NULL,
+  `status` varchar(16) NOT NULL,
+  `attempts` int(10) unsigned NOT NULL DEFAULT '0',
+  `next_attempt` int(10) unsigned NOT NULL DEFAULT '0',
+  `claim_host` varchar(80) DEFAULT NULL,
+  `claim_uuid` varchar(80) DEFAULT NULL,
+  `changed` int(10) unsigned NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`),
+  KEY `mail_outbox_status_idx` (`status`,`next_attempt`),
+  KEY `mail_outbox_claim_idx` (`claim_uuid`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `mbrs_by_ref`
 --
@@ -621,7 +644,7 @@ CREATE TABLE `nic_hdl` (
   PRIMARY KEY (`range_id`,`range_start`,`range_end`),
   KEY `range_start` (`range_start`),
   KEY `range_end` (`range_end`),
-  KEY `space` (`space`,`source`)
+  KEY `space` (`space`,`source`,`range_start`)
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -895,7 +918,7 @@ CREATE TABLE `serials` (
   `atlast` tinyint(4) unsigned NOT NULL DEFAULT '0',
   `operation` tinyint(4) unsigned NOT NULL DEFAULT '0',
   PRIMARY KEY (`serial_id`),
-  KEY `object` (`object_id`,`sequence_id`)
+  KEY `object` (`object_id`,`sequence_id`,`atlast`,`operation`)
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
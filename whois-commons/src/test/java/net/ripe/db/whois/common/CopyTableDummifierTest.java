@@ -0,0 +1,155 @@
+package net.ripe.db.whois.common;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategies;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.support.AbstractDaoTest;
+import org.junit.Test;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class CopyTableDummifierTest extends AbstractDaoTest {
+    private static final Pattern MD5_PASSWORD = Pattern.compile("MD5-PW \\$1\\$\\S+");
+
+    private static final RpslObject MNTNER = RpslObject.parse("" +
+            "mntner:         TEST-MNT\n" +
+            "descr:          Test maintainer\n" +
+            "admin-c:        TP1-TEST\n" +
+            "upd-to:         upd-to@ripe.net\n" +
+            "mnt-nfy:        mnt-nfy@ripe.net\n" +
+            "auth:           MD5-PW $1$d9fKeTr2$Si7YudNf4rUGmR71n/cqk/ #test\n" +
+            "auth:           PGPKEY-28F6CD6C\n" +
+            "mnt-by:         TEST-MNT\n" +
+            "source:         TEST");
+
+    private static final RpslObject PERSON = RpslObject.parse("" +
+            "person:         Test Person\n" +
+            "address:        Singel 258\n" +
+            "address:        Amsterdam\n" +
+            "phone:          +31 20 535 4444\n" +
+            "e-mail:         person@ripe.net\n" +
+            "notify:         notify@ripe.net\n" +
+            "nic-hdl:        TP1-TEST\n" +
+            "mnt-by:         TEST-MNT\n" +
+            "source:         TEST");
+
+    private static final RpslObject ROLE = RpslObject.parse("" +
+            "role:           Test Role\n" +
+            "address:        Singel 258\n" +
+            "e-mail:         role@ripe.net\n" +
+            "admin-c:        TP1-TEST\n" +
+            "tech-c:         TP1-TEST\n" +
+            "nic-hdl:        TR1-TEST\n" +
+            "mnt-by:         TEST-MNT\n" +
+            "source:         TEST");
+
+    private static final RpslObject ORGANISATION = RpslObject.parse("" +
+            "organisation:   ORG-TO1-TEST\n" +
+            "org-name:       Test Organisation\n" +
+            "org-type:       OTHER\n" +
+            "address:        Singel 258\n" +
+            "e-mail:         org@ripe.net\n" +
+            "ref-nfy:        ref-nfy@ripe.net\n" +
+            "mnt-ref:        TEST-MNT\n" +
+            "mnt-by:         TEST-MNT\n" +
+            "source:         TEST");
+
+    @Test
+    public void copy_tables_same_as_in_place() {
+        addFixture();
+        new DatabaseDummifierJmx().dummifyInPlace(whoisTemplate.getDataSource());
+        final List<String> inPlace = getObjectRows();
+
+        databaseHelper.setupWhoisDatabase(whoisTemplate);
+        addFixture();
+        final List<String> original = getObjectRows();
+        final String timings = new CopyTableDummifier(whoisTemplate.getDataSource()).dummify();
+        final List<String> copyTables = getObjectRows();
+
+        assertThat(copyTables, is(inPlace));
+        assertThat(copyTables, is(not(original)));
+        assertThat(timings, containsString("dummify history: "));
+    }
+
+    @Test
+    public void copy_tables_rebuilds_indexes() {
+        addFixture();
+
+        new CopyTableDummifier(whoisTemplate.getDataSource()).dummify();
+
+        assertThat(findInIndex(AttributeType.E_MAIL, "person@ripe.net"), is(empty()));
+        assertThat(findInIndex(AttributeType.E_MAIL, "***@ripe.net"), containsInAnyOrder("TP1-TEST", "ORG-TO1-TEST"));
+        assertThat(findInIndex(AttributeType.NOTIFY, "***@ripe.net"), contains("TP1-TEST"));
+        assertThat(findInIndex(AttributeType.UPD_TO, "***@ripe.net"), contains("TEST-MNT"));
+        assertThat(findInIndex(AttributeType.MNT_NFY, "***@ripe.net"), contains("TEST-MNT"));
+        assertThat(findInIndex(AttributeType.REF_NFY, "***@ripe.net"), contains("ORG-TO1-TEST"));
+        assertThat(findInIndex(AttributeType.AUTH, "PGPKEY-28F6CD6C"), contains("TEST-MNT"));
+
+        assertThat(findInIndex(AttributeType.PERSON, "Test Person"), is(empty()));
+        assertThat(findInIndex(AttributeType.PERSON, "Name Removed"), contains("TP1-TEST"));
+
+        final List<String> tables = whoisTemplate.queryForList("SHOW TABLES", String.class);
+        assertThat(tables, hasItem("last"));
+        assertThat(tables, hasItem("names"));
+        for (final String table : tables) {
+            assertThat(table, not(containsString("_dummified")));
+            assertThat(table, not(containsString("_original")));
+        }
+    }
+
+    @Test
+    public void copy_tables_keeps_deleted_objects() {
+        addFixture();
+        final int deleted = whoisTemplate.queryForObject("SELECT COUNT(*) FROM last WHERE sequence_id = 0", Integer.class);
+
+        new CopyTableDummifier(whoisTemplate.getDataSource()).dummify();
+
+        assertThat(whoisTemplate.queryForObject("SELECT COUNT(*) FROM last WHERE sequence_id = 0", Integer.class), is(deleted));
+        assertThat(whoisTemplate.queryForList("SELECT pkey FROM last WHERE sequence_id = 0", String.class), hasSize(1));
+    }
+
+    private void addFixture() {
+        databaseHelper.addObjects(MNTNER, PERSON, ROLE, ORGANISATION);
+        databaseHelper.updateObject(PERSON.toString() + "remarks:        updated");
+        databaseHelper.deleteObject(ROLE);
+    }
+
+    private List<String> findInIndex(final AttributeType attributeType, final String value) {
+        final List<String> keys = Lists.newArrayList();
+        for (final RpslObjectInfo rpslObjectInfo : IndexStrategies.get(attributeType).findInIndex(whoisTemplate, value)) {
+            keys.add(rpslObjectInfo.getKey());
+        }
+        return keys;
+    }
+
+    // the dummifier sets the password of each maintainer with a random salt
+    private List<String> getObjectRows() {
+        return whoisTemplate.query("" +
+                "SELECT 'last', object_id, sequence_id, timestamp, pkey, object FROM last " +
+                "UNION ALL " +
+                "SELECT 'history', object_id, sequence_id, timestamp, pkey, object FROM history " +
+                "ORDER BY 1, 2, 3", new RowMapper<String>() {
+            @Override
+            public String mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+                return String.format("%s %d %d %d %s\n%s", rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getString(5),
+                        MD5_PASSWORD.matcher(new String(rs.getBytes(6))).replaceAll("MD5-PW <hash>"));
+            }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package net.ripe.db.whois.common.aspects;
+
+import net.ripe.db.whois.common.jmx.LatencyHistogram;
+import net.ripe.db.whois.common.jmx.StageLatencies;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TimedAspectTest {
+
+    @Test
+    public void invocations_are_recorded() {
+        final long before = StageLatencies.get("test.timed").getSnapshot().getCount();
+
+        new TimedMethods().succeed();
+        new TimedMethods().succeed();
+
+        final LatencyHistogram.Snapshot snapshot = StageLatencies.get("test.timed").getSnapshot();
+        assertThat(snapshot.getCount(), is(before + 2));
+    }
+
+    @Test
+    public void failures_are_recorded() {
+        final LatencyHistogram.Snapshot before = StageLatencies.get("test.timed.failure").getSnapshot();
+
+        try {
+            new TimedMethods().fail();
+            fail("Expected exception");
+        } catch (IllegalStateException ignored) {
+            // expected
+        }
+
+        final LatencyHistogram.Snapshot snapshot = StageLatencies.get("test.timed.failure").getSnapshot();
+        assertThat(snapshot.getCount(), is(before.getCount() + 1));
+        assertThat(snapshot.getFailures(), is(before.getFailures() + 1));
+    }
+
+    @Test
+    public void sampled_invocations_are_weighted() {
+        final long before = StageLatencies.get("test.timed.sampled").getSnapshot().getCount();
+
+        for (int i = 0; i < 1000; i++) {
+            new TimedMethods().sampled();
+        }
+
+        final long count = StageLatencies.get("test.timed.sampled").getSnapshot().getCount() - before;
+        assertThat(count % 4, is(0L));
+        assertThat(count, is(greaterThan(0L)));
+    }
+
+    static class TimedMethods {
+        @Timed("test.timed")
+        String succeed() {
+            return "success";
+        }
+
+        @Timed(value = "test.timed.sampled", sampleRate = 4)
+        void sampled() {
+        }
+
+        @Timed("test.timed.failure")
+        void fail() {
+            throw new IllegalStateException("failure");
+        }
+    }
+}
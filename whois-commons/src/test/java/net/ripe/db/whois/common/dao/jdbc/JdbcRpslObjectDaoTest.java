@@ -1,5 +1,6 @@
 package net.ripe.db.whois.common.dao.jdbc;
 
+import com.google.common.collect.Lists;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.domain.CIString;
@@ -21,6 +22,7 @@ import java.util.List;
 
 import static net.ripe.db.whois.common.domain.CIString.ciSet;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
@@ -348,6 +350,25 @@ public class JdbcRpslObjectDaoTest extends AbstractDaoTest {
         assertThat(result, hasSize(0));
     }
 
+    @Test
+    public void related_to_multiple_objects() {
+        final RpslObject person = databaseHelper.addObject(RpslObject.parse("person:Brian Riddle\nnic-hdl:BRD-RIPE"));
+        final RpslObject organisation = databaseHelper.addObject(RpslObject.parse("organisation:ORG-TEST1-RIPE\norg-name:Test Org"));
+        final RpslObject role = databaseHelper.addObject(RpslObject.parse("role:RIPE NCC Operations\nadmin-c:BRD-RIPE\nnic-hdl:OPS4-RIPE"));
+        final RpslObject inetnum = databaseHelper.addObject(RpslObject.parse("inetnum:10.0.0.0 - 10.255.255.255\norg:ORG-TEST1-RIPE\ntech-c:OPS4-RIPE\nadmin-c:UNKNOWN-RIPE"));
+
+        final List<Collection<RpslObjectInfo>> result = subject.relatedTo(Lists.newArrayList(role, inetnum), Collections.<ObjectType>emptySet());
+
+        assertThat(result, hasSize(2));
+        assertThat(result.get(0), hasSize(1));
+        assertThat(result.get(0).iterator().next().getKey(), is(person.getKey().toString()));
+        final List<String> inetnumRelated = Lists.newArrayList();
+        for (final RpslObjectInfo rpslObjectInfo : result.get(1)) {
+            inetnumRelated.add(rpslObjectInfo.getKey());
+        }
+        assertThat(inetnumRelated, containsInAnyOrder(organisation.getKey().toString(), role.getKey().toString()));
+    }
+
     @Test
     public void getByKey_not_normalized() {
         final RpslObject rpslObject = RpslObject.parse("" +
@@ -13,18 +13,25 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 
 import static net.ripe.db.whois.common.domain.CIString.ciString;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
 public class JdbcRpslObjectUpdateDaoCtdTest extends AbstractDaoTest {
     @Autowired RpslObjectUpdateDao subject;
+    @Autowired PlatformTransactionManager transactionManager;
 
     @Before
     public void setup() {
@@ -45,6 +52,56 @@ public class JdbcRpslObjectUpdateDaoCtdTest extends AbstractDaoTest {
         assertThat(invalidReferences.get(maintainer.findAttribute(AttributeType.ADMIN_C)), contains(ciString("NIC-TEST")));
     }
 
+    @Test
+    public void invalid_references_many_values() {
+        subject.createObject(RpslObject.parse("mntner: OWNER-MNT"));
+        subject.createObject(RpslObject.parse("person: person\nnic-hdl: NIC1-TEST"));
+        subject.createObject(RpslObject.parse("role: role\nnic-hdl: NIC2-TEST"));
+
+        final RpslObject maintainer = RpslObject.parse("" +
+                "mntner: TEST-MNT\n" +
+                "mnt-by: TEST-MNT, OWNER-MNT\n" +
+                "mnt-by: MISSING-MNT\n" +
+                "admin-c: NIC1-TEST\n" +
+                "admin-c: NIC2-TEST\n" +
+                "tech-c: NIC2-TEST\n" +
+                "tech-c: NIC3-TEST\n" +
+                "tech-c: NIC4-TEST");
+
+        final Map<RpslAttribute, Set<CIString>> invalidReferences = subject.getInvalidReferences(maintainer);
+
+        assertThat(invalidReferences.keySet(), hasSize(3));
+        assertThat(invalidReferences.get(maintainer.findAttributes(AttributeType.MNT_BY).get(1)), contains(ciString("MISSING-MNT")));
+        assertThat(invalidReferences.get(maintainer.findAttributes(AttributeType.TECH_C).get(1)), contains(ciString("NIC3-TEST")));
+        assertThat(invalidReferences.get(maintainer.findAttributes(AttributeType.TECH_C).get(2)), contains(ciString("NIC4-TEST")));
+    }
+
+    @Test
+    public void valid_reference_to_key_of_other_type() {
+        subject.createObject(RpslObject.parse("person: person\nnic-hdl: NIC1-TEST"));
+
+        final RpslObject organisation = RpslObject.parse("organisation: ORG-TEST\nabuse-c: NIC1-TEST");
+
+        assertThat(subject.getInvalidReferences(organisation).keySet(), hasSize(0));
+    }
+
+    @Test
+    public void invalid_references_follow_writes_in_transaction() {
+        new TransactionTemplate(transactionManager).execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus status) {
+                final RpslObject maintainer = RpslObject.parse("mntner: TEST-MNT\nmnt-by: TEST-MNT\nadmin-c: NIC1-TEST\nadmin-c: NIC2-TEST");
+                assertThat(subject.getInvalidReferences(maintainer).values(), containsInAnyOrder(contains(ciString("NIC1-TEST")), contains(ciString("NIC2-TEST"))));
+
+                final RpslObjectUpdateInfo person = subject.createObject(RpslObject.parse("person: person\nnic-hdl: NIC1-TEST"));
+                assertThat(subject.getInvalidReferences(maintainer).values(), contains(contains(ciString("NIC2-TEST"))));
+
+                subject.deleteObject(person.getObjectId(), "NIC1-TEST");
+                assertThat(subject.getInvalidReferences(maintainer).values(), containsInAnyOrder(contains(ciString("NIC1-TEST")), contains(ciString("NIC2-TEST"))));
+            }
+        });
+    }
+
     @Test
     public void valid_reference() {
         final RpslObject noInvalidRefPerson = RpslObject.parse("person: other person\nnic-hdl:NIC2-TEST");
@@ -121,6 +178,28 @@ public class JdbcRpslObjectUpdateDaoCtdTest extends AbstractDaoTest {
         assertThat(roleReferences.iterator().next().getKey(), is("ORG-TEST"));
     }
 
+    @Test
+    public void getReferences_batch() {
+        final RpslObject role = RpslObject.parse("role: Role\nnic-hdl: NIC1-TEST\nabuse-mailbox:abuse@ripe.net");
+        final RpslObject person = RpslObject.parse("person: Person\nnic-hdl: NIC2-TEST");
+        final RpslObject mntner = RpslObject.parse("mntner: TEST-MNT");
+        final RpslObject referencedRole = new RpslObject(subject.createObject(role).getObjectId(), role);
+        final RpslObject referencedPerson = new RpslObject(subject.createObject(person).getObjectId(), person);
+        final RpslObject referencedMntner = new RpslObject(subject.createObject(mntner).getObjectId(), mntner);
+
+        subject.updateObject(referencedMntner.getObjectId(), RpslObject.parse("mntner: TEST-MNT\nmnt-by: TEST-MNT\nadmin-c: NIC2-TEST\ntech-c: NIC2-TEST"));
+        subject.createObject(RpslObject.parse("organisation: ORG-TEST\nabuse-c: NIC1-TEST\nmnt-by: TEST-MNT\nmnt-ref: TEST-MNT"));
+        subject.createObject(RpslObject.parse("role: Other Role\nnic-hdl: NIC3-TEST\nadmin-c: NIC1-TEST\nmnt-by: TEST-MNT"));
+
+        final Map<RpslObject, Set<RpslObjectInfo>> references = subject.getReferences(Arrays.asList(referencedRole, referencedPerson, referencedMntner));
+
+        assertThat(references.keySet(), contains(referencedRole, referencedPerson, referencedMntner));
+        for (final Map.Entry<RpslObject, Set<RpslObjectInfo>> entry : references.entrySet()) {
+            assertThat(entry.getValue(), is(subject.getReferences(entry.getKey())));
+        }
+        assertThat(references.get(referencedMntner), hasSize(2));
+    }
+
     @Test
     public void getReferences_none_found() {
         final RpslObject role = RpslObject.parse("role: Role\nnic-hdl: NIC-TEST\nabuse-mailbox:abuse@ripe.net");
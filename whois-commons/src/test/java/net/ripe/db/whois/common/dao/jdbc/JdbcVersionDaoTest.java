@@ -112,6 +112,27 @@ public class JdbcVersionDaoTest extends AbstractDaoTest {
         assertThat(versions.size(), lessThanOrEqualTo(3));
     }
 
+    @Test
+    public void get_versions_for_timestamp_no_object() {
+        assertThat(subject.getVersionsForTimestamp(ObjectType.MNTNER, "MAINT-ANY", System.currentTimeMillis()), is(nullValue()));
+    }
+
+    @Test
+    public void versions_of_recreated_object_in_order() {
+        final VersionLookupResult deleted = subject.findByKey(ObjectType.DOMAIN, "test.sk");
+        final int deletedVersions = deleted.getAllVersions().size();
+
+        databaseHelper.addObject("domain:test.sk\ndescr:description1\nsource:RIPE\n");
+        databaseHelper.updateObject("domain:test.sk\ndescr:description2\nsource:RIPE\n");
+
+        final List<VersionInfo> versions = subject.findByKey(ObjectType.DOMAIN, "test.sk").getAllVersions();
+        assertThat(versions, hasSize(deletedVersions + 2));
+        assertThat(versions.subList(0, deletedVersions), is(deleted.getAllVersions()));
+        assertThat(versions.get(deletedVersions).getSequenceId(), is(1));
+        assertThat(versions.get(deletedVersions + 1).getSequenceId(), is(2));
+        assertThat(versions.get(deletedVersions + 1).isInLast(), is(true));
+    }
+
     public void isMatching(VersionInfo got, VersionInfo expected) {
         isMatching(null, got, expected);
     }
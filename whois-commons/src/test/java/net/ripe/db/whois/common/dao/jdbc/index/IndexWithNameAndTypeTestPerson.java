@@ -31,6 +31,21 @@ public class IndexWithNameAndTypeTestPerson extends IndexTestBase {
         assertThat(rpslObject.getKey(), is("DW-RIPE"));
     }
 
+    @Test
+    public void addToIndex_bulk_into_copy() {
+        whoisTemplate.execute("CREATE TABLE names_copy LIKE names");
+        try {
+            final IndexRows indexRows = new IndexRows();
+            ((BulkIndexStrategy) subject).addToIndexRows(indexRows, new RpslObjectInfo(1, ObjectType.PERSON, "DW-RIPE"), null, "Denis  Walker Denis");
+
+            assertThat(indexRows.getTableNames(), contains("names"));
+            assertThat(indexRows.insert(whoisTemplate, "_copy"), is(2));
+            assertThat(whoisTemplate.queryForList("SELECT name FROM names_copy WHERE object_id = 1 ORDER BY name", String.class), contains("Denis", "Walker"));
+        } finally {
+            whoisTemplate.execute("DROP TABLE names_copy");
+        }
+    }
+
     @Test
     public void findSinglePersonNotRole() {
         databaseHelper.addObject("person:Denis Walker\nnic-hdl:DW-RIPE");
@@ -1,6 +1,7 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectType;
 import org.junit.Before;
@@ -55,6 +56,18 @@ public class IndexWithNameTest extends IndexTestBase {
         assertThat(result.get(0).getKey(), is("ORG-ML199-RIPE"));
     }
 
+    @Test
+    public void lookupQueryOneOrganisationTwoNames() {
+        databaseHelper.addObject("organisation:ORG-ML199-RIPE\norg-name:Moo Less.");
+        databaseHelper.addObject("organisation:ORG-ML200-RIPE\norg-name:Moo More");
+
+        final LookupQuery lookupQuery = subject.getLookupQuery("Moo Less.", ObjectType.ORGANISATION);
+        List<RpslObjectInfo> result = whoisTemplate.query(lookupQuery.getSql(), new RpslObjectInfoResultSetExtractor(), lookupQuery.getArgs().toArray());
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getKey(), is("ORG-ML199-RIPE"));
+    }
+
     @Test
     public void searchNonexistentOrganisationByName() {
         assertThat(subject.findInIndex(new JdbcTemplate(sourceAwareDataSource), "nonexistent"), hasSize(0));
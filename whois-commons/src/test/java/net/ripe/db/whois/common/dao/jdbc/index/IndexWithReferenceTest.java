@@ -2,11 +2,14 @@ package net.ripe.db.whois.common.dao.jdbc.index;
 
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
 import net.ripe.db.whois.common.dao.RpslObjectUpdateInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
@@ -25,6 +28,22 @@ public class IndexWithReferenceTest extends IndexTestBase {
         assertThat(subject.findInIndex(whoisTemplate, objectInfo, ObjectType.ORGANISATION).size(), is(1));
     }
 
+    @Test
+    public void lookupQuery_found() {
+        IndexWithReference subject = new IndexWithReference(AttributeType.MNT_REF, "mnt_ref", "mnt_id");
+        final RpslObject maintainer = RpslObject.parse("mntner:MNT-TEST\nmnt-by:MNT-TEST");
+        final RpslObjectUpdateInfo objectInfo = rpslObjectUpdateDao.createObject(maintainer);
+        whoisTemplate.update(String.format("INSERT INTO mnt_ref(object_id, mnt_id, object_type) VALUES(%s, %s, %s)", 1, objectInfo.getObjectId(), 18));
+
+        assertThat(findByLookupQuery(subject.getLookupQuery("MNT-TEST", ObjectType.ORGANISATION)).size(), is(1));
+        assertThat(findByLookupQuery(subject.getLookupQuery("MNT-TEST", ObjectType.PERSON)).size(), is(0));
+        assertThat(findByLookupQuery(subject.getLookupQuery("MNT-OTHER", ObjectType.ORGANISATION)).size(), is(0));
+    }
+
+    private List<RpslObjectInfo> findByLookupQuery(final LookupQuery lookupQuery) {
+        return whoisTemplate.query(lookupQuery.getSql(), new RpslObjectInfoResultSetExtractor(), lookupQuery.getArgs().toArray());
+    }
+
     @Test
     public void findInIndex_not_found() throws Exception {
         IndexWithReference subject = new IndexWithReference(AttributeType.MNT_REF, "mnt_ref", "mnt_id");
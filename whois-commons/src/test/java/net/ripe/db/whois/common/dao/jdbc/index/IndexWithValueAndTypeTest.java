@@ -1,6 +1,7 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.ObjectTypeIds;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectType;
 import org.junit.Test;
@@ -18,4 +19,16 @@ public class IndexWithValueAndTypeTest extends IndexTestBase {
         final int added = subject.addToIndex(whoisTemplate, maintainer, null, "MNT-TEST");
         assertThat(added, is(1));
     }
+
+    @Test
+    public void addToIndex_bulk() throws Exception {
+        IndexWithValueAndType subject = new IndexWithValueAndType(AttributeType.NOTIFY, "notify", "notify");
+        final IndexRows indexRows = new IndexRows();
+
+        subject.addToIndexRows(indexRows, new RpslObjectInfo(1, ObjectType.MNTNER, "MNT-TEST"), null, "first@ripe.net");
+        subject.addToIndexRows(indexRows, new RpslObjectInfo(2, ObjectType.PERSON, "TP1-TEST"), null, "second@ripe.net");
+
+        assertThat(indexRows.insert(whoisTemplate), is(2));
+        assertThat(whoisTemplate.queryForObject("SELECT object_type FROM notify WHERE object_id = 2 AND notify = 'second@ripe.net'", Integer.class), is(ObjectTypeIds.getId(ObjectType.PERSON)));
+    }
 }
@@ -1,13 +1,18 @@
 package net.ripe.db.whois.common.dao.jdbc.index;
 
+import com.google.common.collect.Lists;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.domain.RpslObjectInfoResultSetExtractor;
+import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Map;
 
+import static net.ripe.db.whois.common.domain.CIString.ciString;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
@@ -35,6 +40,34 @@ public class IndexWithValueTest extends IndexTestBase {
         assertThat(results.size(), is(1));
     }
 
+    @Test
+    public void found_in_index_multiple_values() throws Exception {
+        rpslObjectUpdateDao.createObject(RpslObject.parse("person: test person\nnic-hdl: TEST-NIC"));
+        rpslObjectUpdateDao.createObject(RpslObject.parse("person: other person\nnic-hdl: OTHER-NIC"));
+        subject = new IndexWithValue(AttributeType.NIC_HDL, "person_role", "nic_hdl");
+
+        final Map<CIString, List<RpslObjectInfo>> results = subject.findInIndex(whoisTemplate, Lists.newArrayList(ciString("test-nic"), ciString("OTHER-NIC"), ciString("UNKNOWN-NIC")), ObjectType.PERSON);
+
+        assertThat(results.size(), is(2));
+        assertThat(results.get(ciString("TEST-NIC")).get(0).getKey(), is("TEST-NIC"));
+        assertThat(results.get(ciString("OTHER-NIC")).get(0).getKey(), is("OTHER-NIC"));
+    }
+
+    @Test
+    public void lookup_query() {
+        rpslObjectUpdateDao.createObject(RpslObject.parse("person: test person\nnic-hdl: TEST-NIC"));
+        subject = new IndexWithValue(AttributeType.NIC_HDL, "person_role", "nic_hdl");
+
+        final LookupQuery lookupQuery = LookupQuery.unionAll(Lists.newArrayList(
+                subject.getLookupQuery("TEST-NIC", ObjectType.PERSON),
+                subject.getLookupQuery("TEST-NIC", ObjectType.ROLE)));
+        final List<RpslObjectInfo> results = whoisTemplate.query(lookupQuery.getSql(), new RpslObjectInfoResultSetExtractor(), lookupQuery.getArgs().toArray());
+
+        assertThat(results.size(), is(1));
+        assertThat(results.get(0).getObjectType(), is(ObjectType.PERSON));
+        assertThat(results.get(0).getKey(), is("TEST-NIC"));
+    }
+
     @Test
     public void add_to_index_does_not_exist() {
         RpslObjectInfo role = new RpslObjectInfo(1, ObjectType.ROLE, "NIC-TEST");
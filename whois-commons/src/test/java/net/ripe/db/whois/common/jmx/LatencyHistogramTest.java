@@ -0,0 +1,71 @@
+package net.ripe.db.whois.common.jmx;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void empty() {
+        final LatencyHistogram.Snapshot snapshot = new LatencyHistogram().getSnapshot();
+
+        assertThat(snapshot.getCount(), is(0L));
+        assertThat(snapshot.getMean(TimeUnit.NANOSECONDS), is(0L));
+        assertThat(snapshot.getPercentile(99, TimeUnit.NANOSECONDS), is(0L));
+        assertThat(snapshot.getMax(TimeUnit.NANOSECONDS), is(0L));
+    }
+
+    @Test
+    public void buckets_cover_whole_range() {
+        for (final long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE}) {
+            final int bucket = LatencyHistogram.getBucket(value);
+            assertThat(LatencyHistogram.getBucketLimit(bucket), greaterThanOrEqualTo(value));
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.getBucketLimit(bucket - 1), lessThan(value));
+            }
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        assertThat(snapshot.getCount(), is(1000L));
+        assertThat(snapshot.getMean(TimeUnit.MICROSECONDS), is(500L));
+        assertThat(snapshot.getMax(TimeUnit.MICROSECONDS), is(1000L));
+        assertWithinPrecision(snapshot.getPercentile(50, TimeUnit.MICROSECONDS), 500);
+        assertWithinPrecision(snapshot.getPercentile(99, TimeUnit.MICROSECONDS), 990);
+        assertThat(snapshot.getPercentile(100, TimeUnit.MICROSECONDS), is(1000L));
+    }
+
+    @Test
+    public void failures_and_reset() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.recordFailure(20);
+
+        assertThat(histogram.getSnapshot().getCount(), is(2L));
+        assertThat(histogram.getSnapshot().getFailures(), is(1L));
+
+        histogram.reset();
+
+        assertThat(histogram.getSnapshot().getCount(), is(0L));
+        assertThat(histogram.getSnapshot().getFailures(), is(0L));
+        assertThat(histogram.getSnapshot().getMax(TimeUnit.NANOSECONDS), is(0L));
+    }
+
+    private static void assertWithinPrecision(final long actual, final long expected) {
+        assertThat(actual, greaterThanOrEqualTo(expected));
+        assertThat(actual, lessThan(expected + expected / 8 + 1));
+    }
+}
@@ -0,0 +1,121 @@
+package net.ripe.db.whois.common.refgraph;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.dao.jdbc.index.IndexStrategies;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.support.AbstractDaoTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ReferenceGraphManagerTest extends AbstractDaoTest {
+    private ReferenceGraphManager subject;
+
+    @Before
+    public void setup() {
+        databaseHelper.addObjects(
+                RpslObject.parse("mntner: TEST-MNT\nmnt-by: TEST-MNT\nsource: TEST"),
+                RpslObject.parse("mntner: OTHER-MNT\nmnt-by: TEST-MNT\nmnt-by: OTHER-MNT\nsource: TEST"),
+                RpslObject.parse("person: Test Person\nnic-hdl: TP1-TEST\nmnt-by: OTHER-MNT\nsource: TEST"),
+                RpslObject.parse("role: Test Role\nnic-hdl: TR1-TEST\nadmin-c: TP1-TEST\nmnt-by: TEST-MNT\nsource: TEST"));
+
+        subject = new ReferenceGraphManager(true, sourceContext);
+        subject.init();
+    }
+
+    @Test
+    public void disabled() {
+        final ReferenceGraphManager disabled = new ReferenceGraphManager(false, sourceContext);
+        disabled.init();
+
+        assertThat(disabled.findReferencing(whoisTemplate, AttributeType.MNT_BY, "TEST-MNT"), is(nullValue()));
+    }
+
+    @Test
+    public void attribute_not_covered() {
+        assertThat(subject.findReferencing(whoisTemplate, AttributeType.MNT_ROUTES, "TEST-MNT"), is(nullValue()));
+        assertThat(subject.findReferencing(whoisTemplate, AttributeType.ORIGIN, "AS3333"), is(nullValue()));
+    }
+
+    @Test
+    public void findReferencing() {
+        assertThat(keys(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "TEST-MNT")), containsInAnyOrder("TEST-MNT", "OTHER-MNT", "TR1-TEST"));
+        assertThat(keys(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "OTHER-MNT")), containsInAnyOrder("OTHER-MNT", "TP1-TEST"));
+        assertThat(keys(subject.findReferencing(whoisTemplate, AttributeType.ADMIN_C, "TP1-TEST")), containsInAnyOrder("TR1-TEST"));
+        assertThat(subject.findReferencing(whoisTemplate, AttributeType.ADMIN_C, "TR1-TEST"), is(empty()));
+        assertThat(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "UNKNOWN-MNT"), is(empty()));
+    }
+
+    @Test
+    public void findReferencing_same_as_index() {
+        for (final String value : new String[]{"TEST-MNT", "OTHER-MNT"}) {
+            assertThat(
+                    keys(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, value)),
+                    containsInAnyOrder(keys(IndexStrategies.get(AttributeType.MNT_BY).findInIndex(whoisTemplate, value)).toArray()));
+        }
+    }
+
+    @Test
+    public void findReferencing_behind_database() {
+        databaseHelper.addObject("person: Other Person\nnic-hdl: OP1-TEST\nmnt-by: TEST-MNT\nsource: TEST");
+
+        assertThat(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "TEST-MNT"), is(nullValue()));
+
+        subject.update();
+
+        assertThat(keys(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "TEST-MNT")), containsInAnyOrder("TEST-MNT", "OTHER-MNT", "TR1-TEST", "OP1-TEST"));
+    }
+
+    @Test
+    public void update_modified_and_deleted() {
+        databaseHelper.updateObject("person: Test Person\nnic-hdl: TP1-TEST\nmnt-by: TEST-MNT\nsource: TEST");
+        databaseHelper.deleteObject(RpslObject.parse("role: Test Role\nnic-hdl: TR1-TEST\nadmin-c: TP1-TEST\nmnt-by: TEST-MNT\nsource: TEST"));
+
+        subject.update();
+
+        assertThat(keys(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "TEST-MNT")), containsInAnyOrder("TEST-MNT", "OTHER-MNT", "TP1-TEST"));
+        assertThat(keys(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "OTHER-MNT")), containsInAnyOrder("OTHER-MNT"));
+        assertThat(subject.findReferencing(whoisTemplate, AttributeType.ADMIN_C, "TP1-TEST"), is(empty()));
+        assertThat(subject.checkConsistency(), is(empty()));
+    }
+
+    @Test
+    public void rebuild_when_database_went_away() {
+        whoisTemplate.update("DELETE FROM serials");
+
+        subject.update();
+
+        assertThat(subject.getLastSerial(), is(0L));
+        assertThat(keys(subject.findReferencing(whoisTemplate, AttributeType.MNT_BY, "OTHER-MNT")), containsInAnyOrder("OTHER-MNT", "TP1-TEST"));
+    }
+
+    @Test
+    public void checkConsistency() {
+        assertThat(subject.checkConsistency(), is(empty()));
+        assertThat(subject.getSizes().get(AttributeType.MNT_BY), is(5L));
+    }
+
+    @Test
+    public void checkConsistency_index_changed_without_serial() {
+        whoisTemplate.update("DELETE FROM admin_c");
+
+        assertThat(subject.checkConsistency(), containsInAnyOrder(AttributeType.ADMIN_C));
+    }
+
+    private static List<String> keys(final List<RpslObjectInfo> objectInfos) {
+        final List<String> keys = Lists.newArrayList();
+        for (final RpslObjectInfo objectInfo : objectInfos) {
+            keys.add(objectInfo.getKey());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,94 @@
+package net.ripe.db.whois.common.refgraph;
+
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ReferenceGraphTest {
+    private ReferenceGraph subject;
+
+    @Before
+    public void setUp() {
+        subject = new ReferenceGraph();
+    }
+
+    @Test
+    public void empty() {
+        assertThat(subject.getReferencing(AttributeType.MNT_BY, 1), is(new int[0]));
+        assertThat(subject.getReferenced(AttributeType.MNT_BY, 1), is(new int[0]));
+        assertThat(subject.size(AttributeType.MNT_BY), is(0L));
+    }
+
+    @Test
+    public void add() {
+        subject.add(AttributeType.MNT_BY, 1, 1);
+        subject.add(AttributeType.MNT_BY, 2, 1);
+        subject.add(AttributeType.ADMIN_C, 2, 3);
+
+        assertThat(sorted(subject.getReferencing(AttributeType.MNT_BY, 1)), is(new int[]{1, 2}));
+        assertThat(subject.getReferencing(AttributeType.ADMIN_C, 1), is(new int[0]));
+        assertThat(subject.getReferencing(AttributeType.ADMIN_C, 3), is(new int[]{2}));
+        assertThat(subject.getReferenced(AttributeType.MNT_BY, 2), is(new int[]{1}));
+        assertThat(subject.size(AttributeType.MNT_BY), is(2L));
+    }
+
+    @Test
+    public void removeReferencesFrom() {
+        subject.add(AttributeType.MNT_BY, 1, 1);
+        subject.add(AttributeType.MNT_BY, 2, 1);
+        subject.add(AttributeType.MNT_BY, 3, 1);
+        subject.add(AttributeType.ADMIN_C, 2, 3);
+
+        subject.removeReferencesFrom(2);
+
+        assertThat(sorted(subject.getReferencing(AttributeType.MNT_BY, 1)), is(new int[]{1, 3}));
+        assertThat(subject.getReferencing(AttributeType.ADMIN_C, 3), is(new int[0]));
+        assertThat(subject.getReferenced(AttributeType.MNT_BY, 2), is(new int[0]));
+        assertThat(subject.size(AttributeType.MNT_BY), is(2L));
+        assertThat(subject.size(AttributeType.ADMIN_C), is(0L));
+
+        subject.add(AttributeType.MNT_BY, 2, 1);
+        assertThat(sorted(subject.getReferencing(AttributeType.MNT_BY, 1)), is(new int[]{1, 2, 3}));
+    }
+
+    @Test
+    public void many_references() {
+        for (int objectId = 1; objectId <= 100000; objectId++) {
+            subject.add(AttributeType.MNT_BY, objectId, objectId % 10);
+        }
+
+        assertThat(subject.getReferencing(AttributeType.MNT_BY, 3).length, is(10000));
+        assertThat(subject.getReferenced(AttributeType.MNT_BY, 99999), is(new int[]{9}));
+        assertThat(subject.size(AttributeType.MNT_BY), is(100000L));
+    }
+
+    @Test
+    public void equals() {
+        final ReferenceGraph other = new ReferenceGraph();
+        subject.add(AttributeType.MNT_BY, 1, 2);
+        subject.add(AttributeType.MNT_BY, 1, 3);
+        other.add(AttributeType.MNT_BY, 1, 3);
+        other.add(AttributeType.MNT_BY, 1, 2);
+
+        assertThat(subject.equals(other, AttributeType.MNT_BY), is(true));
+        assertThat(subject.equals(other, AttributeType.ADMIN_C), is(true));
+
+        other.add(AttributeType.ADMIN_C, 1, 2);
+        assertThat(subject.equals(other, AttributeType.ADMIN_C), is(false));
+
+        subject.removeReferencesFrom(1);
+        subject.add(AttributeType.MNT_BY, 1, 2);
+        subject.add(AttributeType.MNT_BY, 1, 4);
+        assertThat(subject.equals(other, AttributeType.MNT_BY), is(false));
+    }
+
+    private static int[] sorted(final int[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
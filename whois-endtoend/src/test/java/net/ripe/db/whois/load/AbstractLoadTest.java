@@ -0,0 +1,119 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.api.AbstractIntegrationTest;
+import net.ripe.db.whois.nrtm.AccessControlList;
+import net.ripe.db.whois.nrtm.NrtmServer;
+import net.ripe.db.whois.query.QueryServer;
+import net.ripe.db.whois.query.acl.IpResourceConfiguration;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs port 43, REST API, syncupdates and NRTM requests concurrently against the servers running in this JVM, each at
+ * a fixed rate, and reports the latencies, errors and resources used to target/load.
+ */
+@ContextConfiguration(locations = {"classpath:applicationContext-endtoend-test.xml"})
+public abstract class AbstractLoadTest extends AbstractIntegrationTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractLoadTest.class);
+    private static final String[] LOCALHOST = {"127.0.0.1/32", "0:0:0:0:0:0:0:1"};
+    private static final int NRTM_SERIALS = 10;
+
+    @Autowired private IpResourceConfiguration ipResourceConfiguration;
+    @Autowired private AccessControlList accessControlList;
+
+    protected LoadDataset dataset;
+
+    @BeforeClass
+    public static void enableNrtm() {
+        System.setProperty("nrtm.enabled", "true");
+    }
+
+    @AfterClass
+    public static void disableNrtm() {
+        System.clearProperty("nrtm.enabled");
+    }
+
+    @Before
+    public void setupAcl() {
+        // no query limits nor connection limits for the load generator, and allow mirroring
+        for (final String prefix : LOCALHOST) {
+            databaseHelper.insertAclIpLimit(prefix, -1, true);
+            databaseHelper.insertAclMirror(prefix);
+        }
+        ipResourceConfiguration.reload();
+        accessControlList.reload();
+    }
+
+    protected void loadDataset(final int size) {
+        dataset = new LoadDataset(size);
+        databaseHelper.addObjects(dataset.getObjects());
+        ipTreeUpdater.rebuild();
+    }
+
+    /**
+     * Run the load test, with the generated dataset's query mix for port 43 unless whoisQueries is given.
+     */
+    protected LoadReport runLoad(final LoadConfig config, final List<String> whoisQueries) throws InterruptedException, IOException {
+        final List<OpenLoopRunner> runners = Lists.newArrayList();
+        for (final LoadProtocol protocol : LoadProtocol.values()) {
+            final double rate = config.getRate(protocol);
+            if (rate > 0) {
+                runners.add(new OpenLoopRunner(protocol, createDriver(protocol, config, whoisQueries), rate, config.getThreads()));
+            }
+        }
+
+        LOGGER.info("Starting load test {} for {} seconds", config.getName(), config.getDurationSeconds());
+
+        final Instant startTime = Instant.now();
+        final ResourceUsage resourceUsage = ResourceUsage.start();
+        final long durationNanos = TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        final long startNanos = System.nanoTime();
+        for (final OpenLoopRunner runner : runners) {
+            runner.start(startNanos, durationNanos);
+        }
+
+        // allow the last requests to complete before counting them as timed out
+        final long deadlineNanos = startNanos + durationNanos + TimeUnit.MILLISECONDS.toNanos(config.getTimeoutMs());
+        final List<LatencyRecorder> latencyRecorders = Lists.newArrayList();
+        for (final OpenLoopRunner runner : runners) {
+            latencyRecorders.add(runner.awaitCompletion(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+        }
+
+        final LoadReport loadReport = new LoadReport(config, startTime, System.nanoTime() - startNanos, resourceUsage.stop());
+        for (int i = 0; i < runners.size(); i++) {
+            loadReport.add(runners.get(i).getProtocol(), runners.get(i).getRequestsPerSecond(), latencyRecorders.get(i));
+        }
+
+        loadReport.log(LOGGER);
+        LOGGER.info("Wrote load test results to {}", loadReport.write(new File("target/load")).getAbsolutePath());
+        return loadReport;
+    }
+
+    private LoadDriver createDriver(final LoadProtocol protocol, final LoadConfig config, final List<String> whoisQueries) {
+        switch (protocol) {
+            case WHOIS:
+                return new WhoisQueryDriver(QueryServer.port, whoisQueries != null ? whoisQueries : dataset.getWhoisQueries(), config.getTimeoutMs());
+            case REST:
+                return new RestQueryDriver(getPort(), dataset.getRestPaths());
+            case SYNCUPDATES:
+                return new SyncUpdateDriver(getPort(), dataset.getPersons(), LoadDataset.PASSWORD);
+            case NRTM:
+                final int lastSerial = databaseHelper.getWhoisTemplate().queryForObject("SELECT IFNULL(MAX(serial_id), 0) FROM serials", Integer.class);
+                return new NrtmDriver(NrtmServer.getPort(), "TEST", Math.max(1, lastSerial - NRTM_SERIALS), config.getTimeoutMs());
+            default:
+                throw new IllegalArgumentException("Unsupported protocol: " + protocol);
+        }
+    }
+}
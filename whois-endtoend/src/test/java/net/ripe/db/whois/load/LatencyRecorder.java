@@ -0,0 +1,112 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Records the latency and outcome of the requests sent for one protocol.
+ *
+ * Once closed, requests still in progress are counted as timed out, and their outcome is ignored.
+ */
+public class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private long[] sorted;
+    private int requests;
+    private final SortedMap<String, Long> failures = Maps.newTreeMap();
+    private long timeouts;
+    private boolean closed;
+
+    public synchronized void success(final long latencyNanos) {
+        record(latencyNanos);
+    }
+
+    public synchronized void failure(final long latencyNanos, final String reason) {
+        if (record(latencyNanos)) {
+            final Long count = failures.get(reason);
+            failures.put(reason, count == null ? 1 : count + 1);
+        }
+    }
+
+    private boolean record(final long latencyNanos) {
+        if (closed) {
+            return false;
+        }
+
+        if (requests == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+
+        latencies[requests++] = latencyNanos;
+        sorted = null;
+        return true;
+    }
+
+    /**
+     * @param scheduled the number of requests sent, the ones not recorded yet are counted as timed out
+     */
+    public synchronized void close(final long scheduled) {
+        if (!closed) {
+            closed = true;
+            timeouts = Math.max(0, scheduled - requests);
+        }
+    }
+
+    /**
+     * @return the number of requests completed, successfully or not
+     */
+    public synchronized int getRequests() {
+        return requests;
+    }
+
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return the number of failures by reason
+     */
+    public synchronized Map<String, Long> getFailures() {
+        return Maps.newTreeMap(failures);
+    }
+
+    /**
+     * @return the number of requests that failed or timed out
+     */
+    public synchronized long getErrors() {
+        long errors = timeouts;
+        for (final long count : failures.values()) {
+            errors += count;
+        }
+        return errors;
+    }
+
+    /**
+     * @param percentile between 0 (exclusive) and 100 (inclusive)
+     * @return the latency of the completed requests at the percentile (nearest rank), or 0 without requests
+     */
+    public synchronized long getPercentileNanos(final double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+
+        if (requests == 0) {
+            return 0;
+        }
+
+        if (sorted == null) {
+            sorted = Arrays.copyOf(latencies, requests);
+            Arrays.sort(sorted);
+        }
+
+        // allow for rounding errors, e.g. 99.9 / 100 * 2000 is slightly above 1998
+        final int rank = (int) Math.ceil(percentile / 100 * requests - 1e-9);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public synchronized long getMaxNanos() {
+        return requests == 0 ? 0 : getPercentileNanos(100);
+    }
+}
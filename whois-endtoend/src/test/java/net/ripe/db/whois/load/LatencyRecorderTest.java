@@ -0,0 +1,65 @@
+package net.ripe.db.whois.load;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LatencyRecorderTest {
+    private final LatencyRecorder subject = new LatencyRecorder();
+
+    @Test
+    public void no_requests() {
+        assertThat(subject.getRequests(), is(0));
+        assertThat(subject.getErrors(), is(0L));
+        assertThat(subject.getPercentileNanos(50), is(0L));
+        assertThat(subject.getMaxNanos(), is(0L));
+    }
+
+    @Test
+    public void percentiles() {
+        for (int latency = 2000; latency > 0; latency--) {
+            subject.success(latency);
+        }
+
+        assertThat(subject.getRequests(), is(2000));
+        assertThat(subject.getPercentileNanos(50), is(1000L));
+        assertThat(subject.getPercentileNanos(99), is(1980L));
+        assertThat(subject.getPercentileNanos(99.9), is(1998L));
+        assertThat(subject.getPercentileNanos(0.01), is(1L));
+        assertThat(subject.getMaxNanos(), is(2000L));
+    }
+
+    @Test
+    public void failures_by_reason() {
+        subject.success(1);
+        subject.failure(2, "%ERROR:201");
+        subject.failure(3, "HTTP 500");
+        subject.failure(4, "%ERROR:201");
+
+        assertThat(subject.getRequests(), is(4));
+        assertThat(subject.getErrors(), is(3L));
+        assertThat(subject.getFailures(), hasEntry("%ERROR:201", 2L));
+        assertThat(subject.getFailures(), hasEntry("HTTP 500", 1L));
+        assertThat(subject.getMaxNanos(), is(4L));
+    }
+
+    @Test
+    public void close_counts_outstanding_requests_as_timed_out() {
+        subject.success(1);
+        subject.failure(2, "HTTP 500");
+        subject.close(5);
+        subject.success(3);
+
+        assertThat(subject.getRequests(), is(2));
+        assertThat(subject.getTimeouts(), is(3L));
+        assertThat(subject.getErrors(), is(4L));
+        assertThat(subject.getMaxNanos(), is(2L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalid_percentile() {
+        subject.getPercentileNanos(0);
+    }
+}
@@ -0,0 +1,91 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * The settings of a load test. Every setting can be overridden by a system property, e.g. -Dload.duration.seconds=60
+ * or -Dload.rate.rest=100, to run the same test with a different load.
+ */
+public class LoadConfig {
+    private final String name;
+    private int durationSeconds = 10;
+    private int threads = 16;
+    private int datasetSize = 100;
+    private int timeoutMs = 10000;
+    private final Map<LoadProtocol, Double> rates = Maps.newEnumMap(LoadProtocol.class);
+
+    public LoadConfig(final String name) {
+        this.name = name;
+    }
+
+    public LoadConfig durationSeconds(final int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+        return this;
+    }
+
+    public LoadConfig threads(final int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public LoadConfig datasetSize(final int datasetSize) {
+        this.datasetSize = datasetSize;
+        return this;
+    }
+
+    public LoadConfig timeoutMs(final int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        return this;
+    }
+
+    /**
+     * @param requestsPerSecond the rate for the protocol, 0 to leave it out
+     */
+    public LoadConfig rate(final LoadProtocol protocol, final double requestsPerSecond) {
+        rates.put(protocol, requestsPerSecond);
+        return this;
+    }
+
+    public LoadConfig withSystemProperties() {
+        durationSeconds = Integer.getInteger("load.duration.seconds", durationSeconds);
+        threads = Integer.getInteger("load.threads", threads);
+        datasetSize = Integer.getInteger("load.dataset.size", datasetSize);
+        timeoutMs = Integer.getInteger("load.timeout.ms", timeoutMs);
+
+        for (final LoadProtocol protocol : LoadProtocol.values()) {
+            final String rate = System.getProperty("load.rate." + protocol.name().toLowerCase());
+            if (rate != null) {
+                rates.put(protocol, Double.parseDouble(rate));
+            }
+        }
+
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getDatasetSize() {
+        return datasetSize;
+    }
+
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public double getRate(final LoadProtocol protocol) {
+        final Double rate = rates.get(protocol);
+        return rate == null ? 0 : rate;
+    }
+}
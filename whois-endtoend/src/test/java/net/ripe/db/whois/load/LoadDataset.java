@@ -0,0 +1,114 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A generated dataset of persons, maintainers and assignments, with a mix of queries on it.
+ *
+ * Every maintainer has password {@link #PASSWORD}, and maintains the person and assignment with the same number.
+ */
+public class LoadDataset {
+    public static final String PASSWORD = "123";
+    private static final String AUTH = "MD5-PW $1$EmukTVYX$Z6fWZT8EAzHoOJTQI6jFJ1  # " + PASSWORD;
+    private static final long SEED = 43;
+
+    private final int size;
+    private final List<RpslObject> persons = Lists.newArrayList();
+    private final List<RpslObject> mntners = Lists.newArrayList();
+    private final List<RpslObject> inetnums = Lists.newArrayList();
+
+    public LoadDataset(final int size) {
+        if (size < 1 || size > 65536) {
+            throw new IllegalArgumentException("Invalid dataset size: " + size);
+        }
+
+        this.size = size;
+
+        inetnums.add(RpslObject.parse("" +
+                "inetnum:   10.0.0.0 - 10.255.255.255\n" +
+                "netname:   LOAD-ALLOCATION\n" +
+                "admin-c:   LP1-TEST\n" +
+                "tech-c:    LP1-TEST\n" +
+                "status:    ALLOCATED UNSPECIFIED\n" +
+                "mnt-by:    LOAD1-MNT\n" +
+                "source:    TEST"));
+
+        for (int i = 1; i <= size; i++) {
+            persons.add(RpslObject.parse("" +
+                    "person:    Load Person " + i + "\n" +
+                    "address:   Singel " + i + "\n" +
+                    "phone:     +31 20 " + (1000000 + i) + "\n" +
+                    "nic-hdl:   LP" + i + "-TEST\n" +
+                    "mnt-by:    LOAD" + i + "-MNT\n" +
+                    "source:    TEST"));
+            mntners.add(RpslObject.parse("" +
+                    "mntner:    LOAD" + i + "-MNT\n" +
+                    "descr:     Load test maintainer " + i + "\n" +
+                    "admin-c:   LP" + i + "-TEST\n" +
+                    "upd-to:    load" + i + "@ripe.net\n" +
+                    "auth:      " + AUTH + "\n" +
+                    "mnt-by:    LOAD" + i + "-MNT\n" +
+                    "source:    TEST"));
+            inetnums.add(RpslObject.parse("" +
+                    "inetnum:   " + getPrefix(i) + ".0 - " + getPrefix(i) + ".255\n" +
+                    "netname:   LOAD-NET-" + i + "\n" +
+                    "admin-c:   LP" + i + "-TEST\n" +
+                    "tech-c:    LP" + i + "-TEST\n" +
+                    "status:    ASSIGNED PA\n" +
+                    "mnt-by:    LOAD" + i + "-MNT\n" +
+                    "source:    TEST"));
+        }
+    }
+
+    private static String getPrefix(final int i) {
+        return String.format("10.%d.%d", (i - 1) / 256, (i - 1) % 256);
+    }
+
+    public List<RpslObject> getObjects() {
+        final List<RpslObject> objects = Lists.newArrayList(persons);
+        objects.addAll(mntners);
+        objects.addAll(inetnums);
+        return objects;
+    }
+
+    public List<RpslObject> getPersons() {
+        return Collections.unmodifiableList(persons);
+    }
+
+    /**
+     * @return lookups of the objects by primary key and address, and inverse lookups by maintainer, in a fixed random order
+     */
+    public List<String> getWhoisQueries() {
+        final List<String> queries = Lists.newArrayList();
+        for (int i = 1; i <= size; i++) {
+            queries.add("-rBG LP" + i + "-TEST");
+            queries.add("-B LOAD" + i + "-MNT");
+            queries.add("-rBG " + getPrefix(i) + "." + i % 256);
+            queries.add("-r -i mnt-by LOAD" + i + "-MNT");
+        }
+
+        Collections.shuffle(queries, new Random(SEED));
+        return queries;
+    }
+
+    /**
+     * @return REST API paths for the same kinds of lookups as the whois queries, in a fixed random order
+     */
+    public List<String> getRestPaths() {
+        final List<String> paths = Lists.newArrayList();
+        for (int i = 1; i <= size; i++) {
+            paths.add("whois/test/person/LP" + i + "-TEST");
+            paths.add("whois/test/mntner/LOAD" + i + "-MNT?unfiltered");
+            paths.add("whois/search?query-string=" + getPrefix(i) + "." + i % 256 + "&flags=r");
+            paths.add("whois/search?query-string=LOAD" + i + "-MNT&inverse-attribute=mnt-by&flags=r");
+        }
+
+        Collections.shuffle(paths, new Random(SEED));
+        return paths;
+    }
+}
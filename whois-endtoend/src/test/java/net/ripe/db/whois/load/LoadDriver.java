@@ -0,0 +1,22 @@
+package net.ripe.db.whois.load;
+
+/**
+ * Sends a single request of a load test, and fails if the response is not the expected one.
+ */
+public interface LoadDriver {
+
+    /**
+     * @param sequence the number of the request, counting from 0 for every protocol
+     */
+    void execute(long sequence) throws Exception;
+
+    /**
+     * The server answered, but not as expected. The message identifies the kind of response (e.g. an error code), as
+     * failures are counted by message.
+     */
+    class UnexpectedResponseException extends Exception {
+        public UnexpectedResponseException(final String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package net.ripe.db.whois.load;
+
+public enum LoadProtocol {
+    WHOIS,
+    REST,
+    SYNCUPDATES,
+    NRTM
+}
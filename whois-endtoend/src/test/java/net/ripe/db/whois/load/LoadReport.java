@@ -0,0 +1,115 @@
+package net.ripe.db.whois.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The results of a load test: the latency percentiles, errors and achieved rate per protocol, and the resources used.
+ */
+public class LoadReport {
+    private static final Map<String, Double> PERCENTILES = ImmutableMap.of("p50", 50d, "p90", 90d, "p99", 99d, "p99.9", 99.9);
+
+    private final LoadConfig config;
+    private final Instant startTime;
+    private final long elapsedNanos;
+    private final Map<LoadProtocol, Double> rates = Maps.newEnumMap(LoadProtocol.class);
+    private final Map<LoadProtocol, LatencyRecorder> latencies = Maps.newEnumMap(LoadProtocol.class);
+    private final Map<String, Object> resourceUsage;
+
+    public LoadReport(final LoadConfig config, final Instant startTime, final long elapsedNanos, final Map<String, Object> resourceUsage) {
+        this.config = config;
+        this.startTime = startTime;
+        this.elapsedNanos = elapsedNanos;
+        this.resourceUsage = resourceUsage;
+    }
+
+    public void add(final LoadProtocol protocol, final double requestsPerSecond, final LatencyRecorder latencyRecorder) {
+        rates.put(protocol, requestsPerSecond);
+        latencies.put(protocol, latencyRecorder);
+    }
+
+    public LatencyRecorder getLatencies(final LoadProtocol protocol) {
+        return latencies.get(protocol);
+    }
+
+    public Map<String, Object> toMap() {
+        final Map<String, Object> protocols = Maps.newLinkedHashMap();
+        for (final Map.Entry<LoadProtocol, LatencyRecorder> entry : latencies.entrySet()) {
+            protocols.put(entry.getKey().name(), toMap(rates.get(entry.getKey()), entry.getValue()));
+        }
+
+        final Map<String, Object> report = Maps.newLinkedHashMap();
+        report.put("name", config.getName());
+        report.put("startTime", startTime.toString());
+        report.put("durationSeconds", config.getDurationSeconds());
+        report.put("elapsedSeconds", elapsedNanos / 1e9);
+        report.put("datasetSize", config.getDatasetSize());
+        report.put("threads", config.getThreads());
+        report.put("protocols", protocols);
+        report.put("resources", resourceUsage);
+        return report;
+    }
+
+    private Map<String, Object> toMap(final double requestsPerSecond, final LatencyRecorder latencyRecorder) {
+        final Map<String, Object> latencyMillis = Maps.newLinkedHashMap();
+        for (final Map.Entry<String, Double> percentile : PERCENTILES.entrySet()) {
+            latencyMillis.put(percentile.getKey(), toMillis(latencyRecorder.getPercentileNanos(percentile.getValue())));
+        }
+        latencyMillis.put("max", toMillis(latencyRecorder.getMaxNanos()));
+
+        final Map<String, Object> result = Maps.newLinkedHashMap();
+        result.put("targetRate", requestsPerSecond);
+        result.put("achievedRate", latencyRecorder.getRequests() / (elapsedNanos / 1e9));
+        result.put("requests", latencyRecorder.getRequests());
+        result.put("errors", latencyRecorder.getErrors());
+        result.put("timeouts", latencyRecorder.getTimeouts());
+        result.put("failures", latencyRecorder.getFailures());
+        result.put("latencyMillis", latencyMillis);
+        return result;
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Write the report as JSON to a file named after the test in the given directory.
+     */
+    public File write(final File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+
+        final File file = new File(directory, config.getName() + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, toMap());
+        return file;
+    }
+
+    public void log(final Logger logger) {
+        for (final Map.Entry<LoadProtocol, LatencyRecorder> entry : latencies.entrySet()) {
+            final LatencyRecorder latencyRecorder = entry.getValue();
+            logger.info(String.format("%s %-11s %6d requests at %.1f/s, p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms, %d errors %s",
+                    config.getName(),
+                    entry.getKey(),
+                    latencyRecorder.getRequests(),
+                    rates.get(entry.getKey()),
+                    toMillis(latencyRecorder.getPercentileNanos(50)),
+                    toMillis(latencyRecorder.getPercentileNanos(99)),
+                    toMillis(latencyRecorder.getPercentileNanos(99.9)),
+                    toMillis(latencyRecorder.getMaxNanos()),
+                    latencyRecorder.getErrors(),
+                    latencyRecorder.getFailures()));
+        }
+
+        logger.info("{} resources {}", config.getName(), resourceUsage);
+    }
+}
@@ -0,0 +1,33 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import net.ripe.db.whois.common.ManualTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+
+/**
+ * Replays a query log on port 43, alongside the REST API, syncupdates and NRTM load on a generated dataset.
+ *
+ * Set the query log with -Dload.querylog, and the load with the load.* system properties (see {@link LoadConfig}).
+ */
+@Category(ManualTest.class)
+public class LoadTestByQueryLog extends AbstractLoadTest {
+
+    @Test
+    public void replay() throws Exception {
+        final LoadConfig config = new LoadConfig("querylog")
+                .durationSeconds(60)
+                .datasetSize(1000)
+                .rate(LoadProtocol.WHOIS, 200)
+                .rate(LoadProtocol.REST, 50)
+                .rate(LoadProtocol.SYNCUPDATES, 5)
+                .rate(LoadProtocol.NRTM, 1)
+                .withSystemProperties();
+
+        loadDataset(config.getDatasetSize());
+        runLoad(config, WhoisQueryDriver.readQueryLog(Files.readLines(new File(System.getProperty("load.querylog", "/export/opt/qrylog")), Charsets.UTF_8)));
+    }
+}
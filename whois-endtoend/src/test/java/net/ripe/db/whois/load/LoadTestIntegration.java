@@ -0,0 +1,87 @@
+package net.ripe.db.whois.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import net.ripe.db.whois.common.IntegrationTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+@Category(IntegrationTest.class)
+public class LoadTestIntegration extends AbstractLoadTest {
+
+    @Before
+    public void setup() {
+        loadDataset(50);
+    }
+
+    @Test
+    public void generated_dataset() throws Exception {
+        final LoadConfig config = new LoadConfig("generated_dataset")
+                .durationSeconds(3)
+                .threads(4)
+                .datasetSize(50)
+                .rate(LoadProtocol.WHOIS, 20)
+                .rate(LoadProtocol.REST, 10)
+                .rate(LoadProtocol.SYNCUPDATES, 2)
+                .rate(LoadProtocol.NRTM, 2);
+
+        final LoadReport loadReport = runLoad(config, null);
+
+        // how many requests complete depends on the machine, but each protocol completes some, and all successfully
+        for (final LoadProtocol protocol : LoadProtocol.values()) {
+            final LatencyRecorder latencies = loadReport.getLatencies(protocol);
+            assertThat(protocol.toString(), latencies.getRequests(), greaterThan(0));
+            assertThat(protocol + " " + latencies.getFailures(), latencies.getErrors(), is(0L));
+        }
+
+        final JsonNode report = new ObjectMapper().readTree(new File("target/load/generated_dataset.json"));
+        assertThat(report.get("name").asText(), is("generated_dataset"));
+        assertThat(report.get("durationSeconds").asInt(), is(3));
+        assertThat(report.get("datasetSize").asInt(), is(50));
+        assertThat(report.get("resources").has("threadsPeak"), is(true));
+
+        for (final LoadProtocol protocol : LoadProtocol.values()) {
+            final JsonNode protocolReport = report.get("protocols").get(protocol.name());
+            assertThat(protocol.name(), protocolReport, notNullValue());
+            assertThat(protocolReport.get("targetRate").asDouble(), is(config.getRate(protocol)));
+            for (final String field : new String[]{"achievedRate", "requests", "errors", "timeouts", "failures"}) {
+                assertThat(protocol + " " + field, protocolReport.has(field), is(true));
+            }
+            for (final String percentile : new String[]{"p50", "p90", "p99", "p99.9", "max"}) {
+                assertThat(protocol + " " + percentile, protocolReport.get("latencyMillis").has(percentile), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void query_log_replay() throws Exception {
+        final List<String> queries = WhoisQueryDriver.readQueryLog(Resources.readLines(Resources.getResource("replay.queries"), Charsets.UTF_8));
+        assertThat(queries.size(), greaterThan(50));
+
+        final LoadReport loadReport = runLoad(new LoadConfig("query_log_replay")
+                .durationSeconds(2)
+                .threads(4)
+                .rate(LoadProtocol.WHOIS, 25), queries);
+
+        // every query is answered, though not every logged query is valid against this server
+        final LatencyRecorder latencies = loadReport.getLatencies(LoadProtocol.WHOIS);
+        assertThat(latencies.getTimeouts(), is(0L));
+        assertThat(latencies.getRequests(), greaterThan(0));
+        for (final Map.Entry<String, Long> failure : latencies.getFailures().entrySet()) {
+            assertThat(failure.getKey(), startsWith("%ERROR:"));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.ripe.db.whois.load;
+
+import net.ripe.db.whois.common.support.TelnetWhoisClient;
+
+import java.util.regex.Matcher;
+
+/**
+ * Requests the serials from a fixed start up to the last one from the NRTM server, expecting no errors.
+ *
+ * As updates are sent concurrently, the range (and the response) grows during the test.
+ */
+public class NrtmDriver implements LoadDriver {
+    private final int port;
+    private final String source;
+    private final int fromSerial;
+    private final int timeoutMs;
+
+    public NrtmDriver(final int port, final String source, final int fromSerial, final int timeoutMs) {
+        this.port = port;
+        this.source = source;
+        this.fromSerial = fromSerial;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void execute(final long sequence) throws UnexpectedResponseException {
+        final String response = TelnetWhoisClient.queryLocalhost(port, String.format("-g %s:3:%d-LAST", source, fromSerial), timeoutMs);
+
+        if (response == null) {
+            throw new UnexpectedResponseException("empty response");
+        }
+
+        final Matcher matcher = WhoisQueryDriver.ERROR_PATTERN.matcher(response);
+        if (matcher.find()) {
+            throw new UnexpectedResponseException("%ERROR:" + matcher.group(1));
+        }
+
+        if (!response.contains("%START")) {
+            throw new UnexpectedResponseException("no start");
+        }
+    }
+}
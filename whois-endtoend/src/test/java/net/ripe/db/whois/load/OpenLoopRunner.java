@@ -0,0 +1,120 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends requests for one protocol at a fixed rate, regardless of how fast the server answers (an open loop).
+ *
+ * Every request has an intended start time, and its latency is measured from that time rather than from the time it
+ * was actually sent. Requests queued behind slow ones are thus not left out of the latencies (coordinated omission).
+ */
+public class OpenLoopRunner {
+    private final LoadProtocol protocol;
+    private final LoadDriver driver;
+    private final double requestsPerSecond;
+    private final ExecutorService workers;
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+    private final AtomicLong scheduled = new AtomicLong();
+
+    private Thread dispatcher;
+
+    public OpenLoopRunner(final LoadProtocol protocol, final LoadDriver driver, final double requestsPerSecond, final int threads) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid rate: " + requestsPerSecond);
+        }
+
+        this.protocol = protocol;
+        this.driver = driver;
+        this.requestsPerSecond = requestsPerSecond;
+        this.workers = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("load-" + protocol.name().toLowerCase() + "-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    public LoadProtocol getProtocol() {
+        return protocol;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Start sending requests from startNanos (in System.nanoTime()) for the given duration.
+     */
+    public void start(final long startNanos, final long durationNanos) {
+        dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch(startNanos, durationNanos);
+            }
+        }, "load-" + protocol.name().toLowerCase() + "-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    private void dispatch(final long startNanos, final long durationNanos) {
+        final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        final long requests = (long) (durationNanos / intervalNanos);
+
+        try {
+            for (long sequence = 0; sequence < requests && !Thread.currentThread().isInterrupted(); sequence++) {
+                final long intendedNanos = startNanos + (long) (sequence * intervalNanos);
+                final long delayNanos = intendedNanos - System.nanoTime();
+                if (delayNanos > 0) {
+                    Uninterruptibles.sleepUninterruptibly(delayNanos, TimeUnit.NANOSECONDS);
+                }
+
+                final long requestSequence = sequence;
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        execute(requestSequence, intendedNanos);
+                    }
+                });
+                scheduled.incrementAndGet();
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private void execute(final long sequence, final long intendedNanos) {
+        try {
+            driver.execute(sequence);
+            latencyRecorder.success(System.nanoTime() - intendedNanos);
+        } catch (LoadDriver.UnexpectedResponseException e) {
+            latencyRecorder.failure(System.nanoTime() - intendedNanos, e.getMessage());
+        } catch (Exception e) {
+            latencyRecorder.failure(System.nanoTime() - intendedNanos, Throwables.getRootCause(e).getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Wait for the requests to be sent and completed. Requests not completed within the timeout count as timed out.
+     */
+    public LatencyRecorder awaitCompletion(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+
+        dispatcher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+        if (dispatcher.isAlive()) {
+            dispatcher.interrupt();
+            dispatcher.join();
+        }
+
+        if (!workers.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            workers.shutdownNow();
+        }
+
+        latencyRecorder.close(scheduled.get());
+        return latencyRecorder;
+    }
+}
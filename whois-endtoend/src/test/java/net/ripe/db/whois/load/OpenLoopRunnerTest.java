@@ -0,0 +1,69 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class OpenLoopRunnerTest {
+
+    @Test
+    public void sends_requests_at_rate() throws Exception {
+        final OpenLoopRunner subject = new OpenLoopRunner(LoadProtocol.WHOIS, new LoadDriver() {
+            @Override
+            public void execute(final long sequence) throws Exception {
+                if (sequence % 10 == 0) {
+                    throw new UnexpectedResponseException("%ERROR:201");
+                }
+            }
+        }, 100, 2);
+
+        subject.start(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(500));
+        final LatencyRecorder latencies = subject.awaitCompletion(5, TimeUnit.SECONDS);
+
+        assertThat(latencies.getRequests(), is(50));
+        assertThat(latencies.getTimeouts(), is(0L));
+        assertThat(latencies.getFailures(), hasEntry("%ERROR:201", 5L));
+    }
+
+    @Test
+    public void latency_includes_waiting_behind_slow_requests() throws Exception {
+        final OpenLoopRunner subject = new OpenLoopRunner(LoadProtocol.REST, new LoadDriver() {
+            @Override
+            public void execute(final long sequence) {
+                Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+            }
+        }, 100, 1);
+
+        // 10 requests are sent in 100 ms, but a single thread needs 500 ms to complete them
+        subject.start(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(100));
+        final LatencyRecorder latencies = subject.awaitCompletion(5, TimeUnit.SECONDS);
+
+        assertThat(latencies.getRequests(), is(10));
+        assertThat(latencies.getMaxNanos(), greaterThan(TimeUnit.MILLISECONDS.toNanos(400)));
+        assertThat(latencies.getPercentileNanos(10), lessThan(TimeUnit.MILLISECONDS.toNanos(400)));
+    }
+
+    @Test
+    public void requests_not_completed_in_time_are_timed_out() throws Exception {
+        final OpenLoopRunner subject = new OpenLoopRunner(LoadProtocol.NRTM, new LoadDriver() {
+            @Override
+            public void execute(final long sequence) {
+                Uninterruptibles.sleepUninterruptibly(sequence == 0 ? 50 : 5000, TimeUnit.MILLISECONDS);
+            }
+        }, 10, 2);
+
+        subject.start(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(300));
+        final LatencyRecorder latencies = subject.awaitCompletion(1, TimeUnit.SECONDS);
+
+        assertThat(latencies.getRequests(), is(1));
+        assertThat(latencies.getTimeouts(), is(2L));
+        assertThat(latencies.getErrors(), is(2L));
+    }
+}
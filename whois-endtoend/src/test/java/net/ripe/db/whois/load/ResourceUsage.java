@@ -0,0 +1,91 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.collect.Maps;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
+
+/**
+ * The resources used by this JVM during a load test.
+ *
+ * As the server runs in the same JVM as the load generator, the usage includes the latter.
+ */
+public class ResourceUsage {
+    private final long startNanos;
+    private final long startCpuNanos;
+    private final long startGcCount;
+    private final long startGcMillis;
+
+    private ResourceUsage() {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        for (final MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            memoryPool.resetPeakUsage();
+        }
+
+        this.startNanos = System.nanoTime();
+        this.startCpuNanos = getProcessCpuNanos();
+        this.startGcCount = getGcCount();
+        this.startGcMillis = getGcMillis();
+    }
+
+    public static ResourceUsage start() {
+        return new ResourceUsage();
+    }
+
+    /**
+     * @return the resources used since the start, by name (CPU time is -1 if the JVM does not provide it)
+     */
+    public Map<String, Object> stop() {
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final long cpuNanos = startCpuNanos < 0 ? -1 : getProcessCpuNanos() - startCpuNanos;
+        final int processors = Runtime.getRuntime().availableProcessors();
+
+        long heapPeakBytes = 0;
+        for (final MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                heapPeakBytes += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+
+        final Map<String, Object> usage = Maps.newLinkedHashMap();
+        usage.put("processors", processors);
+        usage.put("cpuSeconds", cpuNanos < 0 ? -1 : cpuNanos / 1e9);
+        usage.put("cpuUtilisation", cpuNanos < 0 ? -1 : (double) cpuNanos / elapsedNanos / processors);
+        usage.put("gcCount", getGcCount() - startGcCount);
+        usage.put("gcSeconds", (getGcMillis() - startGcMillis) / 1e3);
+        usage.put("heapUsedBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        usage.put("heapPeakBytes", heapPeakBytes);
+        usage.put("heapMaxBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax());
+        usage.put("threads", ManagementFactory.getThreadMXBean().getThreadCount());
+        usage.put("threadsPeak", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        return usage;
+    }
+
+    private static long getProcessCpuNanos() {
+        final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, garbageCollector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long getGcMillis() {
+        long millis = 0;
+        for (final GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, garbageCollector.getCollectionTime());
+        }
+        return millis;
+    }
+}
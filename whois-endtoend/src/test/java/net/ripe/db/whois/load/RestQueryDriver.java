@@ -0,0 +1,42 @@
+package net.ripe.db.whois.load;
+
+import net.ripe.db.whois.api.RestTest;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * Sends GET requests for the given paths to the REST API in turn, expecting either the object(s) or a not found.
+ */
+public class RestQueryDriver implements LoadDriver {
+    private final int port;
+    private final List<String> paths;
+
+    public RestQueryDriver(final int port, final List<String> paths) {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("No paths");
+        }
+
+        this.port = port;
+        this.paths = paths;
+    }
+
+    @Override
+    public void execute(final long sequence) throws UnexpectedResponseException {
+        final String path = paths.get((int) (sequence % paths.size()));
+        final Response response = RestTest.target(port, path).request(MediaType.APPLICATION_XML).get();
+
+        try {
+            // read the entity, so the whole response is part of the latency
+            response.readEntity(String.class);
+
+            final int status = response.getStatus();
+            if (status != Response.Status.OK.getStatusCode() && status != Response.Status.NOT_FOUND.getStatusCode()) {
+                throw new UnexpectedResponseException("HTTP " + status);
+            }
+        } finally {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.ripe.db.whois.load;
+
+import net.ripe.db.whois.api.RestTest;
+import net.ripe.db.whois.api.syncupdate.SyncUpdateUtils;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectBuilder;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+
+/**
+ * Modifies the given objects through syncupdates in turn, by replacing their remarks, expecting every update to succeed.
+ */
+public class SyncUpdateDriver implements LoadDriver {
+    private final int port;
+    private final List<RpslObject> objects;
+    private final String password;
+
+    public SyncUpdateDriver(final int port, final List<RpslObject> objects, final String password) {
+        if (objects.isEmpty()) {
+            throw new IllegalArgumentException("No objects");
+        }
+
+        this.port = port;
+        this.objects = objects;
+        this.password = password;
+    }
+
+    @Override
+    public void execute(final long sequence) throws UnexpectedResponseException {
+        final RpslObject object = new RpslObjectBuilder(objects.get((int) (sequence % objects.size())))
+                .removeAttributeType(AttributeType.REMARKS)
+                .addAttributeSorted(new RpslAttribute(AttributeType.REMARKS, "load test update " + sequence))
+                .get();
+
+        final String response = RestTest.target(port, "whois/syncupdates/test")
+                .request()
+                .post(Entity.entity("DATA=" + SyncUpdateUtils.encode(object + "password: " + password + "\n") + "&NEW=no",
+                        MediaType.valueOf("application/x-www-form-urlencoded")), String.class);
+
+        if (!response.contains("SUCCEEDED")) {
+            throw new UnexpectedResponseException(response.contains("***Error:") ? "update failed" : "unexpected response");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.ripe.db.whois.load;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.support.QueryLogEntry;
+import net.ripe.db.whois.common.support.TelnetWhoisClient;
+import net.ripe.db.whois.query.QueryFlag;
+import net.ripe.db.whois.query.QueryParser;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends the given queries to port 43 in turn, expecting no errors other than "no entries found".
+ */
+public class WhoisQueryDriver implements LoadDriver {
+    static final Pattern ERROR_PATTERN = Pattern.compile("^%ERROR:(\\d+)", Pattern.MULTILINE);
+    private static final String NO_ENTRIES_FOUND = "101";
+
+    private final int port;
+    private final List<String> queries;
+    private final int timeoutMs;
+
+    public WhoisQueryDriver(final int port, final List<String> queries, final int timeoutMs) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("No queries");
+        }
+
+        this.port = port;
+        this.queries = queries;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Read the queries to replay from the lines of a query log. Unreadable lines and queries keeping the connection
+     * open are skipped, invalid queries are kept.
+     */
+    public static List<String> readQueryLog(final List<String> lines) {
+        final List<String> queries = Lists.newArrayList();
+
+        for (final String line : lines) {
+            final String query;
+            try {
+                query = QueryLogEntry.parse(line).getQueryString();
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            if (!isPersistentConnection(query)) {
+                queries.add(query);
+            }
+        }
+
+        return queries;
+    }
+
+    private static boolean isPersistentConnection(final String query) {
+        try {
+            return new QueryParser(query).hasOption(QueryFlag.PERSISTENT_CONNECTION);
+        } catch (RuntimeException e) {
+            // invalid queries are replayed as they are
+            return false;
+        }
+    }
+
+    @Override
+    public void execute(final long sequence) throws UnexpectedResponseException {
+        final String query = queries.get((int) (sequence % queries.size()));
+        final String response = TelnetWhoisClient.queryLocalhost(port, query, timeoutMs);
+
+        if (response == null || response.isEmpty()) {
+            throw new UnexpectedResponseException("empty response");
+        }
+
+        final Matcher matcher = ERROR_PATTERN.matcher(response);
+        while (matcher.find()) {
+            if (!NO_ENTRIES_FOUND.equals(matcher.group(1))) {
+                throw new UnexpectedResponseException("%ERROR:" + matcher.group(1));
+            }
+        }
+    }
+}
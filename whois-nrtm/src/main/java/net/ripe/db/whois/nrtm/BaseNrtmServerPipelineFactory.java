@@ -3,6 +3,7 @@ package net.ripe.db.whois.nrtm;
 import com.google.common.base.Charsets;
 import net.ripe.db.whois.common.dao.SerialDao;
 import net.ripe.db.whois.common.pipeline.MaintenanceHandler;
+import net.ripe.db.whois.common.pipeline.ServerTransport;
 import net.ripe.db.whois.common.rpsl.Dummifier;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
@@ -13,35 +14,21 @@ import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
 import org.jboss.netty.handler.codec.string.StringDecoder;
 import org.jboss.netty.handler.codec.string.StringEncoder;
 import org.jboss.netty.handler.execution.ExecutionHandler;
-import org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor;
 import org.springframework.scheduling.TaskScheduler;
 
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 
 abstract class BaseNrtmServerPipelineFactory implements ChannelPipelineFactory {
 
     private static final ChannelBuffer LINE_DELIMITER = ChannelBuffers.wrappedBuffer(new byte[]{'\n'});
 
-    private static final long MEMORY_SIZE_UNLIMITED = 0;
     private static final long TIMEOUT_SECONDS = 60L;
     private static final int POOL_SIZE = 32;
 
     private final StringDecoder stringDecoder = new StringDecoder(Charsets.UTF_8);
     private final StringEncoder stringEncoder = new StringEncoder(Charsets.UTF_8);
 
-    protected final ExecutionHandler executionHandler = new ExecutionHandler(
-        new OrderedMemoryAwareThreadPoolExecutor(POOL_SIZE, MEMORY_SIZE_UNLIMITED, MEMORY_SIZE_UNLIMITED, TIMEOUT_SECONDS, TimeUnit.SECONDS, new ThreadFactory() {
-        private final ThreadGroup threadGroup = new ThreadGroup("nrtm-executor-pool");
-        private final AtomicInteger threadNumber = new AtomicInteger();
-
-        @Override
-        public Thread newThread(final Runnable r) {
-            return new Thread(threadGroup, r, "nrtm-executor-thread-" + threadNumber.incrementAndGet());
-        }
-    }));
+    protected final ExecutionHandler executionHandler = ServerTransport.createExecutionHandler("nrtm-executor", POOL_SIZE, TIMEOUT_SECONDS);
 
     private final NrtmChannelsRegistry nrtmChannelsRegistry;
     private final NrtmExceptionHandler exceptionHandler;
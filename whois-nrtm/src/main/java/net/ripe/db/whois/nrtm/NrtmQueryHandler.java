@@ -3,6 +3,7 @@ package net.ripe.db.whois.nrtm;
 import com.google.common.util.concurrent.Uninterruptibles;
 import joptsimple.OptionException;
 import net.ripe.db.whois.common.aspects.RetryFor;
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.dao.SerialDao;
 import net.ripe.db.whois.common.domain.serials.SerialEntry;
 import net.ripe.db.whois.common.domain.serials.SerialRange;
@@ -208,6 +209,7 @@ public class NrtmQueryHandler extends SimpleChannelUpstreamHandler {
     }
 
     @RetryFor(attempts = 10, value = CannotGetJdbcConnectionException.class)
+    @Timed("nrtm.read")
     private SerialEntry readSerial(final int serial) {
         return serialDao.getByIdForNrtm(serial);
     }
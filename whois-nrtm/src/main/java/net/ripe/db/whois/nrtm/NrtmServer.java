@@ -2,11 +2,8 @@ package net.ripe.db.whois.nrtm;
 
 import net.ripe.db.whois.common.ApplicationService;
 import net.ripe.db.whois.common.MaintenanceMode;
-import org.jboss.netty.bootstrap.ServerBootstrap;
+import net.ripe.db.whois.common.pipeline.ServerTransport;
 import org.jboss.netty.channel.Channel;
-import org.jboss.netty.channel.ChannelFactory;
-import org.jboss.netty.channel.ChannelPipelineFactory;
-import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +11,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
 
 // TODO: [ES] refactor use of two variables (one static) for port number
 @Component
@@ -30,6 +26,7 @@ public class NrtmServer implements ApplicationService {
     private final NrtmChannelsRegistry nrtmChannelsRegistry;
     private final NrtmServerPipelineFactory nrtmServerPipelineFactory;
     private final MaintenanceMode maintenanceMode;
+    private final ServerTransport serverTransport;
     private Channel serverChannel;
 
     private static int port;
@@ -39,10 +36,12 @@ public class NrtmServer implements ApplicationService {
     public NrtmServer(final NrtmChannelsRegistry nrtmChannelsRegistry,
 
                       final NrtmServerPipelineFactory nrtmServerPipelineFactory,
-                      final MaintenanceMode maintenanceMode) {
+                      final MaintenanceMode maintenanceMode,
+                      final ServerTransport serverTransport) {
         this.nrtmChannelsRegistry = nrtmChannelsRegistry;
         this.nrtmServerPipelineFactory = nrtmServerPipelineFactory;
         this.maintenanceMode = maintenanceMode;
+        this.serverTransport = serverTransport;
     }
 
     @Override
@@ -52,27 +51,13 @@ public class NrtmServer implements ApplicationService {
             return;
         }
 
-        serverChannel = bootstrapChannel(nrtmServerPipelineFactory, nrtmPort, "NRTM DUMMIFIER");
+        serverChannel = serverTransport.bind("NRTM", nrtmServerPipelineFactory, nrtmPort);
 
 
         port = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
 
     }
 
-    private Channel bootstrapChannel(final ChannelPipelineFactory serverPipelineFactory, final int port, final String instanceName) {
-        final ChannelFactory channelFactory = new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool());
-        final ServerBootstrap bootstrap = new ServerBootstrap(channelFactory);
-
-        bootstrap.setPipelineFactory(serverPipelineFactory);
-        bootstrap.setOption("backlog", 200);
-        bootstrap.setOption("child.keepAlive", true);
-
-        final Channel channel = bootstrap.bind(new InetSocketAddress(port));
-        final int actualPort = ((InetSocketAddress) channel.getLocalAddress()).getPort();
-        LOGGER.info("NRTM server listening on port {} ({})", actualPort, instanceName);
-        return channel;
-    }
-
     @Override
     public void stop(final boolean force) {
         if (nrtmEnabled) {
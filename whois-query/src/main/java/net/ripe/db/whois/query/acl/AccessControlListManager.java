@@ -1,6 +1,7 @@
 package net.ripe.db.whois.query.acl;
 
 import net.ripe.db.whois.common.DateTimeProvider;
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.domain.BlockEvent;
 import net.ripe.db.whois.common.domain.IpRanges;
 import net.ripe.db.whois.common.ip.IpInterval;
@@ -97,6 +98,7 @@ public class AccessControlListManager {
      * @param remoteAddress The remote address.
      * @param amount        The amount of personal objects accounted.
      */
+    @Timed("query.acl")
     public void accountPersonalObjects(final InetAddress remoteAddress, final int amount) {
         final int limit = getPersonalDataLimit(remoteAddress);
         if (limit < 0) {
@@ -0,0 +1,8 @@
+package net.ripe.db.whois.query.domain;
+
+/**
+ * A response handler that also accepts responses already encoded for port 43 clients, such as cached responses.
+ */
+public interface EncodedResponseHandler extends ResponseHandler {
+    void handleEncoded(byte[] encodedResponse);
+}
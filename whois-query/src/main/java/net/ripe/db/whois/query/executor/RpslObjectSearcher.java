@@ -2,7 +2,9 @@ package net.ripe.db.whois.query.executor;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.collect.CollectionHelper;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
@@ -38,12 +40,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Component
 class RpslObjectSearcher {
     private static final Set<AttributeType> INVERSE_ATTRIBUTE_TYPES = EnumSet.noneOf(AttributeType.class);
     private static final Set<AttributeType> INVERSE_ATTRIBUTE_TYPES_OVERRIDE = EnumSet.of(AttributeType.SPONSORING_ORG);
+    private static final Set<ObjectType> NOT_INDEX_LOOKUP_TYPES = EnumSet.of(ObjectType.AS_BLOCK, ObjectType.INETNUM, ObjectType.INET6NUM, ObjectType.DOMAIN, ObjectType.ROUTE, ObjectType.ROUTE6);
 
     static {
         for (final ObjectType objectType : ObjectType.values()) {
@@ -83,6 +87,7 @@ class RpslObjectSearcher {
         this.ipv6DomainTree = ipv6DomainTree;
     }
 
+    @Timed("query.search")
     public Iterable<? extends ResponseObject> search(final Query query) {
         Iterable<ResponseObject> result = Collections.emptyList();
 
@@ -94,8 +99,11 @@ class RpslObjectSearcher {
             return indexLookupDirect(query);
         }
 
+        // the indexes of all types are looked up at once, instead of a query for each type and attribute
+        final Map<ObjectType, Set<RpslObjectInfo>> indexLookupResults = indexLookup(query, Sets.difference(query.getObjectTypes(), NOT_INDEX_LOOKUP_TYPES), query.getSearchValue());
         for (final ObjectType objectType : query.getObjectTypes()) {
-            result = Iterables.concat(result, executeForObjectType(query, objectType));
+            final Set<RpslObjectInfo> indexLookupResult = indexLookupResults.get(objectType);
+            result = Iterables.concat(result, indexLookupResult != null ? proxy(indexLookupResult) : executeForObjectType(query, objectType));
         }
 
         return result;
@@ -125,7 +133,7 @@ class RpslObjectSearcher {
             case ROUTE6:
                 return routeLookup(route6Tree, query);
             default:
-                return indexLookup(query, type);
+                return indexLookup(query, type, query.getSearchValue());
         }
     }
 
@@ -216,42 +224,41 @@ class RpslObjectSearcher {
         }
     }
 
-    private Iterable<ResponseObject> indexLookup(final Query query, final ObjectType type) {
-        if (query.isKeysOnly() && (ObjectType.PERSON.equals(type) || ObjectType.ROLE.equals(type) || ObjectType.ORGANISATION.equals(type))) {
-            return Collections.emptyList();
-        }
-
-        return indexLookup(query, type, query.getSearchValue());
+    private Iterable<ResponseObject> indexLookup(final Query query, final ObjectType type, final String searchValue) {
+        return proxy(indexLookup(query, Collections.singleton(type), searchValue).get(type));
     }
 
-    private Iterable<ResponseObject> indexLookup(final Query query, final ObjectType type, final String searchValue) {
-        final ObjectTemplate objectTemplate = ObjectTemplate.getTemplate(type);
-        final Set<AttributeType> keyAttributes = objectTemplate.getKeyAttributes();
+    private Map<ObjectType, Set<RpslObjectInfo>> indexLookup(final Query query, final Set<ObjectType> types, final String searchValue) {
+        final Map<ObjectType, Set<RpslObjectInfo>> result = Maps.newEnumMap(ObjectType.class);
+        final Map<ObjectType, List<AttributeType>> lookups = Maps.newEnumMap(ObjectType.class);
 
-        final Set<RpslObjectInfo> result = Sets.newTreeSet();
-        for (final AttributeType lookupAttribute : objectTemplate.getLookupAttributes()) {
-            if (!query.matchesObjectTypeAndAttribute(type, lookupAttribute)) {
-                continue;
+        for (final ObjectType type : types) {
+            result.put(type, Sets.<RpslObjectInfo>newTreeSet());
+
+            final List<AttributeType> lookupAttributes = getLookupAttributes(query, type);
+            if (!lookupAttributes.isEmpty()) {
+                lookups.put(type, lookupAttributes);
             }
+        }
 
-            if (keyAttributes.contains(lookupAttribute)) {
-                try {
-                    result.add(rpslObjectDao.findByKey(type, searchValue));
-                } catch (EmptyResultDataAccessException ignored) {
-                }
-            } else {
-                result.addAll(filterByType(type, rpslObjectDao.findByAttribute(lookupAttribute, searchValue)));
+        if (!lookups.isEmpty()) {
+            for (final RpslObjectInfo objectInfo : rpslObjectDao.findInIndexes(lookups, searchValue)) {
+                result.get(objectInfo.getObjectType()).add(objectInfo);
             }
         }
 
-        return proxy(result);
+        return result;
     }
 
-    private static List<RpslObjectInfo> filterByType(final ObjectType type, final List<RpslObjectInfo> objectInfos) {
-        final List<RpslObjectInfo> result = Lists.newArrayList();
-        for (final RpslObjectInfo objectInfo : objectInfos) {
-            if (objectInfo.getObjectType().equals(type)) {
-                result.add(objectInfo);
+    private static List<AttributeType> getLookupAttributes(final Query query, final ObjectType type) {
+        if (query.isKeysOnly() && (ObjectType.PERSON.equals(type) || ObjectType.ROLE.equals(type) || ObjectType.ORGANISATION.equals(type))) {
+            return Collections.emptyList();
+        }
+
+        final List<AttributeType> result = Lists.newArrayList();
+        for (final AttributeType lookupAttribute : ObjectTemplate.getTemplate(type).getLookupAttributes()) {
+            if (query.matchesObjectTypeAndAttribute(type, lookupAttribute)) {
+                result.add(lookupAttribute);
             }
         }
 
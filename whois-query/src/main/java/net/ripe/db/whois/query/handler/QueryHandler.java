@@ -3,6 +3,7 @@ package net.ripe.db.whois.query.handler;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.net.InetAddresses;
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.domain.ResponseObject;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import net.ripe.db.whois.common.source.BasicSourceContext;
@@ -10,6 +11,7 @@ import net.ripe.db.whois.common.source.SourceContext;
 import net.ripe.db.whois.query.QueryMessages;
 import net.ripe.db.whois.query.acl.AccessControlListManager;
 import net.ripe.db.whois.query.domain.QueryCompletionInfo;
+import net.ripe.db.whois.query.domain.EncodedResponseHandler;
 import net.ripe.db.whois.query.domain.QueryException;
 import net.ripe.db.whois.query.domain.ResponseHandler;
 import net.ripe.db.whois.query.executor.QueryExecutor;
@@ -27,19 +29,23 @@ public class QueryHandler {
     private final WhoisLog whoisLog;
     private final AccessControlListManager accessControlListManager;
     private final BasicSourceContext sourceContext;
+    private final QueryResultCache queryResultCache;
     private final List<QueryExecutor> queryExecutors;
 
     @Autowired
     public QueryHandler(final WhoisLog whoisLog,
                         final AccessControlListManager accessControlListManager,
                         final BasicSourceContext sourceContext,
+                        final QueryResultCache queryResultCache,
                         final QueryExecutor... queryExecutors) {
         this.whoisLog = whoisLog;
         this.accessControlListManager = accessControlListManager;
         this.sourceContext = sourceContext;
+        this.queryResultCache = queryResultCache;
         this.queryExecutors = Lists.newArrayList(queryExecutors);
     }
 
+    @Timed("query")
     public void streamResults(final Query query, final InetAddress remoteAddress, final int contextId, final ResponseHandler responseHandler) {
         new Runnable() {
             private final Stopwatch stopwatch = Stopwatch.createStarted();
@@ -55,7 +61,13 @@ public class QueryHandler {
                 try {
                     final QueryExecutor queryExecutor = getQueryExecutor();
                     initAcl(queryExecutor);
-                    executeQuery(queryExecutor);
+
+                    if (isCacheable(queryExecutor)) {
+                        executeCachedQuery(queryExecutor, (EncodedResponseHandler) responseHandler);
+                    } else {
+                        executeQuery(queryExecutor, null);
+                    }
+
                     logQuery(null);
                 } catch (QueryException e) {
                     logQuery(e.getCompletionInfo());
@@ -107,7 +119,40 @@ public class QueryHandler {
                 }
             }
 
-            private void executeQuery(QueryExecutor queryExecutor) {
+            private boolean isCacheable(final QueryExecutor queryExecutor) {
+                return queryResultCache.isEnabled() && queryExecutor.isAclSupported() && responseHandler instanceof EncodedResponseHandler;
+            }
+
+            private void executeCachedQuery(final QueryExecutor queryExecutor, final EncodedResponseHandler encodedResponseHandler) {
+                final QueryResultCache.CachedResponse cachedResponse = queryResultCache.get(query);
+
+                // a response exceeding the limit is not cached, so the query is blocked after the same objects as before
+                if (cachedResponse != null && isWithinAccountingLimit(cachedResponse.getPersonalObjects())) {
+                    accountedObjects = useAcl ? cachedResponse.getPersonalObjects() : 0;
+                    notAccountedObjects = cachedResponse.getObjects() - accountedObjects;
+                    encodedResponseHandler.handleEncoded(cachedResponse.getResponse());
+                    return;
+                }
+
+                final QueryResultCache.ResponseRecorder responseRecorder = queryResultCache.record(query);
+                executeQuery(queryExecutor, responseRecorder);
+                responseRecorder.complete();
+            }
+
+            private boolean isWithinAccountingLimit(final int personalObjects) {
+                if (!useAcl || personalObjects == 0) {
+                    return true;
+                }
+
+                if (accountingLimit == -1) {
+                    accountingLimit = accessControlListManager.getPersonalObjects(accountingAddress);
+                }
+
+                return personalObjects <= accountingLimit;
+            }
+
+            // a recorded response is sent as the bytes recorded, so each object is encoded only once
+            private void executeQuery(final QueryExecutor queryExecutor, @Nullable final QueryResultCache.ResponseRecorder responseRecorder) {
                 queryExecutor.execute(query, new ResponseHandler() {
                     @Override
                     public String getApi() {
@@ -116,8 +161,13 @@ public class QueryHandler {
 
                     @Override
                     public void handle(final ResponseObject responseObject) {
+                        // personal objects in a recorded response are counted for all clients, unlimited ones too
+                        final boolean personalObject = responseObject instanceof RpslObject
+                                && (useAcl || responseRecorder != null)
+                                && accessControlListManager.requiresAcl((RpslObject) responseObject, sourceContext.getCurrentSource());
+
                         if (responseObject instanceof RpslObject) {
-                            if (useAcl && accessControlListManager.requiresAcl((RpslObject) responseObject, sourceContext.getCurrentSource())) {
+                            if (useAcl && personalObject) {
                                 if (accountingLimit == -1) {
                                     accountingLimit = accessControlListManager.getPersonalObjects(accountingAddress);
                                 }
@@ -130,7 +180,11 @@ public class QueryHandler {
                             }
                         }
 
-                        responseHandler.handle(responseObject);
+                        if (responseRecorder == null) {
+                            responseHandler.handle(responseObject);
+                        } else {
+                            ((EncodedResponseHandler) responseHandler).handleEncoded(responseRecorder.add(responseObject, personalObject));
+                        }
                     }
                 });
             }
@@ -0,0 +1,186 @@
+package net.ripe.db.whois.query.handler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import net.ripe.db.whois.common.domain.ResponseObject;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.QueryFlag;
+import net.ripe.db.whois.query.pipeline.WhoisEncoder;
+import net.ripe.db.whois.query.query.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.CheckForNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches the responses to search queries, encoded as they are sent to port 43 clients.
+ *
+ * A cached response is only valid at the serial watermark of the ip trees it was produced at, so responses can lag
+ * behind the database by the ip tree update interval at most. The number of personal objects in each response is
+ * cached as well, so they can still be accounted for.
+ *
+ * The cache is disabled unless whois.query.cache.size is set to the maximum number of cached responses.
+ */
+@Component
+public class QueryResultCache {
+    // the client and the persistent connection flags do not change the response; the client flag also carries the
+    // proxied address, which only the access control uses (checked before the cache is looked at, and accounted
+    // from the cached number of personal objects), so a proxied query shares the response of a direct one
+    private static final Set<QueryFlag> IGNORED_FLAGS = EnumSet.of(QueryFlag.CLIENT, QueryFlag.PERSISTENT_CONNECTION);
+
+    private final IpTreeCacheManager ipTreeCacheManager;
+    private final int maximumResponseSize;
+    private final Cache<List<Object>, CachedResponse> cache;
+
+    @Autowired
+    public QueryResultCache(final IpTreeCacheManager ipTreeCacheManager,
+                            @Value("${whois.query.cache.size:0}") final int maximumSize,
+                            @Value("${whois.query.cache.response.size:65536}") final int maximumResponseSize) {
+        this.ipTreeCacheManager = ipTreeCacheManager;
+        this.maximumResponseSize = maximumResponseSize;
+        this.cache = maximumSize > 0 ? CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().<List<Object>, CachedResponse>build() : null;
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    @CheckForNull
+    public CachedResponse get(final Query query) {
+        final List<Object> key = getKey(query);
+        final CachedResponse cachedResponse = cache.getIfPresent(key);
+        if (cachedResponse == null) {
+            return null;
+        }
+
+        if (cachedResponse.serialWatermark != ipTreeCacheManager.getSerialWatermark()) {
+            cache.invalidate(key);
+            return null;
+        }
+
+        return cachedResponse;
+    }
+
+    /**
+     * Start recording the response to a query, to be cached once it is complete.
+     */
+    public ResponseRecorder record(final Query query) {
+        return new ResponseRecorder(getKey(query), ipTreeCacheManager.getSerialWatermark());
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    // the values of each flag are kept apart, e.g. -T person,role FOO and -T person role FOO are different queries
+    static List<Object> getKey(final Query query) {
+        final Map<QueryFlag, List<String>> options = Maps.newEnumMap(QueryFlag.class);
+        for (final Map.Entry<QueryFlag, List<String>> option : query.getOptions().entrySet()) {
+            if (!IGNORED_FLAGS.contains(option.getKey())) {
+                options.put(option.getKey(), option.getValue());
+            }
+        }
+
+        return ImmutableList.<Object>of(query.isTrusted(), ImmutableMap.copyOf(options), query.getSearchValue());
+    }
+
+    public static final class CachedResponse {
+        private final long serialWatermark;
+        private final byte[] response;
+        private final int objects;
+        private final int personalObjects;
+
+        private CachedResponse(final long serialWatermark, final byte[] response, final int objects, final int personalObjects) {
+            this.serialWatermark = serialWatermark;
+            this.response = response;
+            this.objects = objects;
+            this.personalObjects = personalObjects;
+        }
+
+        public byte[] getResponse() {
+            return response;
+        }
+
+        public int getObjects() {
+            return objects;
+        }
+
+        public int getPersonalObjects() {
+            return personalObjects;
+        }
+    }
+
+    public final class ResponseRecorder {
+        private final List<Object> key;
+        private final long serialWatermark;
+        private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        private int objects;
+        private int personalObjects;
+        private boolean tooLarge;
+
+        private ResponseRecorder(final List<Object> key, final long serialWatermark) {
+            this.key = key;
+            this.serialWatermark = serialWatermark;
+        }
+
+        /**
+         * Encode the object and add it to the response.
+         *
+         * @return the encoded object, to be sent to the client as is
+         */
+        public byte[] add(final ResponseObject responseObject, final boolean personalObject) {
+            final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try {
+                WhoisEncoder.encode(responseObject, encoded);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            if (tooLarge) {
+                return encoded.toByteArray();
+            }
+
+            if (response.size() + encoded.size() > maximumResponseSize) {
+                tooLarge = true;
+                response.reset();
+                return encoded.toByteArray();
+            }
+
+            try {
+                encoded.writeTo(response);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            if (responseObject instanceof RpslObject) {
+                objects++;
+                if (personalObject) {
+                    personalObjects++;
+                }
+            }
+
+            return encoded.toByteArray();
+        }
+
+        /**
+         * Cache the recorded response. Responses which are too large are never cached.
+         */
+        public void complete() {
+            if (!tooLarge) {
+                cache.put(key, new CachedResponse(serialWatermark, response.toByteArray(), objects, personalObjects));
+            }
+        }
+    }
+}
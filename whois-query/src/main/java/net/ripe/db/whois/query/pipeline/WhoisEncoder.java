@@ -2,6 +2,7 @@ package net.ripe.db.whois.query.pipeline;
 
 import com.google.common.base.Charsets;
 import net.ripe.db.whois.common.Message;
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.domain.ResponseObject;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBufferOutputStream;
@@ -13,6 +14,7 @@ import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 @ChannelHandler.Sharable
 @Component
@@ -21,14 +23,11 @@ public class WhoisEncoder extends OneToOneEncoder {
     private static final byte[] OBJECT_TERMINATOR = {'\n'};
 
     @Override
+    @Timed(value = "query.encode", sampleRate = 64)
     protected Object encode(final ChannelHandlerContext ctx, final Channel channel, final Object msg) throws IOException {
         if (msg instanceof ResponseObject) {
             final ChannelBuffer result = ChannelBuffers.dynamicBuffer(DEFAULT_BUFFER_SIZE);
-            final ChannelBufferOutputStream out = new ChannelBufferOutputStream(result);
-
-            ((ResponseObject) msg).writeTo(out);
-            out.write(OBJECT_TERMINATOR);
-
+            encode((ResponseObject) msg, new ChannelBufferOutputStream(result));
             return result;
         } else if (msg instanceof Message) {
             return ChannelBuffers.wrappedBuffer(msg.toString().getBytes(Charsets.UTF_8), OBJECT_TERMINATOR);
@@ -36,4 +35,9 @@ public class WhoisEncoder extends OneToOneEncoder {
 
         return msg;
     }
+
+    public static void encode(final ResponseObject responseObject, final OutputStream out) throws IOException {
+        responseObject.writeTo(out);
+        out.write(OBJECT_TERMINATOR);
+    }
 }
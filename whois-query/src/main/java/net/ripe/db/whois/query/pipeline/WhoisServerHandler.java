@@ -2,11 +2,12 @@ package net.ripe.db.whois.query.pipeline;
 
 import net.ripe.db.whois.common.domain.ResponseObject;
 import net.ripe.db.whois.common.pipeline.ChannelUtil;
+import net.ripe.db.whois.query.domain.EncodedResponseHandler;
 import net.ripe.db.whois.query.domain.QueryCompletionInfo;
 import net.ripe.db.whois.query.domain.QueryException;
-import net.ripe.db.whois.query.domain.ResponseHandler;
 import net.ripe.db.whois.query.handler.QueryHandler;
 import net.ripe.db.whois.query.query.Query;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.*;
 
 /**
@@ -25,7 +26,7 @@ public class WhoisServerHandler extends SimpleChannelUpstreamHandler {
     public void messageReceived(final ChannelHandlerContext ctx, final MessageEvent event) {
         final Query query = (Query) event.getMessage();
         final Channel channel = event.getChannel();
-        queryHandler.streamResults(query, ChannelUtil.getRemoteAddress(channel), channel.getId(), new ResponseHandler() {
+        queryHandler.streamResults(query, ChannelUtil.getRemoteAddress(channel), channel.getId(), new EncodedResponseHandler() {
             @Override
             public String getApi() {
                 return "QRY";
@@ -39,6 +40,15 @@ public class WhoisServerHandler extends SimpleChannelUpstreamHandler {
 
                 channel.write(responseObject);
             }
+
+            @Override
+            public void handleEncoded(final byte[] encodedResponse) {
+                if (closed) {
+                    throw new QueryException(QueryCompletionInfo.DISCONNECTED);
+                }
+
+                channel.write(ChannelBuffers.wrappedBuffer(encodedResponse));
+            }
         });
 
         channel.getPipeline().sendDownstream(new QueryCompletedEvent(channel));
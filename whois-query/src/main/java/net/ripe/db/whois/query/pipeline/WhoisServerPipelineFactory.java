@@ -2,6 +2,7 @@ package net.ripe.db.whois.query.pipeline;
 
 import com.google.common.base.Charsets;
 import net.ripe.db.whois.common.pipeline.MaintenanceHandler;
+import net.ripe.db.whois.common.pipeline.ServerTransport;
 import net.ripe.db.whois.query.handler.QueryHandler;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
@@ -11,7 +12,6 @@ import org.jboss.netty.channel.Channels;
 import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
 import org.jboss.netty.handler.codec.string.StringDecoder;
 import org.jboss.netty.handler.execution.ExecutionHandler;
-import org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor;
 import org.jboss.netty.handler.timeout.ReadTimeoutHandler;
 import org.jboss.netty.handler.timeout.WriteTimeoutHandler;
 import org.jboss.netty.util.HashedWheelTimer;
@@ -21,9 +21,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PreDestroy;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class WhoisServerPipelineFactory implements ChannelPipelineFactory {
@@ -32,7 +30,6 @@ public class WhoisServerPipelineFactory implements ChannelPipelineFactory {
     private static final Timer TIMER = new HashedWheelTimer();
     private static final int TIMEOUT_SECONDS = 180;
     private static final int POOL_SIZE = 64;
-    private static final int MEMORY_SIZE_UNLIMITED = 0;
 
     @Value("${application.version}") private String version;
 
@@ -40,16 +37,7 @@ public class WhoisServerPipelineFactory implements ChannelPipelineFactory {
     private final WriteTimeoutHandler writeTimeoutHandler = new WriteTimeoutHandler(TIMER, TIMEOUT_SECONDS, TimeUnit.SECONDS);
     private final StringDecoder stringDecoder = new StringDecoder(Charsets.UTF_8);
 
-    private final ExecutionHandler executionHandler = new ExecutionHandler(new OrderedMemoryAwareThreadPoolExecutor(
-            POOL_SIZE, MEMORY_SIZE_UNLIMITED, MEMORY_SIZE_UNLIMITED, 30, TimeUnit.SECONDS, new ThreadFactory() {
-        private final ThreadGroup threadGroup = new ThreadGroup("executor-pool");
-        private final AtomicInteger threadNumber = new AtomicInteger();
-
-        @Override
-        public Thread newThread(final Runnable r) {
-            return new Thread(threadGroup, r, "executor-thread-" + threadNumber.incrementAndGet());
-        }
-    }));
+    private final ExecutionHandler executionHandler = ServerTransport.createExecutionHandler("executor", POOL_SIZE, 30);
 
     private final MaintenanceHandler maintenanceHandler;
     private final ConnectionPerIpLimitHandler connectionPerIpLimitHandler;
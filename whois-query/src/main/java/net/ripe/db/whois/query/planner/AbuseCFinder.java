@@ -1,7 +1,9 @@
 package net.ripe.db.whois.query.planner;
 
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.collect.CollectionHelper;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
+import net.ripe.db.whois.common.domain.CIString;
 import net.ripe.db.whois.common.domain.Maintainers;
 import net.ripe.db.whois.common.ip.Ipv4Resource;
 import net.ripe.db.whois.common.ip.Ipv6Resource;
@@ -29,6 +31,8 @@ public class AbuseCFinder {
     private final Ipv6Tree ipv6Tree;
     private final Maintainers maintainers;
 
+    private AbuseContactCache abuseContactCache;
+
     @Autowired
     public AbuseCFinder(final RpslObjectDao objectDao,
                         final Ipv4Tree ipv4Tree,
@@ -40,8 +44,14 @@ public class AbuseCFinder {
         this.maintainers = maintainers;
     }
 
+    @Autowired(required = false)
+    public void setAbuseContactCache(final AbuseContactCache abuseContactCache) {
+        this.abuseContactCache = abuseContactCache;
+    }
+
     @CheckForNull
     @Nullable
+    @Timed("query.abuse-c")
     public String getAbuseContact(final RpslObject object){
         final RpslObject role = getAbuseContactRole(object);
         return (role != null) ? role.getValueForAttribute(AttributeType.ABUSE_MAILBOX).toString() : null;
@@ -50,23 +60,49 @@ public class AbuseCFinder {
     @CheckForNull
     @Nullable
     public RpslObject getAbuseContactRole(final RpslObject object) {
+        if (abuseContactCache == null || !abuseContactCache.isEnabled()) {
+            return findAbuseContactRole(object, null);
+        }
+
+        return getCachedAbuseContact(object).getValue();
+    }
+
+    private AbuseContactCache.Entry<RpslObject> getCachedAbuseContact(final RpslObject object) {
+        final AbuseContactCache.Entry<RpslObject> cachedAbuseContact = abuseContactCache.get(object);
+        if (cachedAbuseContact != null) {
+            return cachedAbuseContact;
+        }
+
+        final AbuseContactCache.Recorder<RpslObject> recorder = abuseContactCache.record(object);
+        return recorder.complete(findAbuseContactRole(object, recorder));
+    }
+
+    @Nullable
+    private RpslObject findAbuseContactRole(final RpslObject object, @Nullable final AbuseContactCache.Recorder<RpslObject> recorder) {
         switch (object.getType()) {
             case INETNUM:
             case INET6NUM:
 
-                final RpslObject role = getAbuseContactRoleInternal(object);
+                final RpslObject role = getAbuseContactRoleInternal(object, recorder);
 
                 if (role == null) {
                     final RpslObject parentObject = getParentObject(object);
                     if (parentObject != null && !isMaintainedByRs(object)) {
-                        return getAbuseContactRole(parentObject);
+                        if (recorder == null) {
+                            return findAbuseContactRole(parentObject, null);
+                        }
+
+                        // siblings share the resolution of their parent
+                        final AbuseContactCache.Entry<RpslObject> parent = getCachedAbuseContact(parentObject);
+                        recorder.addParent(parent);
+                        return parent.getValue();
                     }
                 }
 
                 return role;
 
             case AUT_NUM:
-                return getAbuseContactRoleInternal(object);
+                return getAbuseContactRoleInternal(object, recorder);
 
             default:
                 return null;
@@ -74,12 +110,22 @@ public class AbuseCFinder {
     }
 
     @Nullable
-    private RpslObject getAbuseContactRoleInternal(final RpslObject object) {
+    private RpslObject getAbuseContactRoleInternal(final RpslObject object, @Nullable final AbuseContactCache.Recorder<RpslObject> recorder) {
         try {
             if (object.containsAttribute(AttributeType.ORG)) {
-                final RpslObject organisation = objectDao.getByKey(ObjectType.ORGANISATION, object.getValueForAttribute(AttributeType.ORG));
+                final CIString organisationKey = object.getValueForAttribute(AttributeType.ORG);
+                if (recorder != null) {
+                    recorder.addKey(organisationKey);
+                }
+
+                final RpslObject organisation = objectDao.getByKey(ObjectType.ORGANISATION, organisationKey);
                 if (organisation.containsAttribute(AttributeType.ABUSE_C)) {
-                    final RpslObject abuseCRole = objectDao.getByKey(ObjectType.ROLE, organisation.getValueForAttribute(AttributeType.ABUSE_C));
+                    final CIString abuseCKey = organisation.getValueForAttribute(AttributeType.ABUSE_C);
+                    if (recorder != null) {
+                        recorder.addKey(abuseCKey);
+                    }
+
+                    final RpslObject abuseCRole = objectDao.getByKey(ObjectType.ROLE, abuseCKey);
                     if (abuseCRole.containsAttribute(AttributeType.ABUSE_MAILBOX)) {
                         return abuseCRole;
                     }
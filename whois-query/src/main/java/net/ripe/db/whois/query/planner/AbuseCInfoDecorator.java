@@ -13,6 +13,7 @@ import net.ripe.db.whois.query.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import java.util.Deque;
 import java.util.EnumSet;
 
@@ -31,36 +32,41 @@ class AbuseCInfoDecorator implements ResponseDecorator {
 
     @Override
     public Iterable<? extends ResponseObject> decorate(Query query, Iterable<? extends ResponseObject> input) {
-        if (query.via(Query.Origin.REST) || query.isBriefAbuseContact() || !sourceContext.isMain()) {
+        if (!appliesTo(query)) {
             return input;
         }
 
         return new IterableTransformer<ResponseObject>(input) {
             @Override
             public void apply(ResponseObject input, Deque<ResponseObject> result) {
-                if (!(input instanceof RpslObject)) {
-                    result.add(input);
-                    return;
+                if (input instanceof RpslObject) {
+                    final MessageObject message = getAbuseContactMessage((RpslObject) input);
+                    if (message != null) {
+                        result.add(message);
+                    }
                 }
 
-                final RpslObject object = (RpslObject) input;
+                result.add(input);
+            }
+        };
+    }
 
-                if (!ABUSE_LOOKUP_OBJECT_TYPES.contains(object.getType())) {
-                    result.add(input);
-                    return;
-                }
+    boolean appliesTo(final Query query) {
+        return !(query.via(Query.Origin.REST) || query.isBriefAbuseContact() || !sourceContext.isMain());
+    }
 
-                final String abuseContact = abuseCFinder.getAbuseContact(object);
+    @Nullable
+    MessageObject getAbuseContactMessage(final RpslObject object) {
+        if (!ABUSE_LOOKUP_OBJECT_TYPES.contains(object.getType())) {
+            return null;
+        }
 
-                if (abuseContact != null) {
-                    result.add(new MessageObject(QueryMessages.abuseCShown(object.getKey(), abuseContact)));
-                } else {
-                    result.add(new MessageObject(QueryMessages.abuseCNotRegistered(object.getKey())));
-                }
+        final String abuseContact = abuseCFinder.getAbuseContact(object);
 
-                result.add(input);
-                return;
-            }
-        };
+        if (abuseContact != null) {
+            return new MessageObject(QueryMessages.abuseCShown(object.getKey(), abuseContact));
+        } else {
+            return new MessageObject(QueryMessages.abuseCNotRegistered(object.getKey()));
+        }
     }
 }
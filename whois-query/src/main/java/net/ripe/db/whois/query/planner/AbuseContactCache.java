@@ -0,0 +1,67 @@
+package net.ripe.db.whois.query.planner;
+
+import net.ripe.db.whois.common.ip.Interval;
+import net.ripe.db.whois.common.ip.Ipv4Resource;
+import net.ripe.db.whois.common.ip.Ipv6Resource;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.iptree.SerialInvalidatedCache;
+import net.ripe.db.whois.common.rpsl.ObjectType;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.source.SourceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.CheckForNull;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static net.ripe.db.whois.common.rpsl.ObjectType.AUT_NUM;
+import static net.ripe.db.whois.common.rpsl.ObjectType.INET6NUM;
+import static net.ripe.db.whois.common.rpsl.ObjectType.INETNUM;
+import static net.ripe.db.whois.common.rpsl.ObjectType.ORGANISATION;
+import static net.ripe.db.whois.common.rpsl.ObjectType.ROLE;
+
+/**
+ * Caches the abuse contact role resolved for resources of the main source by object id, including the absence of one.
+ *
+ * A change to a resource invalidates the contacts of all resources within it (as they may have inherited its contact),
+ * and a change to an organisation or role invalidates the contacts that were resolved through its key.
+ *
+ * The cache is disabled unless whois.abuse.cache.size is set to the maximum number of cached contacts.
+ */
+@Component
+public class AbuseContactCache extends SerialInvalidatedCache<RpslObject> {
+    private static final Set<ObjectType> CACHED_OBJECT_TYPES = EnumSet.of(INETNUM, INET6NUM, AUT_NUM);
+
+    @Autowired
+    public AbuseContactCache(final IpTreeCacheManager ipTreeCacheManager,
+                             final SourceContext sourceContext,
+                             @Value("${whois.abuse.cache.size:0}") final int maximumSize) {
+        super(ipTreeCacheManager, sourceContext, maximumSize, CACHED_OBJECT_TYPES, EnumSet.of(ORGANISATION, ROLE));
+    }
+
+    @CheckForNull
+    public Entry<RpslObject> get(final RpslObject object) {
+        return CACHED_OBJECT_TYPES.contains(object.getType()) ? get(object.getObjectId()) : null;
+    }
+
+    /**
+     * Start recording the resolution of the abuse contact of a resource, to be cached once it is complete.
+     */
+    public Recorder<RpslObject> record(final RpslObject object) {
+        return record(object.getObjectId(), getResource(object), CACHED_OBJECT_TYPES.contains(object.getType()));
+    }
+
+    @CheckForNull
+    private static Interval<?> getResource(final RpslObject object) {
+        switch (object.getType()) {
+            case INETNUM:
+                return Ipv4Resource.parse(object.getKey());
+            case INET6NUM:
+                return Ipv6Resource.parse(object.getKey());
+            default:
+                return null;
+        }
+    }
+}
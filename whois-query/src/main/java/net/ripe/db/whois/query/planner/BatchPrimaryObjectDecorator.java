@@ -0,0 +1,16 @@
+package net.ripe.db.whois.query.planner;
+
+import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Primary object decorator that can decorate a number of primary objects at once.
+ */
+interface BatchPrimaryObjectDecorator extends PrimaryObjectDecorator {
+    // related objects of each primary object, in the same order as the primary objects
+    List<Collection<RpslObjectInfo>> decorate(Query query, List<RpslObject> rpslObjects);
+}
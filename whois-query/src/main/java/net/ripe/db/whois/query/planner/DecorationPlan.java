@@ -0,0 +1,126 @@
+package net.ripe.db.whois.query.planner;
+
+import com.google.common.base.Function;
+import net.ripe.db.whois.common.collect.IterableTransformer;
+import net.ripe.db.whois.common.domain.ResponseObject;
+import net.ripe.db.whois.common.rpsl.AttributeType;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectBuilder;
+import net.ripe.db.whois.common.rpsl.transform.FilterAuthFunction;
+import net.ripe.db.whois.common.rpsl.transform.FilterChangedFunction;
+import net.ripe.db.whois.common.rpsl.transform.FilterEmailFunction;
+import net.ripe.db.whois.query.domain.MessageObject;
+
+import javax.annotation.Nullable;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The per-object decorations of a single query, selected once from the query flags and applied to each object
+ * in a single pass over the result.
+ *
+ * In order, an object is preceded by its abuse contact message, replaced by a message if it is filtered on syntax,
+ * has its e-mail, auth and changed attributes filtered in one copy of its attributes, and is finally transformed
+ * by the output function (shorthand, brief or keys only).
+ */
+class DecorationPlan {
+    private static final FilterEmailFunction FILTER_EMAIL_FUNCTION = new FilterEmailFunction();
+    private static final FilterChangedFunction FILTER_CHANGED_FUNCTION = new FilterChangedFunction();
+
+    private final List<ResponseObject> header;
+    private final AbuseCInfoDecorator abuseCInfoDecorator;
+    private final SyntaxFilterFunction syntaxFilterFunction;
+    private final boolean filterEmail;
+    private final FilterAuthFunction filterAuthFunction;
+    private final Function<ResponseObject, ResponseObject> outputFunction;
+    private final Set<AttributeType> filteredAttributeTypes;
+
+    DecorationPlan(final List<ResponseObject> header,
+                   @Nullable final AbuseCInfoDecorator abuseCInfoDecorator,
+                   @Nullable final SyntaxFilterFunction syntaxFilterFunction,
+                   final boolean filterEmail,
+                   final FilterAuthFunction filterAuthFunction,
+                   @Nullable final Function<ResponseObject, ResponseObject> outputFunction) {
+        this.header = header;
+        this.abuseCInfoDecorator = abuseCInfoDecorator;
+        this.syntaxFilterFunction = syntaxFilterFunction;
+        this.filterEmail = filterEmail;
+        this.filterAuthFunction = filterAuthFunction;
+        this.outputFunction = outputFunction;
+
+        this.filteredAttributeTypes = EnumSet.of(AttributeType.AUTH, AttributeType.CHANGED);
+        if (filterEmail) {
+            filteredAttributeTypes.addAll(FILTER_EMAIL_FUNCTION.getFilterAttributes());
+        }
+    }
+
+    public Iterable<? extends ResponseObject> decorate(final Iterable<? extends ResponseObject> input) {
+        return new IterableTransformer<ResponseObject>(input) {
+            @Override
+            public void apply(final ResponseObject input, final Deque<ResponseObject> result) {
+                DecorationPlan.this.apply(input, result);
+            }
+        }.setHeader(header);
+    }
+
+    void apply(final ResponseObject input, final Deque<ResponseObject> result) {
+        if (!(input instanceof RpslObject)) {
+            result.add(input);
+            return;
+        }
+
+        RpslObject rpslObject = (RpslObject) input;
+
+        if (abuseCInfoDecorator != null) {
+            final MessageObject abuseContactMessage = abuseCInfoDecorator.getAbuseContactMessage(rpslObject);
+            if (abuseContactMessage != null) {
+                result.add(abuseContactMessage);
+            }
+        }
+
+        if (syntaxFilterFunction != null) {
+            final MessageObject filteredMessage = syntaxFilterFunction.getFilteredMessage(rpslObject);
+            if (filteredMessage != null) {
+                result.add(filteredMessage);
+                return;
+            }
+        }
+
+        rpslObject = filterAttributes(rpslObject);
+
+        if (outputFunction == null) {
+            result.add(rpslObject);
+        } else {
+            final ResponseObject output = outputFunction.apply(rpslObject);
+            if (output != null) {
+                result.add(output);
+            }
+        }
+    }
+
+    private RpslObject filterAttributes(final RpslObject rpslObject) {
+        if (!containsFilteredAttribute(rpslObject)) {
+            return rpslObject;
+        }
+
+        final RpslObjectBuilder builder = new RpslObjectBuilder(rpslObject);
+        if (filterEmail) {
+            FILTER_EMAIL_FUNCTION.apply(builder);
+        }
+        filterAuthFunction.apply(rpslObject, builder);
+        FILTER_CHANGED_FUNCTION.apply(builder);
+        return builder.get();
+    }
+
+    private boolean containsFilteredAttribute(final RpslObject rpslObject) {
+        for (final RpslAttribute attribute : rpslObject.getAttributes()) {
+            if (filteredAttributeTypes.contains(attribute.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,5 +4,7 @@ import com.google.common.base.Function;
 import net.ripe.db.whois.common.domain.ResponseObject;
 
 interface GroupFunction extends Function<ResponseObject, Iterable<ResponseObject>> {
+    Iterable<ResponseObject> groupInline(Iterable<? extends ResponseObject> primaryObjects);
+
     Iterable<ResponseObject> getGroupedAfter();
 }
@@ -1,5 +1,6 @@
 package net.ripe.db.whois.query.planner;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import net.ripe.db.whois.common.collect.CollectionHelper;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
@@ -38,6 +39,11 @@ public final class GroupObjectTypesFunction implements GroupFunction {
         return Collections.singletonList(input);
     }
 
+    @Override
+    public Iterable<ResponseObject> groupInline(final Iterable<? extends ResponseObject> primaryObjects) {
+        return Iterables.concat(Iterables.transform(primaryObjects, this));
+    }
+
     @Override
     public Iterable<ResponseObject> getGroupedAfter() {
         return CollectionHelper.iterateProxy(rpslObjectDao, relatedTo);
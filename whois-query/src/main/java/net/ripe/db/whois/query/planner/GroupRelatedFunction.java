@@ -1,22 +1,32 @@
 package net.ripe.db.whois.query.planner;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import net.ripe.db.whois.common.collect.CollectionHelper;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.domain.Identifiable;
 import net.ripe.db.whois.common.domain.ResponseObject;
 import net.ripe.db.whois.common.rpsl.RpslObject;
 import net.ripe.db.whois.query.domain.MessageObject;
 import net.ripe.db.whois.query.QueryMessages;
 import net.ripe.db.whois.query.query.Query;
 
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 
-class GroupRelatedFunction implements GroupFunction {
+public class GroupRelatedFunction implements GroupFunction {
+    // maximum number of primary objects for which related objects are resolved together
+    static final int BATCH_SIZE = 100;
+
     private final RpslObjectDao rpslObjectDao;
     private final Set<PrimaryObjectDecorator> decorators;
     private final Query query;
@@ -29,26 +39,128 @@ class GroupRelatedFunction implements GroupFunction {
 
     @Override
     public Iterable<ResponseObject> apply(final ResponseObject input) {
-        if (input instanceof RpslObject) {
-            Iterable<ResponseObject> result = Arrays.asList(new MessageObject(QueryMessages.relatedTo(((RpslObject) input).getKey())), input);
+        return group(Collections.singletonList(input));
+    }
 
-            final SortedSet<RpslObjectInfo> relatedTo = Sets.newTreeSet();
-            for (final PrimaryObjectDecorator decorator : decorators) {
-                if (decorator.appliesToQuery(query)) {
-                    relatedTo.addAll(decorator.decorate(query, (RpslObject) input));
-                }
-            }
+    // the first primary object is grouped on its own so it is written without waiting for the next ones,
+    // after that the batch size doubles up to BATCH_SIZE
+    @Override
+    public Iterable<ResponseObject> groupInline(final Iterable<? extends ResponseObject> primaryObjects) {
+        return new Iterable<ResponseObject>() {
+            @Override
+            public Iterator<ResponseObject> iterator() {
+                final Iterator<? extends ResponseObject> iterator = primaryObjects.iterator();
 
-            result = Iterables.concat(result, CollectionHelper.iterateProxy(rpslObjectDao, relatedTo));
+                return Iterators.concat(new AbstractIterator<Iterator<ResponseObject>>() {
+                    private int batchSize = 1;
 
-            return result;
-        }
+                    @Override
+                    protected Iterator<ResponseObject> computeNext() {
+                        if (!iterator.hasNext()) {
+                            return endOfData();
+                        }
+
+                        final List<ResponseObject> batch = Lists.newArrayList();
+                        int rpslObjects = 0;
+                        while (rpslObjects < batchSize && iterator.hasNext()) {
+                            final ResponseObject responseObject = iterator.next();
+                            if (responseObject instanceof RpslObject) {
+                                rpslObjects++;
+                            }
+                            batch.add(responseObject);
+                        }
 
-        return Collections.singletonList(input);
+                        batchSize = Math.min(batchSize * 2, BATCH_SIZE);
+                        return group(batch).iterator();
+                    }
+                });
+            }
+        };
     }
 
     @Override
     public Iterable<ResponseObject> getGroupedAfter() {
         return Collections.emptySet();
     }
+
+    private Iterable<ResponseObject> group(final List<ResponseObject> batch) {
+        final List<RpslObject> rpslObjects = Lists.newArrayList(Iterables.filter(batch, RpslObject.class));
+        if (rpslObjects.isEmpty()) {
+            return batch;
+        }
+
+        final List<SortedSet<RpslObjectInfo>> relatedTo = getRelatedTo(rpslObjects);
+        final Map<Integer, RpslObject> relatedObjects = loadRelatedObjects(relatedTo);
+
+        final List<ResponseObject> result = Lists.newArrayList();
+        final Iterator<SortedSet<RpslObjectInfo>> relatedToIterator = relatedTo.iterator();
+        for (final ResponseObject input : batch) {
+            if (input instanceof RpslObject) {
+                result.add(new MessageObject(QueryMessages.relatedTo(((RpslObject) input).getKey())));
+                result.add(input);
+
+                for (final RpslObjectInfo rpslObjectInfo : relatedToIterator.next()) {
+                    final RpslObject relatedObject = relatedObjects.get(rpslObjectInfo.getObjectId());
+                    if (relatedObject != null) {
+                        result.add(relatedObject);
+                    }
+                }
+            } else {
+                result.add(input);
+            }
+        }
+
+        return result;
+    }
+
+    private List<SortedSet<RpslObjectInfo>> getRelatedTo(final List<RpslObject> rpslObjects) {
+        final List<SortedSet<RpslObjectInfo>> result = Lists.newArrayListWithExpectedSize(rpslObjects.size());
+        for (int i = 0; i < rpslObjects.size(); i++) {
+            result.add(Sets.<RpslObjectInfo>newTreeSet());
+        }
+
+        for (final PrimaryObjectDecorator decorator : decorators) {
+            if (!decorator.appliesToQuery(query)) {
+                continue;
+            }
+
+            if (decorator instanceof BatchPrimaryObjectDecorator) {
+                final List<Collection<RpslObjectInfo>> decorated = ((BatchPrimaryObjectDecorator) decorator).decorate(query, rpslObjects);
+                for (int i = 0; i < rpslObjects.size(); i++) {
+                    result.get(i).addAll(decorated.get(i));
+                }
+            } else {
+                for (int i = 0; i < rpslObjects.size(); i++) {
+                    result.get(i).addAll(decorator.decorate(query, rpslObjects.get(i)));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private Map<Integer, RpslObject> loadRelatedObjects(final List<SortedSet<RpslObjectInfo>> relatedTo) {
+        final Map<Integer, Identifiable> proxy = Maps.newLinkedHashMap();
+        for (final SortedSet<RpslObjectInfo> rpslObjectInfos : relatedTo) {
+            for (final RpslObjectInfo rpslObjectInfo : rpslObjectInfos) {
+                proxy.put(rpslObjectInfo.getObjectId(), rpslObjectInfo);
+            }
+        }
+
+        if (proxy.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<RpslObject> loaded = Lists.newArrayListWithExpectedSize(proxy.size());
+        rpslObjectDao.load(Lists.newArrayList(proxy.values()), loaded);
+
+        final Map<Integer, RpslObject> result = Maps.newHashMapWithExpectedSize(loaded.size());
+        for (final RpslObject rpslObject : loaded) {
+            if (rpslObject != null) {
+                result.put(rpslObject.getObjectId(), rpslObject);
+            }
+        }
+
+        return result;
+    }
 }
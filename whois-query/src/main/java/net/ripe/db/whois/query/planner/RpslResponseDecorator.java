@@ -1,16 +1,12 @@
 package net.ripe.db.whois.query.planner;
 
 import com.google.common.base.Function;
-import com.google.common.base.Predicates;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import net.ripe.db.whois.common.collect.IterableTransformer;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.domain.ResponseObject;
-import net.ripe.db.whois.common.rpsl.RpslObject;
 import net.ripe.db.whois.common.rpsl.transform.FilterAuthFunction;
-import net.ripe.db.whois.common.rpsl.transform.FilterChangedFunction;
-import net.ripe.db.whois.common.rpsl.transform.FilterEmailFunction;
 import net.ripe.db.whois.common.source.SourceContext;
 import net.ripe.db.whois.common.sso.CrowdClient;
 import net.ripe.db.whois.common.sso.SsoTokenTranslator;
@@ -27,9 +23,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import javax.annotation.CheckForNull;
-import javax.annotation.Nullable;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.List;
 import java.util.Set;
 
@@ -43,9 +37,9 @@ import java.util.Set;
  */
 @Component
 public class RpslResponseDecorator {
-    private static final FilterEmailFunction FILTER_EMAIL_FUNCTION = new FilterEmailFunction();
     private static final FilterAuthFunction FILTER_AUTH_FUNCTION = new FilterAuthFunction();
-    private static final FilterChangedFunction FILTER_CHANGED_FUNCTION = new FilterChangedFunction();
+    private static final ToShorthandFunction TO_SHORTHAND_FUNCTION = new ToShorthandFunction();
+    private static final ToKeysFunction TO_KEYS_FUNCTION = new ToKeysFunction();
 
     private final RpslObjectDao rpslObjectDao;
     private final FilterPersonalDecorator filterPersonalDecorator;
@@ -95,27 +89,8 @@ public class RpslResponseDecorator {
         decoratedResult = groupRelatedObjects(query, decoratedResult);
         decoratedResult = filterTagsDecorator.decorate(query, decoratedResult);
         decoratedResult = filterPersonalDecorator.decorate(query, decoratedResult);
-        decoratedResult = abuseCInfoDecorator.decorate(query, decoratedResult);
 
-        decoratedResult = applySyntaxFilter(query, decoratedResult);
-        decoratedResult = filterEmail(query, decoratedResult);
-        decoratedResult = filterAuth(query, decoratedResult);
-        decoratedResult = filterChanged(decoratedResult);
-
-        decoratedResult = applyOutputFilters(query, decoratedResult);
-
-        return decoratedResult;
-    }
-
-    private Iterable<? extends ResponseObject> applySyntaxFilter(final Query query, final Iterable<? extends ResponseObject> result) {
-        if (query.isValidSyntax()) {
-            return Iterables.concat(Iterables.transform(result, validSyntaxFilterFunction));
-        }
-        if (query.isNoValidSyntax()) {
-            return Iterables.concat(Iterables.transform(result, invalidSyntaxFilterFunction));
-        }
-
-        return result;
+        return getDecorationPlan(query).decorate(decoratedResult);
     }
 
     private Iterable<? extends ResponseObject> groupRelatedObjects(final Query query, Iterable<? extends ResponseObject> primaryObjects) {
@@ -124,10 +99,8 @@ public class RpslResponseDecorator {
             return primaryObjects;
         }
 
-        final Iterable<ResponseObject> groupInline = Iterables.concat(Iterables.transform(primaryObjects, groupFunction));
-
         return Iterables.concat(
-                groupInline,
+                groupFunction.groupInline(primaryObjects),
                 groupFunction.getGroupedAfter());
     }
 
@@ -144,76 +117,76 @@ public class RpslResponseDecorator {
         return new GroupObjectTypesFunction(rpslObjectDao, query, decorators);
     }
 
-    private Iterable<? extends ResponseObject> filterChanged(final Iterable<? extends ResponseObject> objects) {
-
-        return Iterables.transform(objects, new Function<ResponseObject, ResponseObject>() {
-            @Nullable
+    /**
+     * Filters the e-mail (optionally), auth and changed attributes of objects in the single pass of a query response,
+     * without the other decorations, e.g. to benchmark it.
+     */
+    public static Function<Iterable<? extends ResponseObject>, Iterable<? extends ResponseObject>> createAttributeFilter(final boolean filterEmail, final FilterAuthFunction filterAuthFunction) {
+        final DecorationPlan decorationPlan = new DecorationPlan(Collections.<ResponseObject>emptyList(), null, null, filterEmail, filterAuthFunction, null);
+        return new Function<Iterable<? extends ResponseObject>, Iterable<? extends ResponseObject>>() {
             @Override
-            public ResponseObject apply(final ResponseObject input) {
-                if (input instanceof RpslObject) {
-                    return FILTER_CHANGED_FUNCTION.apply((RpslObject) input);
-                }
-
-                return input;
+            public Iterable<? extends ResponseObject> apply(final Iterable<? extends ResponseObject> input) {
+                return decorationPlan.decorate(input);
             }
-        });
+        };
     }
 
-    private Iterable<? extends ResponseObject> filterAuth(Query query, final Iterable<? extends ResponseObject> objects) {
-        List<String> passwords = query.getPasswords();
-        final String ssoToken = query.getSsoToken();
+    private DecorationPlan getDecorationPlan(final Query query) {
+        final List<ResponseObject> header = Lists.newArrayListWithExpectedSize(2);
 
-        final FilterAuthFunction filterAuthFunction =
-                (CollectionUtils.isEmpty(passwords) && StringUtils.isBlank(ssoToken)) ?
-                        FILTER_AUTH_FUNCTION :
-                        new FilterAuthFunction(passwords, ssoToken, ssoTokenTranslator, crowdClient, rpslObjectDao);
+        if (query.isKeysOnly() && !query.isShortHand() && !query.isBriefAbuseContact()) {
+            header.add(new MessageObject(QueryMessages.primaryKeysOnlyNotice()));
+        }
 
-        return Iterables.transform(objects, new Function<ResponseObject, ResponseObject>() {
-            @Nullable
-            @Override
-            public ResponseObject apply(final ResponseObject input) {
-                if (input instanceof RpslObject) {
-                    return filterAuthFunction.apply((RpslObject) input);
-                }
+        final boolean filterEmail = sourceContext.isAcl() && query.isFiltered() && !query.isBriefAbuseContact();
+        if (filterEmail) {
+            header.add(new MessageObject(QueryMessages.outputFilterNotice()));
+        }
 
-                return input;
-            }
-        });
+        return new DecorationPlan(
+                header,
+                abuseCInfoDecorator.appliesTo(query) ? abuseCInfoDecorator : null,
+                getSyntaxFilterFunction(query),
+                filterEmail,
+                getFilterAuthFunction(query),
+                getOutputFunction(query));
     }
 
-    private Iterable<? extends ResponseObject> filterEmail(final Query query, final Iterable<? extends ResponseObject> groupedObjects) {
-        if (!sourceContext.isAcl() || !query.isFiltered() || query.isBriefAbuseContact()) {
-            return groupedObjects;
+    @CheckForNull
+    private SyntaxFilterFunction getSyntaxFilterFunction(final Query query) {
+        if (query.isValidSyntax()) {
+            return validSyntaxFilterFunction;
+        }
+        if (query.isNoValidSyntax()) {
+            return invalidSyntaxFilterFunction;
         }
 
-        return new IterableTransformer<ResponseObject>(groupedObjects) {
-            @Override
-            public void apply(ResponseObject input, Deque<ResponseObject> result) {
-                if (!(input instanceof RpslObject)) {
-                    result.add(input);
-                } else {
-                    result.add(FILTER_EMAIL_FUNCTION.apply((RpslObject) input));
-                }
+        return null;
+    }
 
-            }
-        }.setHeader(new MessageObject(QueryMessages.outputFilterNotice()));
+    private FilterAuthFunction getFilterAuthFunction(final Query query) {
+        final List<String> passwords = query.getPasswords();
+        final String ssoToken = query.getSsoToken();
+
+        return (CollectionUtils.isEmpty(passwords) && StringUtils.isBlank(ssoToken)) ?
+                FILTER_AUTH_FUNCTION :
+                new FilterAuthFunction(passwords, ssoToken, ssoTokenTranslator, crowdClient, rpslObjectDao);
     }
 
-    private Iterable<? extends ResponseObject> applyOutputFilters(final Query query, final Iterable<? extends ResponseObject> objects) {
+    @CheckForNull
+    private Function<ResponseObject, ResponseObject> getOutputFunction(final Query query) {
         if (query.isShortHand()) {
-            return Iterables.transform(objects, new ToShorthandFunction());
+            return TO_SHORTHAND_FUNCTION;
         }
 
         if (query.isBriefAbuseContact()) {
-            return Iterables.filter(Iterables.transform(objects, briefAbuseCFunction), Predicates.notNull());
+            return briefAbuseCFunction;
         }
 
         if (query.isKeysOnly()) {
-            return Iterables.concat(
-                    Collections.singletonList(new MessageObject(QueryMessages.primaryKeysOnlyNotice())),
-                    Iterables.transform(objects, new ToKeysFunction()));
+            return TO_KEYS_FUNCTION;
         }
 
-        return objects;
+        return null;
     }
 }
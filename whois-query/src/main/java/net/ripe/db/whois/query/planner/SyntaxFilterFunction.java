@@ -9,6 +9,7 @@ import net.ripe.db.whois.common.rpsl.RpslObject;
 import net.ripe.db.whois.query.QueryMessages;
 import net.ripe.db.whois.query.domain.MessageObject;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -22,18 +23,29 @@ class SyntaxFilterFunction implements Function<ResponseObject, Iterable<? extend
     @Override
     public Iterable<? extends ResponseObject> apply(final ResponseObject input) {
         if (input instanceof RpslObject) {
-            final RpslObject object = (RpslObject) input;
-
-            if (!validSyntax(object) && isValidSyntaxQuery) {
-                return Arrays.asList(new MessageObject(QueryMessages.invalidSyntax(object.getKey())));
-            }
-            else if (validSyntax(object) && !isValidSyntaxQuery) {
-                return Arrays.asList(new MessageObject(QueryMessages.validSyntax(object.getKey())));
+            final MessageObject message = getFilteredMessage((RpslObject) input);
+            if (message != null) {
+                return Arrays.asList(message);
             }
         }
         return Collections.singletonList(input);
     }
 
+    /** Returns the message replacing the object if it is filtered, or null if the object should be returned */
+    @Nullable
+    MessageObject getFilteredMessage(final RpslObject object) {
+        final boolean validSyntax = validSyntax(object);
+
+        if (!validSyntax && isValidSyntaxQuery) {
+            return new MessageObject(QueryMessages.invalidSyntax(object.getKey()));
+        }
+        else if (validSyntax && !isValidSyntaxQuery) {
+            return new MessageObject(QueryMessages.validSyntax(object.getKey()));
+        }
+
+        return null;
+    }
+
     private boolean validSyntax(final RpslObject object) {
         final ObjectMessages objectMessages = ObjectTemplate.getTemplate(object.getType()).validate(object);
         return objectMessages.getErrorCount() == 0;
@@ -1,5 +1,9 @@
 package net.ripe.db.whois.query.query;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.net.InetAddresses;
@@ -26,6 +30,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 // TODO: [AH] further separate concerns of query parsing and business logic
@@ -37,6 +42,10 @@ public class Query {
     private static final EnumSet<ObjectType> DEFAULT_TYPES_LOOKUP_IN_BOTH_DIRECTIONS = EnumSet.of(ObjectType.INETNUM, ObjectType.INET6NUM, ObjectType.ROUTE, ObjectType.ROUTE6, ObjectType.DOMAIN);
     private static final EnumSet<ObjectType> DEFAULT_TYPES_ALL = EnumSet.allOf(ObjectType.class);
 
+    // parsed queries are immutable apart from the per request fields, so they are shared by copying on every hit
+    private static final int MAXIMUM_PARSED_QUERIES = 10000;
+    private static final Cache<String, Query> PARSED_QUERIES = CacheBuilder.newBuilder().maximumSize(MAXIMUM_PARSED_QUERIES).build();
+
     private static final List<QueryValidator> QUERY_VALIDATORS = Lists.newArrayList(
             new MatchOperationValidator(),
             new ProxyValidator(),
@@ -48,7 +57,7 @@ public class Query {
             new InverseValidator());
 
     private final QueryParser queryParser;
-    private final Messages messages = new Messages();
+    private final Messages messages;
 
     private final Set<String> sources;
     private final Set<ObjectType> objectTypeFilter;
@@ -71,6 +80,7 @@ public class Query {
         } catch (IllegalArgumentExceptionMessage e) {
             throw new QueryException(QueryCompletionInfo.PARAMETER_ERROR, e.getExceptionMessage());
         }
+        messages = new Messages();
         searchKey = new SearchKey(queryParser.getSearchKey());
 
         sources = parseSources();
@@ -82,13 +92,42 @@ public class Query {
         this.trusted = trusted;
     }
 
+    private Query(final Query query) {
+        queryParser = query.queryParser;
+        messages = query.messages;
+        searchKey = query.searchKey;
+
+        sources = query.sources;
+        suppliedObjectTypes = query.suppliedObjectTypes;
+        objectTypeFilter = query.objectTypeFilter;
+        attributeTypeFilter = query.attributeTypeFilter;
+        matchOperation = query.matchOperation;
+        origin = query.origin;
+        trusted = query.trusted;
+    }
+
     public static Query parse(final String args) {
         return parse(args, Origin.LEGACY, false);
     }
 
     public static Query parse(final String args, final Origin origin, final boolean trusted) {
+        final String trimmedArgs = args.trim();
+
+        // validation depends on origin and trust, and only valid queries are cached
+        final String key = origin.name() + (trusted ? '+' : '-') + trimmedArgs;
+        final Query parsedQuery = PARSED_QUERIES.getIfPresent(key);
+        if (parsedQuery != null) {
+            return new Query(parsedQuery);
+        }
+
+        final Query query = parseAndValidate(trimmedArgs, origin, trusted);
+        PARSED_QUERIES.put(key, query);
+        return new Query(query);
+    }
+
+    private static Query parseAndValidate(final String args, final Origin origin, final boolean trusted) {
         try {
-            final Query query = new Query(args.trim(), origin, trusted);
+            final Query query = new Query(args, origin, trusted);
 
             for (final QueryValidator queryValidator : QUERY_VALIDATORS) {
                 queryValidator.validate(query, query.messages);
@@ -408,6 +447,19 @@ public class Query {
         return queryParser.hasOption(queryFlag);
     }
 
+    /**
+     * The values of all flags given (none for flags without a value) by flag, in the order given.
+     */
+    public Map<QueryFlag, List<String>> getOptions() {
+        final ImmutableMap.Builder<QueryFlag, List<String>> options = ImmutableMap.builder();
+        for (final QueryFlag queryFlag : QueryFlag.values()) {
+            if (queryParser.hasOption(queryFlag)) {
+                options.put(queryFlag, ImmutableList.copyOf(queryParser.getOptionValues(queryFlag)));
+            }
+        }
+        return options.build();
+    }
+
     private String getOnlyValue(QueryFlag queryFlag) {
         try {
             return queryParser.getOptionValue(queryFlag);
@@ -19,8 +19,9 @@ class SearchKey {
 
     private String origin;
 
+    // search keys are shared by cached queries, so the as-block range is published through the volatile flag
     private AsBlockRange asBlockRange;
-    private boolean parsedAsBlockRange;
+    private volatile boolean parsedAsBlockRange;
 
     SearchKey(final String value) {
         final String cleanValue = WHITESPACE_PATTERN.matcher(value.trim()).replaceAll(" ");
@@ -69,8 +70,6 @@ class SearchKey {
 
     public AsBlockRange getAsBlockRangeOrNull() {
         if (!parsedAsBlockRange) {
-            parsedAsBlockRange = true;
-
             try {
                 // support for 'AS222' specification of as-block (meaning 'AS222-AS222')
                 final String sanitizedAsBlock = value.indexOf('-') == -1 ? value + "-" + value : value;
@@ -78,6 +77,8 @@ class SearchKey {
             } catch (AttributeParseException e) {
                 asBlockRange = null;
             }
+
+            parsedAsBlockRange = true;
         }
 
         return asBlockRange;
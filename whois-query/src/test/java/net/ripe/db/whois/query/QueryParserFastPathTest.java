@@ -0,0 +1,162 @@
+package net.ripe.db.whois.query;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+import net.ripe.db.whois.common.IllegalArgumentExceptionMessage;
+import net.ripe.db.whois.common.domain.CIString;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compares the queries parsed without jopt-simple to the same queries parsed by jopt-simple.
+ */
+public class QueryParserFastPathTest {
+    private static final String[] TOKENS = {
+            "AS3333", "10.0.0.0", "-", "10.0.0.255", "dw-ripe", "help",
+            "-r", "-B", "-rBG", "-Gb", "-rd", "-x", "-k", "-q", "-t", "-v",
+            "-T", "-Tinetnum", "-Tinetnum,route", "-T,inetnum", "inetnum",
+            "-i", "mnt-by", "-imnt-by", "-s", "-sTEST", "-a", "-V", "-Vasu1.21", "-rV", "-q=version",
+            "--sources", "TEST", "--sources=TEST", "--no-filtering", "--No-Filtering", "-no-filtering", "--r", "--no-filt",
+            "--show-version", "1", "--diff-versions", "1:2", "--list-versions", "-L", "--abuse-contact", "-bB",
+            "--", "---", "-=", "-rZ", "-ab", "-ir", "-so", "-ty", "-di", "--primary-keys", "-K", "--valid-syntax", "--no-referenced"
+    };
+
+    private static final String[] COMBINED_TOKENS = {
+            "AS3333", "-", "-r", "-rBG", "-x", "-T", "-Tinetnum", "inetnum", "-i", "-Vasu1.21", "-rV",
+            "--sources", "--sources=TEST", "--No-Filtering", "--show-version", "1", "--"
+    };
+
+    @Test
+    public void comparison_queries() throws IOException {
+        int queries = 0;
+        int fastPathQueries = 0;
+        for (final String line : Resources.readLines(Resources.getResource("comparison_queries"), Charsets.UTF_8)) {
+            if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                if (assertSameParse(line)) {
+                    fastPathQueries++;
+                }
+                queries++;
+            }
+        }
+
+        assertThat(queries, greaterThan(400));
+        assertThat(fastPathQueries, greaterThan(queries * 9 / 10));
+    }
+
+    @Test
+    public void replayed_queries() throws IOException {
+        int queries = 0;
+        for (final String line : Resources.readLines(Resources.getResource("replay.queries"), Charsets.UTF_8)) {
+            final int separator = line.indexOf(" --  ");
+            if (separator != -1) {
+                assertThat(line, assertSameParse(line.substring(separator + 5)), is(true));
+                queries++;
+            }
+        }
+
+        assertThat(queries, greaterThan(50));
+    }
+
+    @Test
+    public void generated_queries() {
+        for (final String first : TOKENS) {
+            assertSameParse(first);
+
+            for (final String second : TOKENS) {
+                assertSameParse(first + " " + second);
+            }
+        }
+
+        for (final String first : COMBINED_TOKENS) {
+            for (final String second : COMBINED_TOKENS) {
+                for (final String third : COMBINED_TOKENS) {
+                    assertSameParse(first + " " + second + " " + third);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void abbreviated_long_flags() {
+        assertSameParse("-ab 10.0.0.1");
+        assertSameParse("-ir");
+        assertSameParse("-ir AS3333");
+        assertSameParse("-so RIPE foo");
+        assertSameParse("-ty");
+        assertSameParse("-ty person");
+        assertSameParse("-di foo");
+        assertSameParse("-Ty inetnum");
+        assertSameParse("-no-filt AS3333");
+    }
+
+    @Test
+    public void odd_spacing() {
+        assertSameParse("");
+        assertSameParse(" ");
+        assertSameParse("  -r   -T  inetnum   10.0.0.0  ");
+        assertSameParse("-r\t10.0.0.0");
+        assertSameParse("-T inetnum\n");
+    }
+
+    // returns true if the query was parsed without jopt-simple
+    private static boolean assertSameParse(final String query) {
+        final QueryParser fastPath;
+        try {
+            fastPath = new QueryParser(query, true);
+        } catch (IllegalArgumentExceptionMessage e) {
+            assertThat(query, describeFailure(query, false), is(e.getExceptionMessage().toString()));
+            return false;
+        }
+
+        final QueryParser jopt = new QueryParser(query, false);
+
+        assertThat(query, fastPath.getSearchKey(), is(jopt.getSearchKey()));
+        assertThat(query, fastPath.hasOptions(), is(jopt.hasOptions()));
+
+        for (final QueryFlag queryFlag : QueryFlag.values()) {
+            final String description = query + " " + queryFlag;
+            assertThat(description, fastPath.hasOption(queryFlag), is(jopt.hasOption(queryFlag)));
+            assertThat(description, fastPath.hasOnlyQueryFlag(queryFlag), is(jopt.hasOnlyQueryFlag(queryFlag)));
+            assertThat(description, getOptionValues(fastPath, queryFlag), is(getOptionValues(jopt, queryFlag)));
+            assertThat(description, getOptionValue(fastPath, queryFlag), is(getOptionValue(jopt, queryFlag)));
+        }
+
+        return fastPath.isFastPath();
+    }
+
+    private static String describeFailure(final String query, final boolean fastPath) {
+        try {
+            new QueryParser(query, fastPath);
+            return "parsed";
+        } catch (IllegalArgumentExceptionMessage e) {
+            return e.getExceptionMessage().toString();
+        }
+    }
+
+    private static List<String> getOptionValues(final QueryParser queryParser, final QueryFlag queryFlag) {
+        try {
+            final List<String> optionValues = Lists.newArrayList(queryParser.getOptionValues(queryFlag));
+            for (final CIString optionValue : queryParser.getOptionValuesCI(queryFlag)) {
+                optionValues.add(optionValue.toString());
+            }
+            return optionValues;
+        } catch (IllegalArgumentExceptionMessage e) {
+            return Lists.newArrayList("failed", e.getExceptionMessage().toString());
+        }
+    }
+
+    private static List<String> getOptionValue(final QueryParser queryParser, final QueryFlag queryFlag) {
+        try {
+            return Lists.newArrayList(String.valueOf(queryParser.getOptionValue(queryFlag)));
+        } catch (IllegalArgumentExceptionMessage e) {
+            return Lists.newArrayList("failed", e.getExceptionMessage().toString());
+        }
+    }
+}
@@ -23,8 +23,8 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.springframework.dao.EmptyResultDataAccessException;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +34,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -69,23 +75,36 @@ public class RpslObjectSearcherTest {
     public void forward_lookup_by_key() {
         final RpslObject asSet = RpslObject.parse("as-set: AS-RIPENCC");
         mockRpslObjects(asSet);
-        when(rpslObjectDao.findByKey(ObjectType.AS_SET, "AS-RIPENCC")).thenReturn(infoFor(asSet));
+        when(rpslObjectDao.findInIndexes(Collections.singletonMap(ObjectType.AS_SET, Lists.newArrayList(AttributeType.AS_SET)), "AS-RIPENCC")).thenReturn(infosFor(asSet));
 
         assertQueryResult("-r -T as-set AS-RIPENCC", asSet);
     }
 
     @Test
     public void forward_lookup_by_key_no_results() {
-        when(rpslObjectDao.findByKey(ObjectType.AS_SET, "AS-RIPENCC")).thenThrow(EmptyResultDataAccessException.class);
+        when(rpslObjectDao.findInIndexes(anyMap(), eq("AS-RIPENCC"))).thenReturn(Collections.<RpslObjectInfo>emptyList());
 
         assertQueryResult("-r -T as-set AS-RIPENCC");
     }
 
+    @Test
+    public void forward_lookup_all_types_single_index_lookup() {
+        final RpslObject mntner = RpslObject.parse("mntner: DEV-MNT");
+        final RpslObject person = RpslObject.parse("person: Dev Person\nnic-hdl: DEV-MNT");
+        mockRpslObjects(mntner, person);
+        when(rpslObjectDao.findInIndexes(anyMap(), eq("DEV-MNT"))).thenReturn(infosFor(person, mntner));
+
+        assertQueryResult("-r DEV-MNT", mntner, person);
+        verify(rpslObjectDao).findInIndexes(anyMap(), eq("DEV-MNT"));
+        verify(rpslObjectDao, never()).findByKey(any(ObjectType.class), anyString());
+        verify(rpslObjectDao, never()).findByAttribute(any(AttributeType.class), anyString());
+    }
+
     @Test
     public void forward_lookup_by_attribute() {
         final RpslObject irt = RpslObject.parse("irt: DEV-IRT\ne-mail: person@domain.com");
         mockRpslObjects(irt);
-        when(rpslObjectDao.findByAttribute(AttributeType.E_MAIL, "person@domain.com")).thenReturn(infosFor(irt));
+        when(rpslObjectDao.findInIndexes(anyMap(), eq("person@domain.com"))).thenReturn(infosFor(irt));
 
         assertQueryResult("-T irt person@domain.com", irt);
     }
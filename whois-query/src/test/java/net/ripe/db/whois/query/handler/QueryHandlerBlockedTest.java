@@ -32,6 +32,7 @@ public class QueryHandlerBlockedTest {
     @Mock WhoisLog whoisLog;
     @Mock AccessControlListManager accessControlListManager;
     @Mock SourceContext sourceContext;
+    @Mock QueryResultCache queryResultCache;
     @Mock QueryExecutor queryExecutor;
     QueryHandler subject;
 
@@ -41,7 +42,7 @@ public class QueryHandlerBlockedTest {
 
     @Before
     public void setUp() throws Exception {
-        subject = new QueryHandler(whoisLog, accessControlListManager, sourceContext, queryExecutor);
+        subject = new QueryHandler(whoisLog, accessControlListManager, sourceContext, queryResultCache, queryExecutor);
         when(queryExecutor.supports(any(Query.class))).thenReturn(true);
         when(queryExecutor.isAclSupported()).thenReturn(true);
     }
@@ -34,6 +34,7 @@ public class QueryHandler_AclTest {
     @Mock WhoisLog whoisLog;
     @Mock AccessControlListManager accessControlListManager;
     @Mock SourceContext sourceContext;
+    @Mock QueryResultCache queryResultCache;
     @Mock QueryExecutor queryExecutor;
     QueryHandler subject;
 
@@ -44,7 +45,7 @@ public class QueryHandler_AclTest {
 
     @Before
     public void setUp() throws Exception {
-        subject = new QueryHandler(whoisLog, accessControlListManager, sourceContext, queryExecutor);
+        subject = new QueryHandler(whoisLog, accessControlListManager, sourceContext, queryResultCache, queryExecutor);
 
         message = new MessageObject("test");
         maintainer = RpslObject.parse("mntner: DEV-MNT");
@@ -0,0 +1,210 @@
+package net.ripe.db.whois.query.handler;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Sets;
+import com.google.common.net.InetAddresses;
+import net.ripe.db.whois.common.domain.ResponseObject;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.source.Source;
+import net.ripe.db.whois.common.source.SourceContext;
+import net.ripe.db.whois.query.acl.AccessControlListManager;
+import net.ripe.db.whois.query.domain.EncodedResponseHandler;
+import net.ripe.db.whois.query.domain.MessageObject;
+import net.ripe.db.whois.query.domain.QueryCompletionInfo;
+import net.ripe.db.whois.query.domain.QueryException;
+import net.ripe.db.whois.query.domain.ResponseHandler;
+import net.ripe.db.whois.query.executor.QueryExecutor;
+import net.ripe.db.whois.query.query.Query;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.net.InetAddress;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueryHandler_CacheTest {
+    @Mock WhoisLog whoisLog;
+    @Mock AccessControlListManager accessControlListManager;
+    @Mock SourceContext sourceContext;
+    @Mock IpTreeCacheManager ipTreeCacheManager;
+    @Mock QueryExecutor queryExecutor;
+    @Mock EncodedResponseHandler responseHandler;
+    QueryHandler subject;
+
+    int contextId = 1;
+    InetAddress remoteAddress = InetAddresses.forString("193.0.0.10");
+    ResponseObject message, maintainer, personTest;
+
+    @Before
+    public void setUp() throws Exception {
+        subject = new QueryHandler(whoisLog, accessControlListManager, sourceContext, new QueryResultCache(ipTreeCacheManager, 10, 1024), queryExecutor);
+
+        message = new MessageObject("test");
+        maintainer = RpslObject.parse("mntner: DEV-MNT");
+        personTest = RpslObject.parse("person: Test Person\nnic-hdl: TP1-TEST");
+
+        when(queryExecutor.supports(any(Query.class))).thenReturn(true);
+        when(queryExecutor.isAclSupported()).thenReturn(true);
+
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(final InvocationOnMock invocationOnMock) throws Throwable {
+                final ResponseHandler responseHandler = (ResponseHandler) invocationOnMock.getArguments()[1];
+                responseHandler.handle(message);
+                responseHandler.handle(maintainer);
+                responseHandler.handle(personTest);
+                return null;
+            }
+        }).when(queryExecutor).execute(any(Query.class), any(ResponseHandler.class));
+
+        when(sourceContext.getCurrentSource()).thenReturn(Source.slave("RIPE"));
+        when(accessControlListManager.canQueryPersonalObjects(any(InetAddress.class))).thenReturn(true);
+        when(accessControlListManager.getPersonalObjects(remoteAddress)).thenReturn(10);
+        when(accessControlListManager.requiresAcl(any(RpslObject.class), any(Source.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            @SuppressWarnings("SuspiciousMethodCalls")
+            public Object answer(final InvocationOnMock invocationOnMock) throws Throwable {
+                return Sets.newHashSet(personTest).contains(invocationOnMock.getArguments()[0]);
+            }
+        });
+    }
+
+    @Test
+    public void cached_response_is_encoded() {
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+
+        verify(queryExecutor, times(1)).execute(any(Query.class), any(ResponseHandler.class));
+        verify(responseHandler, never()).handle(any(ResponseObject.class));
+        verify(accessControlListManager, times(2)).requiresAcl(any(RpslObject.class), any(Source.class));
+
+        final ArgumentCaptor<byte[]> responseCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(responseHandler, times(4)).handleEncoded(responseCaptor.capture());
+
+        final List<byte[]> responses = responseCaptor.getAllValues();
+        assertThat(new String(responses.get(0), Charsets.UTF_8), is("test\n"));
+        assertThat(new String(responses.get(1), Charsets.UTF_8), is("mntner:         DEV-MNT\n\n"));
+        assertThat(new String(responses.get(2), Charsets.UTF_8), is("person:         Test Person\nnic-hdl:        TP1-TEST\n\n"));
+        assertThat(new String(responses.get(3), Charsets.UTF_8), is("" +
+                "test\n" +
+                "mntner:         DEV-MNT\n" +
+                "\n" +
+                "person:         Test Person\n" +
+                "nic-hdl:        TP1-TEST\n" +
+                "\n"));
+    }
+
+    @Test
+    public void cached_response_is_accounted() {
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+        subject.streamResults(Query.parse("-k DEV-MNT"), remoteAddress, contextId, responseHandler);
+
+        verify(queryExecutor, times(1)).execute(any(Query.class), any(ResponseHandler.class));
+        verify(accessControlListManager, times(2)).accountPersonalObjects(remoteAddress, 1);
+        verify(whoisLog, times(2)).logQueryResult(anyString(), eq(1), eq(1), eq((QueryCompletionInfo) null), anyLong(), eq(remoteAddress), eq(contextId), anyString());
+    }
+
+    @Test
+    public void cached_response_exceeding_limit_is_blocked_as_before() {
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+        when(accessControlListManager.getPersonalObjects(remoteAddress)).thenReturn(0);
+
+        try {
+            subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+            fail("Expected failure");
+        } catch (QueryException e) {
+            assertThat(e.getCompletionInfo(), is(QueryCompletionInfo.BLOCKED));
+        }
+
+        // the objects before the personal object, once for each query
+        verify(responseHandler, times(5)).handleEncoded(any(byte[].class));
+        verify(queryExecutor, times(2)).execute(any(Query.class), any(ResponseHandler.class));
+    }
+
+    @Test
+    public void cached_response_is_stale_after_serial_changes() {
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+        when(ipTreeCacheManager.getSerialWatermark()).thenReturn(1L);
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+
+        verify(responseHandler, times(6)).handleEncoded(any(byte[].class));
+        verify(queryExecutor, times(2)).execute(any(Query.class), any(ResponseHandler.class));
+    }
+
+    @Test
+    public void failed_query_is_not_cached() {
+        doNothing().doNothing().doThrow(new QueryException(QueryCompletionInfo.DISCONNECTED)).doNothing().when(responseHandler).handleEncoded(any(byte[].class));
+
+        try {
+            subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+            fail("Expected failure");
+        } catch (QueryException ignored) {
+            // expected
+        }
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+
+        verify(responseHandler, times(6)).handleEncoded(any(byte[].class));
+        verify(queryExecutor, times(2)).execute(any(Query.class), any(ResponseHandler.class));
+    }
+
+    @Test
+    public void proxied_query_uses_cached_response_accounted_to_proxied_address() {
+        final InetAddress proxiedAddress = InetAddresses.forString("10.0.0.1");
+        when(accessControlListManager.isAllowedToProxy(remoteAddress)).thenReturn(true);
+        when(accessControlListManager.getPersonalObjects(proxiedAddress)).thenReturn(10);
+
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, responseHandler);
+        subject.streamResults(Query.parse("-VclientId,10.0.0.1 DEV-MNT"), remoteAddress, contextId, responseHandler);
+
+        verify(queryExecutor, times(1)).execute(any(Query.class), any(ResponseHandler.class));
+        verify(accessControlListManager).accountPersonalObjects(remoteAddress, 1);
+        verify(accessControlListManager).accountPersonalObjects(proxiedAddress, 1);
+    }
+
+    @Test
+    public void response_handler_without_encoding_is_not_cached() {
+        final ResponseHandler plainResponseHandler = mock(ResponseHandler.class);
+
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, plainResponseHandler);
+        subject.streamResults(Query.parse("DEV-MNT"), remoteAddress, contextId, plainResponseHandler);
+
+        verify(queryExecutor, times(2)).execute(any(Query.class), any(ResponseHandler.class));
+        verify(plainResponseHandler, times(6)).handle(any(ResponseObject.class));
+    }
+
+    @Test
+    public void key_ignores_client_and_keepalive_flags() {
+        assertThat(QueryResultCache.getKey(Query.parse("-k -VclientId,10.0.0.1 -r -T mntner DEV-MNT")),
+                is(QueryResultCache.getKey(Query.parse("-r -T mntner DEV-MNT"))));
+        assertThat(QueryResultCache.getKey(Query.parse("-r -T mntner DEV-MNT")),
+                is(not(QueryResultCache.getKey(Query.parse("-T mntner DEV-MNT")))));
+        assertThat(QueryResultCache.getKey(Query.parse("-r -T mntner DEV-MNT")),
+                is(not(QueryResultCache.getKey(Query.parse("-r -T mntner DEV-MNT", Query.Origin.LEGACY, true)))));
+    }
+
+    @Test
+    public void key_keeps_flag_values_apart_from_search_value() {
+        assertThat(QueryResultCache.getKey(Query.parse("-T person,role FOO")),
+                is(not(QueryResultCache.getKey(Query.parse("-T person role FOO")))));
+        assertThat(QueryResultCache.getKey(Query.parse("-i mnt-by,admin-c X")),
+                is(not(QueryResultCache.getKey(Query.parse("-i mnt-by admin-c X")))));
+        assertThat(QueryResultCache.getKey(Query.parse("-s RIPE,TEST foo")),
+                is(not(QueryResultCache.getKey(Query.parse("-s RIPE TEST foo")))));
+        assertThat(QueryResultCache.getKey(Query.parse("--no-referenced -T person FOO")),
+                is(QueryResultCache.getKey(Query.parse("-r -T person FOO"))));
+    }
+}
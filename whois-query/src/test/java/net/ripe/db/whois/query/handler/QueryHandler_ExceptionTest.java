@@ -26,6 +26,7 @@ public class QueryHandler_ExceptionTest {
     @Mock WhoisLog whoisLog;
     @Mock AccessControlListManager accessControlListManager;
     @Mock SourceContext sourceContext;
+    @Mock QueryResultCache queryResultCache;
     @Mock QueryExecutor queryExecutor;
     QueryHandler subject;
 
@@ -35,7 +36,7 @@ public class QueryHandler_ExceptionTest {
 
     @Before
     public void setUp() throws Exception {
-        subject = new QueryHandler(whoisLog, accessControlListManager, sourceContext, queryExecutor);
+        subject = new QueryHandler(whoisLog, accessControlListManager, sourceContext, queryResultCache, queryExecutor);
 
         when(queryExecutor.supports(any(Query.class))).thenReturn(true);
         when(accessControlListManager.canQueryPersonalObjects(remoteAddress)).thenReturn(true);
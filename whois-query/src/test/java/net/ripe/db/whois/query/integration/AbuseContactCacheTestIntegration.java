@@ -0,0 +1,157 @@
+package net.ripe.db.whois.query.integration;
+
+import net.ripe.db.whois.common.IntegrationTest;
+import net.ripe.db.whois.common.dao.RpslObjectDao;
+import net.ripe.db.whois.common.domain.Maintainers;
+import net.ripe.db.whois.common.iptree.IpTreeCacheManager;
+import net.ripe.db.whois.common.iptree.IpTreeUpdater;
+import net.ripe.db.whois.common.iptree.Ipv4Tree;
+import net.ripe.db.whois.common.iptree.Ipv6Tree;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.query.planner.AbuseCFinder;
+import net.ripe.db.whois.query.planner.AbuseContactCache;
+import net.ripe.db.whois.query.support.AbstractQueryIntegrationTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+@Category(IntegrationTest.class)
+public class AbuseContactCacheTestIntegration extends AbstractQueryIntegrationTest {
+    @Autowired private IpTreeUpdater ipTreeUpdater;
+    @Autowired private IpTreeCacheManager ipTreeCacheManager;
+    @Autowired private RpslObjectDao rpslObjectDao;
+    @Autowired private Ipv4Tree ipv4Tree;
+    @Autowired private Ipv6Tree ipv6Tree;
+    @Autowired private Maintainers maintainers;
+
+    private AbuseContactCache abuseContactCache;
+    private AbuseCFinder subject;
+
+    private RpslObject inetnum;
+
+    @Before
+    public void setup() {
+        databaseHelper.addObject("" +
+                "role:          Abuse Role\n" +
+                "nic-hdl:       AR1-TEST\n" +
+                "abuse-mailbox: abuse@ripe.net\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "role:          Other Abuse Role\n" +
+                "nic-hdl:       AR2-TEST\n" +
+                "abuse-mailbox: other@ripe.net\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "organisation:  ORG-TO1-TEST\n" +
+                "abuse-c:       AR1-TEST\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "organisation:  ORG-TO2-TEST\n" +
+                "abuse-c:       AR2-TEST\n" +
+                "source:        TEST");
+        databaseHelper.addObject("" +
+                "inetnum:       10.0.0.0 - 10.255.255.255\n" +
+                "org:           ORG-TO1-TEST\n" +
+                "source:        TEST");
+        inetnum = databaseHelper.addObject("" +
+                "inetnum:       10.0.0.0 - 10.0.0.255\n" +
+                "source:        TEST");
+
+        ipTreeUpdater.rebuild();
+
+        abuseContactCache = new AbuseContactCache(ipTreeCacheManager, sourceContext, 100);
+        // the cache is brought up to date by the next update of the trees
+        ipTreeUpdater.update();
+        subject = new AbuseCFinder(rpslObjectDao, ipv4Tree, ipv6Tree, maintainers);
+        subject.setAbuseContactCache(abuseContactCache);
+    }
+
+    @Test
+    public void inherited_contact_is_cached() {
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+
+        assertThat(abuseContactCache.getStats().hitCount(), is(1L));
+    }
+
+    @Test
+    public void absent_contact_is_cached() {
+        databaseHelper.updateObject("" +
+                "inetnum:       10.0.0.0 - 10.255.255.255\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertThat(subject.getAbuseContact(inetnum), is(nullValue()));
+        assertThat(subject.getAbuseContact(inetnum), is(nullValue()));
+
+        assertThat(abuseContactCache.getStats().hitCount(), is(1L));
+    }
+
+    @Test
+    public void role_changed() {
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+
+        databaseHelper.updateObject("" +
+                "role:          Abuse Role\n" +
+                "nic-hdl:       AR1-TEST\n" +
+                "abuse-mailbox: changed@ripe.net\n" +
+                "source:        TEST");
+
+        // not seen until the ip trees are up to date
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+
+        ipTreeUpdater.update();
+
+        assertThat(subject.getAbuseContact(inetnum), is("changed@ripe.net"));
+    }
+
+    @Test
+    public void organisation_changed() {
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+
+        databaseHelper.updateObject("" +
+                "organisation:  ORG-TO1-TEST\n" +
+                "abuse-c:       AR2-TEST\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertThat(subject.getAbuseContact(inetnum), is("other@ripe.net"));
+    }
+
+    @Test
+    public void less_specific_added_and_deleted() {
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+
+        final RpslObject lessSpecific = databaseHelper.addObject("" +
+                "inetnum:       10.0.0.0 - 10.0.255.255\n" +
+                "org:           ORG-TO2-TEST\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertThat(subject.getAbuseContact(inetnum), is("other@ripe.net"));
+
+        databaseHelper.deleteObject(lessSpecific);
+        ipTreeUpdater.update();
+
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+    }
+
+    @Test
+    public void unrelated_change_keeps_contact() {
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+
+        databaseHelper.addObject("" +
+                "inetnum:       192.168.0.0 - 192.168.255.255\n" +
+                "org:           ORG-TO2-TEST\n" +
+                "source:        TEST");
+        ipTreeUpdater.update();
+
+        assertThat(subject.getAbuseContact(inetnum), is("abuse@ripe.net"));
+        assertThat(abuseContactCache.getStats().hitCount(), is(1L));
+    }
+}
@@ -0,0 +1,90 @@
+package net.ripe.db.whois.query.planner;
+
+import com.google.common.collect.Lists;
+import net.ripe.db.whois.common.domain.ResponseObject;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.transform.FilterAuthFunction;
+import net.ripe.db.whois.common.rpsl.transform.FilterChangedFunction;
+import net.ripe.db.whois.common.rpsl.transform.FilterEmailFunction;
+import net.ripe.db.whois.query.QueryMessages;
+import net.ripe.db.whois.query.domain.MessageObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class DecorationPlanTest {
+    private static final List<RpslObject> OBJECTS = Lists.newArrayList(
+            RpslObject.parse("" +
+                    "mntner:   TEST-MNT\n" +
+                    "descr:    description\n" +
+                    "upd-to:   upd@test.net\n" +
+                    "mnt-nfy:  nfy@test.net\n" +
+                    "auth:     MD5-PW $1$d9fKeTr2$Si7YudNf4rUGmR71n/cqk/\n" +
+                    "auth:     PGPKEY-28F6CD6C\n" +
+                    "changed:  changed@test.net 20120101\n" +
+                    "mnt-by:   TEST-MNT\n" +
+                    "source:   TEST\n"),
+            RpslObject.parse("" +
+                    "mntner:   TEST-MNT\n" +
+                    "auth:     SSO person@test.net\n" +
+                    "mnt-by:   TEST-MNT\n" +
+                    "source:   TEST # comment\n"),
+            RpslObject.parse("" +
+                    "person:   Test Person\n" +
+                    "nic-hdl:  TP1-TEST\n" +
+                    "e-mail:   person@test.net\n" +
+                    "notify:   person@test.net\n" +
+                    "changed:  person@test.net 20120101\n" +
+                    "source:   TEST\n"),
+            RpslObject.parse("" +
+                    "inetnum:  10.0.0.0 - 10.255.255.255\n" +
+                    "netname:  TEST-NET\n" +
+                    "source:   TEST\n"));
+
+    @Test
+    public void filter_attributes_is_same_as_sequential_filters() {
+        final FilterAuthFunction filterAuthFunction = new FilterAuthFunction();
+
+        for (final boolean filterEmail : new boolean[]{true, false}) {
+            final DecorationPlan plan = new DecorationPlan(Collections.<ResponseObject>emptyList(), null, null, filterEmail, filterAuthFunction, null);
+
+            for (final RpslObject object : OBJECTS) {
+                RpslObject expected = filterEmail ? new FilterEmailFunction().apply(object) : object;
+                expected = filterAuthFunction.apply(expected);
+                expected = new FilterChangedFunction().apply(expected);
+
+                final List<ResponseObject> decorated = Lists.newArrayList(plan.decorate(Collections.singletonList(object)));
+
+                assertThat(decorated.size(), is(1));
+                assertThat(decorated.get(0).toString(), is(expected.toString()));
+            }
+        }
+    }
+
+    @Test
+    public void header_precedes_result_and_messages_pass_through() {
+        final MessageObject header = new MessageObject(QueryMessages.outputFilterNotice());
+        final MessageObject message = new MessageObject(QueryMessages.relatedTo("10.0.0.0 - 10.255.255.255"));
+        final DecorationPlan plan = new DecorationPlan(Collections.<ResponseObject>singletonList(header), null, null, true, new FilterAuthFunction(), new ToKeysFunction());
+
+        final List<ResponseObject> decorated = Lists.newArrayList(plan.decorate(Lists.newArrayList(message, OBJECTS.get(3))));
+
+        assertThat(decorated.size(), is(3));
+        assertThat(decorated.subList(0, 2), contains((ResponseObject) header, message));
+        assertThat(decorated.get(2).toString(), is("inetnum:        10.0.0.0 - 10.255.255.255\n"));
+    }
+
+    @Test
+    public void syntax_filtered_object_is_replaced_by_message() {
+        final DecorationPlan plan = new DecorationPlan(Collections.<ResponseObject>emptyList(), null, new SyntaxFilterFunction(true), false, new FilterAuthFunction(), null);
+
+        final List<ResponseObject> decorated = Lists.newArrayList(plan.decorate(Collections.singletonList(OBJECTS.get(3))));
+
+        assertThat(decorated, contains((ResponseObject) new MessageObject(QueryMessages.invalidSyntax(OBJECTS.get(3).getKey()))));
+    }
+}
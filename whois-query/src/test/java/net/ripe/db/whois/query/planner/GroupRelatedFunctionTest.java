@@ -1,9 +1,11 @@
 package net.ripe.db.whois.query.planner;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.dao.RpslObjectInfo;
+import net.ripe.db.whois.common.domain.Identifiable;
 import net.ripe.db.whois.common.domain.ResponseObject;
 import net.ripe.db.whois.common.rpsl.ObjectType;
 import net.ripe.db.whois.common.rpsl.RpslObject;
@@ -14,13 +16,20 @@ import net.ripe.db.whois.query.support.Fixture;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -30,6 +39,8 @@ public class GroupRelatedFunctionTest {
     private ResponseObject relatedToMessage;
 
     @Mock private PrimaryObjectDecorator decorator;
+    @Mock private BatchPrimaryObjectDecorator batchDecorator;
+    @Captor private ArgumentCaptor<List<RpslObject>> batchCaptor;
 
     @Mock private RpslObjectDao rpslObjectDao;
     private GroupRelatedFunction subject;
@@ -76,10 +87,10 @@ public class GroupRelatedFunctionTest {
         final ResponseObject input = RpslObject.parse("inetnum:10.0.0.0");
 
         final RpslObjectInfo info1 = new RpslObjectInfo(1, ObjectType.IRT, "IRT");
-        final ResponseObject result1 = RpslObject.parse("irt:irt");
+        final ResponseObject result1 = RpslObject.parse(1, "irt:irt");
 
         final RpslObjectInfo info2 = new RpslObjectInfo(2, ObjectType.MNTNER, "MNTNER");
-        final ResponseObject result2 = RpslObject.parse("mntner:mntner");
+        final ResponseObject result2 = RpslObject.parse(2, "mntner:mntner");
 
         when(decorator.appliesToQuery(query)).thenReturn(true);
         when(decorator.decorate(query, (RpslObject) input)).thenReturn(Arrays.asList(info1, info2));
@@ -92,4 +103,72 @@ public class GroupRelatedFunctionTest {
         assertThat(responseObjects, contains(relatedToMessage, input, result2, result1));
         assertThat(Lists.newArrayList(relatedObjects), hasSize(0));
     }
+
+    @Test
+    public void groupInline_resolves_related_objects_per_batch() {
+        Fixture.mockRpslObjectDaoLoadingBehavior(rpslObjectDao);
+
+        subject = new GroupRelatedFunction(rpslObjectDao, query, Sets.<PrimaryObjectDecorator>newHashSet(batchDecorator));
+
+        final RpslObject input1 = RpslObject.parse(10, "inetnum:10.0.0.0");
+        final RpslObject input2 = RpslObject.parse(11, "inetnum:10.0.0.1");
+        final RpslObject input3 = RpslObject.parse(12, "inetnum:10.0.0.2");
+        final ResponseObject message = new MessageObject("message");
+
+        final RpslObjectInfo info1 = new RpslObjectInfo(1, ObjectType.PERSON, "person");
+        final RpslObject result1 = RpslObject.parse(1, "person:person\nnic-hdl:PERSON");
+        final RpslObjectInfo info2 = new RpslObjectInfo(2, ObjectType.ORGANISATION, "ORG");
+        final RpslObject result2 = RpslObject.parse(2, "organisation:org");
+
+        when(batchDecorator.appliesToQuery(query)).thenReturn(true);
+        when(batchDecorator.decorate(query, Arrays.asList(input1))).thenReturn(Arrays.<Collection<RpslObjectInfo>>asList(
+                Arrays.asList(info1, info2)));
+        when(batchDecorator.decorate(query, Arrays.asList(input2, input3))).thenReturn(Arrays.<Collection<RpslObjectInfo>>asList(
+                Arrays.asList(info1),
+                Collections.<RpslObjectInfo>emptyList()));
+        when(rpslObjectDao.getById(1)).thenReturn(result1);
+        when(rpslObjectDao.getById(2)).thenReturn(result2);
+
+        final Iterable<ResponseObject> responseObjects = subject.groupInline(Arrays.asList(input1, message, input2, input3));
+
+        assertThat(responseObjects, contains(
+                new MessageObject(QueryMessages.relatedTo("10.0.0.0")), input1, result2, result1,
+                message,
+                new MessageObject(QueryMessages.relatedTo("10.0.0.1")), input2, result1,
+                new MessageObject(QueryMessages.relatedTo("10.0.0.2")), input3));
+
+        verify(batchDecorator, times(2)).decorate(eq(query), batchCaptor.capture());
+        assertThat(batchCaptor.getAllValues().get(0), contains(input1));
+        assertThat(batchCaptor.getAllValues().get(1), contains(input2, input3));
+        verify(batchDecorator, never()).decorate(any(Query.class), any(RpslObject.class));
+        verify(rpslObjectDao, times(2)).load(anyListOf(Identifiable.class), anyListOf(RpslObject.class));
+    }
+
+    @Test
+    public void groupInline_returns_first_object_without_reading_ahead() {
+        final RpslObject input = RpslObject.parse(10, "inetnum:10.0.0.0");
+
+        final Iterator<ResponseObject> primaryObjects = new AbstractIterator<ResponseObject>() {
+            private boolean first = true;
+
+            @Override
+            protected ResponseObject computeNext() {
+                if (first) {
+                    first = false;
+                    return input;
+                }
+                throw new AssertionError("read ahead of the first primary object");
+            }
+        };
+
+        final Iterator<ResponseObject> responseObjects = subject.groupInline(new Iterable<ResponseObject>() {
+            @Override
+            public Iterator<ResponseObject> iterator() {
+                return primaryObjects;
+            }
+        }).iterator();
+
+        assertThat(responseObjects.next(), is((ResponseObject) new MessageObject(QueryMessages.relatedTo("10.0.0.0"))));
+        assertThat(responseObjects.next(), is((ResponseObject) input));
+    }
 }
@@ -13,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
@@ -55,4 +56,11 @@ public class RelatedToDecoratorTest {
         verify(rpslObjectDao, times(1)).relatedTo(rpslObject, Sets.newEnumSet(Lists.newArrayList(ObjectType.PERSON, ObjectType.ROLE), ObjectType.class));
     }
 
+    @Test
+    public void decorate_batch() {
+        final List<RpslObject> rpslObjects = Lists.newArrayList(RpslObject.parse("mntner: DEV-MNT"), RpslObject.parse("mntner: TEST-MNT"));
+        subject.decorate(Query.parse("DEV-MNT"), rpslObjects);
+
+        verify(rpslObjectDao, times(1)).relatedTo(rpslObjects, Collections.<ObjectType>emptySet());
+    }
 }
@@ -1,5 +1,6 @@
 package net.ripe.db.whois.query.query;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectType;
@@ -20,6 +21,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -959,4 +961,33 @@ public class QueryTest {
         assertThat(query.isAllSources(), is(false));
         assertThat(query.isResource(), is(true));
     }
+
+    @Test
+    public void parsed_query_is_not_shared() {
+        final Query first = Query.parse("-r -T inetnum 10.0.0.0", "token", Lists.newArrayList("password"), false);
+        first.setMatchPrimaryKeyOnly(true);
+
+        final Query second = Query.parse("-r -T inetnum 10.0.0.0", Query.Origin.REST, false);
+
+        assertThat(second, is(first));
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.getObjectTypes(), contains(ObjectType.INETNUM));
+        assertThat(second.isMatchPrimaryKeyOnly(), is(false));
+        assertThat(second.getSsoToken(), is(nullValue()));
+        assertThat(second.getPasswords(), is(nullValue()));
+    }
+
+    @Test
+    public void parsed_query_depends_on_origin_and_trust() {
+        assertThat(Query.parse("-i auth SSO test@ripe.net", Query.Origin.REST, true).isTrusted(), is(true));
+
+        try {
+            Query.parse("-i auth SSO test@ripe.net", Query.Origin.REST, false);
+            fail("Expected exception");
+        } catch (QueryException e) {
+            assertThat(e.getMessages(), contains(QueryMessages.inverseSearchNotAllowed()));
+        }
+
+        assertThat(Query.parse("-i auth SSO test@ripe.net", Query.Origin.INTERNAL, true).via(Query.Origin.INTERNAL), is(true));
+    }
 }
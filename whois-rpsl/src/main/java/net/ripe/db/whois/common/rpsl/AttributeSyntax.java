@@ -27,11 +27,13 @@ import net.ripe.db.whois.common.generated.V6FilterParser;
 import net.ripe.db.whois.common.ip.Ipv4Resource;
 import net.ripe.db.whois.common.ip.Ipv6Resource;
 import net.ripe.db.whois.common.rpsl.attrs.AddressPrefixRange;
+import net.ripe.db.whois.common.rpsl.attrs.AutNum;
 import net.ripe.db.whois.common.rpsl.attrs.AutnumStatus;
 import net.ripe.db.whois.common.rpsl.attrs.Inet6numStatus;
 import net.ripe.db.whois.common.rpsl.attrs.InetnumStatus;
 import net.ripe.db.whois.common.rpsl.attrs.OrgType;
 import net.ripe.db.whois.common.rpsl.attrs.RangeOperation;
+import net.ripe.db.whois.common.rpsl.attrs.SetObject;
 
 import java.util.HashMap;
 import java.util.regex.Matcher;
@@ -56,11 +58,11 @@ public interface AttributeSyntax extends Documented {
     AttributeSyntax AS_BLOCK_SYNTAX = new AttributeSyntaxParser(new AttributeParser.AsBlockParser(), "" +
             "<as-number> - <as-number>\n");
 
-    AttributeSyntax AS_NUMBER_SYNTAX = new AttributeSyntaxParser(new AttributeParser.AutNumParser(), "" +
+    AttributeSyntax AS_NUMBER_SYNTAX = new AutNumSyntax("" +
             "An \"AS\" string followed by an integer in the range\n" +
             "from 0 to 4294967295\n");
 
-    AttributeSyntax AS_SET_SYNTAX = new AttributeSyntaxParser(new AttributeParser.AsSetParser(), "" +
+    AttributeSyntax AS_SET_SYNTAX = new SetObjectSyntax(SetObject.Type.ASSET, "" +
             "An as-set name is made up of letters, digits, the\n" +
             "character underscore \"_\", and the character hyphen \"-\"; it\n" +
             "must start with \"as-\", and the last character of a name must\n" +
@@ -73,10 +75,10 @@ public interface AttributeSyntax extends Documented {
             "name components of a hierarchical as-name have to be as-set\n" +
             "names. The total length should not exceed 80 characters (octets).\n");
 
-    AttributeSyntax AGGR_BNDRY_SYNTAX = new AttributeSyntaxParser(new AggrBndryParser(), "" +
+    AttributeSyntax AGGR_BNDRY_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(AggrBndryParser::new), "" +
             "[<as-expression>]\n");
 
-    AttributeSyntax AGGR_MTD_SYNTAX = new AttributeSyntaxParser(new AggrMtdParser(), "" +
+    AttributeSyntax AGGR_MTD_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(AggrMtdParser::new), "" +
             "inbound | outbound [<as-expression>]\n");
 
     AttributeSyntax AUTH_SCHEME_SYNTAX = new AttributeSyntaxRegexp(
@@ -128,7 +130,7 @@ public interface AttributeSyntax extends Documented {
 
     AttributeSyntax COMPONENTS_SYNTAX = new ComponentsSyntax();
 
-    AttributeSyntax DEFAULT_SYNTAX = new AttributeSyntaxParser(new DefaultParser(), "" +
+    AttributeSyntax DEFAULT_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(DefaultParser::new), "" +
             "to <peering> [action <action>] [networks <filter>]");
 
     AttributeSyntax DOMAIN_SYNTAX = new AttributeSyntaxParser(new AttributeParser.DomainParser(), "" +
@@ -155,7 +157,7 @@ public interface AttributeSyntax extends Documented {
 
     AttributeSyntax EXPORT_COMPS_SYNTAX = new ExportCompsSyntax();
 
-    AttributeSyntax EXPORT_SYNTAX = new AttributeSyntaxParser(new ExportParser(), "" +
+    AttributeSyntax EXPORT_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(ExportParser::new), "" +
             "[protocol <protocol-1>] [into <protocol-1>]\n" +
             "to <peering-1> [action <action-1>]\n" +
             "    .\n" +
@@ -164,12 +166,12 @@ public interface AttributeSyntax extends Documented {
             "to <peering-N> [action <action-N>]\n" +
             "announce <filter>\n");
 
-    AttributeSyntax FILTER_SYNTAX = new AttributeSyntaxParser(new FilterParser(), "" +
+    AttributeSyntax FILTER_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(FilterParser::new), "" +
             "Logical expression which when applied to a set of routes\n" +
             "returns a subset of these routes. Please refer to RFC 2622\n" +
             "for more information.\n");
 
-    AttributeSyntax FILTER_SET_SYNTAX = new AttributeSyntaxParser(new AttributeParser.FilterSetParser(), "" +
+    AttributeSyntax FILTER_SET_SYNTAX = new SetObjectSyntax(SetObject.Type.FILTERSET, "" +
             "A filter-set name is made up of letters, digits, the\n" +
             "character underscore \"_\", and the character hyphen \"-\"; it\n" +
             "must start with \"fltr-\", and the last character of a name\n" +
@@ -190,7 +192,7 @@ public interface AttributeSyntax extends Documented {
 
     AttributeSyntax GEOLOC_SYNTAX = new GeolocSyntax();
     AttributeSyntax HOLES_SYNTAX = new RoutePrefixSyntax();
-    AttributeSyntax IMPORT_SYNTAX = new AttributeSyntaxParser(new ImportParser(), "" +
+    AttributeSyntax IMPORT_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(ImportParser::new), "" +
             "[protocol <protocol-1>] [into <protocol-1>]\n" +
             "from <peering-1> [action <action-1>]\n" +
             "    .\n" +
@@ -206,12 +208,12 @@ public interface AttributeSyntax extends Documented {
             "254 characters (octets).\n"
     );
 
-    AttributeSyntax IFADDR_SYNTAX = new AttributeSyntaxParser(new IfaddrParser(), "" +
+    AttributeSyntax IFADDR_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(IfaddrParser::new), "" +
             "<ipv4-address> masklen <integer> [action <action>]");
 
     AttributeSyntax INJECT_SYNTAX = new InjectSyntax();
 
-    AttributeSyntax INTERFACE_SYNTAX = new AttributeSyntaxParser(new InterfaceParser(), "" +
+    AttributeSyntax INTERFACE_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(InterfaceParser::new), "" +
             "afi <afi> <ipv4-address> masklen <integer> [action <action>]\n" +
             "afi <afi> <ipv6-address> masklen <integer> [action <action>]\n" +
             "          [tunnel <remote-endpoint-address>,<encapsulation>]\n");
@@ -257,10 +259,10 @@ public interface AttributeSyntax extends Documented {
         put(ObjectType.ROUTE6, "<mnt-name> [ { list of <ipv6-address>/<prefix> } | ANY ]\n");
     }}));
 
-    AttributeSyntax MP_DEFAULT_SYNTAX = new AttributeSyntaxParser(new MpDefaultParser(), "" +
+    AttributeSyntax MP_DEFAULT_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(MpDefaultParser::new), "" +
             "to <peering> [action <action>] [networks <filter>]\n");
 
-    AttributeSyntax MP_EXPORT_SYNTAX = new AttributeSyntaxParser(new MpExportParser(), "" +
+    AttributeSyntax MP_EXPORT_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(MpExportParser::new), "" +
             "[protocol <protocol-1>] [into <protocol-1>]\n" +
             "afi <afi-list>\n" +
             "to <peering-1> [action <action-1>]\n" +
@@ -270,7 +272,7 @@ public interface AttributeSyntax extends Documented {
             "to <peering-N> [action <action-N>]\n" +
             "announce <filter>\n");
 
-    AttributeSyntax EXPORT_VIA_SYNTAX = new AttributeSyntaxParser(new ExportViaParser(), "" +
+    AttributeSyntax EXPORT_VIA_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(ExportViaParser::new), "" +
             "[protocol <protocol-1>] [into <protocol-2>]   \n" +
             "afi <afi-list>\n" +
             "<peering-1>\n" +
@@ -282,12 +284,12 @@ public interface AttributeSyntax extends Documented {
             "to <peering-M> [action <action-1>; <action-2>; ... <action-N>;]\n" +
             "announce <filter>\n");
 
-    AttributeSyntax MP_FILTER_SYNTAX = new AttributeSyntaxParser(new MpFilterParser(), "" +
+    AttributeSyntax MP_FILTER_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(MpFilterParser::new), "" +
             "Logical expression which when applied to a set of multiprotocol\n" +
             "routes returns a subset of these routes. Please refer to RPSLng\n" +
             "Internet Draft for more information.\n");
 
-    AttributeSyntax MP_IMPORT_SYNTAX = new AttributeSyntaxParser(new MpImportParser(), "" +
+    AttributeSyntax MP_IMPORT_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(MpImportParser::new), "" +
             "[protocol <protocol-1>] [into <protocol-1>]\n" +
             "afi <afi-list>\n" +
             "from <peering-1> [action <action-1>]\n" +
@@ -298,7 +300,7 @@ public interface AttributeSyntax extends Documented {
             "accept (<filter>|<filter> except <importexpression>|\n" +
             "        <filter> refine <importexpression>)\n");
 
-    AttributeSyntax IMPORT_VIA_SYNTAX = new AttributeSyntaxParser(new ImportViaParser(), "" +
+    AttributeSyntax IMPORT_VIA_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(ImportViaParser::new), "" +
             "[protocol <protocol-1>] [into <protocol-2>]\n" +
             "afi <afi-list>\n" +
             "<peering-1>\n" +
@@ -313,7 +315,7 @@ public interface AttributeSyntax extends Documented {
 
     AttributeSyntax MP_MEMBERS_SYNTAX = new MembersSyntax(true);
 
-    AttributeSyntax MP_PEER_SYNTAX = new AttributeSyntaxParser(new MpPeerParser(), new Multiple(new HashMap<ObjectType, String>() {{
+    AttributeSyntax MP_PEER_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(MpPeerParser::new), new Multiple(new HashMap<ObjectType, String>() {{
         put(ObjectType.INET_RTR, "" +
                 "<protocol> afi <afi> <ipv4- or ipv6- address> <options>\n" +
                 "| <protocol> <inet-rtr-name> <options>\n" +
@@ -325,7 +327,7 @@ public interface AttributeSyntax extends Documented {
 
     }}));
 
-    AttributeSyntax MP_PEERING_SYNTAX = new AttributeSyntaxParser(new MpPeeringParser(), "" +
+    AttributeSyntax MP_PEERING_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(MpPeeringParser::new), "" +
             "<as-expression> [<mp-router-expression-1>] [at <mp-router-expression-2>] | <peering-set-name>\n");
 
     AttributeSyntax NETNAME_SYNTAX = new AttributeSyntaxRegexp(80, Pattern.compile("(?i)^[A-Z]([A-Z0-9_-]*[A-Z0-9])?$"), "" +
@@ -400,13 +402,13 @@ public interface AttributeSyntax extends Documented {
 
     AttributeSyntax ORG_TYPE_SYNTAX = new OrgTypeSyntax();
 
-    AttributeSyntax PEER_SYNTAX = new AttributeSyntaxParser(new PeerParser(), "" +
+    AttributeSyntax PEER_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(PeerParser::new), "" +
             "<protocol> <ipv4-address> <options>\n" +
             "| <protocol> <inet-rtr-name> <options>\n" +
             "| <protocol> <rtr-set-name> <options>\n" +
             "| <protocol> <peering-set-name> <options>\n");
 
-    AttributeSyntax PEERING_SYNTAX = new AttributeSyntaxParser(new PeeringParser(), "" +
+    AttributeSyntax PEERING_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(PeeringParser::new), "" +
             "<peering>\n");
 
     AttributeSyntax PERSON_ROLE_NAME_SYNTAX = new PersonRoleSyntax();
@@ -444,7 +446,7 @@ public interface AttributeSyntax extends Documented {
             "'+' <integer-list> \"(\" integer list \")\" <integer-list> ext. <integer-list>\n"
     );
 
-    AttributeSyntax ROUTE_SET_SYNTAX = new AttributeSyntaxParser(new AttributeParser.RouteSetParser(), "" +
+    AttributeSyntax ROUTE_SET_SYNTAX = new SetObjectSyntax(SetObject.Type.ROUTESET, "" +
             "An route-set name is made up of letters, digits, the\n" +
             "character underscore \"_\", and the character hyphen \"-\"; it\n" +
             "must start with \"rs-\", and the last character of a name must\n" +
@@ -457,7 +459,7 @@ public interface AttributeSyntax extends Documented {
             "name components of a hierarchical route-name have to be\n" +
             "route-set names. The total length should not exceed 80 characters (octets).\n");
 
-    AttributeSyntax RTR_SET_SYNTAX = new AttributeSyntaxParser(new AttributeParser.RtrSetParser(), "" +
+    AttributeSyntax RTR_SET_SYNTAX = new SetObjectSyntax(SetObject.Type.RTRSET, "" +
             "A router-set name is made up of letters, digits, the\n" +
             "character underscore \"_\", and the character hyphen \"-\"; it\n" +
             "must start with \"rtrs-\", and the last character of a name\n" +
@@ -470,7 +472,7 @@ public interface AttributeSyntax extends Documented {
             "set name components of a hierarchical router-set name have\n" +
             "to be router-set names. The total length should not exceed 80 characters (octets).\n");
 
-    AttributeSyntax PEERING_SET_SYNTAX = new AttributeSyntaxParser(new AttributeParser.PeeringSetParser(), "" +
+    AttributeSyntax PEERING_SET_SYNTAX = new SetObjectSyntax(SetObject.Type.PEERINGSET, "" +
             "A peering-set name is made up of letters, digits, the\n" +
             "character underscore \"_\", and the character hyphen \"-\"; it\n" +
             "must start with \"prng-\", and the last character of a name\n" +
@@ -525,6 +527,44 @@ public interface AttributeSyntax extends Documented {
         }
     }
 
+    class AutNumSyntax implements AttributeSyntax {
+        private final String description;
+
+        AutNumSyntax(final String description) {
+            this.description = description;
+        }
+
+        @Override
+        public boolean matches(final ObjectType objectType, final String value) {
+            return AutNum.isValid(value);
+        }
+
+        @Override
+        public String getDescription(final ObjectType objectType) {
+            return description;
+        }
+    }
+
+    class SetObjectSyntax implements AttributeSyntax {
+        private final SetObject.Type type;
+        private final String description;
+
+        SetObjectSyntax(final SetObject.Type type, final String description) {
+            this.type = type;
+            this.description = description;
+        }
+
+        @Override
+        public boolean matches(final ObjectType objectType, final String value) {
+            return SetObject.isValid(type, value);
+        }
+
+        @Override
+        public String getDescription(final ObjectType objectType) {
+            return description;
+        }
+    }
+
     class AnySyntax implements AttributeSyntax {
         private final String description;
 
@@ -704,10 +744,7 @@ public interface AttributeSyntax extends Documented {
         public boolean matches(final ObjectType objectType, final String value) {
             switch (objectType) {
                 case AS_SET:
-                    final boolean asNumberSyntax = AS_NUMBER_SYNTAX.matches(objectType, value);
-                    final boolean asSetSyntax = AS_SET_SYNTAX.matches(objectType, value);
-
-                    return asNumberSyntax || asSetSyntax;
+                    return AS_NUMBER_SYNTAX.matches(objectType, value) || AS_SET_SYNTAX.matches(objectType, value);
 
                 case ROUTE_SET:
                     if (ROUTE_SET_SYNTAX.matches(objectType, value)) {
@@ -923,13 +960,16 @@ public interface AttributeSyntax extends Documented {
     }
 
     class ComponentsSyntax implements AttributeSyntax {
+        private static final AttributeSyntax COMPONENTS_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(ComponentsParser::new));
+        private static final AttributeSyntax COMPONENTS_R6_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(ComponentsR6Parser::new));
+
         @Override
         public boolean matches(final ObjectType objectType, final String value) {
             switch (objectType) {
                 case ROUTE:
-                    return new AttributeSyntaxParser(new ComponentsParser()).matches(objectType, value);
+                    return COMPONENTS_SYNTAX.matches(objectType, value);
                 case ROUTE6:
-                    return new AttributeSyntaxParser(new ComponentsR6Parser()).matches(objectType, value);
+                    return COMPONENTS_R6_SYNTAX.matches(objectType, value);
                 default:
                     return false;
             }
@@ -949,13 +989,15 @@ public interface AttributeSyntax extends Documented {
 
 
     class ExportCompsSyntax implements AttributeSyntax {
+        private static final AttributeSyntax V6_FILTER_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(V6FilterParser::new));
+
         @Override
         public boolean matches(final ObjectType objectType, final String value) {
             switch (objectType) {
                 case ROUTE:
-                    return new AttributeSyntaxParser(new FilterParser()).matches(objectType, value);
+                    return FILTER_SYNTAX.matches(objectType, value);
                 case ROUTE6:
-                    return new AttributeSyntaxParser(new V6FilterParser()).matches(objectType, value);
+                    return V6_FILTER_SYNTAX.matches(objectType, value);
                 default:
                     return false;
             }
@@ -981,14 +1023,17 @@ public interface AttributeSyntax extends Documented {
     }
 
     class InjectSyntax implements AttributeSyntax {
+        private static final AttributeSyntax INJECT_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(InjectParser::new));
+        private static final AttributeSyntax INJECT_R6_SYNTAX = new AttributeSyntaxParser(new PooledAttributeParser<>(InjectR6Parser::new));
+
         @Override
         public boolean matches(final ObjectType objectType, final String value) {
             switch (objectType) {
                 case ROUTE:
-                    return new AttributeSyntaxParser(new InjectParser()).matches(objectType, value);
+                    return INJECT_SYNTAX.matches(objectType, value);
 
                 case ROUTE6:
-                    return new AttributeSyntaxParser(new InjectR6Parser()).matches(objectType, value);
+                    return INJECT_R6_SYNTAX.matches(objectType, value);
 
                 default:
                     return false;
@@ -1024,8 +1069,7 @@ public interface AttributeSyntax extends Documented {
         @Override
         public boolean matches(final ObjectType objectType, final String value) {
             try {
-                attributeParser.parse(value);
-                return true;
+                return ParserHelper.validate(attributeParser, value);
             } catch (IllegalArgumentException ignored) {
                 return false;
             }
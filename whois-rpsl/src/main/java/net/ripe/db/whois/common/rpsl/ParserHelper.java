@@ -25,6 +25,9 @@ public class ParserHelper {
     private static final Pattern ADDRESS_PREFIX_RANGE_PATTERN = Pattern.compile("^(.*)/(\\d+)[\\^][\\+]??(\\d+)*[-]??(\\d+)*$");
     private static final Pattern AS_RANGE_PATTERN = Pattern.compile("(?i)AS([0-9]+)[ ]*[-][ ]*AS([0-9]+)");
 
+    // while validating, errors on the current thread are recorded instead of thrown
+    private static final ThreadLocal<Validation> VALIDATION = new ThreadLocal<>();
+
     public static void check16bit(final String number) {
         final long value = Long.parseLong(number);
         if (value < 0 || value > MAX_16BIT_NUMBER) {
@@ -304,15 +307,60 @@ public class ParserHelper {
 
     public static void syntaxError(final String message) {
     	LOGGER.debug("syntax error: {}", message);
+        if (recordError()) {
+            return;
+        }
+
         throw new IllegalArgumentException(message);
     }
 
     public static void parserError(final String message) {
     	LOGGER.debug("parser error: {}", message);
+        if (recordError()) {
+            return;
+        }
 
         if (message.equalsIgnoreCase("syntax error")) {
             throw new IllegalArgumentException("invalid syntax");
         }
         throw new IllegalArgumentException(message);
     }
+
+    /**
+     * Parse a value without using exceptions to report errors, the lexer, parser and helper errors are recorded
+     * on the current thread instead.
+     *
+     * @return true if the value was parsed without errors
+     */
+    public static boolean validate(final AttributeParser<?> attributeParser, final String value) {
+        final Validation previous = VALIDATION.get();
+        final Validation validation = new Validation();
+        VALIDATION.set(validation);
+        try {
+            attributeParser.parse(value);
+            return validation.valid;
+        } finally {
+            VALIDATION.set(previous);
+        }
+    }
+
+    // the parsers stop reading input once an error is recorded, as the value is known to be invalid
+    public static boolean hasRecordedError() {
+        final Validation validation = VALIDATION.get();
+        return validation != null && !validation.valid;
+    }
+
+    private static boolean recordError() {
+        final Validation validation = VALIDATION.get();
+        if (validation == null) {
+            return false;
+        }
+
+        validation.valid = false;
+        return true;
+    }
+
+    private static final class Validation {
+        private boolean valid = true;
+    }
 }
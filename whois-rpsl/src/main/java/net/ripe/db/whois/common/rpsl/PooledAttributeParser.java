@@ -0,0 +1,34 @@
+package net.ripe.db.whois.common.rpsl;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Reuses the instances of a stateful parser, such as the generated parsers, which are not thread safe.
+ * An instance is confined to a single thread while parsing, and returned to the pool afterwards.
+ */
+class PooledAttributeParser<T> implements AttributeParser<T> {
+    private static final int MAX_IDLE = Runtime.getRuntime().availableProcessors();
+
+    private final Supplier<? extends AttributeParser<T>> parserSupplier;
+    private final Queue<AttributeParser<T>> idleParsers = new ArrayBlockingQueue<>(MAX_IDLE);
+
+    PooledAttributeParser(final Supplier<? extends AttributeParser<T>> parserSupplier) {
+        this.parserSupplier = parserSupplier;
+    }
+
+    @Override
+    public T parse(final String s) {
+        AttributeParser<T> parser = idleParsers.poll();
+        if (parser == null) {
+            parser = parserSupplier.get();
+        }
+
+        try {
+            return parser.parse(s);
+        } finally {
+            idleParsers.offer(parser);
+        }
+    }
+}
@@ -25,9 +25,18 @@ public class AutNum {
     }
 
     public static AutNum parse(final String value) {
+        check(value, true);
+        return new AutNum(Long.parseLong(value.substring(2)));
+    }
+
+    public static boolean isValid(final String value) {
+        return check(value, false);
+    }
+
+    private static boolean check(final String value, final boolean throwOnError) {
         final Matcher matcher = AUTNUM_PATTERN.matcher(value);
         if (!matcher.matches()) {
-            throw new AttributeParseException("Invalid syntax", value);
+            return error(throwOnError, "Invalid syntax", value);
         }
 
         final String num = matcher.group(1);
@@ -40,13 +49,20 @@ public class AutNum {
         }
 
         if (numericValue < 0 || numericValue > 4294967295L) {
-            throw new AttributeParseException("AS number has to be between 0 and 4294967295", value);
+            return error(throwOnError, "AS number has to be between 0 and 4294967295", value);
         }
 
         if (numericValue != 0 && num.charAt(0) == '0') {
-            throw new AttributeParseException("Cannot start with 0", value);
+            return error(throwOnError, "Cannot start with 0", value);
         }
 
-        return new AutNum(numericValue);
+        return true;
+    }
+
+    private static boolean error(final boolean throwOnError, final String message, final String value) {
+        if (throwOnError) {
+            throw new AttributeParseException(message, value);
+        }
+        return false;
     }
 }
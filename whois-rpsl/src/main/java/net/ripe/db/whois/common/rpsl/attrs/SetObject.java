@@ -56,8 +56,17 @@ public class SetObject {
     }
 
     public static SetObject parse(final Type type, final String value) {
+        check(type, value, true);
+        return new SetObject(type, value);
+    }
+
+    public static boolean isValid(final Type type, final String value) {
+        return check(type, value, false);
+    }
+
+    private static boolean check(final Type type, final String value, final boolean throwOnError) {
         if (value.length() > 80) {
-            throw new AttributeParseException("Too long", value);
+            return error(throwOnError, "Too long", value);
         }
 
         boolean hasSetName = false;
@@ -67,28 +76,37 @@ public class SetObject {
             final int prefixLength = type.getPrefix().length();
 
             if (element.length() <= prefixLength) {
-                throw new AttributeParseException(MessageFormat.format("Element '{0}' too short", element), value);
+                return error(throwOnError, MessageFormat.format("Element '{0}' too short", element), value);
             }
 
             if (element.charAt(prefixLength) == '-') {
                 if (!type.getPattern().matcher(element).matches()) {
-                    throw new AttributeParseException(String.format("Invalid {0} element name '{1}'", type, element), value);
+                    return error(throwOnError, String.format("Invalid {0} element name '{1}'", type, element), value);
                 }
                 hasSetName = true;
 
-            } else {
+            } else if (throwOnError) {
                 AutNum.parse(element);
+            } else if (!AutNum.isValid(element)) {
+                return false;
             }
         }
 
         if (!hasSetName) {
             if (elementCount == 1) {
-                throw new AttributeParseException(MessageFormat.format("Invalid {0} name", type), value);
+                return error(throwOnError, MessageFormat.format("Invalid {0} name", type), value);
             } else {
-                throw new AttributeParseException(MessageFormat.format("Hierarchical {0} name must include an {0} element", type), value);
+                return error(throwOnError, MessageFormat.format("Hierarchical {0} name must include an {0} element", type), value);
             }
         }
 
-        return new SetObject(type, value);
+        return true;
+    }
+
+    private static boolean error(final boolean throwOnError, final String message, final String value) {
+        if (throwOnError) {
+            throw new AttributeParseException(message, value);
+        }
+        return false;
     }
 }
@@ -207,6 +207,9 @@ protected final Logger LOGGER = LoggerFactory.getLogger(ComponentsParser.class);
 private ComponentsLexer lexer;
 
 private int yylex () {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	int yyl_return = -1;
 	try {
 		yyl_return = lexer.yylex();
@@ -224,10 +227,14 @@ public void yyerror(final String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new ComponentsLexer(new StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new ComponentsLexer(new StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
\ No newline at end of file
@@ -260,6 +260,9 @@ protected final Logger LOGGER = LoggerFactory.getLogger(DefaultParser.class);
 private DefaultLexer lexer;
 
 private int yylex () {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	int yyl_return = -1;
 	try {
 		yyl_return = lexer.yylex();
@@ -277,10 +280,14 @@ public void yyerror (final String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new DefaultLexer(new StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new DefaultLexer(new StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
\ No newline at end of file
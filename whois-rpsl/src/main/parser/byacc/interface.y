@@ -153,16 +153,23 @@ private InterfaceLexer lexer;
 
 @Override
 public Void parse(final String attributeValue) {
-    lexer = new InterfaceLexer(new StringReader(attributeValue), this);
+    if (lexer == null) {
+        lexer = new InterfaceLexer(new StringReader(attributeValue), this);
+    } else {
+        lexer.yyreset(new StringReader(attributeValue));
+    }
     final int result = yyparse();
     if (result > 0) {
         LOGGER.error("can't parse " + attributeValue);
-        throw new IllegalArgumentException("Unexpected parse result: " + result);
+        ParserHelper.parserError("Unexpected parse result: " + result);
     }
     return null;
 }
 
 public int yylex () {
+    if (ParserHelper.hasRecordedError()) {
+        return 0;
+    }
     int yyl_return = -1;
     try {
         yyl_return = lexer.yylex();
@@ -316,6 +316,9 @@ protected final Logger LOGGER = LoggerFactory.getLogger(MpExportParser.class);
 private MpExportLexer lexer;
 
 private int yylex () {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	int yyl_return = -1;
 	try {
 		yyl_return = lexer.yylex();
@@ -333,10 +336,14 @@ public void yyerror (String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new MpExportLexer(new StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new MpExportLexer(new StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
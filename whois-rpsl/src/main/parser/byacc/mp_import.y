@@ -329,6 +329,9 @@ protected final Logger LOGGER = LoggerFactory.getLogger(MpImportParser.class);
 private MpImportLexer lexer;
 
 private int yylex () {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	try {
 		return lexer.yylex();
 	}
@@ -345,10 +348,14 @@ public void yyerror (final String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new MpImportLexer(new StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new MpImportLexer(new StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
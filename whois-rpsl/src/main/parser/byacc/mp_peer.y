@@ -67,6 +67,9 @@ flap_damp: KEYW_FLAP_DAMP '(' ')'
 private MpPeerLexer lexer;
 
 private int yylex() {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	int yyl_return = -1;
 	try {
 		yyl_return = lexer.yylex();
@@ -84,10 +87,14 @@ public void yyerror(final String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new MpPeerLexer(new java.io.StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new MpPeerLexer(new java.io.StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new java.io.StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
@@ -86,6 +86,9 @@ domain_name: TKN_DNS
 private MpPeeringLexer lexer;
 
 private int yylex() {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	int yyl_return = -1;
 	try {
 		yyl_return = lexer.yylex();
@@ -102,10 +105,14 @@ public void yyerror(final String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new MpPeeringLexer(new java.io.StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new MpPeeringLexer(new java.io.StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new java.io.StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
@@ -62,6 +62,9 @@ flap_damp: KEYW_FLAP_DAMP '(' ')'
 private PeerLexer lexer;
 
 private int yylex () {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	int yyl_return = -1;
 	try {
 		yyl_return = lexer.yylex();
@@ -79,10 +82,14 @@ public void yyerror (final String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new PeerLexer(new java.io.StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new PeerLexer(new java.io.StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new java.io.StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
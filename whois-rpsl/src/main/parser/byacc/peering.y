@@ -85,6 +85,9 @@ domain_name: TKN_DNS
 private PeeringLexer lexer;
 
 private int yylex () {
+	if (ParserHelper.hasRecordedError()) {
+		return 0;
+	}
 	int yyl_return = -1;
 	try {
 		yyl_return = lexer.yylex();
@@ -101,10 +104,14 @@ public void yyerror (final String error) {
 
 @Override
 public Void parse(final String attributeValue) {
-	lexer = new PeeringLexer(new java.io.StringReader(attributeValue), this);
+	if (lexer == null) {
+		lexer = new PeeringLexer(new java.io.StringReader(attributeValue), this);
+	} else {
+		lexer.yyreset(new java.io.StringReader(attributeValue));
+	}
     final int result = yyparse();
 	if (result > 0) {
-	    throw new IllegalArgumentException("Unexpected parse result: " + result);
+	    ParserHelper.parserError("Unexpected parse result: " + result);
 	}
 	return null;
 }
@@ -1,7 +1,12 @@
 package net.ripe.db.whois.common.rpsl;
 
+import net.ripe.db.whois.common.generated.AggrMtdParser;
+import net.ripe.db.whois.common.generated.ImportParser;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
 public class ParserHelperTest {
 
     // validateMoreSpecificsOperator
@@ -260,4 +265,47 @@ public class ParserHelperTest {
     public void validateAsRangeInvalidToWithSpaces() {
         ParserHelper.validateAsRange("AS1 -  AS" + (1L << 32));
     }
+
+    // validate
+
+    @Test
+    public void validateValidValue() {
+        assertThat(ParserHelper.validate(new AggrMtdParser(), "inbound"), is(true));
+    }
+
+    @Test
+    public void validateInvalidValueDoesNotThrow() {
+        assertThat(ParserHelper.validate(new AggrMtdParser(), "inbound outbound"), is(false));
+    }
+
+    @Test
+    public void validateRecordsFirstError() {
+        final boolean[] recorded = new boolean[2];
+
+        assertThat(ParserHelper.validate(new AttributeParser<Void>() {
+            @Override
+            public Void parse(final String s) {
+                recorded[0] = ParserHelper.hasRecordedError();
+                ParserHelper.syntaxError(s);
+                recorded[1] = ParserHelper.hasRecordedError();
+                return null;
+            }
+        }, "error"), is(false));
+
+        assertThat(recorded[0], is(false));
+        assertThat(recorded[1], is(true));
+        assertThat(ParserHelper.hasRecordedError(), is(false));
+    }
+
+    @Test
+    public void validateStopsAtFirstError() {
+        assertThat(ParserHelper.validate(new ImportParser(), "from AS" + (1L << 32) + " accept ANY AND AS1 AND {10.0.0.0/8^+}"), is(false));
+        assertThat(ParserHelper.validate(new ImportParser(), "from AS1 accept ANY AND AS1 AND {10.0.0.0/8^+}"), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void errorsThrowOutsideValidate() {
+        ParserHelper.validate(new AggrMtdParser(), "inbound outbound");
+        ParserHelper.syntaxError("error");
+    }
 }
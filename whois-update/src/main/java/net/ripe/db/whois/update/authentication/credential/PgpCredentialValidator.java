@@ -10,6 +10,7 @@ import net.ripe.db.whois.update.domain.PgpCredential;
 import net.ripe.db.whois.update.domain.PreparedUpdate;
 import net.ripe.db.whois.update.domain.UpdateContext;
 import net.ripe.db.whois.update.domain.UpdateMessages;
+import net.ripe.db.whois.update.keycert.KeyWrapperCache;
 import net.ripe.db.whois.update.keycert.PgpPublicKeyWrapper;
 import net.ripe.db.whois.update.log.LoggerContext;
 import org.bouncycastle.openpgp.PGPPublicKey;
@@ -27,12 +28,14 @@ class PgpCredentialValidator implements CredentialValidator<PgpCredential> {
     private final RpslObjectDao rpslObjectDao;
     private final DateTimeProvider dateTimeProvider;
     private final LoggerContext loggerContext;
+    private final KeyWrapperCache keyWrapperCache;
 
     @Autowired
-    public PgpCredentialValidator(final RpslObjectDao rpslObjectDao, final DateTimeProvider dateTimeProvider, LoggerContext loggerContext) {
+    public PgpCredentialValidator(final RpslObjectDao rpslObjectDao, final DateTimeProvider dateTimeProvider, LoggerContext loggerContext, final KeyWrapperCache keyWrapperCache) {
         this.rpslObjectDao = rpslObjectDao;
         this.dateTimeProvider = dateTimeProvider;
         this.loggerContext = loggerContext;
+        this.keyWrapperCache = keyWrapperCache;
     }
 
     @Override
@@ -104,7 +107,7 @@ class PgpCredentialValidator implements CredentialValidator<PgpCredential> {
     protected PgpPublicKeyWrapper getKeyWrapper(final PreparedUpdate update, final UpdateContext updateContext, final String keyId) {
         try {
             final RpslObject object = rpslObjectDao.getByKey(ObjectType.KEY_CERT, keyId);
-            return PgpPublicKeyWrapper.parse(object);
+            return keyWrapperCache.getPgpPublicKey(object);
         } catch (EmptyResultDataAccessException e) {
             updateContext.addMessage(update, UpdateMessages.keyNotFound(keyId));
             log(update, String.format("Unable to find %s: %s", keyId, e.getMessage()));
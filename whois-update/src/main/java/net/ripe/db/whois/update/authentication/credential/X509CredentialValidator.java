@@ -8,6 +8,7 @@ import net.ripe.db.whois.update.domain.PreparedUpdate;
 import net.ripe.db.whois.update.domain.UpdateContext;
 import net.ripe.db.whois.update.domain.UpdateMessages;
 import net.ripe.db.whois.update.domain.X509Credential;
+import net.ripe.db.whois.update.keycert.KeyWrapperCache;
 import net.ripe.db.whois.update.keycert.X509CertificateWrapper;
 import net.ripe.db.whois.update.log.LoggerContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,12 +24,14 @@ public class X509CredentialValidator implements CredentialValidator<X509Credenti
     private final RpslObjectDao rpslObjectDao;
     private final DateTimeProvider dateTimeProvider;
     private final LoggerContext loggerContext;
+    private final KeyWrapperCache keyWrapperCache;
 
     @Autowired
-    public X509CredentialValidator(final RpslObjectDao rpslObjectDao, final DateTimeProvider dateTimeProvider, final LoggerContext loggerContext) {
+    public X509CredentialValidator(final RpslObjectDao rpslObjectDao, final DateTimeProvider dateTimeProvider, final LoggerContext loggerContext, final KeyWrapperCache keyWrapperCache) {
         this.rpslObjectDao = rpslObjectDao;
         this.dateTimeProvider = dateTimeProvider;
         this.loggerContext = loggerContext;
+        this.keyWrapperCache = keyWrapperCache;
     }
 
     @Override
@@ -89,7 +92,7 @@ public class X509CredentialValidator implements CredentialValidator<X509Credenti
     protected X509CertificateWrapper getKeyWrapper(final PreparedUpdate update, final UpdateContext updateContext, final String keyId) {
         try {
             final RpslObject object = rpslObjectDao.getByKey(ObjectType.KEY_CERT, keyId);
-            return X509CertificateWrapper.parse(object);
+            return keyWrapperCache.getX509Certificate(object);
         } catch (EmptyResultDataAccessException e) {
             updateContext.addMessage(update, UpdateMessages.keyNotFound(keyId));
             log(update, String.format("Unable to find %s: %s", keyId, e.getMessage()));
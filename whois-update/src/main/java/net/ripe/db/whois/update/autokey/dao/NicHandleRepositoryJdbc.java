@@ -1,5 +1,6 @@
 package net.ripe.db.whois.update.autokey.dao;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
 import net.ripe.db.whois.update.domain.NicHandle;
 import org.apache.commons.lang.StringUtils;
@@ -21,7 +22,9 @@ import java.util.List;
 
 @Repository
 @Transactional(propagation = Propagation.MANDATORY)
-class NicHandleRepositoryJdbc implements NicHandleRepository {
+public class NicHandleRepositoryJdbc implements NicHandleRepository {
+    private static final int PAGE_SIZE = 100;
+
     private final JdbcTemplate jdbcTemplate;
 
     private static final class NicHandleRange {
@@ -50,6 +53,13 @@ class NicHandleRepositoryJdbc implements NicHandleRepository {
         }
     };
 
+    private static final RowMapper<NicHandleRange> NIC_HANDLE_RANGE_ROW_MAPPER = new RowMapper<NicHandleRange>() {
+        @Override
+        public NicHandleRange mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+            return new NicHandleRange(rs.getInt("range_id"), Range.closed(rs.getInt("range_start"), rs.getInt("range_end")));
+        }
+    };
+
     @Autowired
     public NicHandleRepositoryJdbc(@Qualifier("sourceAwareDataSource") final DataSource dataSource) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
@@ -61,7 +71,7 @@ class NicHandleRepositoryJdbc implements NicHandleRepository {
             return false;
         }
 
-        final List<NicHandleRange> nicHandleRanges = getNicHandleRanges(nicHandle.getSpace(), nicHandle.getSuffix());
+        final List<NicHandleRange> nicHandleRanges = getAdjacentNicHandleRanges(nicHandle);
         nicHandleRanges.add(new NicHandleRange(Range.closed(nicHandle.getIndex(), nicHandle.getIndex())));
         saveCompact(nicHandleRanges, nicHandle.getSpace(), nicHandle.getSuffix());
         return true;
@@ -69,7 +79,7 @@ class NicHandleRepositoryJdbc implements NicHandleRepository {
 
     @Override
     public NicHandle claimNextAvailableIndex(final String space, final String suffix) {
-        final List<NicHandleRange> nicHandleRanges = getNicHandleRanges(space, suffix);
+        final List<NicHandleRange> nicHandleRanges = getNicHandleRangesAroundFirstGap(space, suffix);
         final int availableIndex = claimNextAvailableIndexInRanges(nicHandleRanges);
         saveCompact(nicHandleRanges, space, suffix);
 
@@ -91,17 +101,52 @@ class NicHandleRepositoryJdbc implements NicHandleRepository {
                 getSuffixForSql(nicHandle.getSuffix())).isEmpty();
     }
 
-    private List<NicHandleRange> getNicHandleRanges(final String space, final String suffix) {
+    /**
+     * Only the ranges that can change when claiming the next index are read: the ranges up to the first free index,
+     * and the ranges directly following it that can be merged. Ranges are kept compact, so normally this is only the
+     * first two ranges instead of all ranges in the space.
+     */
+    private List<NicHandleRange> getNicHandleRangesAroundFirstGap(final String space, final String suffix) {
+        final List<NicHandleRange> result = Lists.newArrayList();
+
+        int gaps = 0;
+        int previousEnd = 0;
+        for (int offset = 0; ; offset += PAGE_SIZE) {
+            final List<NicHandleRange> nicHandleRanges = jdbcTemplate.query("" +
+                    "select range_id, range_start, range_end " +
+                    "  from nic_hdl " +
+                    "  where space = ? and source = ? " +
+                    "  order by range_start " +
+                    "  limit ? offset ?",
+                    NIC_HANDLE_RANGE_ROW_MAPPER,
+                    space, getSuffixForSql(suffix), PAGE_SIZE, offset);
+
+            for (final NicHandleRange nicHandleRange : nicHandleRanges) {
+                if (nicHandleRange.range.lowerEndpoint() > previousEnd + 1 && ++gaps > 1) {
+                    return result;
+                }
+
+                result.add(nicHandleRange);
+                previousEnd = nicHandleRange.range.upperEndpoint();
+            }
+
+            if (nicHandleRanges.size() < PAGE_SIZE) {
+                return result;
+            }
+        }
+    }
+
+    private List<NicHandleRange> getAdjacentNicHandleRanges(final NicHandle nicHandle) {
         return jdbcTemplate.query("" +
                 "select range_id, range_start, range_end " +
                 "  from nic_hdl " +
-                "  where space = ? and source = ? ",
-                new RowMapper<NicHandleRange>() {
-                    @Override
-                    public NicHandleRange mapRow(final ResultSet rs, final int rowNum) throws SQLException {
-                        return new NicHandleRange(rs.getInt("range_id"), Range.closed(rs.getInt("range_start"), rs.getInt("range_end")));
-                    }
-                }, space, getSuffixForSql(suffix));
+                "  where space = ? and source = ? " +
+                "          and (range_end = ? or range_start = ?)",
+                NIC_HANDLE_RANGE_ROW_MAPPER,
+                nicHandle.getSpace(),
+                getSuffixForSql(nicHandle.getSuffix()),
+                nicHandle.getIndex() - 1,
+                nicHandle.getIndex() + 1);
     }
 
     private int claimNextAvailableIndexInRanges(final List<NicHandleRange> nicHandleRanges) {
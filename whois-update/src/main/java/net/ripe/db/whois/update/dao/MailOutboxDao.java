@@ -0,0 +1,182 @@
+package net.ripe.db.whois.update.dao;
+
+import net.ripe.db.whois.common.DateTimeProvider;
+import net.ripe.db.whois.common.domain.Hosts;
+import net.ripe.db.whois.update.domain.OutboxMail;
+import net.ripe.db.whois.update.domain.OutboxStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outgoing mail that is stored in the whois database together with the update that caused it, and delivered later.
+ *
+ * Mail is claimed per recipient by a single host, in the same way as incoming mail updates are claimed from the mailupdates table.
+ */
+@Repository
+public class MailOutboxDao {
+    private final JdbcTemplate jdbcTemplate;
+    private final DateTimeProvider dateTimeProvider;
+
+    @Autowired
+    public MailOutboxDao(@Qualifier("sourceAwareDataSource") final DataSource dataSource, final DateTimeProvider dateTimeProvider) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dateTimeProvider = dateTimeProvider;
+    }
+
+    public void add(final String recipient, final byte[] message) {
+        final long now = now();
+        jdbcTemplate.update("" +
+                "INSERT INTO mail_outbox (recipient, message, status, attempts, next_attempt, changed) " +
+                "VALUES (?, ?, ?, 0, ?, ?)",
+                recipient,
+                message,
+                OutboxStatus.PENDING.name(),
+                now,
+                now);
+    }
+
+    /**
+     * Claims all mail that is due for at most limit recipients, oldest recipient first.
+     *
+     * A recipient is skipped while any of its mail is claimed or waiting for a retry, so that the mail for one recipient
+     * is delivered in order, by one delivery at a time.
+     */
+    public List<OutboxMail> claimRecipients(final int limit) {
+        final String uuid = UUID.randomUUID().toString();
+        final long now = now();
+
+        // the recipients are selected in a derived table, as MySQL cannot update a table it selects from in a subquery
+        final int rows = jdbcTemplate.update("" +
+                "UPDATE mail_outbox " +
+                "SET status = ?, claim_host = ?, claim_uuid = ?, changed = ? " +
+                "WHERE status = ? " +
+                "AND recipient IN (" +
+                "  SELECT recipient FROM (" +
+                "    SELECT recipient " +
+                "    FROM mail_outbox " +
+                "    WHERE status IN (?, ?) " +
+                "    GROUP BY recipient " +
+                "    HAVING SUM(status = ?) = 0 AND MAX(next_attempt) <= ? " +
+                "    ORDER BY MIN(id) " +
+                "    LIMIT ?" +
+                "  ) AS recipients" +
+                ")",
+                OutboxStatus.CLAIMED.name(),
+                Hosts.getLocalHostName(),
+                uuid,
+                now,
+                OutboxStatus.PENDING.name(),
+                OutboxStatus.PENDING.name(),
+                OutboxStatus.CLAIMED.name(),
+                OutboxStatus.CLAIMED.name(),
+                now,
+                limit);
+
+        if (rows == 0) {
+            return Collections.emptyList();
+        }
+
+        return jdbcTemplate.query("" +
+                "SELECT id, recipient, message, attempts " +
+                "FROM mail_outbox " +
+                "WHERE claim_uuid = ? " +
+                "ORDER BY id",
+                new OutboxMailRowMapper(),
+                uuid);
+    }
+
+    public void setSent(final OutboxMail mail) {
+        jdbcTemplate.update("" +
+                "UPDATE mail_outbox " +
+                "SET status = ?, attempts = ?, changed = ? " +
+                "WHERE id = ?",
+                OutboxStatus.SENT.name(),
+                mail.getAttempts() + 1,
+                now(),
+                mail.getId());
+    }
+
+    public void setFailed(final OutboxMail mail) {
+        jdbcTemplate.update("" +
+                "UPDATE mail_outbox " +
+                "SET status = ?, attempts = ?, changed = ? " +
+                "WHERE id = ?",
+                OutboxStatus.FAILED.name(),
+                mail.getAttempts() + 1,
+                now(),
+                mail.getId());
+    }
+
+    public void retry(final OutboxMail mail, final int delaySeconds) {
+        final long now = now();
+        jdbcTemplate.update("" +
+                "UPDATE mail_outbox " +
+                "SET status = ?, attempts = ?, next_attempt = ?, claim_host = NULL, claim_uuid = NULL, changed = ? " +
+                "WHERE id = ?",
+                OutboxStatus.PENDING.name(),
+                mail.getAttempts() + 1,
+                now + delaySeconds,
+                now,
+                mail.getId());
+    }
+
+    /**
+     * Returns mail claimed by a host that did not deliver it in time to the queue, e.g. because that host was stopped.
+     */
+    public int releaseClaims(final int olderThanSeconds) {
+        return jdbcTemplate.update("" +
+                "UPDATE mail_outbox " +
+                "SET status = ?, claim_host = NULL, claim_uuid = NULL " +
+                "WHERE status = ? AND changed < ?",
+                OutboxStatus.PENDING.name(),
+                OutboxStatus.CLAIMED.name(),
+                now() - olderThanSeconds);
+    }
+
+    public int deleteSent(final int olderThanSeconds) {
+        return jdbcTemplate.update("" +
+                "DELETE FROM mail_outbox " +
+                "WHERE status = ? AND changed < ?",
+                OutboxStatus.SENT.name(),
+                now() - olderThanSeconds);
+    }
+
+    /**
+     * Returns the number of mails that are currently due or being delivered.
+     */
+    public int countUndelivered() {
+        return jdbcTemplate.queryForObject("" +
+                "SELECT count(*) " +
+                "FROM mail_outbox " +
+                "WHERE (status = ? AND next_attempt <= ?) OR status = ?",
+                Integer.class,
+                OutboxStatus.PENDING.name(),
+                now(),
+                OutboxStatus.CLAIMED.name());
+    }
+
+    private long now() {
+        return dateTimeProvider.getCurrentDateTime().toDate().getTime() / 1000;
+    }
+
+    private static class OutboxMailRowMapper implements RowMapper<OutboxMail> {
+        @Override
+        public OutboxMail mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+            return new OutboxMail(
+                    rs.getInt("id"),
+                    rs.getString("recipient"),
+                    rs.getBytes("message"),
+                    rs.getInt("attempts"));
+        }
+    }
+}
@@ -36,7 +36,11 @@ public final class Notification {
     }
 
     public void add(final Type type, final PreparedUpdate update, UpdateContext updateContext) {
-        updates.get(type).add(new Update(update, updateContext));
+        add(type, new Update(update, updateContext));
+    }
+
+    public void add(final Type type, final Update update) {
+        updates.get(type).add(update);
     }
 
     public String getEmail() {
@@ -73,6 +77,11 @@ public final class Notification {
         private final PreparedUpdate update;
         private final int versionId;
 
+        // rendered on first use, an update is usually part of several notifications
+        private String referenceObjectText;
+        private String updatedObjectText;
+        private String diff;
+
         public Update(final PreparedUpdate update, final UpdateContext updateContext) {
             this.referenceObject = filterChangedFunction.apply(filterAuthFunction.apply(update.getReferenceObject()));
             this.updatedObject = filterChangedFunction.apply(filterAuthFunction.apply(update.getUpdatedObject()));
@@ -98,6 +107,20 @@ public final class Notification {
             return updatedObject;
         }
 
+        public String getReferenceObjectText() {
+            if (referenceObjectText == null) {
+                referenceObjectText = referenceObject.toString();
+            }
+            return referenceObjectText;
+        }
+
+        public String getUpdatedObjectText() {
+            if (updatedObjectText == null) {
+                updatedObjectText = updatedObject.toString();
+            }
+            return updatedObjectText;
+        }
+
         public boolean isReplacement() {
             return !referenceObject.equals(updatedObject);
         }
@@ -115,7 +138,10 @@ public final class Notification {
         }
 
         public String getDiff() {
-            return RpslObjectFilter.diff(referenceObject, updatedObject);
+            if (diff == null) {
+                diff = RpslObjectFilter.diff(referenceObject, updatedObject);
+            }
+            return diff;
         }
 
         public int getVersionId() {
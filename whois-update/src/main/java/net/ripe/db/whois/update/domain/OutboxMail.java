@@ -0,0 +1,31 @@
+package net.ripe.db.whois.update.domain;
+
+public class OutboxMail {
+    private final int id;
+    private final String recipient;
+    private final byte[] message;
+    private final int attempts;
+
+    public OutboxMail(final int id, final String recipient, final byte[] message, final int attempts) {
+        this.id = id;
+        this.recipient = recipient;
+        this.message = message;
+        this.attempts = attempts;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public byte[] getMessage() {
+        return message;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,8 @@
+package net.ripe.db.whois.update.domain;
+
+public enum OutboxStatus {
+    PENDING,
+    CLAIMED,
+    SENT,
+    FAILED
+}
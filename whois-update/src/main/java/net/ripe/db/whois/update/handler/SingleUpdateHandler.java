@@ -1,5 +1,6 @@
 package net.ripe.db.whois.update.handler;
 
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.dao.RpslObjectDao;
 import net.ripe.db.whois.common.dao.UpdateLockDao;
 import net.ripe.db.whois.common.domain.CIString;
@@ -85,6 +86,7 @@ public class SingleUpdateHandler {
     }
 
     @Transactional(isolation = Isolation.READ_COMMITTED, propagation = Propagation.REQUIRED)
+    @Timed("update")
     public void handle(final Origin origin, final Keyword keyword, final Update update, final UpdateContext updateContext) {
         updateLockDao.setUpdateLock();
         ipTreeUpdater.updateTransactional();
@@ -22,7 +22,7 @@ import net.ripe.db.whois.update.domain.Update;
 import net.ripe.db.whois.update.domain.UpdateContext;
 import net.ripe.db.whois.update.domain.UpdateRequest;
 import net.ripe.db.whois.update.handler.response.ResponseFactory;
-import net.ripe.db.whois.update.mail.MailGateway;
+import net.ripe.db.whois.update.mail.MailOutbox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,19 +39,19 @@ public class UpdateNotifier {
 
     private final RpslObjectDao rpslObjectDao;
     private final ResponseFactory responseFactory;
-    private final MailGateway mailGateway;
+    private final MailOutbox mailOutbox;
     private final VersionDao versionDao;
     private final Maintainers maintainers;
 
     @Autowired
     public UpdateNotifier(final RpslObjectDao rpslObjectDao,
                           final ResponseFactory responseFactory,
-                          final MailGateway mailGateway,
+                          final MailOutbox mailOutbox,
                           final VersionDao versionDao,
                           final Maintainers maintainers) {
         this.rpslObjectDao = rpslObjectDao;
         this.responseFactory = responseFactory;
-        this.mailGateway = mailGateway;
+        this.mailOutbox = mailOutbox;
         this.versionDao = versionDao;
         this.maintainers = maintainers;
     }
@@ -70,15 +70,21 @@ public class UpdateNotifier {
             }
         }
 
+        final Map<String, ResponseMessage> responseMessages = Maps.newLinkedHashMap();
         for (final Notification notification : notifications.values()) {
             final ResponseMessage responseMessage = responseFactory.createNotification(updateContext, updateRequest.getOrigin(), notification);
             try {
                 new InternetAddress(notification.getEmail(), true);
-                mailGateway.sendEmail(notification.getEmail(), responseMessage);
+                responseMessages.put(notification.getEmail(), responseMessage);
             } catch (final AddressException e) {
                 LOGGER.info("Failed to send notification to '{}' because it's an invalid email address", notification.getEmail());
             }
         }
+
+        if (!responseMessages.isEmpty()) {
+            // delivery is done asynchronously, so a slow mail server does not hold up the update
+            mailOutbox.add(responseMessages);
+        }
     }
 
     private void addVersionId(final PreparedUpdate preparedUpdate, final UpdateContext context) {
@@ -111,15 +117,16 @@ public class UpdateNotifier {
             case SUCCESS:
                 if (updateContext.getAction(update) != Action.NOOP) {
                     addVersionId(update, updateContext);
-                    add(notifications, updateContext, update, Notification.Type.SUCCESS, Collections.singletonList(object), AttributeType.NOTIFY);
-                    add(notifications, updateContext, update, Notification.Type.SUCCESS, rpslObjectDao.getByKeys(ObjectType.MNTNER, object.getValuesForAttribute(AttributeType.MNT_BY)), AttributeType.MNT_NFY);
-                    add(notifications, updateContext, update, Notification.Type.SUCCESS_REFERENCE, rpslObjectDao.getByKeys(ObjectType.ORGANISATION, update.getDifferences(AttributeType.ORG)), AttributeType.REF_NFY);
-                    add(notifications, updateContext, update, Notification.Type.SUCCESS_REFERENCE, rpslObjectDao.getByKeys(ObjectType.IRT, update.getDifferences(AttributeType.MNT_IRT)), AttributeType.IRT_NFY);
+                    final Notification.Update notificationUpdate = new Notification.Update(update, updateContext);
+                    add(notifications, notificationUpdate, Notification.Type.SUCCESS, Collections.singletonList(object), AttributeType.NOTIFY);
+                    add(notifications, notificationUpdate, Notification.Type.SUCCESS, rpslObjectDao.getByKeys(ObjectType.MNTNER, object.getValuesForAttribute(AttributeType.MNT_BY)), AttributeType.MNT_NFY);
+                    add(notifications, notificationUpdate, Notification.Type.SUCCESS_REFERENCE, rpslObjectDao.getByKeys(ObjectType.ORGANISATION, update.getDifferences(AttributeType.ORG)), AttributeType.REF_NFY);
+                    add(notifications, notificationUpdate, Notification.Type.SUCCESS_REFERENCE, rpslObjectDao.getByKeys(ObjectType.IRT, update.getDifferences(AttributeType.MNT_IRT)), AttributeType.IRT_NFY);
                 }
                 break;
 
             case FAILED_AUTHENTICATION:
-                add(notifications, updateContext, update, Notification.Type.FAILED_AUTHENTICATION, rpslObjectDao.getByKeys(ObjectType.MNTNER, object.getValuesForAttribute(AttributeType.MNT_BY)), AttributeType.UPD_TO);
+                add(notifications, new Notification.Update(update, updateContext), Notification.Type.FAILED_AUTHENTICATION, rpslObjectDao.getByKeys(ObjectType.MNTNER, object.getValuesForAttribute(AttributeType.MNT_BY)), AttributeType.UPD_TO);
                 break;
 
             case PENDING_AUTHENTICATION:
@@ -129,7 +136,7 @@ public class UpdateNotifier {
                         return !maintainers.getRsMaintainers().contains(input.getKey());
                     }
                 });
-                add(notifications, updateContext, update, Notification.Type.PENDING_UPDATE, pendingAuthenticationCandidates, AttributeType.UPD_TO);
+                add(notifications, new Notification.Update(update, updateContext), Notification.Type.PENDING_UPDATE, pendingAuthenticationCandidates, AttributeType.UPD_TO);
                 break;
 
             default:
@@ -138,7 +145,7 @@ public class UpdateNotifier {
         }
     }
 
-    private void add(final Map<CIString, Notification> notifications, final UpdateContext updateContext, final PreparedUpdate update, final Notification.Type type, final Iterable<RpslObject> objects, final AttributeType attributeType) {
+    private void add(final Map<CIString, Notification> notifications, final Notification.Update update, final Notification.Type type, final Iterable<RpslObject> objects, final AttributeType attributeType) {
         for (final RpslObject object : objects) {
             for (final CIString email : object.getValuesForAttribute(attributeType)) {
                 Notification notification = notifications.get(email);
@@ -147,7 +154,7 @@ public class UpdateNotifier {
                     notifications.put(email, notification);
                 }
 
-                notification.add(type, update, updateContext);
+                notification.add(type, update);
             }
         }
     }
@@ -2,6 +2,7 @@ package net.ripe.db.whois.update.handler;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import net.ripe.db.whois.common.aspects.Timed;
 import net.ripe.db.whois.common.dao.RpslObjectUpdateDao;
 import net.ripe.db.whois.common.dao.RpslObjectUpdateInfo;
 import net.ripe.db.whois.common.rpsl.ObjectType;
@@ -63,6 +64,7 @@ class UpdateObjectHandler {
     }
 
     @Transactional(propagation = Propagation.MANDATORY)
+    @Timed("update.execute")
     public void execute(final PreparedUpdate update, final UpdateContext updateContext) {
         if (!updateContext.hasErrors(update)) {
             final RpslObjectUpdateInfo updateInfo;
@@ -90,6 +92,7 @@ class UpdateObjectHandler {
         }
     }
 
+    @Timed("update.validate")
     public boolean validateBusinessRules(final PreparedUpdate update, final UpdateContext updateContext) {
         // TODO [AK] There must be a better way to set the status than to count errors
         final int initialErrorCount = updateContext.getErrorCount(update);
@@ -100,6 +100,7 @@ public class UpdateRequestHandler {
             final UpdateResponse updateResponse;
 
             if (updateContext.isBatchUpdate()) {
+                // the ack and the notifications are rendered after the batch is committed, not holding the update lock
                 processUpdateQueueBatchUpdate(updateRequest, updateContext);
 
                 updateResponse = createUpdateResponse(updateRequest, updateContext);
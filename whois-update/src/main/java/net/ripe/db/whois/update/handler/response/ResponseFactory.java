@@ -1,6 +1,5 @@
 package net.ripe.db.whois.update.handler.response;
 
-import com.google.common.base.Splitter;
 import net.ripe.db.whois.common.DateTimeProvider;
 import net.ripe.db.whois.common.FormatHelper;
 import net.ripe.db.whois.common.domain.Hosts;
@@ -20,21 +19,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.StringWriter;
-
 @Component
 public class ResponseFactory {
-    private static final Splitter LINE_SPLITTER = Splitter.on('\n');
-
     private static final String TEMPLATE_EXCEPTION = "templates/exception.vm";
     private static final String TEMPLATE_ACK = "templates/ack.vm";
     private static final String TEMPLATE_HELP = "templates/help.vm";
     private static final String TEMPLATE_NOTIFICATION = "templates/notification.vm";
     private static final String TEMPLATE_PENDING_UPDATE_TIMEOUT = "templates/pendingUpdateTimeout.vm";
 
-    private final VelocityEngine velocityEngine;
     private final DateTimeProvider dateTimeProvider;
 
+    private final Template exceptionTemplate;
+    private final Template ackTemplate;
+    private final Template helpTemplate;
+    private final Template notificationTemplate;
+    private final Template pendingUpdateTimeoutTemplate;
+
     @Value("${application.version}")
     private String version;
 
@@ -45,17 +45,26 @@ public class ResponseFactory {
     public ResponseFactory(final DateTimeProvider dateTimeProvider) {
         this.dateTimeProvider = dateTimeProvider;
 
-        velocityEngine = new VelocityEngine();
+        final VelocityEngine velocityEngine = new VelocityEngine();
         velocityEngine.setProperty(VelocityEngine.RUNTIME_LOG_LOGSYSTEM, new NullLogChute());
         velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
         velocityEngine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+        // templates (and the templates they include) are parsed once, not on every response
+        velocityEngine.setProperty("classpath.resource.loader.cache", "true");
+        velocityEngine.setProperty("classpath.resource.loader.modificationCheckInterval", "0");
         velocityEngine.init();
+
+        exceptionTemplate = velocityEngine.getTemplate(TEMPLATE_EXCEPTION);
+        ackTemplate = velocityEngine.getTemplate(TEMPLATE_ACK);
+        helpTemplate = velocityEngine.getTemplate(TEMPLATE_HELP);
+        notificationTemplate = velocityEngine.getTemplate(TEMPLATE_NOTIFICATION);
+        pendingUpdateTimeoutTemplate = velocityEngine.getTemplate(TEMPLATE_PENDING_UPDATE_TIMEOUT);
     }
 
     public String createExceptionResponse(final UpdateContext updateContext, final Origin origin) {
         final VelocityContext velocityContext = new VelocityContext();
 
-        return createResponse(TEMPLATE_EXCEPTION, updateContext, velocityContext, origin);
+        return createResponse(exceptionTemplate, updateContext, velocityContext, origin);
     }
 
     public String createAckResponse(final UpdateContext updateContext, final Origin origin, final Ack ack) {
@@ -64,12 +73,12 @@ public class ResponseFactory {
         velocityContext.put("ack", ack);
         velocityContext.put("updateContext", updateContext);
 
-        return createResponse(TEMPLATE_ACK, updateContext, velocityContext, origin);
+        return createResponse(ackTemplate, updateContext, velocityContext, origin);
     }
 
     public String createHelpResponse(final UpdateContext updateContext, final Origin origin) {
         final VelocityContext velocityContext = new VelocityContext();
-        return createResponse(TEMPLATE_HELP, updateContext, velocityContext, origin);
+        return createResponse(helpTemplate, updateContext, velocityContext, origin);
     }
 
     public ResponseMessage createNotification(final UpdateContext updateContext, final Origin origin, final Notification notification) {
@@ -89,7 +98,7 @@ public class ResponseFactory {
             subject = "Notification of RIPE Database changes";
         }
 
-        return new ResponseMessage(subject, createResponse(TEMPLATE_NOTIFICATION, updateContext, velocityContext, origin));
+        return new ResponseMessage(subject, createResponse(notificationTemplate, updateContext, velocityContext, origin));
     }
 
     public ResponseMessage createPendingUpdateTimeout(final UpdateContext updateContext, final Origin origin, final RpslObject rpslObject, final int days) {
@@ -100,10 +109,10 @@ public class ResponseFactory {
 
         final String subject = String.format("Notification of RIPE Database pending update timeout on %s", rpslObject.getFormattedKey());
 
-        return new ResponseMessage(subject, createResponse(TEMPLATE_PENDING_UPDATE_TIMEOUT, updateContext, velocityContext, origin));
+        return new ResponseMessage(subject, createResponse(pendingUpdateTimeoutTemplate, updateContext, velocityContext, origin));
     }
 
-    private String createResponse(final String templateName, final UpdateContext updateContext, final VelocityContext velocityContext, final Origin origin) {
+    private String createResponse(final Template template, final UpdateContext updateContext, final VelocityContext velocityContext, final Origin origin) {
         velocityContext.put("globalMessages", updateContext.printGlobalMessages());
         velocityContext.put("origin", origin);
         velocityContext.put("version", version);
@@ -111,51 +120,10 @@ public class ResponseFactory {
         velocityContext.put("source", source);
         velocityContext.put("timestamp", FormatHelper.dateTimeToString(dateTimeProvider.getCurrentDateTime()));
 
-        final Template template = velocityEngine.getTemplate(templateName);
-        final StringWriter writer = new StringWriter();
-
+        final ResponseWriter writer = new ResponseWriter();
         template.merge(velocityContext, writer);
+        writer.close();
 
-        return cleanupResponse(writer.toString());
-    }
-
-    private String cleanupResponse(final String string) {
-        final StringBuilder result = new StringBuilder(string.length());
-
-        boolean literal = false;
-        boolean newline = false;
-        for (String line : LINE_SPLITTER.split(string)) {
-            if (line.equals(">>>>>")) {
-                literal = true;
-                if (newline) {
-                    result.append('\n');
-                    newline = false;
-                }
-                continue;
-            } else if (line.equals("<<<<<")) {
-                literal = false;
-                continue;
-            }
-
-            if (literal) {
-                result.append(line).append('\n');
-                continue;
-            }
-
-            line = line.trim();
-            if (line.equals("")) {
-                newline = true;
-                continue;
-            }
-
-            if (newline && result.length() != 0) {
-                result.append('\n');
-            }
-
-            newline = false;
-            result.append(line).append('\n');
-        }
-
-        return result.toString();
+        return writer.toString();
     }
 }
@@ -0,0 +1,118 @@
+package net.ripe.db.whois.update.handler.response;
+
+import java.io.Writer;
+
+/**
+ * Cleans up template output line by line, as it is written.
+ *
+ * Lines are trimmed, and consecutive empty lines are collapsed into a single empty line (leading empty lines are dropped).
+ * Lines between a line ">>>>>" and a line "<<<<<" are written literally, the markers themselves are dropped.
+ *
+ * The cleaned up response is available from {@link #toString()} once the writer is closed.
+ */
+class ResponseWriter extends Writer {
+    private static final String LITERAL_START = ">>>>>";
+    private static final String LITERAL_END = "<<<<<";
+
+    private final StringBuilder result = new StringBuilder(4096);
+    private final StringBuilder line = new StringBuilder(128);
+
+    private boolean literal;
+    private boolean newline;
+    private boolean closed;
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) {
+        for (int i = off; i < off + len; i++) {
+            write(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) {
+        for (int i = off; i < off + len; i++) {
+            write(str.charAt(i));
+        }
+    }
+
+    @Override
+    public void write(final int c) {
+        write((char) c);
+    }
+
+    private void write(final char c) {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+
+        if (c == '\n') {
+            endLine();
+        } else {
+            line.append(c);
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            // the text after the last newline is a line of its own, even when empty
+            endLine();
+            closed = true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return result.toString();
+    }
+
+    private void endLine() {
+        processLine();
+        line.setLength(0);
+    }
+
+    private void processLine() {
+        if (LITERAL_START.contentEquals(line)) {
+            literal = true;
+            if (newline) {
+                result.append('\n');
+                newline = false;
+            }
+            return;
+        } else if (LITERAL_END.contentEquals(line)) {
+            literal = false;
+            return;
+        }
+
+        if (literal) {
+            result.append(line).append('\n');
+            return;
+        }
+
+        // same as String.trim()
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (start < end && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (start == end) {
+            newline = true;
+            return;
+        }
+
+        if (newline && result.length() != 0) {
+            result.append('\n');
+        }
+
+        newline = false;
+        result.append(line, start, end).append('\n');
+    }
+}
@@ -0,0 +1,82 @@
+package net.ripe.db.whois.update.keycert;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.ripe.db.whois.common.domain.CIString;
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectFilter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parsed public keys of key-cert objects, shared between updates so signed updates do not parse the same key every time.
+ *
+ * Entries are keyed by primary key and hold the certificate they were parsed from. A key-cert that is changed (or
+ * deleted and re-created) has a different certificate and is parsed again, which also holds for changes that were
+ * rolled back (e.g. dry-run).
+ */
+@Component
+public class KeyWrapperCache {
+    private static final int MAX_SIZE = 10_000;
+
+    private final Cache<CIString, CachedKeyWrapper> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .build();
+
+    /**
+     * @throws IllegalArgumentException if the key-cert has no valid PGP key
+     */
+    public PgpPublicKeyWrapper getPgpPublicKey(final RpslObject keyCert) {
+        final String certificate = RpslObjectFilter.getCertificateFromKeyCert(keyCert);
+
+        final KeyWrapper cached = getCached(keyCert, certificate);
+        if (cached instanceof PgpPublicKeyWrapper) {
+            return (PgpPublicKeyWrapper) cached;
+        }
+
+        final PgpPublicKeyWrapper keyWrapper = PgpPublicKeyWrapper.parse(keyCert);
+        put(keyCert, certificate, keyWrapper);
+        return keyWrapper;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the key-cert has no valid X.509 certificate
+     */
+    public X509CertificateWrapper getX509Certificate(final RpslObject keyCert) {
+        final String certificate = RpslObjectFilter.getCertificateFromKeyCert(keyCert);
+
+        final KeyWrapper cached = getCached(keyCert, certificate);
+        if (cached instanceof X509CertificateWrapper) {
+            return (X509CertificateWrapper) cached;
+        }
+
+        final X509CertificateWrapper keyWrapper = X509CertificateWrapper.parse(keyCert);
+        put(keyCert, certificate, keyWrapper);
+        return keyWrapper;
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    private KeyWrapper getCached(final RpslObject keyCert, final String certificate) {
+        final CachedKeyWrapper cached = cache.getIfPresent(keyCert.getKey());
+        if (cached != null && cached.certificate.equals(certificate)) {
+            return cached.keyWrapper;
+        }
+        return null;
+    }
+
+    private void put(final RpslObject keyCert, final String certificate, final KeyWrapper keyWrapper) {
+        cache.put(keyCert.getKey(), new CachedKeyWrapper(certificate, keyWrapper));
+    }
+
+    private static final class CachedKeyWrapper {
+        private final String certificate;
+        private final KeyWrapper keyWrapper;
+
+        private CachedKeyWrapper(final String certificate, final KeyWrapper keyWrapper) {
+            this.certificate = certificate;
+            this.keyWrapper = keyWrapper;
+        }
+    }
+}
@@ -18,7 +18,6 @@ import org.springframework.stereotype.Component;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Component
@@ -65,8 +64,7 @@ public class MailGatewaySmtp implements MailGateway {
             }
 
         try {
-            final Matcher matcher = INVALID_EMAIL_PATTERN.matcher(to);
-            if (matcher.find()) {
+            if (isRefused(to)) {
                 throw new MailSendException("Refusing outgoing email: " + text);
             }
 
@@ -83,14 +81,7 @@ public class MailGatewaySmtp implements MailGateway {
             mailSender.send(new MimeMessagePreparator() {
                 @Override
                 public void prepare(final MimeMessage mimeMessage) throws MessagingException {
-                    final MimeMessageHelper message = new MimeMessageHelper(mimeMessage, MimeMessageHelper.MULTIPART_MODE_NO, "UTF-8");
-                    message.setFrom(mailConfiguration.getFrom());
-                    message.setTo(to);
-                    message.setSubject(subject);
-                    message.setText(text);
-
-                    mimeMessage.addHeader("Precedence", "bulk");
-                    mimeMessage.addHeader("Auto-Submitted", "auto-generated");
+                    prepareMessage(mimeMessage, mailConfiguration.getFrom(), to, subject, text);
 
                     loggerContext.log("msg-out.txt", new MailMessageLogCallback(mimeMessage));
                 }
@@ -103,4 +94,19 @@ public class MailGatewaySmtp implements MailGateway {
             }
         }
     }
+
+    static boolean isRefused(final String to) {
+        return INVALID_EMAIL_PATTERN.matcher(to).find();
+    }
+
+    static void prepareMessage(final MimeMessage mimeMessage, final String from, final String to, final String subject, final String text) throws MessagingException {
+        final MimeMessageHelper message = new MimeMessageHelper(mimeMessage, MimeMessageHelper.MULTIPART_MODE_NO, "UTF-8");
+        message.setFrom(from);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+
+        mimeMessage.addHeader("Precedence", "bulk");
+        mimeMessage.addHeader("Auto-Submitted", "auto-generated");
+    }
 }
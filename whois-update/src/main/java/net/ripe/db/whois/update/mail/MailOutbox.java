@@ -0,0 +1,124 @@
+package net.ripe.db.whois.update.mail;
+
+import com.google.common.collect.Maps;
+import net.ripe.db.whois.common.Message;
+import net.ripe.db.whois.common.Messages;
+import net.ripe.db.whois.update.dao.MailOutboxDao;
+import net.ripe.db.whois.update.domain.ResponseMessage;
+import net.ripe.db.whois.update.log.LoggerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Queues outgoing mail in the whois database instead of sending it on the calling thread.
+ *
+ * The messages are rendered and written to the audit log immediately, delivery is done by the {@link MailOutboxDispatcher}.
+ */
+@Component
+public class MailOutbox {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailOutbox.class);
+
+    private final LoggerContext loggerContext;
+    private final MailConfiguration mailConfiguration;
+    private final MailOutboxDao mailOutboxDao;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${mail.smtp.enabled}")
+    private boolean outgoingMailEnabled;
+
+    @Autowired
+    public MailOutbox(final LoggerContext loggerContext,
+                      final MailConfiguration mailConfiguration,
+                      final MailOutboxDao mailOutboxDao,
+                      final MailOutboxDispatcher mailOutboxDispatcher,
+                      final PlatformTransactionManager transactionManager) {
+        this.loggerContext = loggerContext;
+        this.mailConfiguration = mailConfiguration;
+        this.mailOutboxDao = mailOutboxDao;
+        this.mailOutboxDispatcher = mailOutboxDispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queues a message for each recipient. All messages are stored in a single transaction, which is the transaction
+     * of the update if one is in progress, and are delivered once that transaction is committed.
+     */
+    public void add(final Map<String, ResponseMessage> responseMessages) {
+        if (responseMessages.isEmpty()) {
+            return;
+        }
+
+        if (!outgoingMailEnabled) {
+            for (final Map.Entry<String, ResponseMessage> entry : responseMessages.entrySet()) {
+                LOGGER.debug("Outgoing mail disabled, not sending {} to {}", entry.getValue().getSubject(), entry.getKey());
+            }
+            return;
+        }
+
+        final Map<String, byte[]> messages = Maps.newLinkedHashMap();
+        for (final Map.Entry<String, ResponseMessage> entry : responseMessages.entrySet()) {
+            final String to = entry.getKey();
+            final ResponseMessage responseMessage = entry.getValue();
+
+            if (MailGatewaySmtp.isRefused(to)) {
+                loggerContext.log(new Message(Messages.Type.ERROR, "Unable to send mail to {} with subject {}", to, responseMessage.getSubject()));
+                LOGGER.error("Refusing outgoing mail to: {}", to);
+                continue;
+            }
+
+            try {
+                messages.put(to, createMessage(to, responseMessage));
+            } catch (MessagingException | IOException e) {
+                loggerContext.log(new Message(Messages.Type.ERROR, "Unable to send mail to {} with subject {}", to, responseMessage.getSubject()), e);
+                LOGGER.error("Unable to create mail message to: {}", to, e);
+            }
+        }
+
+        transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus status) {
+                for (final Map.Entry<String, byte[]> entry : messages.entrySet()) {
+                    mailOutboxDao.add(entry.getKey(), entry.getValue());
+                }
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    mailOutboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            mailOutboxDispatcher.wakeUp();
+        }
+    }
+
+    private byte[] createMessage(final String to, final ResponseMessage responseMessage) throws MessagingException, IOException {
+        final MimeMessage mimeMessage = new MimeMessage(mailConfiguration.getSession());
+        MailGatewaySmtp.prepareMessage(mimeMessage, mailConfiguration.getFrom(), to, responseMessage.getSubject(), responseMessage.getMessage());
+
+        loggerContext.log("msg-out.txt", new MailMessageLogCallback(mimeMessage));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        mimeMessage.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,287 @@
+package net.ripe.db.whois.update.mail;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.ripe.db.whois.common.ApplicationService;
+import net.ripe.db.whois.common.source.SourceContext;
+import net.ripe.db.whois.update.dao.MailOutboxDao;
+import net.ripe.db.whois.update.domain.OutboxMail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.MimeMessage;
+import java.io.ByteArrayInputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the mail queued by the {@link MailOutbox}.
+ *
+ * Mail is claimed per recipient, at most one recipient per free delivery thread, and the mail for one recipient is sent
+ * in order over a single SMTP connection. A recipient is not claimed again until its previous mail has been delivered.
+ * Failed deliveries are retried with an exponential backoff, the delivery state is kept in the outbox.
+ */
+@Component
+public class MailOutboxDispatcher implements ApplicationService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private static final int MAX_RETRY_INTERVAL_SECONDS = 60 * 60;
+    private static final int CLAIM_TIMEOUT_SECONDS = 10 * 60;
+    private static final int SENT_RETENTION_SECONDS = 7 * 24 * 60 * 60;
+
+    private final MailOutboxDao mailOutboxDao;
+    private final MailConfiguration mailConfiguration;
+    private final JavaMailSender mailSender;
+    private final SourceContext sourceContext;
+
+    private final AtomicInteger freeThreads = new AtomicInteger();
+    private final Runnable poller = new OutboxPoller();
+
+    private ExecutorService deliveryExecutor;
+    private ScheduledExecutorService pollerExecutor;
+
+    @Value("${mail.outbox.threads:2}")
+    private int nrThreads;
+
+    @Value("${mail.outbox.interval:1000}")
+    private int intervalMs;
+
+    @Value("${mail.outbox.retryInterval:10}")
+    private int retryIntervalSeconds;
+
+    @Value("${mail.outbox.attempts:20}")
+    private int maxAttempts;
+
+    @Value("${mail.smtp.retrySending:true}")
+    private boolean retrySending;
+
+    @Autowired
+    public MailOutboxDispatcher(final MailOutboxDao mailOutboxDao,
+                                final MailConfiguration mailConfiguration,
+                                final JavaMailSender mailSender,
+                                final SourceContext sourceContext) {
+        this.mailOutboxDao = mailOutboxDao;
+        this.mailConfiguration = mailConfiguration;
+        this.mailSender = mailSender;
+        this.sourceContext = sourceContext;
+    }
+
+    @Override
+    public void start() {
+        if (deliveryExecutor != null || pollerExecutor != null) {
+            throw new IllegalStateException("Already started");
+        }
+
+        if (nrThreads > 0) {
+            freeThreads.set(nrThreads);
+
+            deliveryExecutor = Executors.newFixedThreadPool(nrThreads, new ThreadFactoryBuilder().setNameFormat("mail-outbox-%d").build());
+
+            pollerExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("mail-outbox-poller").build());
+            pollerExecutor.scheduleWithFixedDelay(poller, 0, intervalMs, TimeUnit.MILLISECONDS);
+            pollerExecutor.scheduleWithFixedDelay(new OutboxCleanup(), 1, 60, TimeUnit.MINUTES);
+
+            LOGGER.info("Mail outbox dispatcher started");
+        }
+    }
+
+    @Override
+    public void stop(final boolean force) {
+        LOGGER.info("Mail outbox dispatcher stopping");
+
+        if (stopExecutor(pollerExecutor)) {
+            pollerExecutor = null;
+        }
+
+        if (stopExecutor(deliveryExecutor)) {
+            deliveryExecutor = null;
+        }
+
+        LOGGER.info("Mail outbox dispatcher stopped");
+    }
+
+    private boolean stopExecutor(final ExecutorService executorService) {
+        if (executorService == null) {
+            return true;
+        }
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            LOGGER.error("Awaiting termination", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the outbox for new mail now, instead of waiting for the next poll.
+     */
+    public void wakeUp() {
+        final ScheduledExecutorService executorService = pollerExecutor;
+        if (executorService != null) {
+            try {
+                executorService.execute(poller);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Mail outbox dispatcher is stopping");
+            }
+        }
+    }
+
+    class OutboxPoller implements Runnable {
+        @Override
+        public void run() {
+            try {
+                sourceContext.setCurrentSourceToWhoisMaster();
+                try {
+                    // only this thread claims mail, so no more recipients are submitted than there are free threads
+                    int available;
+                    while ((available = freeThreads.get()) > 0) {
+                        final List<OutboxMail> mails = mailOutboxDao.claimRecipients(available);
+                        if (mails.isEmpty()) {
+                            return;
+                        }
+
+                        for (final Collection<OutboxMail> recipientMails : Multimaps.index(mails, new Function<OutboxMail, String>() {
+                            @Override
+                            public String apply(final OutboxMail input) {
+                                return input.getRecipient().toLowerCase();
+                            }
+                        }).asMap().values()) {
+                            freeThreads.decrementAndGet();
+                            deliveryExecutor.execute(new OutboxDelivery(Lists.newArrayList(recipientMails)));
+                        }
+                    }
+                } finally {
+                    sourceContext.removeCurrentSource();
+                }
+            } catch (DataAccessException e) {
+                LOGGER.warn("Unable to claim mail due to {}", e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected", e);
+            }
+        }
+    }
+
+    class OutboxDelivery implements Runnable {
+        private final List<OutboxMail> mails;
+
+        OutboxDelivery(final List<OutboxMail> mails) {
+            this.mails = mails;
+        }
+
+        @Override
+        public void run() {
+            try {
+                sourceContext.setCurrentSourceToWhoisMaster();
+                try {
+                    deliver(mails);
+                } finally {
+                    sourceContext.removeCurrentSource();
+                }
+            } catch (Exception e) {
+                LOGGER.error("Unexpected", e);
+            } finally {
+                freeThreads.incrementAndGet();
+            }
+        }
+    }
+
+    class OutboxCleanup implements Runnable {
+        @Override
+        public void run() {
+            try {
+                sourceContext.setCurrentSourceToWhoisMaster();
+                try {
+                    final int released = mailOutboxDao.releaseClaims(CLAIM_TIMEOUT_SECONDS);
+                    if (released > 0) {
+                        LOGGER.warn("Released {} undelivered mails claimed more than {} seconds ago", released, CLAIM_TIMEOUT_SECONDS);
+                    }
+                    mailOutboxDao.deleteSent(SENT_RETENTION_SECONDS);
+                } finally {
+                    sourceContext.removeCurrentSource();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to clean up mail outbox", e);
+            }
+        }
+    }
+
+    void deliver(final List<OutboxMail> mails) {
+        final List<OutboxMail> deliverable = Lists.newArrayListWithExpectedSize(mails.size());
+        final List<MimeMessage> messages = Lists.newArrayListWithExpectedSize(mails.size());
+
+        for (final OutboxMail mail : mails) {
+            try {
+                messages.add(new MimeMessage(mailConfiguration.getSession(), new ByteArrayInputStream(mail.getMessage())));
+                deliverable.add(mail);
+            } catch (MessagingException e) {
+                LOGGER.error("Unable to parse mail message {} to: {}", mail.getId(), mail.getRecipient(), e);
+                mailOutboxDao.setFailed(mail);
+            }
+        }
+
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failedMessages = Collections.emptyMap();
+        Exception failure = null;
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[messages.size()]));
+        } catch (MailSendException e) {
+            failedMessages = e.getFailedMessages();
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        for (int i = 0; i < deliverable.size(); i++) {
+            final OutboxMail mail = deliverable.get(i);
+            if (failure == null) {
+                mailOutboxDao.setSent(mail);
+            } else if (failedMessages.isEmpty()) {
+                // the whole batch failed, e.g. because the mail server could not be reached
+                deliveryFailed(mail, failure);
+            } else if (failedMessages.containsKey(messages.get(i))) {
+                deliveryFailed(mail, failedMessages.get(messages.get(i)));
+            } else {
+                mailOutboxDao.setSent(mail);
+            }
+        }
+    }
+
+    private void deliveryFailed(final OutboxMail mail, final Exception cause) {
+        final int attempts = mail.getAttempts() + 1;
+
+        if (!retrySending || attempts >= maxAttempts || cause instanceof SendFailedException) {
+            LOGGER.error("Unable to send mail message {} to: {} after {} attempts", mail.getId(), mail.getRecipient(), attempts, cause);
+            mailOutboxDao.setFailed(mail);
+        } else {
+            LOGGER.info("Unable to send mail message {} to: {} due to {}, retrying", mail.getId(), mail.getRecipient(), cause.getMessage());
+            mailOutboxDao.retry(mail, getRetryInterval(attempts));
+        }
+    }
+
+    int getRetryInterval(final int attempts) {
+        return (int) Math.min((long) retryIntervalSeconds << Math.min(attempts - 1, 30), MAX_RETRY_INTERVAL_SECONDS);
+    }
+}
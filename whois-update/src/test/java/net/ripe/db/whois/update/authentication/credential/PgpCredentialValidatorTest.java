@@ -12,12 +12,12 @@ import net.ripe.db.whois.update.domain.PgpCredential;
 import net.ripe.db.whois.update.domain.PreparedUpdate;
 import net.ripe.db.whois.update.domain.Update;
 import net.ripe.db.whois.update.domain.UpdateContext;
+import net.ripe.db.whois.update.keycert.KeyWrapperCache;
 import net.ripe.db.whois.update.log.LoggerContext;
 import org.joda.time.LocalDateTime;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -40,7 +40,7 @@ public class PgpCredentialValidatorTest {
     @Mock private RpslObjectDao rpslObjectDao;
     @Mock private DateTimeProvider dateTimeProvider;
     @Mock private LoggerContext loggerContext;
-    @InjectMocks private PgpCredentialValidator subject;
+    private PgpCredentialValidator subject;
 
     private static final RpslObject KEYCERT_OBJECT = RpslObject.parse("" +
             "key-cert:       PGPKEY-5763950D\n" +
@@ -83,6 +83,7 @@ public class PgpCredentialValidatorTest {
 
     @Before
     public void setup() {
+        subject = new PgpCredentialValidator(rpslObjectDao, dateTimeProvider, loggerContext, new KeyWrapperCache());
         when(dateTimeProvider.getCurrentDateTime()).thenReturn(LocalDateTime.now());
     }
 
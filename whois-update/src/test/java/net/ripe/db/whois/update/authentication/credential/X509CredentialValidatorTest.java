@@ -9,12 +9,12 @@ import net.ripe.db.whois.common.rpsl.RpslObject;
 import net.ripe.db.whois.update.domain.PreparedUpdate;
 import net.ripe.db.whois.update.domain.UpdateContext;
 import net.ripe.db.whois.update.domain.X509Credential;
+import net.ripe.db.whois.update.keycert.KeyWrapperCache;
 import net.ripe.db.whois.update.log.LoggerContext;
 import org.joda.time.LocalDateTime;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -38,10 +38,11 @@ public class X509CredentialValidatorTest {
     @Mock private X509Credential knownCredential;
     @Mock private DateTimeProvider dateTimeProvider;
     @Mock private LoggerContext loggerContext;
-    @InjectMocks private X509CredentialValidator subject;
+    private X509CredentialValidator subject;
 
     @Before
     public void setup() {
+        subject = new X509CredentialValidator(rpslObjectDao, dateTimeProvider, loggerContext, new KeyWrapperCache());
         when(dateTimeProvider.getCurrentDateTime()).thenReturn(LocalDateTime.now());
         when(rpslObjectDao.getByKey(ObjectType.KEY_CERT, "X509-1")).thenAnswer(new Answer<RpslObject>() {
             @Override
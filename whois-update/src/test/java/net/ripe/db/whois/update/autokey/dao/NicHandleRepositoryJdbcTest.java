@@ -111,6 +111,41 @@ public class NicHandleRepositoryJdbcTest extends AbstractUpdateDaoTest {
         assertRows(1);
     }
 
+    @Test
+    public void claimNextAvailableIndex_gap_after_many_ranges() {
+        for (int i = 1; i <= 500; i++) {
+            subject.createRange("DW", null, i * 2 - 1, i * 2 - 1);
+        }
+        subject.createRange("DW", null, 1002, 1002);
+
+        for (int i = 1; i < 500; i++) {
+            assertThat(subject.claimNextAvailableIndex("DW", "").getIndex(), is(i * 2));
+        }
+        assertRows(2);
+
+        assertThat(subject.claimNextAvailableIndex("DW", "").getIndex(), is(1000));
+        assertRows(2);
+
+        assertThat(subject.claimNextAvailableIndex("DW", "").getIndex(), is(1001));
+        assertRows(1);
+    }
+
+    @Test
+    public void claimSpecified_merges_adjacent_ranges() {
+        subject.createRange("DW", null, 1, 4);
+        subject.createRange("DW", null, 6, 10);
+        subject.createRange("DW", null, 20, 30);
+
+        assertTrue(subject.claimSpecified(new NicHandle("DW", 5, null)));
+        assertRows(2);
+
+        assertTrue(subject.claimSpecified(new NicHandle("DW", 15, null)));
+        assertRows(3);
+
+        assertFalse(subject.claimSpecified(new NicHandle("DW", 25, null)));
+        assertThat(subject.claimNextAvailableIndex("DW", "").getIndex(), is(11));
+        assertRows(3);
+    }
 
     private void assertRows(final int expectedRows) {
         final List<Map<String, Object>> list = whoisTemplate.queryForList("select * from nic_hdl");
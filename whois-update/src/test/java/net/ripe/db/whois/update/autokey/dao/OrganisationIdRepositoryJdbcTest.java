@@ -30,6 +30,25 @@ public class OrganisationIdRepositoryJdbcTest extends AbstractUpdateDaoTest {
         assertThat(indexUpdated, is(7));
     }
 
+    @Test
+    public void claimSpecified_already_claimed() {
+        assertThat(subject.claimSpecified(new OrganisationId("AK", 4, "RIPE")), is(true));
+
+        assertThat(subject.claimSpecified(new OrganisationId("AK", 4, "RIPE")), is(false));
+        assertThat(subject.claimSpecified(new OrganisationId("AK", 2, "RIPE")), is(false));
+        assertRows(1);
+    }
+
+    @Test
+    public void claimNextAvailableIndex_after_specified() {
+        subject.claimSpecified(new OrganisationId("AK", 4, "RIPE"));
+
+        assertThat(subject.claimNextAvailableIndex("AK", "RIPE").getIndex(), is(5));
+        assertThat(subject.claimNextAvailableIndex("AK", "RIPE").getIndex(), is(6));
+        assertThat(subject.claimNextAvailableIndex("AK", "TEST").getIndex(), is(1));
+        assertRows(2);
+    }
+
     @Test
     public void claimNextAvailableIndex_empty_database() {
         for (int i = 1; i < 10; i++) {
@@ -0,0 +1,187 @@
+package net.ripe.db.whois.update.dao;
+
+import net.ripe.db.whois.update.domain.OutboxMail;
+import net.ripe.db.whois.update.domain.OutboxStatus;
+import net.ripe.db.whois.update.mail.MailOutboxDispatcher;
+import net.ripe.db.whois.update.mail.MailSenderStub;
+import org.joda.time.LocalDateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.mail.Message;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class MailOutboxDaoTest extends AbstractUpdateDaoTest {
+    @Autowired private MailOutboxDao subject;
+    @Autowired private MailOutboxDispatcher mailOutboxDispatcher;
+    @Autowired private MailSenderStub mailSenderStub;
+
+    @Before
+    public void setup() {
+        // claim the mail in the test instead of the dispatcher
+        mailOutboxDispatcher.stop(true);
+        testDateTimeProvider.setTime(LocalDateTime.parse("2016-10-19T12:00:00"));
+    }
+
+    @Test
+    public void add() {
+        subject.add("to@ripe.net", "message".getBytes());
+
+        final Map<String, Object> row = whoisTemplate.queryForMap("SELECT * FROM mail_outbox");
+        assertThat(row.get("recipient"), is((Object) "to@ripe.net"));
+        assertThat(row.get("message"), is((Object) "message".getBytes()));
+        assertThat(row.get("status"), is((Object) OutboxStatus.PENDING.name()));
+        assertThat(subject.countUndelivered(), is(1));
+    }
+
+    @Test
+    public void claim_in_order() {
+        subject.add("first@ripe.net", "first".getBytes());
+        subject.add("second@ripe.net", "second".getBytes());
+        subject.add("third@ripe.net", "third".getBytes());
+
+        final List<OutboxMail> claimed = subject.claimRecipients(2);
+
+        assertThat(claimed, hasSize(2));
+        assertThat(claimed.get(0).getRecipient(), is("first@ripe.net"));
+        assertThat(claimed.get(0).getMessage(), is("first".getBytes()));
+        assertThat(claimed.get(1).getRecipient(), is("second@ripe.net"));
+        assertThat(subject.claimRecipients(2), hasSize(1));
+        assertThat(subject.claimRecipients(2), hasSize(0));
+    }
+
+    @Test
+    public void claim_all_mail_for_recipient() {
+        subject.add("to@ripe.net", "first".getBytes());
+        subject.add("other@ripe.net", "other".getBytes());
+        subject.add("TO@ripe.net", "second".getBytes());
+
+        final List<OutboxMail> claimed = subject.claimRecipients(1);
+
+        assertThat(claimed, hasSize(2));
+        assertThat(claimed.get(0).getMessage(), is("first".getBytes()));
+        assertThat(claimed.get(1).getMessage(), is("second".getBytes()));
+    }
+
+    @Test
+    public void recipient_is_not_claimed_while_mail_is_claimed() {
+        subject.add("to@ripe.net", "first".getBytes());
+        final OutboxMail first = subject.claimRecipients(10).get(0);
+
+        subject.add("to@ripe.net", "second".getBytes());
+        assertThat(subject.claimRecipients(10), hasSize(0));
+
+        subject.setSent(first);
+        final List<OutboxMail> claimed = subject.claimRecipients(10);
+        assertThat(claimed, hasSize(1));
+        assertThat(claimed.get(0).getMessage(), is("second".getBytes()));
+    }
+
+    @Test
+    public void recipient_is_not_claimed_while_mail_is_retried() {
+        subject.add("to@ripe.net", "first".getBytes());
+        subject.retry(subject.claimRecipients(10).get(0), 60);
+
+        subject.add("to@ripe.net", "second".getBytes());
+        assertThat(subject.claimRecipients(10), hasSize(0));
+
+        testDateTimeProvider.setTime(LocalDateTime.parse("2016-10-19T12:01:00"));
+
+        final List<OutboxMail> claimed = subject.claimRecipients(10);
+        assertThat(claimed, hasSize(2));
+        assertThat(claimed.get(0).getMessage(), is("first".getBytes()));
+        assertThat(claimed.get(1).getMessage(), is("second".getBytes()));
+    }
+
+    @Test
+    public void sent_is_not_claimed_again() {
+        subject.add("to@ripe.net", "message".getBytes());
+
+        subject.setSent(subject.claimRecipients(10).get(0));
+
+        assertThat(subject.claimRecipients(10), hasSize(0));
+        assertThat(subject.countUndelivered(), is(0));
+        assertThat(getStatus(), is(OutboxStatus.SENT.name()));
+    }
+
+    @Test
+    public void failed_is_not_claimed_again() {
+        subject.add("to@ripe.net", "message".getBytes());
+
+        subject.setFailed(subject.claimRecipients(10).get(0));
+
+        assertThat(subject.claimRecipients(10), hasSize(0));
+        assertThat(getStatus(), is(OutboxStatus.FAILED.name()));
+    }
+
+    @Test
+    public void retry_is_claimed_after_delay() {
+        subject.add("to@ripe.net", "message".getBytes());
+
+        subject.retry(subject.claimRecipients(10).get(0), 60);
+
+        assertThat(subject.claimRecipients(10), hasSize(0));
+        assertThat(subject.countUndelivered(), is(0));
+
+        testDateTimeProvider.setTime(LocalDateTime.parse("2016-10-19T12:01:00"));
+
+        final List<OutboxMail> claimed = subject.claimRecipients(10);
+        assertThat(claimed, hasSize(1));
+        assertThat(claimed.get(0).getAttempts(), is(1));
+    }
+
+    @Test
+    public void release_old_claims() {
+        subject.add("to@ripe.net", "message".getBytes());
+        subject.claimRecipients(10);
+
+        assertThat(subject.releaseClaims(600), is(0));
+
+        testDateTimeProvider.setTime(LocalDateTime.parse("2016-10-19T12:11:00"));
+        assertThat(subject.releaseClaims(600), is(1));
+        assertThat(subject.claimRecipients(10), hasSize(1));
+    }
+
+    @Test
+    public void delete_old_sent() {
+        subject.add("to@ripe.net", "message".getBytes());
+        subject.setSent(subject.claimRecipients(10).get(0));
+
+        assertThat(subject.deleteSent(3600), is(0));
+
+        testDateTimeProvider.setTime(LocalDateTime.parse("2016-10-19T14:00:00"));
+        assertThat(subject.deleteSent(3600), is(1));
+    }
+
+    @Test
+    public void dispatcher_delivers_queued_mail() throws Exception {
+        final MimeMessage mimeMessage = new MimeMessage((Session) null);
+        mimeMessage.setRecipients(Message.RecipientType.TO, "to@ripe.net");
+        mimeMessage.setSubject("subject");
+        mimeMessage.setText("text");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        mimeMessage.writeTo(outputStream);
+
+        subject.add("to@ripe.net", outputStream.toByteArray());
+        mailOutboxDispatcher.start();
+
+        assertThat(mailSenderStub.getMessage("to@ripe.net").getSubject(), is("subject"));
+        assertThat(mailSenderStub.anyMoreMessages(), is(false));
+        assertThat(getStatus(), is(OutboxStatus.SENT.name()));
+    }
+
+    // helper methods
+
+    private String getStatus() {
+        return whoisTemplate.queryForObject("SELECT status FROM mail_outbox", String.class);
+    }
+}
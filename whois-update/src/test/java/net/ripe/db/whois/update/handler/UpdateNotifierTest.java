@@ -13,14 +13,21 @@ import net.ripe.db.whois.update.domain.UpdateContext;
 import net.ripe.db.whois.update.domain.UpdateRequest;
 import net.ripe.db.whois.update.domain.UpdateStatus;
 import net.ripe.db.whois.update.handler.response.ResponseFactory;
-import net.ripe.db.whois.update.mail.MailGateway;
+import net.ripe.db.whois.update.mail.MailOutbox;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -35,9 +42,11 @@ public class UpdateNotifierTest {
 
     @Mock RpslObjectDao rpslObjectDao;
     @Mock ResponseFactory responseFactory;
-    @Mock MailGateway mailGateway;
+    @Mock MailOutbox mailOutbox;
     @Mock ResponseMessage responseMessage;
 
+    @Captor ArgumentCaptor<Map<String, ResponseMessage>> responseMessagesCaptor;
+
     @InjectMocks UpdateNotifier subject;
 
     @Test
@@ -46,7 +55,7 @@ public class UpdateNotifierTest {
 
         subject.sendNotifications(updateRequest, updateContext);
 
-        verifyZeroInteractions(responseFactory, mailGateway);
+        verifyZeroInteractions(responseFactory, mailOutbox);
     }
 
     @Test
@@ -56,7 +65,7 @@ public class UpdateNotifierTest {
 
         subject.sendNotifications(updateRequest, updateContext);
 
-        verifyZeroInteractions(responseFactory, mailGateway);
+        verifyZeroInteractions(responseFactory, mailOutbox);
     }
 
     @Test
@@ -83,8 +92,8 @@ public class UpdateNotifierTest {
 
         subject.sendNotifications(updateRequest, updateContext);
 
-        verify(mailGateway).sendEmail(eq("notify1@me.com"), any(ResponseMessage.class));
-        verify(mailGateway).sendEmail(eq("notify2@me.com"), any(ResponseMessage.class));
+        verify(mailOutbox).add(responseMessagesCaptor.capture());
+        assertThat(responseMessagesCaptor.getValue().keySet(), containsInAnyOrder("notify1@me.com", "notify2@me.com"));
     }
 
     @Test
@@ -111,6 +120,6 @@ public class UpdateNotifierTest {
 
         subject.sendNotifications(updateRequest, updateContext);
 
-        verify(mailGateway, never()).sendEmail("notifies us <mailto:notify@me.com>", responseMessage);
+        verify(mailOutbox, never()).add(anyMapOf(String.class, ResponseMessage.class));
     }
 }
@@ -1,10 +1,17 @@
 package net.ripe.db.whois.update.handler.response;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
 import net.ripe.db.whois.common.DateTimeProvider;
+import net.ripe.db.whois.common.FormatHelper;
+import net.ripe.db.whois.common.domain.Hosts;
 import net.ripe.db.whois.common.rpsl.AttributeType;
 import net.ripe.db.whois.common.rpsl.ObjectMessages;
+import net.ripe.db.whois.common.rpsl.RpslAttribute;
 import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectBuilder;
 import net.ripe.db.whois.update.domain.Ack;
 import net.ripe.db.whois.update.domain.Action;
 import net.ripe.db.whois.update.domain.Notification;
@@ -18,6 +25,11 @@ import net.ripe.db.whois.update.domain.UpdateContext;
 import net.ripe.db.whois.update.domain.UpdateMessages;
 import net.ripe.db.whois.update.domain.UpdateResult;
 import net.ripe.db.whois.update.domain.UpdateStatus;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDateTime;
 import org.junit.Before;
@@ -28,6 +40,8 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 
 import static net.ripe.db.whois.common.support.StringMatchesRegexp.stringMatchesRegexp;
@@ -506,6 +520,127 @@ public class ResponseFactoryTest {
                 "mntner:         DEV-ROOT2-MNT"));
     }
 
+    @Test
+    public void rendering_is_identical_to_line_based_cleanup() throws IOException {
+        final RpslObject rpslObject = RpslObject.parse("" +
+                "route:         194.39.132.0/24\n" +
+                "descr:         Description\n" +
+                "origin:        AS1\n" +
+                "mnt-by:        TEST-MNT\n" +
+                "source:        RIPE\n");
+        final ObjectMessages objectMessages = new ObjectMessages();
+        objectMessages.addMessage(rpslObject.findAttribute(AttributeType.SOURCE), UpdateMessages.unrecognizedSource("RIPE"));
+        updateResults.add(new UpdateResult(rpslObject, rpslObject, Action.MODIFY, UpdateStatus.FAILED, objectMessages, 0, false));
+        updateResults.add(new UpdateResult(rpslObject, rpslObject, Action.CREATE, UpdateStatus.SUCCESS, new ObjectMessages(), 0, false));
+        ignoredParagraphs.add(new Paragraph("  paragraph  \n\n\n  with blank lines  "));
+        final Ack ack = new Ack(updateResults, ignoredParagraphs);
+
+        final RpslObject updatedObject = new RpslObjectBuilder(rpslObject).replaceAttribute(rpslObject.findAttribute(AttributeType.DESCR), new RpslAttribute(AttributeType.DESCR, "Updated")).get();
+        final Update update = new Update(new Paragraph(updatedObject.toString()), Operation.UNSPECIFIED, Lists.<String>newArrayList(), updatedObject);
+        final PreparedUpdate modify = new PreparedUpdate(update, rpslObject, updatedObject, Action.MODIFY);
+        final PreparedUpdate delete = new PreparedUpdate(update, rpslObject, rpslObject, Action.DELETE);
+        final Notification notification = new Notification("notify@me.com");
+        notification.add(Notification.Type.SUCCESS, modify, updateContext);
+        notification.add(Notification.Type.SUCCESS_REFERENCE, delete, updateContext);
+        notification.add(Notification.Type.FAILED_AUTHENTICATION, modify, updateContext);
+        notification.add(Notification.Type.PENDING_UPDATE, modify, updateContext);
+
+        final LineBasedRenderer renderer = new LineBasedRenderer();
+
+        final VelocityContext ackContext = new VelocityContext();
+        ackContext.put("ack", ack);
+        ackContext.put("updateContext", updateContext);
+        assertThat(subject.createAckResponse(updateContext, origin, ack), is(renderer.render("templates/ack.vm", ackContext)));
+
+        assertThat(subject.createExceptionResponse(updateContext, origin), is(renderer.render("templates/exception.vm", new VelocityContext())));
+
+        assertThat(subject.createHelpResponse(updateContext, origin), is(renderer.render("templates/help.vm", new VelocityContext())));
+
+        final VelocityContext notificationContext = new VelocityContext();
+        notificationContext.put("failedAuthentication", notification.getUpdates(Notification.Type.FAILED_AUTHENTICATION));
+        notificationContext.put("success", notification.getUpdates(Notification.Type.SUCCESS));
+        notificationContext.put("successReference", notification.getUpdates(Notification.Type.SUCCESS_REFERENCE));
+        notificationContext.put("pendingUpdate", notification.getUpdates(Notification.Type.PENDING_UPDATE));
+        assertThat(subject.createNotification(updateContext, origin, notification).getMessage(), is(renderer.render("templates/notification.vm", notificationContext)));
+
+        final VelocityContext pendingUpdateTimeoutContext = new VelocityContext();
+        pendingUpdateTimeoutContext.put("object", rpslObject);
+        pendingUpdateTimeoutContext.put("timeout", 7);
+        assertThat(subject.createPendingUpdateTimeout(updateContext, origin, rpslObject, 7).getMessage(), is(renderer.render("templates/pendingUpdateTimeout.vm", pendingUpdateTimeoutContext)));
+    }
+
+    /**
+     * The rendering before templates were parsed once and cleaned up while writing: the template is rendered
+     * into a string, which is then split into lines and cleaned up.
+     */
+    private class LineBasedRenderer {
+        private final VelocityEngine velocityEngine;
+
+        LineBasedRenderer() {
+            velocityEngine = new VelocityEngine();
+            velocityEngine.setProperty(VelocityEngine.RUNTIME_LOG_LOGSYSTEM, new NullLogChute());
+            velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
+            velocityEngine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+            velocityEngine.init();
+        }
+
+        String render(final String templateName, final VelocityContext velocityContext) throws IOException {
+            velocityContext.put("globalMessages", updateContext.printGlobalMessages());
+            velocityContext.put("origin", origin);
+            velocityContext.put("version", "1.2.3");
+            velocityContext.put("hostName", Hosts.getLocalHostName());
+            velocityContext.put("source", "TEST");
+            velocityContext.put("timestamp", FormatHelper.dateTimeToString(dateTimeProvider.getCurrentDateTime()));
+
+            // the notification template rendered the objects themselves, instead of their cached text
+            final String template = Resources.toString(Resources.getResource(templateName), Charsets.UTF_8).replace("ObjectText", "Object");
+
+            final StringWriter writer = new StringWriter();
+            velocityEngine.evaluate(velocityContext, writer, templateName, template);
+            return cleanupResponse(writer.toString());
+        }
+
+        private String cleanupResponse(final String string) {
+            final StringBuilder result = new StringBuilder(string.length());
+
+            boolean literal = false;
+            boolean newline = false;
+            for (String line : Splitter.on('\n').split(string)) {
+                if (line.equals(">>>>>")) {
+                    literal = true;
+                    if (newline) {
+                        result.append('\n');
+                        newline = false;
+                    }
+                    continue;
+                } else if (line.equals("<<<<<")) {
+                    literal = false;
+                    continue;
+                }
+
+                if (literal) {
+                    result.append(line).append('\n');
+                    continue;
+                }
+
+                line = line.trim();
+                if (line.equals("")) {
+                    newline = true;
+                    continue;
+                }
+
+                if (newline && result.length() != 0) {
+                    result.append('\n');
+                }
+
+                newline = false;
+                result.append(line).append('\n');
+            }
+
+            return result.toString();
+        }
+    }
+
     private void assertNotification(final ResponseMessage responseMessage) {
         final String message = responseMessage.getMessage();
         assertThat(message, containsString("" +
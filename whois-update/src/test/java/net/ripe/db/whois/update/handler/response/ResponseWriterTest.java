@@ -0,0 +1,77 @@
+package net.ripe.db.whois.update.handler.response;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ResponseWriterTest {
+
+    @Test
+    public void empty() throws IOException {
+        assertThat(cleanup(""), is(""));
+    }
+
+    @Test
+    public void lines_are_trimmed() throws IOException {
+        assertThat(cleanup("  line 1  \n\tline 2"), is("line 1\nline 2\n"));
+    }
+
+    @Test
+    public void empty_lines_are_collapsed() throws IOException {
+        assertThat(cleanup("\n\n  \nline 1\n\n \n\nline 2\n\n"), is("line 1\n\nline 2\n"));
+    }
+
+    @Test
+    public void literal() throws IOException {
+        assertThat(cleanup("" +
+                "line 1\n" +
+                "\n" +
+                ">>>>>\n" +
+                "  literal  \n" +
+                "\n" +
+                "\n" +
+                "<<<<<\n" +
+                "  line 2\n"),
+                is("" +
+                "line 1\n" +
+                "\n" +
+                "  literal  \n" +
+                "\n" +
+                "\n" +
+                "line 2\n"));
+    }
+
+    @Test
+    public void literal_not_closed() throws IOException {
+        assertThat(cleanup(">>>>>\n literal \n"), is(" literal \n\n"));
+    }
+
+    @Test
+    public void written_in_parts() throws IOException {
+        final ResponseWriter subject = new ResponseWriter();
+        subject.write("  li");
+        subject.write('n');
+        subject.write("e 1\n\n>>>".toCharArray());
+        subject.write(">>\n literal\n<<<<<\nline 2");
+        subject.close();
+
+        assertThat(subject.toString(), is("line 1\n\n literal\nline 2\n"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void write_after_close() throws IOException {
+        final ResponseWriter subject = new ResponseWriter();
+        subject.close();
+        subject.write("line");
+    }
+
+    private static String cleanup(final String text) throws IOException {
+        final ResponseWriter subject = new ResponseWriter();
+        subject.write(text);
+        subject.close();
+        return subject.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package net.ripe.db.whois.update.keycert;
+
+import net.ripe.db.whois.common.rpsl.RpslObject;
+import net.ripe.db.whois.common.rpsl.RpslObjectBuilder;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class KeyWrapperCacheTest {
+    private KeyWrapperCache subject;
+
+    private RpslObject pgpKeycert;
+    private RpslObject anotherPgpKeycert;
+    private RpslObject x509Keycert;
+
+    @Before
+    public void setup() throws Exception {
+        subject = new KeyWrapperCache();
+        pgpKeycert = RpslObject.parse(getResource("keycerts/PGPKEY-A8D16B70.TXT"));
+        anotherPgpKeycert = RpslObject.parse(getResource("keycerts/PGPKEY-28F6CD6C.TXT"));
+        x509Keycert = RpslObject.parse(getResource("keycerts/X509-1.TXT"));
+    }
+
+    @Test
+    public void pgp_key_is_parsed_once() {
+        final PgpPublicKeyWrapper first = subject.getPgpPublicKey(pgpKeycert);
+        final PgpPublicKeyWrapper second = subject.getPgpPublicKey(RpslObject.parse(pgpKeycert.toString()));
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(first.getFingerprint(), is("D079 99F1 92D5 41B6 E7BC  6578 9175 DB8D A8D1 6B70"));
+        assertThat(subject.size(), is(1L));
+    }
+
+    @Test
+    public void x509_certificate_is_parsed_once() {
+        final X509CertificateWrapper first = subject.getX509Certificate(x509Keycert);
+
+        assertThat(subject.getX509Certificate(x509Keycert), is(sameInstance(first)));
+    }
+
+    @Test
+    public void changed_certificate_is_parsed_again() {
+        final PgpPublicKeyWrapper first = subject.getPgpPublicKey(pgpKeycert);
+        final PgpPublicKeyWrapper changed = subject.getPgpPublicKey(new RpslObjectBuilder(anotherPgpKeycert).set(0, pgpKeycert.getTypeAttribute()).get());
+
+        assertThat(changed, is(not(sameInstance(first))));
+        assertThat(changed.getFingerprint(), is(PgpPublicKeyWrapper.parse(anotherPgpKeycert).getFingerprint()));
+        assertThat(subject.size(), is(1L));
+    }
+
+    @Test
+    public void wrong_key_type_is_not_returned() {
+        subject.getX509Certificate(x509Keycert);
+
+        try {
+            subject.getPgpPublicKey(x509Keycert);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("The supplied object has no key"));
+        }
+    }
+
+    private String getResource(final String resourceName) throws IOException {
+        return IOUtils.toString(new ClassPathResource(resourceName).getInputStream());
+    }
+}
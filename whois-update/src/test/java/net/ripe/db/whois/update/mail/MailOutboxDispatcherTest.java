@@ -0,0 +1,204 @@
+package net.ripe.db.whois.update.mail;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.ripe.db.whois.common.source.SourceContext;
+import net.ripe.db.whois.update.dao.MailOutboxDao;
+import net.ripe.db.whois.update.domain.OutboxMail;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MailOutboxDispatcherTest {
+    @Mock MailOutboxDao mailOutboxDao;
+    @Mock MailConfiguration mailConfiguration;
+    @Spy MailSenderFake mailSender = new MailSenderFake();
+    @Mock SourceContext sourceContext;
+    @InjectMocks MailOutboxDispatcher subject;
+
+    @Before
+    public void setUp() throws Exception {
+        ReflectionTestUtils.setField(subject, "retryIntervalSeconds", 10);
+        ReflectionTestUtils.setField(subject, "maxAttempts", 20);
+        ReflectionTestUtils.setField(subject, "retrySending", true);
+    }
+
+    @Test
+    public void deliver_sends_all_mail_for_recipient_at_once() throws Exception {
+        final OutboxMail first = mail(1, "first");
+        final OutboxMail second = mail(2, "second");
+
+        subject.deliver(Lists.newArrayList(first, second));
+
+        assertThat(mailSender.connections, hasSize(1));
+        assertThat(mailSender.connections.get(0), hasSize(2));
+        assertThat(mailSender.connections.get(0).get(0).getSubject(), is("first"));
+        assertThat(mailSender.connections.get(0).get(1).getSubject(), is("second"));
+
+        verify(mailOutboxDao).setSent(first);
+        verify(mailOutboxDao).setSent(second);
+    }
+
+    @Test
+    public void deliver_connection_failure_is_retried() throws Exception {
+        final OutboxMail mail = mail(1, "subject");
+        mailSender.failure = new MailSendException("Mail server connection failed");
+
+        subject.deliver(Lists.newArrayList(mail));
+
+        verify(mailOutboxDao).retry(mail, 10);
+        verify(mailOutboxDao, never()).setSent(mail);
+        verify(mailOutboxDao, never()).setFailed(mail);
+    }
+
+    @Test
+    public void deliver_only_failed_messages_are_retried() throws Exception {
+        final OutboxMail first = mail(1, "first");
+        final OutboxMail second = mail(2, "second");
+        mailSender.rejected.put("second", new MessagingException("421 try again later"));
+
+        subject.deliver(Lists.newArrayList(first, second));
+
+        verify(mailOutboxDao).setSent(first);
+        verify(mailOutboxDao).retry(second, 10);
+    }
+
+    @Test
+    public void deliver_rejected_message_is_not_retried() throws Exception {
+        final OutboxMail mail = mail(1, "subject");
+        mailSender.rejected.put("subject", new SendFailedException("550 rejected: mail rejected for policy reasons"));
+
+        subject.deliver(Lists.newArrayList(mail));
+
+        verify(mailOutboxDao).setFailed(mail);
+        verify(mailOutboxDao, never()).retry(eq(mail), anyInt());
+    }
+
+    @Test
+    public void deliver_gives_up_after_max_attempts() throws Exception {
+        final OutboxMail mail = new OutboxMail(1, "to@ripe.net", message("subject"), 19);
+        mailSender.failure = new MailSendException("Mail server connection failed");
+
+        subject.deliver(Lists.newArrayList(mail));
+
+        verify(mailOutboxDao).setFailed(mail);
+    }
+
+    @Test
+    public void deliver_no_retry_when_retry_disabled() throws Exception {
+        ReflectionTestUtils.setField(subject, "retrySending", false);
+        final OutboxMail mail = mail(1, "subject");
+        mailSender.failure = new MailSendException("Mail server connection failed");
+
+        subject.deliver(Lists.newArrayList(mail));
+
+        verify(mailOutboxDao).setFailed(mail);
+    }
+
+    @Test
+    public void poller_claims_no_more_recipients_than_free_threads() throws Exception {
+        final ExecutorService deliveryExecutor = mock(ExecutorService.class);
+        ReflectionTestUtils.setField(subject, "deliveryExecutor", deliveryExecutor);
+        ((AtomicInteger) ReflectionTestUtils.getField(subject, "freeThreads")).set(2);
+        when(mailOutboxDao.claimRecipients(2)).thenReturn(Lists.newArrayList(
+                new OutboxMail(1, "first@ripe.net", message("first"), 0),
+                new OutboxMail(2, "second@ripe.net", message("second"), 0),
+                new OutboxMail(3, "FIRST@ripe.net", message("third"), 0)));
+
+        subject.new OutboxPoller().run();
+
+        verify(mailOutboxDao).claimRecipients(2);
+        verify(mailOutboxDao, never()).claimRecipients(0);
+        verify(deliveryExecutor, times(2)).execute(any(Runnable.class));
+        assertThat(((AtomicInteger) ReflectionTestUtils.getField(subject, "freeThreads")).get(), is(0));
+    }
+
+    @Test
+    public void retry_interval_backs_off_exponentially() {
+        assertThat(subject.getRetryInterval(1), is(10));
+        assertThat(subject.getRetryInterval(2), is(20));
+        assertThat(subject.getRetryInterval(5), is(160));
+        assertThat(subject.getRetryInterval(9), is(2560));
+        assertThat(subject.getRetryInterval(10), is(3600));
+        assertThat(subject.getRetryInterval(40), is(3600));
+    }
+
+    // helper methods
+
+    static class MailSenderFake extends MailSenderBase {
+        final List<List<MimeMessage>> connections = Lists.newArrayList();
+        final Map<String, Exception> rejected = Maps.newHashMap();
+        MailSendException failure;
+
+        @Override
+        public void send(final MimeMessage... mimeMessages) {
+            if (failure != null) {
+                throw failure;
+            }
+
+            connections.add(Arrays.asList(mimeMessages));
+
+            final Map<Object, Exception> failedMessages = Maps.newLinkedHashMap();
+            for (final MimeMessage mimeMessage : mimeMessages) {
+                try {
+                    if (rejected.containsKey(mimeMessage.getSubject())) {
+                        failedMessages.put(mimeMessage, rejected.get(mimeMessage.getSubject()));
+                    }
+                } catch (MessagingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            if (!failedMessages.isEmpty()) {
+                throw new MailSendException(failedMessages);
+            }
+        }
+    }
+
+    private static OutboxMail mail(final int id, final String subject) throws MessagingException, IOException {
+        return new OutboxMail(id, "to@ripe.net", message(subject), 0);
+    }
+
+    private static byte[] message(final String subject) throws MessagingException, IOException {
+        final MimeMessage mimeMessage = new MimeMessage((Session) null);
+        mimeMessage.setRecipients(Message.RecipientType.TO, "to@ripe.net");
+        mimeMessage.setSubject(subject);
+        mimeMessage.setText("text");
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        mimeMessage.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
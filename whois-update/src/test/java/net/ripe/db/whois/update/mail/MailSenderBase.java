@@ -25,7 +25,7 @@ public abstract class MailSenderBase implements JavaMailSender {
     }
 
     @Override
-    public void send(MimeMessage[] mimeMessages) throws MailException {
+    public void send(MimeMessage... mimeMessages) throws MailException {
         throw new UnsupportedOperationException();
     }
 
@@ -35,7 +35,7 @@ public abstract class MailSenderBase implements JavaMailSender {
     }
 
     @Override
-    public void send(MimeMessagePreparator[] mimeMessagePreparators) throws MailException {
+    public void send(MimeMessagePreparator... mimeMessagePreparators) throws MailException {
         throw new UnsupportedOperationException();
     }
 
@@ -45,7 +45,7 @@ public abstract class MailSenderBase implements JavaMailSender {
     }
 
     @Override
-    public void send(SimpleMailMessage[] simpleMessages) throws MailException {
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
         throw new UnsupportedOperationException();
     }
 }
@@ -5,8 +5,10 @@ import com.google.common.collect.Sets;
 import com.jayway.awaitility.Awaitility;
 import net.ripe.db.whois.common.Stub;
 import net.ripe.db.whois.common.profiles.WhoisProfile;
+import net.ripe.db.whois.update.dao.MailOutboxDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.mail.javamail.MimeMessagePreparator;
 import org.springframework.stereotype.Component;
@@ -30,11 +32,24 @@ public class MailSenderStub extends MailSenderBase implements Stub {
 
     private final Set<MimeMessage> messages = Collections.synchronizedSet(Sets.<MimeMessage>newHashSet());
 
+    @Autowired private MailOutboxDao mailOutboxDao;
+
     @Override
     public void reset() {
+        awaitOutbox();
         messages.clear();
     }
 
+    @Override
+    public void send(final MimeMessage mimeMessage) {
+        messages.add(mimeMessage);
+    }
+
+    @Override
+    public void send(final MimeMessage... mimeMessages) {
+        messages.addAll(Arrays.asList(mimeMessages));
+    }
+
     @Override
     public void send(MimeMessagePreparator mimeMessagePreparator) {
         try {
@@ -92,6 +107,7 @@ public class MailSenderStub extends MailSenderBase implements Stub {
     }
 
     public boolean anyMoreMessages() {
+        awaitOutbox();
         if (!messages.isEmpty()) {
             synchronized (messages) {
                 for (Message message : messages) {
@@ -109,6 +125,7 @@ public class MailSenderStub extends MailSenderBase implements Stub {
     }
 
     public List<Address> getAllRecipients() {
+        awaitOutbox();
         final List<Address> addresses = Lists.newArrayList();
         synchronized (messages) {
             for (Message message : messages) {
@@ -121,4 +138,18 @@ public class MailSenderStub extends MailSenderBase implements Stub {
         }
         return addresses;
     }
+
+    // mail queued by an update is delivered asynchronously, wait until it arrived
+    private void awaitOutbox() {
+        try {
+            Awaitility.await().atMost(10, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return mailOutboxDao.countUndelivered() == 0;
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.warn("Mail outbox not empty: {}", e.getMessage());
+        }
+    }
 }